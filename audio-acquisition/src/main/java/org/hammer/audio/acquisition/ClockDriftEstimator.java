@@ -0,0 +1,102 @@
+package org.hammer.audio.acquisition;
+
+/**
+ * Estimates the true sample rate and start time of one device from host timestamps of its reads.
+ *
+ * <p>Every observation pairs a host timestamp with the number of frames the device had delivered by
+ * then. A least-squares line through these points gives the device's sample rate as measured by the
+ * host clock, so two devices fitted against the same host clock reveal their drift relative to each
+ * other. Older observations are forgotten exponentially with a time constant of {@code
+ * windowObservations}, so the estimate follows slow temperature drift while averaging out read
+ * jitter. Until two distinct observations exist the nominal rate is assumed.
+ *
+ * <p>Not thread-safe; callers synchronize.
+ */
+public final class ClockDriftEstimator {
+
+  private final float nominalSampleRate;
+  private final double decay;
+
+  private long observations;
+  private long originNanos;
+  private double weight;
+  private double meanSeconds;
+  private double meanFrames;
+  private double covSecondsSeconds;
+  private double covSecondsFrames;
+
+  /** Create an estimator for a device running nominally at {@code nominalSampleRate}. */
+  public ClockDriftEstimator(float nominalSampleRate, int windowObservations) {
+    if (!(nominalSampleRate > 0.0f) || Float.isInfinite(nominalSampleRate)) {
+      throw new IllegalArgumentException("nominalSampleRate must be finite and > 0");
+    }
+    if (windowObservations < 2) {
+      throw new IllegalArgumentException("windowObservations must be >= 2");
+    }
+    this.nominalSampleRate = nominalSampleRate;
+    this.decay = 1.0 - 1.0 / windowObservations;
+  }
+
+  /** Record that the device had delivered {@code frames} frames at {@code hostTimestampNanos}. */
+  public void observe(long hostTimestampNanos, long frames) {
+    if (observations == 0) {
+      originNanos = hostTimestampNanos;
+    }
+    observations++;
+    double x = (hostTimestampNanos - originNanos) / 1_000_000_000.0;
+    double y = frames;
+    // Exponentially weighted Welford update: stable however long the stream runs.
+    weight = decay * weight + 1.0;
+    double dx = x - meanSeconds;
+    meanSeconds += dx / weight;
+    meanFrames += (y - meanFrames) / weight;
+    covSecondsSeconds = decay * covSecondsSeconds + dx * (x - meanSeconds);
+    covSecondsFrames = decay * covSecondsFrames + dx * (y - meanFrames);
+  }
+
+  /** Number of observations so far. */
+  public long observations() {
+    return observations;
+  }
+
+  /** Nominal sample rate in Hz. */
+  public float nominalSampleRate() {
+    return nominalSampleRate;
+  }
+
+  /** Estimated sample rate in Hz as measured by the host clock. */
+  public double sampleRate() {
+    if (observations < 2 || !(covSecondsSeconds > 0.0)) {
+      return nominalSampleRate;
+    }
+    return covSecondsFrames / covSecondsSeconds;
+  }
+
+  /** Deviation of the estimated from the nominal sample rate in parts per million. */
+  public double driftPpm() {
+    return (sampleRate() / nominalSampleRate - 1.0) * 1_000_000.0;
+  }
+
+  /** Fractional device frame position at {@code hostTimestampNanos} on the fitted line. */
+  public double framePositionAt(long hostTimestampNanos) {
+    if (observations == 0) {
+      throw new IllegalStateException("no observations yet");
+    }
+    double x = (hostTimestampNanos - originNanos) / 1_000_000_000.0;
+    return meanFrames + sampleRate() * (x - meanSeconds);
+  }
+
+  /** Host timestamp of device frame position {@code frame} on the fitted line. */
+  public long timestampForFrame(double frame) {
+    if (observations == 0) {
+      throw new IllegalStateException("no observations yet");
+    }
+    double x = meanSeconds + (frame - meanFrames) / sampleRate();
+    return originNanos + Math.round(x * 1_000_000_000.0);
+  }
+
+  /** The fitted line as a {@link SampleClock}, rounded to its {@code float} sample rate. */
+  public SampleClock sampleClock() {
+    return new SampleClock((float) sampleRate(), timestampForFrame(0.0));
+  }
+}
@@ -0,0 +1,66 @@
+package org.hammer.audio.acquisition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ClockDriftEstimatorTest {
+
+  private static final float NOMINAL = 48000f;
+
+  @Test
+  void assumes_the_nominal_rate_until_two_observations_exist() {
+    ClockDriftEstimator estimator = new ClockDriftEstimator(NOMINAL, 100);
+    assertThrows(IllegalStateException.class, () -> estimator.framePositionAt(0L));
+
+    estimator.observe(1_000_000_000L, 480);
+    assertEquals(NOMINAL, estimator.sampleRate());
+    assertEquals(0.0, estimator.driftPpm());
+    assertEquals(990_000_000L, estimator.timestampForFrame(0.0));
+  }
+
+  @Test
+  void recovers_drift_and_start_time_from_jittered_reads() {
+    double rate = NOMINAL * (1.0 + 250e-6);
+    long start = 5_000_000_000L;
+    Random jitter = new Random(7);
+    ClockDriftEstimator estimator = new ClockDriftEstimator(NOMINAL, 1000);
+    for (long frames = 256; frames <= 10 * 48000; frames += 256) {
+      long exact = start + Math.round(frames / rate * 1e9);
+      estimator.observe(exact + jitter.nextInt(100_000) - 50_000, frames);
+    }
+
+    assertEquals(250.0, estimator.driftPpm(), 5.0);
+    assertEquals(rate, estimator.sampleRate(), 0.25);
+    long oneSecondIn = start + 1_000_000_000L;
+    assertEquals(rate, estimator.framePositionAt(oneSecondIn), 3.0);
+    assertEquals(start, estimator.timestampForFrame(0.0), 100_000.0);
+    assertEquals(estimator.timestampForFrame(0.0), estimator.sampleClock().startTimestampNanos());
+  }
+
+  @Test
+  void forgets_old_observations_when_the_rate_changes() {
+    ClockDriftEstimator estimator = new ClockDriftEstimator(NOMINAL, 200);
+    long frames = 0;
+    long now = 0;
+    for (int i = 0; i < 2000; i++) {
+      frames += 480;
+      now += 10_000_000L;
+      estimator.observe(now, frames);
+    }
+    assertEquals(0.0, estimator.driftPpm(), 1e-6);
+    for (int i = 0; i < 2000; i++) {
+      frames += 480;
+      now += 9_999_000L; // device now runs 100 ppm fast
+      estimator.observe(now, frames);
+    }
+    assertEquals(100.0, estimator.driftPpm(), 1.0);
+  }
+
+  @Test
+  void rejects_invalid_configuration() {
+    assertThrows(IllegalArgumentException.class, () -> new ClockDriftEstimator(0f, 100));
+    assertThrows(IllegalArgumentException.class, () -> new ClockDriftEstimator(NOMINAL, 1));
+  }
+}
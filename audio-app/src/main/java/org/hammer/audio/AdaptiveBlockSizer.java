@@ -0,0 +1,161 @@
+package org.hammer.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.hammer.audio.buffer.RingBufferStats;
+
+/**
+ * Feedback controller behind {@link AudioCaptureServiceImpl#enableAdaptiveBlockSizing}: turns
+ * ring-buffer statistics and consumer processing times into the next capture read size.
+ *
+ * <p>Each evaluation looks only at what happened since the previous one:
+ *
+ * <ul>
+ *   <li>the 95th percentile of capture-to-dequeue latency, from the difference of two {@link
+ *       RingBufferStats#latencyHistogram() latency histograms}
+ *   <li>blocks dropped on overflow and the current occupancy
+ *   <li>the longest per-block processing time consumers reported via {@link
+ *       #recordProcessingNanos(long)}
+ * </ul>
+ *
+ * <p>A consumer that falls behind (drops, a more than half-full ring, or blocks that take longer to
+ * process than to capture) doubles the block size so per-block overhead is amortized over more
+ * frames. Otherwise the estimate {@code blockDuration + queueLatency + processing} is compared with
+ * the target: above the dead band the block size halves, and it doubles while the doubled block
+ * stays below the dead band. Windows without any dequeue are treated as "no ring consumer" and
+ * judged on block duration and processing time alone, so drops nobody would have read do not
+ * inflate the block.
+ *
+ * <p>Thread-safety: {@link #recordProcessingNanos(long)} may be called from any thread; all other
+ * methods belong to the capture thread.
+ *
+ * @author refactoring
+ */
+final class AdaptiveBlockSizer {
+
+  /** Minimum time between two evaluations, so each one sees a statistically useful window. */
+  static final long EVALUATION_INTERVAL_NANOS = 250_000_000L;
+
+  /** Minimum blocks between two evaluations. */
+  static final int MIN_BLOCKS_PER_EVALUATION = 4;
+
+  private static final double QUEUE_PERCENTILE = 95.0;
+
+  private final AdaptiveBlockSizing sizing;
+  private final double nanosPerFrame;
+  private final AtomicLong maxProcessingNanos = new AtomicLong();
+
+  /** Counters at the end of the previous window; {@code null} before the first evaluation. */
+  private long[] previousHistogram;
+
+  private long previousDropped;
+  private long lastEvaluationNanos;
+  private int blocksSinceEvaluation;
+
+  /**
+   * @param sizing latency target and bounds
+   * @param sampleRate capture sample rate in Hz
+   * @param nowNanos current {@link System#nanoTime()}; starts the first evaluation window
+   */
+  AdaptiveBlockSizer(AdaptiveBlockSizing sizing, float sampleRate, long nowNanos) {
+    this.sizing = sizing;
+    this.nanosPerFrame = 1_000_000_000.0 / sampleRate;
+    this.lastEvaluationNanos = nowNanos;
+  }
+
+  /**
+   * @return the configuration this controller steers towards
+   */
+  AdaptiveBlockSizing sizing() {
+    return sizing;
+  }
+
+  /**
+   * Report how long a consumer took to process one block. Only the maximum per evaluation window is
+   * kept.
+   *
+   * @param nanos processing time in nanoseconds
+   */
+  void recordProcessingNanos(long nanos) {
+    maxProcessingNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * Count one published block and report whether an evaluation is due.
+   *
+   * @param nowNanos current {@link System#nanoTime()}
+   * @return {@code true} if {@link #evaluate} should run now
+   */
+  boolean onBlockPublished(long nowNanos) {
+    blocksSinceEvaluation++;
+    return blocksSinceEvaluation >= MIN_BLOCKS_PER_EVALUATION
+        && nowNanos - lastEvaluationNanos >= EVALUATION_INTERVAL_NANOS;
+  }
+
+  /**
+   * Close the current window and decide the next read size.
+   *
+   * @param frames current read size in frames
+   * @param stats ring-buffer statistics taken now
+   * @param nowNanos current {@link System#nanoTime()}
+   * @return the read size for the next window, within the configured bounds
+   */
+  int evaluate(int frames, RingBufferStats stats, long nowNanos) {
+    long[] histogram = stats.latencyHistogram();
+    long[] baseline = previousHistogram;
+    long drops = stats.dropped() - previousDropped;
+    previousHistogram = histogram;
+    previousDropped = stats.dropped();
+    lastEvaluationNanos = nowNanos;
+    blocksSinceEvaluation = 0;
+    long processing = maxProcessingNanos.getAndSet(0L);
+    if (baseline == null) {
+      // First window: the counters still include everything before sizing was enabled.
+      return sizing.clamp(frames);
+    }
+    long[] window = new long[histogram.length];
+    long dequeues = 0;
+    for (int i = 0; i < histogram.length; i++) {
+      window[i] = histogram[i] - baseline[i];
+      dequeues += window[i];
+    }
+
+    boolean ringConsumer = dequeues > 0;
+    double blockNanos = frames * nanosPerFrame;
+    double queueNanos = ringConsumer ? percentileNanos(window, dequeues, QUEUE_PERCENTILE) : 0.0;
+    boolean behind =
+        processing > blockNanos
+            || (ringConsumer && (drops > 0 || stats.size() * 2 > stats.capacity()));
+
+    int next = frames;
+    if (behind) {
+      next = doubled(frames);
+    } else {
+      double target = sizing.targetLatencyNanos();
+      double estimate = blockNanos + queueNanos + processing;
+      if (estimate > target * (1.0 + sizing.hysteresis())) {
+        next = frames / 2;
+      } else if (2.0 * (blockNanos + processing) + queueNanos
+          < target * (1.0 - sizing.hysteresis())) {
+        next = doubled(frames);
+      }
+    }
+    return sizing.clamp(next);
+  }
+
+  private static int doubled(int frames) {
+    return (int) Math.min(Integer.MAX_VALUE, 2L * frames);
+  }
+
+  /** Percentile of a power-of-two latency histogram, taking each bucket's geometric midpoint. */
+  private static double percentileNanos(long[] buckets, long samples, double percentile) {
+    long rank = Math.max(1L, (long) Math.ceil(samples * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return Math.scalb(Math.sqrt(2.0), i);
+      }
+    }
+    return Math.scalb(1.0, buckets.length);
+  }
+}
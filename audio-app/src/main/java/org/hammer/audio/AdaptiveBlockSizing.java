@@ -0,0 +1,67 @@
+package org.hammer.audio;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the adaptive capture block size of {@link AudioCaptureServiceImpl}.
+ *
+ * <p>The service aims for an end-to-end latency of {@code targetLatencyNanos}, measured as the time
+ * to fill one block plus its ring-buffer queueing delay plus the consumer's per-block processing
+ * time. The read size doubles or halves between {@code minFrames} and {@code maxFrames}; it only
+ * shrinks once the latency exceeds the target by the {@code hysteresis} fraction, and only grows
+ * while the grown block would still stay that fraction below the target, so it settles instead of
+ * oscillating around the target.
+ *
+ * @param targetLatencyNanos end-to-end latency target in nanoseconds; must be {@code > 0}
+ * @param minFrames smallest read size in frames; must be {@code >= 1}
+ * @param maxFrames largest read size in frames; must be {@code >= minFrames}
+ * @param hysteresis dead band as a fraction of the target, in {@code [0, 1)}
+ * @author refactoring
+ */
+public record AdaptiveBlockSizing(
+    long targetLatencyNanos, int minFrames, int maxFrames, double hysteresis) {
+
+  /** Dead band used by {@link #of(long, TimeUnit, int, int)}. */
+  public static final double DEFAULT_HYSTERESIS = 0.25;
+
+  /** Validate the bounds. */
+  public AdaptiveBlockSizing {
+    if (targetLatencyNanos <= 0) {
+      throw new IllegalArgumentException(
+          "targetLatencyNanos must be > 0, was " + targetLatencyNanos);
+    }
+    if (minFrames < 1 || maxFrames < minFrames) {
+      throw new IllegalArgumentException(
+          "frame bounds must satisfy 1 <= minFrames <= maxFrames, were "
+              + minFrames
+              + ".."
+              + maxFrames);
+    }
+    if (!(hysteresis >= 0.0 && hysteresis < 1.0)) {
+      throw new IllegalArgumentException("hysteresis must be in [0, 1), was " + hysteresis);
+    }
+  }
+
+  /**
+   * Sizing with the {@link #DEFAULT_HYSTERESIS default dead band}.
+   *
+   * @param targetLatency end-to-end latency target; must be {@code > 0}
+   * @param unit unit of {@code targetLatency}
+   * @param minFrames smallest read size in frames
+   * @param maxFrames largest read size in frames
+   * @return the configuration
+   */
+  public static AdaptiveBlockSizing of(
+      long targetLatency, TimeUnit unit, int minFrames, int maxFrames) {
+    return new AdaptiveBlockSizing(
+        unit.toNanos(targetLatency), minFrames, maxFrames, DEFAULT_HYSTERESIS);
+  }
+
+  /**
+   * @param frames a read size
+   * @return {@code frames} clamped to {@code [minFrames, maxFrames]}
+   */
+  public int clamp(int frames) {
+    return Math.max(minFrames, Math.min(maxFrames, frames));
+  }
+}
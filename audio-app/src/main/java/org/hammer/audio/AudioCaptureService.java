@@ -2,6 +2,7 @@ package org.hammer.audio;
 
 import javax.sound.sampled.AudioFormat;
 import org.hammer.audio.buffer.AudioRingBuffer;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
 
@@ -100,7 +101,8 @@ public interface AudioCaptureService {
 
   /**
    * @return the most recently captured {@link AudioBlock}, or {@code null} if no audio has been
-   *     captured yet. The returned block is immutable and safe to share.
+   *     captured yet. The returned block is immutable and safe to share; it is never pooled, so the
+   *     caller neither retains nor releases it.
    */
   default AudioBlock getLatestBlock() {
     return null;
@@ -109,9 +111,41 @@ public interface AudioCaptureService {
   /**
    * @return the producer/consumer ring buffer fed by the capture thread, or {@code null} if the
    *     service has not been started yet. Downstream DSP and analysis modules consume blocks from
-   *     this buffer.
+   *     this buffer; its {@link AudioRingBuffer#stats()} report overruns caused by slow consumers.
+   *     Capture services use {@link org.hammer.audio.buffer.OverflowPolicy#DROP_OLDEST}, so a
+   *     consumer that falls behind loses the oldest blocks and resumes at the freshest audio.
    */
   default AudioRingBuffer<AudioBlock> getRingBuffer() {
     return null;
   }
+
+  /**
+   * @return the broadcast ring buffer fed by the capture thread, or {@code null} if the service
+   *     does not offer one. Unlike {@link #getRingBuffer()}, every registered subscriber sees every
+   *     published block, so several consumers (recorder, spectrogram, diagnosis, ...) can follow
+   *     the stream without skipping blocks. Each subscriber must {@link AudioBlock#release()} every
+   *     block it polls. Live services publish without waiting, so a subscriber that falls a full
+   *     ring behind loses its own oldest blocks (see {@link
+   *     BroadcastRingBuffer.Subscriber#missed()}) while the others keep receiving every block.
+   */
+  default BroadcastRingBuffer<AudioBlock> getBroadcastBuffer() {
+    return null;
+  }
+
+  /**
+   * Report how long a downstream consumer took to process one published block, e.g. measured around
+   * its write or analysis of the block. Services that adapt their block size to their consumers use
+   * it; the default ignores it. Safe to call from any thread.
+   *
+   * @param nanos processing time of one block in nanoseconds
+   */
+  default void recordConsumerProcessingNanos(long nanos) {}
+
+  /**
+   * @return overrun, frame-loss and read/decode timing counters of the current capture session, or
+   *     {@code null} if the service does not monitor an input device
+   */
+  default CaptureHealth getCaptureHealth() {
+    return null;
+  }
 }
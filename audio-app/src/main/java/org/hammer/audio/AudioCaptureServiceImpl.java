@@ -1,5 +1,6 @@
 package org.hammer.audio;
 
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -10,10 +11,13 @@ import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.Mixer;
 import javax.sound.sampled.TargetDataLine;
 import org.hammer.audio.buffer.AudioRingBuffer;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
+import org.hammer.audio.buffer.OverflowPolicy;
+import org.hammer.audio.buffer.WaitStrategy;
 import org.hammer.audio.capture.SampleDecoder;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
 import org.hammer.audio.core.AudioFormatDescriptor;
-import org.hammer.audio.snapshot.WaveformSnapshot;
 import org.hammer.audio.ui.WaveformRenderer;
 
 /**
@@ -25,17 +29,48 @@ import org.hammer.audio.ui.WaveformRenderer;
  * <pre>{@code
  * TargetDataLine
  *   -> raw bytes
- *   -> SampleDecoder (-> normalized float[][])
+ *   -> SampleDecoder (-> normalized float[][], decoded in place into the block's storage)
  *   -> AudioBlock (immutable, with frame index + timestamp)
  *   -> AudioRingBuffer<AudioBlock>  (lock-free SPSC; downstream DSP/analysis polls asynchronously)
+ *   -> BroadcastRingBuffer<AudioBlock> (every subscriber sees every block: recorder, analyzers, ...)
  *   -> latestBlock (volatile, for "give me the latest" UI consumers)
- *   -> WaveformModel (legacy compatibility view, built via WaveformRenderer)
+ *   -> WaveformModel (legacy compatibility view, rendered lazily via WaveformRenderer)
  * }</pre>
  *
  * <p>The capture loop knows nothing about pixels, panel coordinates or Swing — pixel scaling has
  * moved into {@link WaveformRenderer}. The legacy {@link WaveformModel} is still produced for
  * existing UI consumers and tests; it is now derived from the same {@link AudioBlock} the rest of
- * the platform sees.
+ * the platform sees, and only when {@link #getLatestModel()} asks for it, never on the capture
+ * thread.
+ *
+ * <p><strong>Pooled capture</strong> (opt-in via {@link #setBlockPool(AudioBlockPool)}): block
+ * storage is recycled instead of allocated per read. Each published block then holds one reference
+ * for the ring-buffer consumer, which must {@link AudioBlock#release()} it after processing. The
+ * {@link #getBroadcastBuffer()} takes one more reference for every subscriber it publishes a block
+ * to; the subscriber releases it after handling the block, and the buffer itself releases it for a
+ * subscriber that is lapped or closes before reading it. "Latest" readers, including the {@link
+ * #getLatestModel()} waveform rendered on the EDT, hold no reference, so the {@link
+ * #getLatestBlock()} slot receives an unpooled copy of each block whose storage is never recycled.
+ * Without a pool every block is freshly allocated and never recycled, and the slot shares it.
+ *
+ * <p><strong>Adaptive block size</strong> (opt-in via {@link
+ * #enableAdaptiveBlockSizing(AdaptiveBlockSizing)}): instead of deriving the read size from the
+ * divisor, the capture thread periodically compares ring-buffer queue latency, occupancy, drops and
+ * the processing times consumers such as the {@link RecordingTap} report through {@link
+ * #recordConsumerProcessingNanos(long)} with an end-to-end latency target, and doubles or halves
+ * the read size within the configured bounds. The divisor is remembered and applies again once
+ * adaptive sizing is disabled.
+ *
+ * <p><strong>Channel selection</strong> (via {@link #selectChannels(int...)} while stopped): only
+ * the listed line channels are decoded, in the listed order, and published blocks carry just those
+ * channels. {@link #getFormat()} still describes the full line; {@link #getDescriptor()} describes
+ * the published blocks.
+ *
+ * <p><strong>Capture health</strong>: before every read the capture thread samples the device
+ * buffer fill and frame position, counting overruns (reads that find the buffer full) and frames
+ * the device captured but that never reached a read. Lost frames are skipped in the published frame
+ * indices. Read and decode durations are timed per block; {@link #getCaptureHealth()} returns the
+ * counters of the current session.
  *
  * <p>Thread-safety: all public methods are thread-safe. The capture worker thread is the sole
  * producer for the ring buffer; downstream DSP/analysis threads are the consumers.
@@ -57,7 +92,6 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
 
   private final AtomicBoolean running = new AtomicBoolean(false);
 
-  private volatile WaveformModel latestModel;
   private volatile AudioBlock latestBlock;
 
   // Audio configuration
@@ -66,14 +100,17 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
   private final int channels;
   private final boolean signed;
   private final boolean bigEndian;
-  private final AudioFormatDescriptor descriptor;
-  private final SampleDecoder decoder;
+  private volatile AudioFormatDescriptor descriptor;
+  private volatile SampleDecoder decoder;
   private final AudioRingBuffer<AudioBlock> ringBuffer;
+  private final BroadcastRingBuffer<AudioBlock> broadcastBuffer;
+  private volatile AudioBlockPool blockPool;
+  private volatile AdaptiveBlockSizer adaptiveSizer;
+  private volatile CaptureHealthMonitor health;
+  private final LazyWaveformModel legacyModel;
 
   // Capture state
   private volatile int divisor;
-  private volatile int panelWidth;
-  private volatile int panelHeight;
 
   private TargetDataLine line;
   private AudioFormat format;
@@ -160,12 +197,25 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
     this.bigEndian = bigEndian;
     this.divisor = Math.max(1, divisor);
     this.tickEveryNSample = (int) (TICK_SECONDS * sampleRate);
-    this.panelWidth = 640;
-    this.panelHeight = 200;
     this.lineProvider = lineProvider;
     this.descriptor = new AudioFormatDescriptor(sampleRate, this.channels, sampleSizeInBits);
     this.decoder = new SampleDecoder(descriptor, signed, bigEndian);
-    this.ringBuffer = new AudioRingBuffer<>(RING_BUFFER_CAPACITY);
+    // Live consumers want the freshest audio: evict the oldest block on overflow and hand it
+    // back to the pool.
+    this.ringBuffer =
+        new AudioRingBuffer<>(
+            RING_BUFFER_CAPACITY, WaitStrategy.parking(), OverflowPolicy.DROP_OLDEST);
+    this.ringBuffer.onDiscard(AudioBlock::release);
+    // Overruns, occupancy and capture-to-dequeue latency, see getRingBuffer().stats().
+    this.ringBuffer.enableInstrumentation(AudioBlock::timestampNanos);
+    this.broadcastBuffer = new BroadcastRingBuffer<>(RING_BUFFER_CAPACITY);
+    this.broadcastBuffer.trackReferences(AudioBlock::retain, AudioBlock::release);
+    this.health = new CaptureHealthMonitor(decoder.frameSize());
+    // Derived from the block, not the current read size: the model is rendered lazily, possibly
+    // after a divisor change or adaptive resize. The line frame size survives channel selection.
+    int lineFrameSize = decoder.frameSize();
+    this.legacyModel =
+        new LazyWaveformModel(tickEveryNSample, block -> block.frames() * lineFrameSize);
   }
 
   @Override
@@ -177,6 +227,8 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
     try {
       initializeAudioLine();
       computeDataSize();
+      // A reopened line restarts its frame position, so every session gets fresh counters.
+      health = new CaptureHealthMonitor(decoder.frameSize());
       running.set(true);
       workerExecutor =
           Executors.newSingleThreadExecutor(
@@ -231,11 +283,7 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
 
   @Override
   public WaveformModel getLatestModel() {
-    WaveformModel cached = latestModel;
-    if (cached != null) {
-      return cached;
-    }
-    return WaveformModel.EMPTY;
+    return legacyModel.modelFor(latestBlock);
   }
 
   @Override
@@ -258,17 +306,129 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
     return ringBuffer;
   }
 
+  @Override
+  public BroadcastRingBuffer<AudioBlock> getBroadcastBuffer() {
+    return broadcastBuffer;
+  }
+
+  @Override
+  public CaptureHealth getCaptureHealth() {
+    return health.snapshot();
+  }
+
   @Override
   public void setDivisor(int divisor) {
     if (divisor < 1) {
       throw new IllegalArgumentException("Divisor must be >= 1");
     }
     this.divisor = divisor;
+    if (line != null && adaptiveSizer == null) {
+      computeDataSize();
+    }
+  }
+
+  /**
+   * Let the capture thread choose the read size to meet a latency target (see the class
+   * documentation). Replaces any previous adaptive configuration; the current read size is clamped
+   * into the new bounds immediately.
+   *
+   * @param sizing latency target and frame bounds; must not be {@code null}
+   */
+  public void enableAdaptiveBlockSizing(AdaptiveBlockSizing sizing) {
+    Objects.requireNonNull(sizing, "sizing");
+    adaptiveSizer = new AdaptiveBlockSizer(sizing, sampleRate, System.nanoTime());
+    if (line != null) {
+      applyReadSize(sizing.clamp(numberOfPoints));
+    }
+  }
+
+  /** Return to the divisor-derived read size. No-op if adaptive sizing is not enabled. */
+  public void disableAdaptiveBlockSizing() {
+    if (adaptiveSizer == null) {
+      return;
+    }
+    adaptiveSizer = null;
     if (line != null) {
       computeDataSize();
     }
   }
 
+  /**
+   * @return the active adaptive configuration, or {@code null} if the divisor sets the read size
+   */
+  public AdaptiveBlockSizing getAdaptiveBlockSizing() {
+    AdaptiveBlockSizer sizer = adaptiveSizer;
+    return sizer != null ? sizer.sizing() : null;
+  }
+
+  /** Feeds adaptive block sizing; ignored when it is disabled. */
+  @Override
+  public void recordConsumerProcessingNanos(long nanos) {
+    AdaptiveBlockSizer sizer = adaptiveSizer;
+    if (sizer != null) {
+      sizer.recordProcessingNanos(nanos);
+    }
+  }
+
+  /**
+   * @return the number of frames per capture read currently in effect
+   */
+  public int getFramesPerBlock() {
+    return numberOfPoints;
+  }
+
+  /**
+   * Decode and publish only some of the line's channels. Block channel {@code k} carries line
+   * channel {@code sourceChannels[k]}; the other channels are skipped while decoding, so decode
+   * time, block memory and recording size scale with the selection.
+   *
+   * @param sourceChannels line channels to keep, in block order; empty to publish every channel
+   * @throws IllegalArgumentException if a channel index is outside the line's channels
+   * @throws IllegalStateException if capture is running, or if a block pool is set whose format
+   *     does not match the new selection (select channels first, then set the pool)
+   */
+  public void selectChannels(int... sourceChannels) {
+    if (running.get()) {
+      throw new IllegalStateException("channels can only be selected while capture is stopped");
+    }
+    SampleDecoder all =
+        new SampleDecoder(
+            new AudioFormatDescriptor(sampleRate, channels, sampleSizeInBits), signed, bigEndian);
+    SampleDecoder selected = sourceChannels.length == 0 ? all : all.withChannelMap(sourceChannels);
+    AudioBlockPool pool = blockPool;
+    if (pool != null && !pool.format().equals(selected.descriptor())) {
+      throw new IllegalStateException(
+          "block pool format " + pool.format() + " does not match " + selected.descriptor());
+    }
+    decoder = selected;
+    descriptor = selected.descriptor();
+  }
+
+  /**
+   * @return the line channel published in each block channel; the identity unless {@link
+   *     #selectChannels(int...)} chose a subset
+   */
+  public int[] getChannelMap() {
+    return decoder.channelMap();
+  }
+
+  /**
+   * Recycle published block storage through {@code pool} instead of allocating a fresh array per
+   * read. Ring-buffer consumers and broadcast subscribers must then release every block they take;
+   * {@link #getLatestBlock()} keeps returning immutable blocks (see the class documentation).
+   *
+   * @param pool pool whose format equals {@link #getDescriptor()}, or {@code null} to allocate per
+   *     block
+   * @throws IllegalArgumentException if the pool format differs from the capture format
+   */
+  public void setBlockPool(AudioBlockPool pool) {
+    if (pool != null && !descriptor.equals(pool.format())) {
+      throw new IllegalArgumentException(
+          "pool format " + pool.format() + " does not match capture format " + descriptor);
+    }
+    this.blockPool = pool;
+  }
+
   @Override
   public int getDivisor() {
     return divisor;
@@ -276,14 +436,9 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
 
   @Override
   public void recomputeLayout(int width, int height) {
-    this.panelWidth = width;
-    this.panelHeight = height;
-    // Re-render the latest block under the new layout so resized panels see fresh pixel
-    // coordinates immediately, even before the next capture cycle.
-    AudioBlock cached = latestBlock;
-    if (cached != null) {
-      latestModel = buildLegacyModel(cached);
-    }
+    // The next getLatestModel() re-renders the latest block under the new layout, so resized
+    // panels see fresh pixel coordinates immediately, even before the next capture cycle.
+    legacyModel.layout(width, height);
   }
 
   /** Initialize and open the audio line. */
@@ -307,6 +462,19 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
     numberOfPoints = points;
     datas = new byte[datasize];
     LOGGER.fine(String.format("Computed data size: %d, points: %d", datasize, points));
+    AdaptiveBlockSizer sizer = adaptiveSizer;
+    if (sizer != null) {
+      // Adaptive sizing starts from the divisor's choice, within its bounds.
+      applyReadSize(sizer.sizing().clamp(points));
+    }
+  }
+
+  /** Switch to reads of exactly {@code frames} frames. */
+  private void applyReadSize(int frames) {
+    datasize = frames * decoder.frameSize();
+    numberOfPoints = frames;
+    datas = new byte[datasize];
+    LOGGER.fine(String.format("Adaptive read size: %d frames", frames));
   }
 
   /** Main capture loop running in worker thread. */
@@ -317,58 +485,88 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
     }
     line.start();
 
+    CaptureHealthMonitor monitor = health;
+    // Channel selection only changes while stopped.
+    SampleDecoder decoder = this.decoder;
+    AudioFormatDescriptor descriptor = this.descriptor;
+    int blockChannels = descriptor.channels();
+    int bufferBytes = line.getBufferSize();
     long frameIndex = 0L;
-    int allocatedFrames = numberOfPoints;
-    float[][] decodeBuffer = new float[channels][allocatedFrames];
 
     while (running.get() && !Thread.currentThread().isInterrupted()) {
       try {
         byte[] localData = datas;
+        int currentPoints = numberOfPoints;
+        int available = line.available();
+        long lost =
+            monitor.beforeRead(available, bufferBytes, line.getLongFramePosition(), currentPoints);
+        if (lost > 0) {
+          // Keep frame indices honest: the next block starts after the frames the device dropped.
+          frameIndex += lost;
+          LOGGER.log(
+              monitor.snapshot().discontinuities() == 1 ? Level.WARNING : Level.FINE,
+              "Capture overrun: {0} frames lost before frame {1}",
+              new Object[] {lost, frameIndex});
+        }
+        long readStart = System.nanoTime();
         final int numBytesRead = line.read(localData, 0, localData.length);
+        long readEnd = System.nanoTime();
         if (numBytesRead <= 0) {
           continue;
         }
-        int currentPoints = numberOfPoints;
-        if (allocatedFrames < currentPoints) {
-          allocatedFrames = currentPoints;
-          decodeBuffer = new float[channels][allocatedFrames];
-        }
-
-        final int decodedFrames = Math.min(currentPoints, decoder.framesIn(numBytesRead));
-        if (decodedFrames <= 0) {
+        if (decoder.framesIn(numBytesRead) <= 0) {
           continue;
         }
-        decoder.decode(localData, decodedFrames * decoder.frameSize(), decodeBuffer);
-        // Zero-pad the tail so block.frames() always equals the configured buffer size; this
-        // preserves the legacy semantics where the model's numberOfPoints reflects the configured
-        // buffer (driven by the divisor) rather than the partial bytes read in this iteration.
-        for (int c = 0; c < channels; c++) {
-          for (int i = decodedFrames; i < currentPoints; i++) {
-            decodeBuffer[c][i] = 0f;
-          }
-        }
 
-        // Build a fresh, exactly-sized float[channels][currentPoints] for the immutable block.
-        float[][] blockSamples = new float[channels][currentPoints];
-        for (int c = 0; c < channels; c++) {
-          System.arraycopy(decodeBuffer[c], 0, blockSamples[c], 0, currentPoints);
-        }
-        AudioBlock block = AudioBlock.wrap(descriptor, blockSamples, frameIndex, System.nanoTime());
+        // Exactly-sized float[blockChannels][currentPoints] for the immutable block: recycled from
+        // the pool when one is configured, freshly allocated otherwise. The decoder writes straight
+        // into it and zero-pads the tail in the same pass, so block.frames() always equals the
+        // configured buffer size; this preserves the legacy semantics where the model's
+        // numberOfPoints reflects the configured buffer (driven by the divisor) rather than the
+        // partial bytes read in this iteration.
+        AudioBlockPool pool = blockPool;
+        float[][] blockSamples =
+            pool != null
+                ? pool.acquireSamples(currentPoints)
+                : new float[blockChannels][currentPoints];
+        final int decodedFrames =
+            decoder.decodePadded(localData, numBytesRead, blockSamples, currentPoints);
+        long timestamp = System.nanoTime();
+        monitor.afterBlock(numBytesRead, readEnd - readStart, timestamp - readEnd);
+        AudioBlock block =
+            pool != null
+                ? pool.wrap(blockSamples, frameIndex, timestamp)
+                : AudioBlock.wrap(descriptor, blockSamples, frameIndex, timestamp);
         frameIndex += decodedFrames;
-
-        // Publish to ring buffer (plain offer + drop-on-full). The capture thread is the sole
-        // producer; downstream DSP/analysis consumers may run on other threads, so we cannot
-        // safely use offerOverwrite here (see AudioRingBuffer.offerOverwrite Javadoc). The
-        // "latest wins" path is served by the volatile latestBlock pointer below, so dropping
-        // the new block on overflow is preferable to corrupting the consumer's view.
+        // The initial reference belongs to the ring-buffer consumer, which may release it at once;
+        // hold a second one until the block is published and copied below. Both calls are no-ops
+        // for unpooled blocks.
+        block.retain();
+
+        // Publish to the ring buffer. It drops the oldest block on overflow (releasing it via
+        // the discard handler), which is safe with a consumer on another thread; drops are
+        // counted and surface in getRingBuffer().stats().
         ringBuffer.offer(block);
-
-        // Cache "latest" view for cheap polling consumers (UI, REST).
-        latestBlock = block;
-
-        // Build the legacy WaveformModel for backwards-compatible Swing rendering.
-        latestModel = buildLegacyModel(block);
-
+        // Never rejects: a subscriber a full ring behind loses its oldest block, counted by its
+        // missed(), without withholding this one from the others.
+        broadcastBuffer.publish(block);
+
+        // Cache "latest" view for cheap polling consumers (UI, REST). They hold no reference, so
+        // a pooled block is cached as a copy whose storage is never recycled under them.
+        latestBlock =
+            block.isPooled()
+                ? AudioBlock.wrap(
+                    block.format(), block.samples(), block.frameIndex(), block.timestampNanos())
+                : block;
+        block.release();
+
+        AdaptiveBlockSizer sizer = adaptiveSizer;
+        if (sizer != null && sizer.onBlockPublished(timestamp)) {
+          int next = sizer.evaluate(currentPoints, ringBuffer.stats(), timestamp);
+          if (next != currentPoints) {
+            applyReadSize(next);
+          }
+        }
       } catch (Exception ex) {
         if (running.get()) {
           LOGGER.log(Level.SEVERE, "Error during audio capture loop", ex);
@@ -377,26 +575,4 @@ public class AudioCaptureServiceImpl implements AudioCaptureService {
     }
     LOGGER.fine("Capture loop ended");
   }
-
-  /** Build a legacy {@link WaveformModel} from a new {@link AudioBlock}. */
-  private WaveformModel buildLegacyModel(AudioBlock block) {
-    WaveformSnapshot snap =
-        WaveformSnapshot.wrap(
-            block.samples(),
-            block.format().sampleRate(),
-            block.frameIndex(),
-            block.timestampNanos());
-    int[] xPoints = WaveformRenderer.computeXPoints(snap.frames(), panelWidth);
-    // Swing panels can transiently report height==0 before they are laid out; in that case we
-    // emit empty per-channel arrays rather than asking WaveformRenderer to throw, since this is
-    // a legitimate "nothing to draw yet" state, not a programming error.
-    int h = panelHeight;
-    int[][] yPoints;
-    if (h <= 0) {
-      yPoints = new int[snap.channels()][0];
-    } else {
-      yPoints = WaveformRenderer.computeYPointsAllChannels(snap, h);
-    }
-    return new WaveformModel(xPoints, yPoints, tickEveryNSample, datasize);
-  }
 }
@@ -0,0 +1,70 @@
+package org.hammer.audio;
+
+/**
+ * Snapshot of how well capture keeps up with the input device, taken with {@link
+ * AudioCaptureService#getCaptureHealth()}.
+ *
+ * <p>An <em>overrun</em> is a read that found the device buffer full: the driver has nowhere to put
+ * new frames and drops them until the read drains it. A <em>discontinuity</em> is a gap between the
+ * frames the device reports as captured and the frames that were read or are still buffered; the
+ * missing frames are counted in {@code lostFrames} and skipped in the published {@link
+ * org.hammer.audio.core.AudioBlock#frameIndex() frame indices}, so downstream consumers see the gap
+ * instead of silently spliced audio. Lines that do not report a frame position never produce
+ * discontinuities.
+ *
+ * <p>Read time includes waiting for the device, so it normally approaches the block duration; reads
+ * much faster than that while the buffer stays full mean capture is running behind. Decode time is
+ * pure CPU cost per block.
+ *
+ * <p>The counters are written by the capture thread one at a time, so a snapshot taken while
+ * capture runs may combine values of two consecutive blocks.
+ *
+ * @param blocks reads recorded since capture started
+ * @param overruns reads that started with a full device buffer
+ * @param discontinuities detected gaps in the captured frame sequence
+ * @param lostFrames frames missing across all discontinuities
+ * @param bufferFill device buffer fill before the latest read, in {@code [0, 1]}
+ * @param peakBufferFill highest {@code bufferFill} seen so far
+ * @param lastReadNanos duration of the latest device read
+ * @param maxReadNanos longest device read
+ * @param totalReadNanos sum of all device reads
+ * @param lastDecodeNanos duration of the latest decode into the block
+ * @param maxDecodeNanos longest decode
+ * @param totalDecodeNanos sum of all decodes
+ * @author refactoring
+ */
+public record CaptureHealth(
+    long blocks,
+    long overruns,
+    long discontinuities,
+    long lostFrames,
+    double bufferFill,
+    double peakBufferFill,
+    long lastReadNanos,
+    long maxReadNanos,
+    long totalReadNanos,
+    long lastDecodeNanos,
+    long maxDecodeNanos,
+    long totalDecodeNanos) {
+
+  /**
+   * @return mean device read duration in nanoseconds, or {@code 0} before the first block
+   */
+  public long meanReadNanos() {
+    return blocks == 0 ? 0L : totalReadNanos / blocks;
+  }
+
+  /**
+   * @return mean decode duration in nanoseconds, or {@code 0} before the first block
+   */
+  public long meanDecodeNanos() {
+    return blocks == 0 ? 0L : totalDecodeNanos / blocks;
+  }
+
+  /**
+   * @return {@code true} if capture has neither overrun nor lost frames so far
+   */
+  public boolean keepingUp() {
+    return overruns == 0 && discontinuities == 0;
+  }
+}
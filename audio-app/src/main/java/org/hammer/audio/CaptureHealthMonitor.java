@@ -0,0 +1,119 @@
+package org.hammer.audio;
+
+/**
+ * Recorder behind {@link AudioCaptureServiceImpl#getCaptureHealth()}: samples the device buffer
+ * before every read and times each read and decode.
+ *
+ * <p>Frame loss is detected by comparing the device's frame position with the frames accounted for
+ * so far: frames already read, frames still buffered and frames already reported lost. A surplus
+ * larger than {@code toleranceFrames} is new loss. Because the comparison is absolute rather than
+ * incremental, sampling jitter between {@code available()} and the frame position never accumulates
+ * into false gaps.
+ *
+ * <p>Thread-safety: {@link #beforeRead} and {@link #afterBlock} belong to the capture thread;
+ * {@link #snapshot()} may be called from any thread.
+ *
+ * @author refactoring
+ */
+final class CaptureHealthMonitor {
+
+  private final int frameSize;
+
+  // Single writer: every field is published with a plain read-modify-write of the volatile.
+  private volatile long blocks;
+  private volatile long overruns;
+  private volatile long discontinuities;
+  private volatile long lostFrames;
+  private volatile long bytesRead;
+  private volatile double bufferFill;
+  private volatile double peakBufferFill;
+  private volatile long lastReadNanos;
+  private volatile long maxReadNanos;
+  private volatile long totalReadNanos;
+  private volatile long lastDecodeNanos;
+  private volatile long maxDecodeNanos;
+  private volatile long totalDecodeNanos;
+
+  /**
+   * @param frameSize bytes per frame of the captured format
+   */
+  CaptureHealthMonitor(int frameSize) {
+    this.frameSize = Math.max(1, frameSize);
+  }
+
+  /**
+   * Sample the device state right before a read.
+   *
+   * @param availableBytes {@code line.available()}
+   * @param bufferBytes {@code line.getBufferSize()}
+   * @param devicePositionFrames {@code line.getLongFramePosition()}, sampled after {@code
+   *     availableBytes}; {@code <= 0} if the line does not report one
+   * @param toleranceFrames position surplus still attributed to sampling jitter
+   * @return frames lost since the previous call, or {@code 0}
+   */
+  long beforeRead(
+      int availableBytes, int bufferBytes, long devicePositionFrames, int toleranceFrames) {
+    if (bufferBytes > 0) {
+      double fill = Math.min(1.0, Math.max(0, availableBytes) / (double) bufferBytes);
+      bufferFill = fill;
+      if (fill > peakBufferFill) {
+        peakBufferFill = fill;
+      }
+      if (availableBytes + frameSize > bufferBytes) {
+        overruns = overruns + 1;
+      }
+    }
+    if (devicePositionFrames <= 0) {
+      return 0L;
+    }
+    long accounted = (bytesRead + Math.max(0, availableBytes)) / frameSize + lostFrames;
+    long lost = devicePositionFrames - accounted;
+    if (lost <= toleranceFrames) {
+      return 0L;
+    }
+    lostFrames = lostFrames + lost;
+    discontinuities = discontinuities + 1;
+    return lost;
+  }
+
+  /**
+   * Record one completed read and its decode.
+   *
+   * @param bytes bytes returned by the read
+   * @param readNanos time spent in {@code line.read}
+   * @param decodeNanos time spent decoding into the block
+   */
+  void afterBlock(int bytes, long readNanos, long decodeNanos) {
+    bytesRead = bytesRead + bytes;
+    lastReadNanos = readNanos;
+    if (readNanos > maxReadNanos) {
+      maxReadNanos = readNanos;
+    }
+    totalReadNanos = totalReadNanos + readNanos;
+    lastDecodeNanos = decodeNanos;
+    if (decodeNanos > maxDecodeNanos) {
+      maxDecodeNanos = decodeNanos;
+    }
+    totalDecodeNanos = totalDecodeNanos + decodeNanos;
+    blocks = blocks + 1;
+  }
+
+  /**
+   * @return the current counters
+   */
+  CaptureHealth snapshot() {
+    return new CaptureHealth(
+        blocks,
+        overruns,
+        discontinuities,
+        lostFrames,
+        bufferFill,
+        peakBufferFill,
+        lastReadNanos,
+        maxReadNanos,
+        totalReadNanos,
+        lastDecodeNanos,
+        maxDecodeNanos,
+        totalDecodeNanos);
+  }
+}
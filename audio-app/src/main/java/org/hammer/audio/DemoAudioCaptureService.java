@@ -6,6 +6,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.sound.sampled.AudioFormat;
 import org.hammer.audio.buffer.AudioRingBuffer;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
+import org.hammer.audio.buffer.OverflowPolicy;
+import org.hammer.audio.buffer.WaitStrategy;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
 import org.hammer.audio.signal.ChirpGenerator;
@@ -13,8 +16,6 @@ import org.hammer.audio.signal.DemoPresetGenerator;
 import org.hammer.audio.signal.SignalGenerator;
 import org.hammer.audio.signal.SineGenerator;
 import org.hammer.audio.signal.SquareGenerator;
-import org.hammer.audio.snapshot.WaveformSnapshot;
-import org.hammer.audio.ui.WaveformRenderer;
 
 /**
  * Deterministic {@link AudioCaptureService} based on synthetic signal generators.
@@ -33,15 +34,16 @@ public final class DemoAudioCaptureService implements AudioCaptureService {
   private final AudioFormatDescriptor descriptor;
   private final SignalGenerator signalGenerator;
   private final AudioRingBuffer<AudioBlock> ringBuffer =
-      new AudioRingBuffer<>(RING_BUFFER_CAPACITY);
+      new AudioRingBuffer<>(
+          RING_BUFFER_CAPACITY, WaitStrategy.parking(), OverflowPolicy.DROP_OLDEST);
+  private final BroadcastRingBuffer<AudioBlock> broadcastBuffer =
+      new BroadcastRingBuffer<>(RING_BUFFER_CAPACITY);
   private final int tickEveryNSamples;
   private final AudioFormat format;
 
-  private volatile WaveformModel latestModel = WaveformModel.EMPTY;
+  private final LazyWaveformModel legacyModel;
   private volatile AudioBlock latestBlock;
   private volatile int divisor;
-  private volatile int panelWidth = 640;
-  private volatile int panelHeight = 200;
 
   private ExecutorService workerExecutor;
 
@@ -59,6 +61,13 @@ public final class DemoAudioCaptureService implements AudioCaptureService {
     this.signalGenerator = createSignalGenerator(descriptor, signalType);
     this.divisor = divisor;
     this.tickEveryNSamples = (int) (sampleRate * TICK_SECONDS);
+    this.legacyModel =
+        new LazyWaveformModel(
+            tickEveryNSamples,
+            block ->
+                block.frames()
+                    * block.channels()
+                    * Math.max(1, descriptor.sourceSampleSizeInBits() / 8));
     this.format = new AudioFormat(sampleRate, sampleSizeInBits, descriptor.channels(), true, false);
   }
 
@@ -102,7 +111,7 @@ public final class DemoAudioCaptureService implements AudioCaptureService {
 
   @Override
   public WaveformModel getLatestModel() {
-    return latestModel != null ? latestModel : WaveformModel.EMPTY;
+    return legacyModel.modelFor(latestBlock);
   }
 
   @Override
@@ -125,6 +134,11 @@ public final class DemoAudioCaptureService implements AudioCaptureService {
     return ringBuffer;
   }
 
+  @Override
+  public BroadcastRingBuffer<AudioBlock> getBroadcastBuffer() {
+    return broadcastBuffer;
+  }
+
   @Override
   public void setDivisor(int divisor) {
     if (divisor < 1) {
@@ -140,12 +154,7 @@ public final class DemoAudioCaptureService implements AudioCaptureService {
 
   @Override
   public void recomputeLayout(int width, int height) {
-    panelWidth = width;
-    panelHeight = height;
-    AudioBlock block = latestBlock;
-    if (block != null) {
-      latestModel = buildLegacyModel(block);
-    }
+    legacyModel.layout(width, height);
   }
 
   private void generateLoop() {
@@ -154,7 +163,7 @@ public final class DemoAudioCaptureService implements AudioCaptureService {
       AudioBlock block = signalGenerator.nextBlock(frames);
       latestBlock = block;
       ringBuffer.offer(block);
-      latestModel = buildLegacyModel(block);
+      broadcastBuffer.publish(block);
       int sleepMillis =
           Math.max(10, Math.round((1000f * frames) / Math.max(1f, descriptor.sampleRate())));
       try {
@@ -166,27 +175,6 @@ public final class DemoAudioCaptureService implements AudioCaptureService {
     }
   }
 
-  private WaveformModel buildLegacyModel(AudioBlock block) {
-    WaveformSnapshot snapshot =
-        WaveformSnapshot.wrap(
-            block.samples(),
-            block.format().sampleRate(),
-            block.frameIndex(),
-            block.timestampNanos());
-    int[] xPoints = WaveformRenderer.computeXPoints(snapshot.frames(), panelWidth);
-    int[][] yPoints;
-    if (panelHeight <= 0) {
-      yPoints = new int[snapshot.channels()][0];
-    } else {
-      yPoints = WaveformRenderer.computeYPointsAllChannels(snapshot, panelHeight);
-    }
-    int dataSizeBytes =
-        snapshot.frames()
-            * snapshot.channels()
-            * Math.max(1, descriptor.sourceSampleSizeInBits() / 8);
-    return new WaveformModel(xPoints, yPoints, tickEveryNSamples, dataSizeBytes);
-  }
-
   private static SignalGenerator createSignalGenerator(
       AudioFormatDescriptor format, DemoSignalType signalType) {
     DemoSignalType selected = signalType == null ? DemoSignalType.SINE : signalType;
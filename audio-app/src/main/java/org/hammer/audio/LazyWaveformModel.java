@@ -0,0 +1,96 @@
+package org.hammer.audio;
+
+import java.util.function.ToIntFunction;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.ui.WaveformRenderer;
+
+/**
+ * On-demand, memoized legacy {@link WaveformModel} for the latest published {@link AudioBlock}.
+ *
+ * <p>Capture services used to rebuild the model on their real-time thread after every block, deep
+ * copying the samples and computing pixel arrays even when no panel would paint them. They now only
+ * publish the block; {@link #modelFor(AudioBlock)} renders it on the caller's thread the first time
+ * it is asked for that block under the current layout and returns the memoized model until either
+ * changes. Samples are read through {@link AudioBlock#channelView(int, int, int)} views, so nothing
+ * is copied besides the resulting pixel arrays.
+ *
+ * <p>Blocks are read without holding a reference, so callers pass their "latest block", which
+ * capture services never hand out pooled (see {@link AudioCaptureService#getLatestBlock()}).
+ *
+ * <p>Thread-safety: all methods are thread-safe. Concurrent first calls for the same block may each
+ * render it; one of the equal results is kept.
+ *
+ * @author refactoring
+ */
+final class LazyWaveformModel {
+
+  /** Rendered model together with the inputs it was rendered from. */
+  private record Memo(AudioBlock block, int width, int height, WaveformModel model) {}
+
+  private final int tickEveryNSample;
+  private final ToIntFunction<AudioBlock> dataSize;
+
+  private volatile int panelWidth = 640;
+  private volatile int panelHeight = 200;
+  private volatile Memo memo;
+
+  /**
+   * @param tickEveryNSample tick interval reported by every model
+   * @param dataSize byte size reported for a block's model
+   */
+  LazyWaveformModel(int tickEveryNSample, ToIntFunction<AudioBlock> dataSize) {
+    this.tickEveryNSample = tickEveryNSample;
+    this.dataSize = dataSize;
+  }
+
+  /**
+   * Set the panel size used for subsequent models. Nothing is rendered here; the next {@link
+   * #modelFor} call picks the new size up.
+   *
+   * @param width panel width in pixels
+   * @param height panel height in pixels; {@code <= 0} yields empty per-channel Y arrays
+   */
+  void layout(int width, int height) {
+    panelWidth = width;
+    panelHeight = height;
+  }
+
+  /**
+   * @param block latest published block, or {@code null} before the first one
+   * @return the model of {@code block} under the current layout, {@link WaveformModel#EMPTY} for
+   *     {@code null}
+   */
+  WaveformModel modelFor(AudioBlock block) {
+    if (block == null) {
+      return WaveformModel.EMPTY;
+    }
+    int width = panelWidth;
+    int height = panelHeight;
+    Memo cached = memo;
+    if (cached != null
+        && cached.block() == block
+        && cached.width() == width
+        && cached.height() == height) {
+      return cached.model();
+    }
+    WaveformModel model = render(block, width, height);
+    memo = new Memo(block, width, height, model);
+    return model;
+  }
+
+  private WaveformModel render(AudioBlock block, int width, int height) {
+    int frames = block.frames();
+    int[] xPoints = WaveformRenderer.computeXPoints(frames, width);
+    // Swing panels can transiently report height==0 before they are laid out; in that case we
+    // emit empty per-channel arrays rather than asking WaveformRenderer to throw, since this is
+    // a legitimate "nothing to draw yet" state, not a programming error.
+    int[][] yPoints = new int[block.channels()][];
+    for (int c = 0; c < yPoints.length; c++) {
+      yPoints[c] =
+          height <= 0
+              ? new int[0]
+              : WaveformRenderer.computeYPoints(block.channelView(c, 0, frames), height);
+    }
+    return WaveformModel.adopt(xPoints, yPoints, tickEveryNSample, dataSize.applyAsInt(block));
+  }
+}
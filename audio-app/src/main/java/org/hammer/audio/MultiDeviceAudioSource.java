@@ -0,0 +1,528 @@
+package org.hammer.audio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.TargetDataLine;
+import org.hammer.audio.acquisition.ClockDriftEstimator;
+import org.hammer.audio.acquisition.MicrophoneArray;
+import org.hammer.audio.acquisition.MultiChannelAudioSource;
+import org.hammer.audio.acquisition.SampleClock;
+import org.hammer.audio.capture.SampleDecoder;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+
+/**
+ * Synchronized multichannel source that aggregates several capture devices, for microphone arrays
+ * with more channels than one sound card provides.
+ *
+ * <p>Each device is read by its own reader thread into a per-device history buffer. Every read is
+ * stamped with the host clock and fed to a {@link ClockDriftEstimator}, which fits the device's
+ * true sample rate and start time. The first device is the reference: its samples are emitted
+ * unchanged and define the merged stream's frame index, with timestamps from a {@link SampleClock}
+ * anchored at its estimated start. Every other device is resampled onto the reference timeline with
+ * cubic (Catmull-Rom) interpolation at a fractional read position that advances by the estimated
+ * rate ratio per output frame. Small alignment errors are steered out gradually through that ratio
+ * so the signal is never stretched audibly; errors above {@value #RESYNC_FRAMES} frames (start-up,
+ * overruns) are fixed by a jump.
+ *
+ * <p>Merged channels are the devices' channels in device order, matching the supplied {@link
+ * MicrophoneArray}. Alignment is only as good as the host timestamps of completed reads: constant
+ * per-device latency differences inside drivers are invisible to it and must be calibrated
+ * separately.
+ *
+ * <p>Lines are opened and reader threads started by {@link #start()}, or lazily by the first {@link
+ * #readBlock(int)}. If {@link #readBlock(int)} is not called often enough, device history buffers
+ * overflow; the lost frames are counted in {@link #droppedFrames()} and the stream resumes at the
+ * oldest retained frame. The source is exhausted once any device stops delivering.
+ *
+ * <p>Thread-safety: all public methods are thread-safe; {@link #readBlock(int)} is meant for one
+ * consumer thread.
+ *
+ * @author refactoring
+ */
+public final class MultiDeviceAudioSource implements MultiChannelAudioSource {
+
+  private static final Logger LOGGER = Logger.getLogger(MultiDeviceAudioSource.class.getName());
+
+  /** Frames requested from a device per read. */
+  static final int READ_FRAMES = 256;
+
+  /** Time constant of the drift estimators, in reads (~10 s at 48 kHz). */
+  static final int DRIFT_WINDOW_READS = 2048;
+
+  /** Default history per device in seconds. */
+  static final int DEFAULT_BUFFER_SECONDS = 2;
+
+  /** Alignment errors above this many frames are corrected by a jump instead of a glide. */
+  static final int RESYNC_FRAMES = 32;
+
+  /** Fraction of the remaining alignment error steered out per block. */
+  private static final double PHASE_GAIN = 0.1;
+
+  /** Largest correction applied on top of the estimated rate ratio (1000 ppm). */
+  private static final double MAX_RATIO_CORRECTION = 1e-3;
+
+  private final List<Device> devices;
+  private final MicrophoneArray array;
+  private final AudioFormatDescriptor format;
+  private final LongSupplier nanoClock;
+  private final Object lock = new Object();
+
+  private volatile boolean closed;
+  private boolean started;
+  private boolean aligned;
+  private SampleClock outputClock;
+  private long firstReferenceFrame;
+  private long referenceFrame;
+  private long droppedFrames;
+
+  /**
+   * Create a source over the given input mixers.
+   *
+   * @param mixers one entry per device; {@code null} selects the system default
+   * @param channelsPerDevice channels to capture from each device
+   * @param sampleRate nominal sample rate in Hz, shared by all devices
+   * @param sampleSizeInBits sample size in bits
+   * @param signed true if samples are signed
+   * @param bigEndian true if samples are big-endian
+   * @param array microphone metadata for the merged channels, in device order
+   */
+  public MultiDeviceAudioSource(
+      List<Mixer.Info> mixers,
+      int[] channelsPerDevice,
+      float sampleRate,
+      int sampleSizeInBits,
+      boolean signed,
+      boolean bigEndian,
+      MicrophoneArray array) {
+    this(
+        providersFor(mixers),
+        channelsPerDevice,
+        sampleRate,
+        sampleSizeInBits,
+        signed,
+        bigEndian,
+        array,
+        DEFAULT_BUFFER_SECONDS * Math.round(sampleRate),
+        System::nanoTime);
+  }
+
+  /** Package-private constructor for testing with custom providers and a custom host clock. */
+  MultiDeviceAudioSource(
+      List<AudioLineProvider> providers,
+      int[] channelsPerDevice,
+      float sampleRate,
+      int sampleSizeInBits,
+      boolean signed,
+      boolean bigEndian,
+      MicrophoneArray array,
+      int bufferFrames,
+      LongSupplier nanoClock) {
+    if (providers == null || providers.isEmpty()) {
+      throw new IllegalArgumentException("at least one device is required");
+    }
+    if (channelsPerDevice == null || channelsPerDevice.length != providers.size()) {
+      throw new IllegalArgumentException("channelsPerDevice must have one entry per device");
+    }
+    if (array == null) {
+      throw new IllegalArgumentException("array must not be null");
+    }
+    if (bufferFrames < 2 * READ_FRAMES) {
+      throw new IllegalArgumentException("bufferFrames must be >= " + 2 * READ_FRAMES);
+    }
+    List<Device> list = new ArrayList<>(providers.size());
+    int channelOffset = 0;
+    for (int i = 0; i < providers.size(); i++) {
+      int channels = channelsPerDevice[i];
+      if (channels < 1) {
+        throw new IllegalArgumentException("device " + i + " must capture >= 1 channel");
+      }
+      AudioFormat lineFormat =
+          new AudioFormat(sampleRate, sampleSizeInBits, channels, signed, bigEndian);
+      SampleDecoder decoder =
+          new SampleDecoder(
+              new AudioFormatDescriptor(sampleRate, channels, sampleSizeInBits), signed, bigEndian);
+      list.add(
+          new Device(
+              i,
+              providers.get(i),
+              lineFormat,
+              decoder,
+              channelOffset,
+              bufferFrames,
+              new ClockDriftEstimator(sampleRate, DRIFT_WINDOW_READS)));
+      channelOffset += channels;
+    }
+    if (channelOffset != array.channels()) {
+      throw new IllegalArgumentException(
+          "devices capture " + channelOffset + " channels but the array has " + array.channels());
+    }
+    this.devices = List.copyOf(list);
+    this.array = array;
+    this.format = new AudioFormatDescriptor(sampleRate, channelOffset, sampleSizeInBits);
+    this.nanoClock = nanoClock;
+  }
+
+  private static List<AudioLineProvider> providersFor(List<Mixer.Info> mixers) {
+    if (mixers == null) {
+      throw new IllegalArgumentException("mixers must not be null");
+    }
+    List<AudioLineProvider> providers = new ArrayList<>(mixers.size());
+    for (Mixer.Info mixer : mixers) {
+      providers.add(new DefaultAudioLineProvider(mixer));
+    }
+    return providers;
+  }
+
+  @Override
+  public AudioFormatDescriptor format() {
+    return format;
+  }
+
+  @Override
+  public MicrophoneArray microphoneArray() {
+    return array;
+  }
+
+  /** Number of aggregated devices. */
+  public int deviceCount() {
+    return devices.size();
+  }
+
+  /**
+   * Estimated drift of a device's sample clock relative to the reference device.
+   *
+   * @param device device index; {@code 0} is the reference and always reports {@code 0}
+   * @return drift in parts per million; positive when the device runs fast
+   */
+  public double driftPpm(int device) {
+    synchronized (lock) {
+      double reference = devices.get(0).estimator.sampleRate();
+      return (devices.get(device).estimator.sampleRate() / reference - 1.0) * 1_000_000.0;
+    }
+  }
+
+  /** Reference frames lost because device history buffers overflowed before being read. */
+  public long droppedFrames() {
+    synchronized (lock) {
+      return droppedFrames;
+    }
+  }
+
+  /**
+   * Open every device line and start its reader thread. Does nothing if already started.
+   *
+   * @throws IllegalStateException if a line cannot be acquired; lines opened so far are closed
+   */
+  public void start() {
+    synchronized (lock) {
+      if (started || closed) {
+        return;
+      }
+      try {
+        for (Device device : devices) {
+          device.line = device.provider.acquireLine(device.lineFormat);
+        }
+      } catch (RuntimeException e) {
+        closeLines();
+        throw e;
+      }
+      for (Device device : devices) {
+        Thread reader = new Thread(() -> readLoop(device), "MultiDeviceReader-" + device.index);
+        reader.setDaemon(true);
+        device.reader = reader;
+        reader.start();
+      }
+      started = true;
+    }
+  }
+
+  @Override
+  public Optional<AudioBlock> readBlock(int frames) {
+    if (frames <= 0) {
+      throw new IllegalArgumentException("frames must be > 0");
+    }
+    start();
+    synchronized (lock) {
+      while (!closed) {
+        if (!aligned) {
+          if (devices.stream().allMatch(d -> d.estimator.observations() > 0)) {
+            align();
+          } else if (devices.stream().anyMatch(d -> d.ended)) {
+            return Optional.empty();
+          }
+        }
+        if (aligned) {
+          steer(frames);
+          int available = availableFrames(frames);
+          boolean anyEnded = devices.stream().anyMatch(d -> d.ended);
+          if (available == frames || (anyEnded && available > 0)) {
+            return Optional.of(produce(available));
+          }
+          if (anyEnded) {
+            return Optional.empty();
+          }
+        }
+        try {
+          lock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return Optional.empty();
+        }
+      }
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void close() {
+    List<Thread> readers = new ArrayList<>();
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      closeLines();
+      for (Device device : devices) {
+        if (device.reader != null) {
+          readers.add(device.reader);
+        }
+      }
+      lock.notifyAll();
+    }
+    for (Thread reader : readers) {
+      try {
+        reader.join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void closeLines() {
+    for (Device device : devices) {
+      TargetDataLine line = device.line;
+      if (line == null) {
+        continue;
+      }
+      try {
+        line.stop();
+        line.flush();
+        line.close();
+      } catch (Exception e) {
+        LOGGER.log(Level.WARNING, "Error closing line of device " + device.index, e);
+      }
+    }
+  }
+
+  /** Reader thread: decode each read and append it, stamped with the host clock. */
+  private void readLoop(Device device) {
+    TargetDataLine line = device.line;
+    byte[] bytes = new byte[READ_FRAMES * device.decoder.frameSize()];
+    float[][] scratch = new float[device.channels][READ_FRAMES];
+    long frames = 0L;
+    try {
+      line.start();
+      while (!closed) {
+        int numBytesRead = line.read(bytes, 0, bytes.length);
+        // The read returns once its last frame was captured, so that is the frame we stamp.
+        long now = nanoClock.getAsLong();
+        if (numBytesRead < 0 || (numBytesRead == 0 && !line.isOpen())) {
+          break;
+        }
+        int decoded = device.decoder.decode(bytes, numBytesRead, scratch);
+        if (decoded <= 0) {
+          continue;
+        }
+        frames += decoded;
+        synchronized (lock) {
+          device.append(scratch, decoded);
+          device.estimator.observe(now, frames);
+          lock.notifyAll();
+        }
+      }
+    } catch (RuntimeException e) {
+      if (!closed) {
+        LOGGER.log(Level.SEVERE, "Capture failed on device " + device.index, e);
+      }
+    } finally {
+      synchronized (lock) {
+        device.ended = true;
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Pick the first reference frame at which every device has interpolation history, and place each
+   * device's read position there.
+   */
+  private void align() {
+    Device reference = devices.get(0);
+    long first = 0L;
+    for (int i = 1; i < devices.size(); i++) {
+      Device device = devices.get(i);
+      double ratio = device.estimator.sampleRate() / reference.estimator.sampleRate();
+      double atZero = positionAt(device, 0L);
+      first = Math.max(first, (long) Math.ceil((1.0 - atZero) / ratio));
+    }
+    firstReferenceFrame = first;
+    referenceFrame = first;
+    for (int i = 1; i < devices.size(); i++) {
+      devices.get(i).position = positionAt(devices.get(i), first);
+    }
+    outputClock =
+        new SampleClock(format.sampleRate(), reference.estimator.timestampForFrame(first));
+    aligned = true;
+  }
+
+  /** Where {@code device} should read to match reference frame {@code frame}. */
+  private double positionAt(Device device, long frame) {
+    Device reference = devices.get(0);
+    return device.estimator.framePositionAt(reference.estimator.timestampForFrame(frame));
+  }
+
+  /** Apply overruns and set each device's resampling ratio for the next block. */
+  private void steer(int frames) {
+    Device reference = devices.get(0);
+    if (referenceFrame < reference.oldest()) {
+      droppedFrames += reference.oldest() - referenceFrame;
+      referenceFrame = reference.oldest();
+    }
+    for (int i = 1; i < devices.size(); i++) {
+      Device device = devices.get(i);
+      double target = positionAt(device, referenceFrame);
+      double error = target - device.position;
+      if (Math.abs(error) > RESYNC_FRAMES) {
+        device.position = target;
+        error = 0.0;
+      }
+      if (device.position < device.oldest() + 1) {
+        device.position = device.oldest() + 1;
+      }
+      double correction =
+          Math.max(
+              -MAX_RATIO_CORRECTION, Math.min(MAX_RATIO_CORRECTION, PHASE_GAIN * error / frames));
+      device.ratio = device.estimator.sampleRate() / reference.estimator.sampleRate() + correction;
+    }
+  }
+
+  /** Frames (up to {@code frames}) every device can deliver right now. */
+  private int availableFrames(int frames) {
+    long available = Math.min(frames, devices.get(0).written - referenceFrame);
+    for (int i = 1; i < devices.size(); i++) {
+      Device device = devices.get(i);
+      // Interpolating at position x reads up to floor(x) + 2, so x must stay below written - 2.
+      double room = device.written - 2 - device.position;
+      available = Math.min(available, room > 0 ? (long) Math.ceil(room / device.ratio) : 0L);
+    }
+    return (int) Math.max(0L, available);
+  }
+
+  private AudioBlock produce(int frames) {
+    float[][] samples = new float[format.channels()][frames];
+    Device reference = devices.get(0);
+    for (int c = 0; c < reference.channels; c++) {
+      reference.copy(c, referenceFrame, samples[c], frames);
+    }
+    for (int i = 1; i < devices.size(); i++) {
+      Device device = devices.get(i);
+      for (int c = 0; c < device.channels; c++) {
+        device.resample(c, samples[device.channelOffset + c], frames);
+      }
+      device.position += frames * device.ratio;
+    }
+    long frameIndex = referenceFrame - firstReferenceFrame;
+    referenceFrame += frames;
+    return AudioBlock.wrap(format, samples, frameIndex, outputClock.timestampForFrame(frameIndex));
+  }
+
+  /** One capture device: its line, decoder, history and alignment state. Guarded by the lock. */
+  private static final class Device {
+    final int index;
+    final AudioLineProvider provider;
+    final AudioFormat lineFormat;
+    final SampleDecoder decoder;
+    final int channels;
+    final int channelOffset;
+    final ClockDriftEstimator estimator;
+
+    /** Circular per-channel history; absolute frame {@code f} lives at {@code f % capacity}. */
+    final float[][] history;
+
+    TargetDataLine line;
+    Thread reader;
+    long written;
+    boolean ended;
+    double position;
+    double ratio = 1.0;
+
+    Device(
+        int index,
+        AudioLineProvider provider,
+        AudioFormat lineFormat,
+        SampleDecoder decoder,
+        int channelOffset,
+        int capacity,
+        ClockDriftEstimator estimator) {
+      this.index = index;
+      this.provider = provider;
+      this.lineFormat = lineFormat;
+      this.decoder = decoder;
+      this.channels = lineFormat.getChannels();
+      this.channelOffset = channelOffset;
+      this.estimator = estimator;
+      this.history = new float[channels][capacity];
+    }
+
+    /** Oldest absolute frame still held in the history. */
+    long oldest() {
+      return Math.max(0L, written - history[0].length);
+    }
+
+    void append(float[][] src, int frames) {
+      int capacity = history[0].length;
+      int start = (int) (written % capacity);
+      int first = Math.min(frames, capacity - start);
+      for (int c = 0; c < channels; c++) {
+        System.arraycopy(src[c], 0, history[c], start, first);
+        System.arraycopy(src[c], first, history[c], 0, frames - first);
+      }
+      written += frames;
+    }
+
+    void copy(int channel, long fromFrame, float[] dst, int frames) {
+      int capacity = history[0].length;
+      int start = (int) (fromFrame % capacity);
+      int first = Math.min(frames, capacity - start);
+      System.arraycopy(history[channel], start, dst, 0, first);
+      System.arraycopy(history[channel], 0, dst, first, frames - first);
+    }
+
+    /** Catmull-Rom interpolation at {@code position + k * ratio} for each output frame k. */
+    void resample(int channel, float[] dst, int frames) {
+      float[] h = history[channel];
+      int capacity = h.length;
+      for (int k = 0; k < frames; k++) {
+        double x = position + k * ratio;
+        long i = (long) Math.floor(x);
+        double t = x - i;
+        double y0 = h[(int) ((i - 1) % capacity)];
+        double y1 = h[(int) (i % capacity)];
+        double y2 = h[(int) ((i + 1) % capacity)];
+        double y3 = h[(int) ((i + 2) % capacity)];
+        double c1 = 0.5 * (y2 - y0);
+        double c2 = y0 - 2.5 * y1 + 2.0 * y2 - 0.5 * y3;
+        double c3 = 0.5 * (y3 - y0) + 1.5 * (y1 - y2);
+        dst[k] = (float) (((c3 * t + c2) * t + c1) * t + y1);
+      }
+    }
+  }
+}
@@ -6,15 +6,23 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import javax.sound.sampled.AudioFormat;
 import org.hammer.audio.buffer.AudioRingBuffer;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
+import org.hammer.audio.buffer.OverflowPolicy;
+import org.hammer.audio.buffer.WaitStrategy;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.core.Pcm16AudioBlock;
+import org.hammer.audio.core.Pcm16Slice;
+import org.hammer.audio.core.SampleSlice;
+import org.hammer.audio.dsp.simd.SampleKernels;
+import org.hammer.audio.dsp.simd.SimdKernels;
 import org.hammer.audio.recording.AudioBlockRecordingReader;
-import org.hammer.audio.snapshot.WaveformSnapshot;
-import org.hammer.audio.ui.WaveformRenderer;
 
 /**
  * {@link AudioCaptureService} that replays a previously recorded {@code .aar} file. Blocks are
@@ -22,26 +30,62 @@ import org.hammer.audio.ui.WaveformRenderer;
  * rest of the application (waveform panel, spectrum, diagnosis, evidence export, ...) is unaware of
  * the origin of the audio data.
  *
+ * <p>Recordings from sources of at most 16 bits whose samples all lie on the 16-bit grid (every
+ * sample survives {@link Pcm16AudioBlock#quantize(float)} and back unchanged, as decoded PCM does)
+ * are held as {@link Pcm16AudioBlock}s, half the memory of float blocks and bit-exact. Each block
+ * is decoded with the {@link SimdKernels} 16-bit conversion into a freshly allocated block when it
+ * is published, the same one block per cycle a live capture allocates; the storage cannot be reused
+ * because subscribers may hold published blocks indefinitely. Synthesized or processed recordings
+ * off the grid are kept as float blocks.
+ *
+ * <p>Pacing uses an absolute deadline per block ({@link ReplayClock}) and {@link
+ * LockSupport#parkNanos}, so blocks of any size replay at the recorded rate without accumulating
+ * drift. {@link #setSpeed(double)} scales that rate from {@link #MIN_SPEED} upwards; {@link
+ * #UNPACED} replays as fast as the slowest lossless {@link BroadcastRingBuffer#subscribe()
+ * subscriber} drains, without dropping blocks for it. {@link #setStepMode(boolean) Step mode}
+ * publishes one block per {@link #step()} for debugging.
+ *
  * <p>When the recording is exhausted the service automatically stops, mirroring the behavior of
  * pressing "Stop" on a live capture.
  */
 public final class RecordedAudioCaptureService implements AudioCaptureService {
 
+  /** Slowest supported replay speed. */
+  public static final double MIN_SPEED = 0.25;
+
+  /** Speed that replays as fast as lossless broadcast subscribers drain. */
+  public static final double UNPACED = Double.POSITIVE_INFINITY;
+
   private static final int RING_BUFFER_CAPACITY = 64;
 
+  /** Longest single park, so stop, speed and step-mode changes are noticed promptly. */
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /** Park between publish attempts while an unpaced replay waits for a lossless subscriber. */
+  private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /** Float blocks, or {@code null} when the recording is held compact. */
   private final List<AudioBlock> blocks;
+
+  /** Compact 16-bit blocks, or {@code null} for sources wider than 16 bits. */
+  private final Pcm16AudioBlock[] compactBlocks;
+
   private final AudioFormatDescriptor descriptor;
   private final AudioFormat format;
   private final AudioRingBuffer<AudioBlock> ringBuffer =
-      new AudioRingBuffer<>(RING_BUFFER_CAPACITY);
+      new AudioRingBuffer<>(
+          RING_BUFFER_CAPACITY, WaitStrategy.parking(), OverflowPolicy.DROP_OLDEST);
+  private final BroadcastRingBuffer<AudioBlock> broadcastBuffer =
+      new BroadcastRingBuffer<>(RING_BUFFER_CAPACITY);
   private final AtomicBoolean running = new AtomicBoolean(false);
   private final boolean loop;
 
-  private volatile WaveformModel latestModel = WaveformModel.EMPTY;
+  private final LazyWaveformModel legacyModel;
   private volatile AudioBlock latestBlock;
   private volatile int divisor = 1;
-  private volatile int panelWidth = 640;
-  private volatile int panelHeight = 200;
+  private volatile double speed = 1.0;
+  private volatile boolean stepMode;
+  private final Semaphore steps = new Semaphore(0);
 
   private ExecutorService workerExecutor;
 
@@ -72,8 +116,25 @@ public final class RecordedAudioCaptureService implements AudioCaptureService {
             "all blocks must share the same format; first=" + descriptor + " block=" + b.format());
       }
     }
-    this.blocks = List.copyOf(blocks);
+    if (descriptor.sourceSampleSizeInBits() <= 16
+        && blocks.stream().allMatch(RecordedAudioCaptureService::onPcm16Grid)) {
+      this.compactBlocks = new Pcm16AudioBlock[blocks.size()];
+      for (int i = 0; i < compactBlocks.length; i++) {
+        compactBlocks[i] = Pcm16AudioBlock.copyOf(blocks.get(i));
+      }
+      this.blocks = null;
+    } else {
+      this.compactBlocks = null;
+      this.blocks = List.copyOf(blocks);
+    }
     this.loop = loop;
+    this.legacyModel =
+        new LazyWaveformModel(
+            0,
+            block ->
+                block.frames()
+                    * block.channels()
+                    * Math.max(1, descriptor.sourceSampleSizeInBits() / 8));
     this.format =
         new AudioFormat(
             descriptor.sampleRate(),
@@ -94,7 +155,71 @@ public final class RecordedAudioCaptureService implements AudioCaptureService {
    * @return the number of blocks in this recording
    */
   public int blockCount() {
-    return blocks.size();
+    return compactBlocks != null ? compactBlocks.length : blocks.size();
+  }
+
+  /**
+   * @return true if the recording is held as compact 16-bit blocks
+   */
+  public boolean isCompact() {
+    return compactBlocks != null;
+  }
+
+  /**
+   * Change the replay speed; takes effect from the next block, also while running.
+   *
+   * @param speed factor relative to the recorded rate, at least {@link #MIN_SPEED}, or {@link
+   *     #UNPACED}
+   * @throws IllegalArgumentException if {@code speed} is NaN or below {@link #MIN_SPEED}
+   */
+  public void setSpeed(double speed) {
+    if (Double.isNaN(speed) || speed < MIN_SPEED) {
+      throw new IllegalArgumentException("speed must be >= " + MIN_SPEED + ": " + speed);
+    }
+    this.speed = speed;
+  }
+
+  /**
+   * @return the replay speed factor; {@link #UNPACED} if replay is not paced
+   */
+  public double getSpeed() {
+    return speed;
+  }
+
+  /**
+   * Enable or disable step mode. In step mode the replay publishes a block only for each {@link
+   * #step()}; leaving step mode resumes pacing from the current position. Permits granted while
+   * stepping are discarded when step mode is disabled.
+   */
+  public void setStepMode(boolean stepMode) {
+    this.stepMode = stepMode;
+    if (!stepMode) {
+      steps.drainPermits();
+    }
+  }
+
+  /**
+   * @return true if blocks are published only on {@link #step()}
+   */
+  public boolean isStepMode() {
+    return stepMode;
+  }
+
+  /** Publish the next block while in step mode. */
+  public void step() {
+    step(1);
+  }
+
+  /**
+   * Publish the next {@code blocks} blocks while in step mode; they are published back to back.
+   *
+   * @throws IllegalArgumentException if {@code blocks < 1}
+   */
+  public void step(int blocks) {
+    if (blocks < 1) {
+      throw new IllegalArgumentException("blocks must be >= 1: " + blocks);
+    }
+    steps.release(blocks);
   }
 
   @Override
@@ -137,7 +262,7 @@ public final class RecordedAudioCaptureService implements AudioCaptureService {
 
   @Override
   public WaveformModel getLatestModel() {
-    return latestModel != null ? latestModel : WaveformModel.EMPTY;
+    return legacyModel.modelFor(latestBlock);
   }
 
   @Override
@@ -160,6 +285,11 @@ public final class RecordedAudioCaptureService implements AudioCaptureService {
     return ringBuffer;
   }
 
+  @Override
+  public BroadcastRingBuffer<AudioBlock> getBroadcastBuffer() {
+    return broadcastBuffer;
+  }
+
   @Override
   public void setDivisor(int divisor) {
     if (divisor < 1) {
@@ -175,31 +305,41 @@ public final class RecordedAudioCaptureService implements AudioCaptureService {
 
   @Override
   public void recomputeLayout(int width, int height) {
-    panelWidth = width;
-    panelHeight = height;
-    AudioBlock block = latestBlock;
-    if (block != null) {
-      latestModel = buildLegacyModel(block);
-    }
+    legacyModel.layout(width, height);
   }
 
   private void replayLoop() {
+    double clockSpeed = speed;
+    ReplayClock clock = new ReplayClock(descriptor.sampleRate(), System.nanoTime());
+    clock.setSpeed(clockSpeed, System.nanoTime());
+    boolean stepping = false;
     int index = 0;
     while (running.get() && !Thread.currentThread().isInterrupted()) {
-      AudioBlock block = blocks.get(index);
+      if (stepMode) {
+        stepping = true;
+        if (!awaitStep()) {
+          continue;
+        }
+      } else if (stepping) {
+        stepping = false;
+        clock.reanchor(System.nanoTime());
+      }
+      if (speed != clockSpeed) {
+        clockSpeed = speed;
+        clock.setSpeed(clockSpeed, System.nanoTime());
+      }
+      AudioBlock block = blockAt(index);
       latestBlock = block;
       ringBuffer.offer(block);
-      latestModel = buildLegacyModel(block);
-      int sleepMillis =
-          Math.max(5, Math.round((1000f * block.frames()) / Math.max(1f, descriptor.sampleRate())));
-      try {
-        Thread.sleep(sleepMillis);
-      } catch (InterruptedException interruptedException) {
-        Thread.currentThread().interrupt();
+      if (!publish(block, clockSpeed == UNPACED)) {
+        return;
+      }
+      long deadline = clock.advance(block.frames(), System.nanoTime());
+      if (!stepping && !parkUntil(deadline)) {
         return;
       }
       index++;
-      if (index >= blocks.size()) {
+      if (index >= blockCount()) {
         if (!loop) {
           running.set(false);
           return;
@@ -209,24 +349,89 @@ public final class RecordedAudioCaptureService implements AudioCaptureService {
     }
   }
 
-  private WaveformModel buildLegacyModel(AudioBlock block) {
-    WaveformSnapshot snapshot =
-        WaveformSnapshot.wrap(
-            block.samples(),
-            block.format().sampleRate(),
-            block.frameIndex(),
-            block.timestampNanos());
-    int[] xPoints = WaveformRenderer.computeXPoints(snapshot.frames(), panelWidth);
-    int[][] yPoints;
-    if (panelHeight <= 0) {
-      yPoints = new int[snapshot.channels()][0];
-    } else {
-      yPoints = WaveformRenderer.computeYPointsAllChannels(snapshot, panelHeight);
+  /**
+   * Wait up to {@link #MAX_PARK_NANOS} for a step permit.
+   *
+   * @return true if a block may be published now
+   */
+  private boolean awaitStep() {
+    try {
+      return steps.tryAcquire(MAX_PARK_NANOS, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Publish to the broadcast ring. Paced replay publishes without waiting, like live capture, so
+   * only a lagging subscriber loses blocks; unpaced replay waits for the slowest lossless
+   * subscriber instead, which is what bounds its rate.
+   *
+   * @return false if replay was stopped while waiting
+   */
+  private boolean publish(AudioBlock block, boolean waitForSubscribers) {
+    if (!waitForSubscribers) {
+      broadcastBuffer.publish(block);
+      return true;
+    }
+    while (!broadcastBuffer.offer(block)) {
+      if (!running.get() || Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+      LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+    }
+    return true;
+  }
+
+  /**
+   * Park until {@code deadline} in {@link System#nanoTime()} terms, in slices so a stop or a switch
+   * to step mode is noticed promptly.
+   *
+   * @return false if replay was stopped while parked
+   */
+  private boolean parkUntil(long deadline) {
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      if (!running.get() || Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+      if (stepMode) {
+        return true;
+      }
+      LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+    }
+    return running.get() && !Thread.currentThread().isInterrupted();
+  }
+
+  /** True if every sample of {@code block} round-trips through a 16-bit value unchanged. */
+  private static boolean onPcm16Grid(AudioBlock block) {
+    for (int c = 0; c < block.channels(); c++) {
+      SampleSlice view = block.channelView(c, 0, block.frames());
+      for (int i = 0; i < view.length(); i++) {
+        float sample = view.get(i);
+        if (Pcm16AudioBlock.quantize(sample) * Pcm16AudioBlock.SCALE != sample) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private AudioBlock blockAt(int index) {
+    return compactBlocks != null ? decode(compactBlocks[index]) : blocks.get(index);
+  }
+
+  private static AudioBlock decode(Pcm16AudioBlock compact) {
+    int frames = compact.frames();
+    float[] samples = new float[compact.channels() * frames];
+    SampleKernels kernels = SimdKernels.get();
+    for (int c = 0; c < compact.channels(); c++) {
+      Pcm16Slice view = compact.channelView(c, 0, frames);
+      kernels.int16ToFloat(
+          view.array(), view.offset(), samples, c * frames, frames, Pcm16AudioBlock.SCALE);
     }
-    int dataSizeBytes =
-        snapshot.frames()
-            * snapshot.channels()
-            * Math.max(1, descriptor.sourceSampleSizeInBits() / 8);
-    return new WaveformModel(xPoints, yPoints, 0, dataSizeBytes);
+    return AudioBlock.wrapContiguous(
+        compact.format(), samples, frames, frames, compact.frameIndex(), compact.timestampNanos());
   }
 }
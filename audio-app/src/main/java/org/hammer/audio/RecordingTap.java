@@ -3,25 +3,36 @@ package org.hammer.audio;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.swing.Timer;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.recording.AudioBlockRecordingWriter;
 
 /**
- * Best-effort recorder that polls an {@link AudioCaptureService} on the Swing EDT and persists
- * every newly observed {@link AudioBlock} to an {@code .aar} file via {@link
- * AudioBlockRecordingWriter}.
+ * Best-effort recorder that persists every newly observed {@link AudioBlock} of an {@link
+ * AudioCaptureService} to an {@code .aar} file via {@link AudioBlockRecordingWriter}.
  *
- * <p>Blocks are deduplicated by {@link AudioBlock#frameIndex()}. The poll interval should be at
- * least as fast as the capture service produces blocks; otherwise blocks may be missed. With the
- * default capture/demo configuration (≥10 ms per block) the standard UI refresh of a few tens of
+ * <p>The tap runs on its own daemon thread, never on the Swing EDT: a lossless subscriber that
+ * stalls with the UI would fall a full ring behind and lose blocks from the recording.
+ *
+ * <p>If the service offers a {@link AudioCaptureService#getBroadcastBuffer() broadcast buffer}, the
+ * tap registers a lossless subscriber and writes every block as soon as it is published, releasing
+ * the reference the service retained for it once written. Nothing is skipped as long as the disk
+ * keeps up with the capture rate. Each write is timed and {@link
+ * AudioCaptureService#recordConsumerProcessingNanos(long) reported}, so a service with adaptive
+ * block sizing grows its blocks when the disk falls behind.
+ *
+ * <p>Otherwise it falls back to polling {@link AudioCaptureService#getLatestBlock()}; blocks are
+ * then deduplicated by {@link AudioBlock#frameIndex()} and the poll interval should be at least as
+ * fast as the capture service produces blocks, or blocks may be missed. With the default
+ * capture/demo configuration (≥10 ms per block) the standard UI refresh of a few tens of
  * milliseconds is fast enough for diagnostic recordings.
  *
- * <p>This class lives in {@code audio-app} because it relies on the Swing {@link Timer}; the
- * underlying file format and writer are in {@code audio-dsp}.
+ * <p>This class lives in {@code audio-app} next to the capture services it taps; the underlying
+ * file format and writer are in {@code audio-dsp}.
  */
 public final class RecordingTap {
 
@@ -29,12 +40,14 @@ public final class RecordingTap {
 
   private final AudioCaptureService service;
   private final AudioBlockRecordingWriter writer;
-  private final Timer pollTimer;
+  private final int pollIntervalMs;
+  private final Thread worker;
   private final AtomicBoolean closed = new AtomicBoolean(false);
   private final Path file;
+  private final BroadcastRingBuffer.Subscriber<AudioBlock> subscriber; // null: poll latest block
 
   private long lastSeenFrameIndex = Long.MIN_VALUE;
-  private long blocksWritten;
+  private volatile long blocksWritten;
   private boolean firstBlockSeen;
 
   /**
@@ -53,7 +66,7 @@ public final class RecordingTap {
     }
     AudioBlockRecordingWriter writer = AudioBlockRecordingWriter.open(file);
     RecordingTap tap = new RecordingTap(service, writer, file, pollIntervalMs);
-    tap.pollTimer.start();
+    tap.worker.start();
     return tap;
   }
 
@@ -65,8 +78,11 @@ public final class RecordingTap {
     this.service = service;
     this.writer = writer;
     this.file = file;
-    this.pollTimer = new Timer(pollIntervalMs, e -> pollOnce());
-    this.pollTimer.setRepeats(true);
+    BroadcastRingBuffer<AudioBlock> broadcast = service.getBroadcastBuffer();
+    this.subscriber = broadcast != null ? broadcast.subscribe() : null;
+    this.pollIntervalMs = pollIntervalMs;
+    this.worker = new Thread(this::run, "RecordingTap");
+    this.worker.setDaemon(true);
   }
 
   /**
@@ -90,10 +106,35 @@ public final class RecordingTap {
     return closed.get();
   }
 
-  private void pollOnce() {
-    if (closed.get()) {
-      return;
+  private void run() {
+    try {
+      while (!closed.get()) {
+        if (subscriber != null) {
+          drainSubscriber();
+          subscriber.awaitAvailable(pollIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+          pollLatest();
+          Thread.sleep(pollIntervalMs);
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      stopQuietly();
     }
+  }
+
+  private void drainSubscriber() {
+    AudioBlock block;
+    while (!closed.get() && (block = subscriber.poll()) != null) {
+      try {
+        writeBlock(block);
+      } finally {
+        block.release();
+      }
+    }
+  }
+
+  private void pollLatest() {
     AudioBlock block = service.getLatestBlock();
     if (block == null) {
       return;
@@ -106,28 +147,61 @@ public final class RecordingTap {
       // Source restarted (e.g. service was stopped/started). Accept it.
       LOGGER.fine(() -> "frame index moved backwards; treating as restart");
     }
+    if (writeBlock(block)) {
+      lastSeenFrameIndex = frameIndex;
+      firstBlockSeen = true;
+    }
+  }
+
+  /** Write one block; stops the tap and returns {@code false} on failure. */
+  private boolean writeBlock(AudioBlock block) {
     try {
+      long start = System.nanoTime();
       writer.write(block);
+      service.recordConsumerProcessingNanos(System.nanoTime() - start);
       blocksWritten++;
-      lastSeenFrameIndex = frameIndex;
-      firstBlockSeen = true;
+      return true;
     } catch (IOException ex) {
       LOGGER.log(Level.WARNING, "failed to write block to recording, stopping tap", ex);
       stopQuietly();
     } catch (RuntimeException ex) {
       // Format mismatch (capture service reconfigured mid-recording), writer already closed,
-      // etc. Stop the tap rather than letting the Swing Timer spam the EDT.
+      // etc. Stop the tap rather than failing again on every following block.
       LOGGER.log(Level.WARNING, "runtime error while writing block, stopping tap", ex);
       stopQuietly();
     }
+    return false;
   }
 
-  /** Stop the tap and close the underlying writer. Safe to call multiple times. */
+  /**
+   * Stop the tap and close the underlying writer, waiting for a write in progress to finish. Safe
+   * to call multiple times.
+   */
   public void stop() throws IOException {
     if (closed.getAndSet(true)) {
       return;
     }
-    pollTimer.stop();
+    if (Thread.currentThread() != worker) {
+      boolean interrupted = false;
+      while (worker.isAlive()) {
+        try {
+          worker.join();
+        } catch (InterruptedException ex) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (subscriber != null) {
+      // Hand back the references of blocks published but never written.
+      AudioBlock block;
+      while ((block = subscriber.poll()) != null) {
+        block.release();
+      }
+      subscriber.close();
+    }
     writer.close();
   }
 
@@ -0,0 +1,80 @@
+package org.hammer.audio;
+
+/**
+ * Absolute-deadline pacing behind {@link RecordedAudioCaptureService}: block {@code i} is due when
+ * the frames before it would have been captured, measured from a fixed anchor, so rounding and
+ * wake-up latency never accumulate into drift.
+ *
+ * <p>Changing the speed re-anchors at the current stream position, so the new speed applies from
+ * now on instead of retroactively. A replay that falls more than {@link #MAX_LAG_NANOS} behind (a
+ * debugger pause, a long GC) re-anchors too, rather than bursting through the backlog.
+ *
+ * <p>Not thread-safe: owned by the replay thread.
+ *
+ * @author refactoring
+ */
+final class ReplayClock {
+
+  /** Lag after which the clock stops catching up and restarts from the current time. */
+  static final long MAX_LAG_NANOS = 500_000_000L;
+
+  private final double sampleRate;
+  private double speed = 1.0;
+  private long anchorNanos;
+  private long anchorFrames;
+  private long frames;
+
+  /**
+   * @param sampleRate replayed sample rate in Hz
+   * @param nowNanos current {@link System#nanoTime()}; the first block is due immediately
+   */
+  ReplayClock(float sampleRate, long nowNanos) {
+    this.sampleRate = Math.max(1.0, sampleRate);
+    this.anchorNanos = nowNanos;
+  }
+
+  /**
+   * @param speed replay speed factor; {@code > 0}, {@link Double#POSITIVE_INFINITY} for unpaced
+   * @param nowNanos current {@link System#nanoTime()}
+   */
+  void setSpeed(double speed, long nowNanos) {
+    this.speed = speed;
+    reanchor(nowNanos);
+  }
+
+  /** Restart pacing from {@code nowNanos}, e.g. after a pause. */
+  void reanchor(long nowNanos) {
+    anchorNanos = nowNanos;
+    anchorFrames = frames;
+  }
+
+  /**
+   * Account for a published block and return when the next one is due.
+   *
+   * @param blockFrames frames of the block just published
+   * @param nowNanos current {@link System#nanoTime()}
+   * @return deadline of the next block in {@link System#nanoTime()} terms; {@code nowNanos} if it
+   *     is due immediately
+   */
+  long advance(int blockFrames, long nowNanos) {
+    frames += blockFrames;
+    if (speed == Double.POSITIVE_INFINITY) {
+      reanchor(nowNanos);
+      return nowNanos;
+    }
+    long deadline =
+        anchorNanos + Math.round((frames - anchorFrames) * 1_000_000_000.0 / (sampleRate * speed));
+    if (nowNanos - deadline > MAX_LAG_NANOS) {
+      reanchor(nowNanos);
+      return nowNanos;
+    }
+    return Math.max(deadline, nowNanos);
+  }
+
+  /**
+   * @return frames published so far
+   */
+  long frames() {
+    return frames;
+  }
+}
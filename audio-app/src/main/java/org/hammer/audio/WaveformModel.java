@@ -8,8 +8,8 @@ import java.util.Arrays;
  * <p>This class represents a point-in-time snapshot of audio waveform data, containing x and y
  * coordinates for drawing, as well as metadata about tick intervals.
  *
- * <p>Thread-safety: This class is immutable and thread-safe. All arrays are defensive copies,
- * preventing external modification.
+ * <p>Thread-safety: This class is immutable and thread-safe. Arrays passed to the public
+ * constructor are copied and getters return copies, preventing external modification.
  *
  * @author refactoring
  */
@@ -33,24 +33,48 @@ public final class WaveformModel {
    * @param dataSize the buffer data size in bytes
    */
   public WaveformModel(int[] xPoints, int[][] yPoints, int tickEveryNSample, int dataSize) {
-    // Defensive copies
-    this.xPoints = xPoints != null ? Arrays.copyOf(xPoints, xPoints.length) : new int[0];
-
-    if (yPoints != null) {
-      this.yPoints = new int[yPoints.length][];
-      for (int i = 0; i < yPoints.length; i++) {
-        this.yPoints[i] =
-            yPoints[i] != null ? Arrays.copyOf(yPoints[i], yPoints[i].length) : new int[0];
-      }
+    this(xPoints, yPoints, tickEveryNSample, dataSize, true);
+  }
+
+  private WaveformModel(
+      int[] xPoints, int[][] yPoints, int tickEveryNSample, int dataSize, boolean copy) {
+    if (!copy) {
+      this.xPoints = xPoints;
+      this.yPoints = yPoints;
     } else {
-      this.yPoints = new int[0][];
+      // Defensive copies
+      this.xPoints = xPoints != null ? Arrays.copyOf(xPoints, xPoints.length) : new int[0];
+
+      if (yPoints != null) {
+        this.yPoints = new int[yPoints.length][];
+        for (int i = 0; i < yPoints.length; i++) {
+          this.yPoints[i] =
+              yPoints[i] != null ? Arrays.copyOf(yPoints[i], yPoints[i].length) : new int[0];
+        }
+      } else {
+        this.yPoints = new int[0][];
+      }
     }
 
     this.tickEveryNSample = tickEveryNSample;
-    this.numberOfPoints = xPoints != null ? xPoints.length : 0;
+    this.numberOfPoints = this.xPoints.length;
     this.dataSize = dataSize;
   }
 
+  /**
+   * Create a model that takes ownership of freshly computed arrays instead of copying them. The
+   * caller must not retain or modify {@code xPoints} and {@code yPoints} afterwards.
+   *
+   * @param xPoints x-coordinates for drawing; never {@code null}
+   * @param yPoints y-coordinates for each channel; never {@code null}, no {@code null} elements
+   * @param tickEveryNSample interval between tick marks
+   * @param dataSize the buffer data size in bytes
+   * @return a model referencing the given arrays
+   */
+  static WaveformModel adopt(int[] xPoints, int[][] yPoints, int tickEveryNSample, int dataSize) {
+    return new WaveformModel(xPoints, yPoints, tickEveryNSample, dataSize, false);
+  }
+
   /**
    * Get x-coordinates for drawing.
    *
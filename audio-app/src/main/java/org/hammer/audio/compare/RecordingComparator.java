@@ -8,6 +8,7 @@ import org.hammer.audio.analysis.MeasurementCalculator;
 import org.hammer.audio.analysis.MeasurementSnapshot;
 import org.hammer.audio.analysis.SpectrumAnalyzer;
 import org.hammer.audio.analysis.SpectrumSnapshot;
+import org.hammer.audio.buffer.SampleRingBuffer;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
 import org.hammer.audio.diagnosis.DiagnosisAnalyzer;
@@ -19,8 +20,11 @@ import org.hammer.audio.spectrogram.SpectrogramAnalyzer;
  * Replays two {@code .aar} recordings (or two in-memory block lists), runs the standard analyzer
  * stack on each, and returns a {@link ComparisonReport}.
  *
- * <p>The recording is analyzed block-by-block exactly as the live UI would, so the resulting
- * snapshots reflect the end state at the last block (matching the "freeze and inspect" workflow).
+ * <p>The spectrum and spectrogram analyzers see the recording as consecutive windows of exactly
+ * {@code fftSize} frames, cut from a {@link SampleRingBuffer} whatever the recorded block size, so
+ * recordings made with short blocks are analyzed too and long blocks are analyzed in full. The
+ * resulting snapshots reflect the end state at the last block (matching the "freeze and inspect"
+ * workflow).
  */
 public final class RecordingComparator {
 
@@ -82,6 +86,10 @@ public final class RecordingComparator {
     SpectrogramAnalyzer spectrogramAnalyzer =
         new SpectrogramAnalyzer(fftSize, 0, format.sampleRate(), DEFAULT_SPECTROGRAM_FRAMES);
     DiagnosisAnalyzer diagnosisAnalyzer = new DiagnosisAnalyzer();
+    // Room for a whole block on top of a window, so no window is overwritten before it is read.
+    int maxBlockFrames = blocks.stream().mapToInt(AudioBlock::frames).max().orElse(0);
+    SampleRingBuffer samples = new SampleRingBuffer(format, fftSize + maxBlockFrames);
+    SampleRingBuffer.WindowReader windows = samples.reader(fftSize, fftSize);
 
     SpectrumSnapshot lastSpectrum = null;
     AudioBlock lastBlock = null;
@@ -92,9 +100,11 @@ public final class RecordingComparator {
       }
       lastBlock = block;
       totalFrames += block.frames();
-      if (block.channels() > 0 && block.frames() >= fftSize) {
-        lastSpectrum = spectrumAnalyzer.analyze(block);
-        spectrogramAnalyzer.analyze(block);
+      samples.write(block);
+      while (windows.next()) {
+        AudioBlock window = windows.block();
+        lastSpectrum = spectrumAnalyzer.analyze(window);
+        spectrogramAnalyzer.analyze(window);
       }
     }
     MeasurementSnapshot measurement = measurementCalculator.calculate(lastBlock, lastSpectrum);
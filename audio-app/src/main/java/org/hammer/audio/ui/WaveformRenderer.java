@@ -1,5 +1,7 @@
 package org.hammer.audio.ui;
 
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
 import org.hammer.audio.snapshot.WaveformSnapshot;
 
 /**
@@ -75,10 +77,31 @@ public final class WaveformRenderer {
           "channel " + channel + " out of range [0, " + snapshot.channels() + ")");
     }
     float[] samples = snapshot.channelView(channel);
-    int[] ys = new int[samples.length];
+    return computeYPoints(samples, 0, samples.length, panelHeight);
+  }
+
+  /**
+   * Convert a zero-copy sample window, e.g. {@link AudioBlock#channelView(int, int, int)}, into
+   * pixel-space Y-coordinates with the same mapping as {@link #computeYPoints(WaveformSnapshot,
+   * int, int)}. The samples are read in place, never copied.
+   *
+   * @param samples sample window; never {@code null}
+   * @param panelHeight target panel height in pixels; must be {@code > 0}
+   * @return integer Y-coordinates of length {@code samples.length()}
+   * @throws IllegalArgumentException if {@code panelHeight <= 0}
+   */
+  public static int[] computeYPoints(SampleSlice samples, int panelHeight) {
+    if (panelHeight <= 0) {
+      throw new IllegalArgumentException("panelHeight must be > 0, was " + panelHeight);
+    }
+    return computeYPoints(samples.array(), samples.offset(), samples.length(), panelHeight);
+  }
+
+  private static int[] computeYPoints(float[] samples, int offset, int length, int panelHeight) {
+    int[] ys = new int[length];
     final float halfH = panelHeight / 2f;
-    for (int i = 0; i < samples.length; i++) {
-      float n = samples[i];
+    for (int i = 0; i < length; i++) {
+      float n = samples[offset + i];
       if (n > 1f) {
         n = 1f;
       } else if (n < -1f) {
@@ -0,0 +1,107 @@
+package org.hammer.audio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.hammer.audio.buffer.AudioRingBuffer;
+import org.hammer.audio.buffer.OverflowPolicy;
+import org.hammer.audio.buffer.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveBlockSizerTest {
+
+  private static final float SAMPLE_RATE = 48000f;
+
+  /** 20 ms target, 25 % dead band: shrink above 25 ms, grow while the grown block stays < 15 ms. */
+  private static final AdaptiveBlockSizing SIZING =
+      AdaptiveBlockSizing.of(20, TimeUnit.MILLISECONDS, 64, 8192);
+
+  /** Elements are their own capture timestamps, so queue latency is set by what we offer. */
+  private final AudioRingBuffer<Long> ring =
+      new AudioRingBuffer<>(8, WaitStrategy.parking(), OverflowPolicy.DROP_OLDEST);
+
+  private final AdaptiveBlockSizer sizer = new AdaptiveBlockSizer(SIZING, SAMPLE_RATE, 0L);
+
+  AdaptiveBlockSizerTest() {
+    ring.enableInstrumentation(Long::longValue);
+  }
+
+  @Test
+  void first_window_only_establishes_the_baseline() {
+    consume(4, TimeUnit.SECONDS.toNanos(1));
+    assertEquals(256, sizer.evaluate(256, ring.stats(), 0L));
+    assertEquals(64, sizer.evaluate(16, ring.stats(), 0L), "result is clamped to the bounds");
+  }
+
+  @Test
+  void fast_consumer_grows_the_block_until_the_next_step_would_leave_the_dead_band() {
+    sizer.evaluate(256, ring.stats(), 0L);
+    consume(4, 100_000L);
+    // 256 frames = 5.3 ms; doubled 10.7 ms < 15 ms.
+    assertEquals(512, sizer.evaluate(256, ring.stats(), 0L));
+    consume(4, 100_000L);
+    // 512 frames = 10.7 ms; doubled 21.3 ms would overshoot, and 10.7 ms is inside the band.
+    assertEquals(512, sizer.evaluate(512, ring.stats(), 0L));
+  }
+
+  @Test
+  void queueing_delay_above_the_band_halves_the_block() {
+    sizer.evaluate(512, ring.stats(), 0L);
+    consume(4, TimeUnit.MILLISECONDS.toNanos(40));
+    assertEquals(256, sizer.evaluate(512, ring.stats(), 0L));
+  }
+
+  @Test
+  void consumer_slower_than_capture_grows_the_block() {
+    sizer.evaluate(512, ring.stats(), 0L);
+    consume(4, 100_000L);
+    sizer.recordProcessingNanos(TimeUnit.MILLISECONDS.toNanos(12));
+    sizer.recordProcessingNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    // 12 ms of work per 10.7 ms block: behind, despite the latency target.
+    assertEquals(1024, sizer.evaluate(512, ring.stats(), 0L));
+    consume(4, 100_000L);
+    assertEquals(1024, sizer.evaluate(1024, ring.stats(), 0L), "processing time is per window");
+  }
+
+  @Test
+  void drops_grow_the_block_only_while_a_consumer_drains_the_ring() {
+    sizer.evaluate(512, ring.stats(), 0L);
+    for (int i = 0; i < 12; i++) {
+      ring.offer(System.nanoTime());
+    }
+    assertEquals(512, sizer.evaluate(512, ring.stats(), 0L), "no dequeues: nobody missed them");
+
+    ring.poll();
+    assertEquals(1024, sizer.evaluate(512, ring.stats(), 0L), "half-full ring with a consumer");
+  }
+
+  @Test
+  void evaluation_waits_for_enough_blocks_and_time() {
+    long interval = AdaptiveBlockSizer.EVALUATION_INTERVAL_NANOS;
+    for (int i = 1; i < AdaptiveBlockSizer.MIN_BLOCKS_PER_EVALUATION; i++) {
+      assertFalse(sizer.onBlockPublished(interval));
+    }
+    assertTrue(sizer.onBlockPublished(interval));
+    sizer.evaluate(256, ring.stats(), interval);
+    for (int i = 0; i < 10; i++) {
+      assertFalse(sizer.onBlockPublished(interval + 1), "interval not elapsed");
+    }
+    assertTrue(sizer.onBlockPublished(2 * interval));
+  }
+
+  @Test
+  void sizing_validates_its_bounds() {
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveBlockSizing(0, 1, 2, 0.1));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveBlockSizing(1, 4, 2, 0.1));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveBlockSizing(1, 1, 2, 1.0));
+    assertEquals(8192, SIZING.clamp(Integer.MAX_VALUE));
+  }
+
+  /** Publish and dequeue {@code count} elements that each waited {@code latencyNanos}. */
+  private void consume(int count, long latencyNanos) {
+    for (int i = 0; i < count; i++) {
+      ring.offer(System.nanoTime() - latencyNanos);
+      ring.poll();
+    }
+  }
+}
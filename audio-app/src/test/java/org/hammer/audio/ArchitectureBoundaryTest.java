@@ -140,6 +140,36 @@ class ArchitectureBoundaryTest {
     assertNoViolations(violations);
   }
 
+  @Test
+  void headlessRuntimeStaysOnStableModulesWithoutUi() throws IOException {
+    List<String> violations = new ArrayList<>();
+    try (Stream<Path> files = Files.walk(mainJava("audio-headless"))) {
+      files
+          .filter(path -> path.toString().endsWith(".java"))
+          .forEach(
+              path ->
+                  importLines(path).stream()
+                      .forEach(
+                          line -> {
+                            String trimmed = line.trim();
+                            if (trimmed.startsWith("import java.awt.")
+                                || trimmed.startsWith("import javax.swing.")
+                                || trimmed.startsWith("import org.hammer.audio.ui.")
+                                || trimmed.startsWith("import org.hammer.audio.experimental.")
+                                || trimmed.matches("import org\\.hammer\\.(?!audio\\.).*")) {
+                              violations.add(path + ": " + trimmed);
+                            }
+                          }));
+    }
+    String headlessPom = Files.readString(REPOSITORY_ROOT.resolve("audio-headless/pom.xml"));
+    for (String artifactId : dependencyArtifactIds(headlessPom)) {
+      if (artifactId.startsWith("audio-") && !STABLE_MODULES.contains(artifactId)) {
+        violations.add("audio-headless has non-stable dependency: " + artifactId);
+      }
+    }
+    assertNoViolations(violations);
+  }
+
   private static Set<String> compileScopeDependencies(String pom) {
     Set<String> compileDeps = new java.util.LinkedHashSet<>();
     boolean inDependency = false;
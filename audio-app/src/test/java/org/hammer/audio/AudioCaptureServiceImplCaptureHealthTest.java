@@ -0,0 +1,63 @@
+package org.hammer.audio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sound.sampled.TargetDataLine;
+import org.hammer.audio.core.AudioBlock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the overrun and frame-loss detection of AudioCaptureServiceImpl. */
+class AudioCaptureServiceImplCaptureHealthTest {
+
+  /** 16-bit mono, buffer 4096 / divisor 8 = 512 bytes = 256 frames per read. */
+  private static final int FRAMES_PER_READ = 256;
+
+  private static final long GAP_FRAMES = 10_000L;
+
+  private AudioCaptureServiceImpl service;
+
+  @AfterEach
+  void cleanup() {
+    if (service != null && service.isRunning()) {
+      service.stop();
+    }
+  }
+
+  @Test
+  void device_frame_gap_is_counted_and_skipped_in_frame_indices() throws InterruptedException {
+    TestAudioLineProvider provider = new TestAudioLineProvider(4096, new byte[512]);
+    TargetDataLine line = provider.getMockLine();
+    AtomicInteger positionQueries = new AtomicInteger();
+    // Position before read k (0-based) is k reads; from the fifth read on the device is ahead.
+    when(line.getLongFramePosition())
+        .thenAnswer(
+            invocation -> {
+              int k = positionQueries.getAndIncrement();
+              return (long) k * FRAMES_PER_READ + (k >= 4 ? GAP_FRAMES : 0L);
+            });
+    AtomicInteger availableQueries = new AtomicInteger();
+    when(line.available())
+        .thenAnswer(invocation -> availableQueries.getAndIncrement() == 2 ? 4096 : 0);
+    service = new AudioCaptureServiceImpl(16000.0f, 16, 1, true, false, 8, provider);
+    assertEquals(0, service.getCaptureHealth().blocks());
+
+    service.start();
+    while (service.getCaptureHealth().blocks() < 10) {
+      Thread.sleep(1);
+    }
+    service.stop();
+
+    CaptureHealth health = service.getCaptureHealth();
+    assertEquals(1, health.discontinuities());
+    assertEquals(GAP_FRAMES, health.lostFrames());
+    assertEquals(1, health.overruns());
+    assertEquals(1.0, health.peakBufferFill());
+    assertFalse(health.keepingUp());
+    AudioBlock latest = service.getLatestBlock();
+    assertEquals(GAP_FRAMES % FRAMES_PER_READ, latest.frameIndex() % FRAMES_PER_READ);
+    assertTrue(latest.frameIndex() > GAP_FRAMES);
+  }
+}
@@ -0,0 +1,67 @@
+package org.hammer.audio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for publishing a subset of the line's channels. */
+class AudioCaptureServiceImplChannelSelectionTest {
+
+  private AudioCaptureServiceImpl service;
+
+  @AfterEach
+  void cleanup() {
+    if (service != null && service.isRunning()) {
+      service.stop();
+    }
+  }
+
+  @Test
+  void selected_channels_are_published_in_map_order() throws InterruptedException {
+    // Four signed 8-bit channels; channel c always carries the value 10 * (c + 1).
+    byte[] testData = new byte[256];
+    for (int i = 0; i < testData.length; i++) {
+      testData[i] = (byte) (10 * (i % 4 + 1));
+    }
+    service =
+        new AudioCaptureServiceImpl(
+            16000.0f, 8, 4, true, false, 8, new TestAudioLineProvider(4096, testData));
+
+    service.selectChannels(2, 0);
+    assertArrayEquals(new int[] {2, 0}, service.getChannelMap());
+    assertEquals(new AudioFormatDescriptor(16000f, 2, 8), service.getDescriptor());
+    service.start();
+    AudioBlock block = service.getLatestBlock();
+    while (block == null) {
+      Thread.sleep(1);
+      block = service.getLatestBlock();
+    }
+
+    assertEquals(4, service.getFormat().getChannels());
+    assertEquals(2, block.channels());
+    assertEquals(30f / 127f, block.channelView(0)[0], 1e-6f);
+    assertEquals(10f / 127f, block.channelView(1)[0], 1e-6f);
+    assertThrows(IllegalStateException.class, () -> service.selectChannels(1));
+  }
+
+  @Test
+  void selection_is_validated_against_the_line_and_the_block_pool() {
+    service =
+        new AudioCaptureServiceImpl(
+            16000.0f, 16, 4, true, false, 8, new TestAudioLineProvider(4096, new byte[512]));
+
+    assertThrows(IllegalArgumentException.class, () -> service.selectChannels(4));
+    service.setBlockPool(new AudioBlockPool(service.getDescriptor(), 4));
+    assertThrows(IllegalStateException.class, () -> service.selectChannels(0));
+
+    service.setBlockPool(null);
+    service.selectChannels(1, 3);
+    service.setBlockPool(new AudioBlockPool(service.getDescriptor(), 4));
+    assertThrows(IllegalStateException.class, () -> service.selectChannels());
+    assertArrayEquals(new int[] {1, 3}, service.getChannelMap());
+  }
+}
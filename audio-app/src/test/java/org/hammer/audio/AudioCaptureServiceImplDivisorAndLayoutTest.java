@@ -64,6 +64,23 @@ class AudioCaptureServiceImplDivisorAndLayoutTest {
         "Increasing divisor should reduce numberOfPoints (got " + points2 + " vs " + points1 + ")");
   }
 
+  @Test
+  void model_data_size_is_that_of_the_rendered_block() throws InterruptedException {
+    TestAudioLineProvider provider = new TestAudioLineProvider(4096, new byte[256]);
+    // 16-bit stereo: 4 bytes per frame.
+    service = new AudioCaptureServiceImpl(16000.0f, 16, 2, true, false, 3, provider);
+
+    service.start();
+    Thread.sleep(100);
+    WaveformModel before = service.getLatestModel();
+    assertEquals(before.getNumberOfPoints() * 4, before.getDataSize());
+
+    service.setDivisor(4);
+    Thread.sleep(100);
+    WaveformModel after = service.getLatestModel();
+    assertEquals(after.getNumberOfPoints() * 4, after.getDataSize());
+  }
+
   @Test
   void recomputeLayout_updates_xPoints_to_span_width() throws InterruptedException {
     byte[] testData = new byte[256];
@@ -1,7 +1,15 @@
 package org.hammer.audio;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
 import org.junit.jupiter.api.Test;
 
 /** Test for AudioCaptureServiceImpl to verify model caching behavior. */
@@ -35,4 +43,75 @@ class AudioCaptureServiceImplTest {
         model2,
         "Should return same cached instance when called multiple times without updates");
   }
+
+  @Test
+  void pooled_broadcast_subscriber_holds_its_own_reference() throws InterruptedException {
+    AudioCaptureServiceImpl service =
+        new AudioCaptureServiceImpl(
+            16000.0f, 16, 1, true, false, 8, new TestAudioLineProvider(4096, new byte[512]));
+    service.setBlockPool(new AudioBlockPool(service.getDescriptor(), 4));
+    BroadcastRingBuffer.Subscriber<AudioBlock> subscriber =
+        service.getBroadcastBuffer().subscribe();
+    service.start();
+    try {
+      assertTrue(subscriber.awaitAvailable(5, TimeUnit.SECONDS));
+      AudioBlock first = subscriber.poll();
+      // Let capture move on well past the latest slot and the pool size.
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (service.getLatestBlock().frameIndex() < first.frameIndex() + 64L * first.frames()
+          && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+
+      assertEquals(1, first.refCount(), "only the subscriber still holds the first block");
+      assertTrue(first.release());
+    } finally {
+      subscriber.close();
+      service.stop();
+    }
+  }
+
+  @Test
+  void pooled_latest_block_survives_recycling_of_its_storage() throws InterruptedException {
+    TestAudioLineProvider lines = new TestAudioLineProvider(4096, new byte[512]);
+    AtomicInteger reads = new AtomicInteger();
+    // Every read fills the buffer with its own 16-bit little-endian value.
+    when(lines.getMockLine().read(any(byte[].class), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              byte[] buffer = invocation.getArgument(0);
+              int offset = invocation.getArgument(1);
+              int length = invocation.getArgument(2);
+              int value = reads.incrementAndGet() & 0x3FFF;
+              for (int i = offset; i + 1 < offset + length; i += 2) {
+                buffer[i] = (byte) value;
+                buffer[i + 1] = (byte) (value >> 8);
+              }
+              return length;
+            });
+    AudioCaptureServiceImpl service =
+        new AudioCaptureServiceImpl(16000.0f, 16, 1, true, false, 8, lines);
+    AudioBlockPool pool = new AudioBlockPool(service.getDescriptor(), 4);
+    service.setBlockPool(pool);
+    service.start();
+    try {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (service.getLatestBlock() == null && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      AudioBlock latest = service.getLatestBlock();
+      float[] before = latest.channelView(0).clone();
+      // The ring buffer evicts and recycles blocks once it is full; let capture lap it twice.
+      while (service.getLatestBlock().frameIndex() < latest.frameIndex() + 128L * latest.frames()
+          && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+
+      assertTrue(pool.reuses() > 0, "capture must have recycled block storage meanwhile");
+      assertFalse(latest.isPooled());
+      assertArrayEquals(before, latest.channelView(0), "latest block must stay immutable");
+    } finally {
+      service.stop();
+    }
+  }
 }
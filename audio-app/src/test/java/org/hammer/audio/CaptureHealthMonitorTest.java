@@ -0,0 +1,57 @@
+package org.hammer.audio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CaptureHealthMonitorTest {
+
+  /** 16-bit stereo. */
+  private static final int FRAME_SIZE = 4;
+
+  private final CaptureHealthMonitor monitor = new CaptureHealthMonitor(FRAME_SIZE);
+
+  @Test
+  void counts_reads_that_find_the_device_buffer_full() {
+    assertEquals(0L, monitor.beforeRead(1024, 4096, 0L, 256));
+    monitor.afterBlock(1024, 5_000_000L, 20_000L);
+    monitor.beforeRead(4096, 4096, 0L, 256);
+    monitor.afterBlock(1024, 10_000L, 40_000L);
+
+    CaptureHealth health = monitor.snapshot();
+    assertEquals(2, health.blocks());
+    assertEquals(1, health.overruns());
+    assertEquals(1.0, health.bufferFill());
+    assertEquals(1.0, health.peakBufferFill());
+    assertEquals(10_000L, health.lastReadNanos());
+    assertEquals(5_000_000L, health.maxReadNanos());
+    assertEquals(2_505_000L, health.meanReadNanos());
+    assertEquals(40_000L, health.maxDecodeNanos());
+    assertEquals(30_000L, health.meanDecodeNanos());
+    assertFalse(health.keepingUp());
+  }
+
+  @Test
+  void reports_frames_the_device_captured_but_nobody_read() {
+    // 256 frames read, 64 buffered: a position of 320 (plus jitter) is accounted for.
+    monitor.afterBlock(256 * FRAME_SIZE, 0L, 0L);
+    assertEquals(0L, monitor.beforeRead(64 * FRAME_SIZE, 4096, 330L, 256));
+    assertEquals(1000L, monitor.beforeRead(64 * FRAME_SIZE, 4096, 1320L, 256));
+    monitor.afterBlock(256 * FRAME_SIZE, 0L, 0L);
+    // The gap is remembered, so the next check does not report it again.
+    assertEquals(0L, monitor.beforeRead(0, 4096, 1512L, 256));
+
+    CaptureHealth health = monitor.snapshot();
+    assertEquals(1, health.discontinuities());
+    assertEquals(1000L, health.lostFrames());
+    assertEquals(0, health.overruns());
+  }
+
+  @Test
+  void lines_without_frame_position_never_report_loss() {
+    assertEquals(0L, monitor.beforeRead(0, 4096, 0L, 0));
+    assertEquals(0L, monitor.beforeRead(0, 0, -1L, 0));
+    assertTrue(monitor.snapshot().keepingUp());
+    assertEquals(0L, monitor.snapshot().meanReadNanos());
+  }
+}
@@ -2,6 +2,7 @@ package org.hammer.audio;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import org.hammer.audio.buffer.BroadcastRingBuffer;
 import org.hammer.audio.core.AudioBlock;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,32 @@ class DemoAudioCaptureServiceTest {
     }
   }
 
+  @Test
+  void broadcast_subscribers_see_contiguous_blocks() throws InterruptedException {
+    service = new DemoAudioCaptureService(16_000f, 16, 1, 1, DemoSignalType.SINE);
+    BroadcastRingBuffer.Subscriber<AudioBlock> first = service.getBroadcastBuffer().subscribe();
+    BroadcastRingBuffer.Subscriber<AudioBlock> second = service.getBroadcastBuffer().subscribe();
+    service.start();
+
+    long expectedFrameIndex = -1;
+    int seen = 0;
+    long deadline = System.nanoTime() + 2_000_000_000L;
+    while (seen < 3 && System.nanoTime() < deadline) {
+      AudioBlock block = first.poll();
+      if (block == null) {
+        Thread.sleep(5);
+        continue;
+      }
+      if (expectedFrameIndex >= 0) {
+        assertEquals(expectedFrameIndex, block.frameIndex(), "no block may be skipped");
+      }
+      assertSame(block, second.poll(), "every subscriber sees the same block");
+      expectedFrameIndex = block.frameIndex() + block.frames();
+      seen++;
+    }
+    assertEquals(3, seen);
+  }
+
   @Test
   void constructor_rejects_invalid_divisor() {
     assertThrows(
@@ -0,0 +1,63 @@
+package org.hammer.audio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.junit.jupiter.api.Test;
+
+class LazyWaveformModelTest {
+
+  private static final AudioFormatDescriptor STEREO = new AudioFormatDescriptor(48000f, 2, 16);
+
+  private final LazyWaveformModel lazy = new LazyWaveformModel(48, AudioBlock::frames);
+
+  @Test
+  void null_block_yields_empty_model() {
+    assertSame(WaveformModel.EMPTY, lazy.modelFor(null));
+  }
+
+  @Test
+  void model_is_rendered_once_per_block_and_layout() {
+    AudioBlock block = block(1f, 0f, -1f);
+    lazy.layout(100, 200);
+
+    WaveformModel first = lazy.modelFor(block);
+    assertSame(first, lazy.modelFor(block), "same block and layout must reuse the model");
+    assertArrayEquals(new int[] {0, 49, 99}, first.getXPoints());
+    assertArrayEquals(new int[] {0, 100, 200}, first.getYPointsForChannel(0));
+    assertArrayEquals(new int[] {200, 100, 0}, first.getYPointsForChannel(1));
+    assertEquals(48, first.getTickEveryNSample());
+    assertEquals(3, first.getDataSize());
+
+    lazy.layout(10, 20);
+    WaveformModel resized = lazy.modelFor(block);
+    assertNotSame(first, resized);
+    assertArrayEquals(new int[] {0, 4, 9}, resized.getXPoints());
+
+    assertNotSame(resized, lazy.modelFor(block(0f, 0f, 0f)), "a new block must be re-rendered");
+  }
+
+  @Test
+  void unlaid_out_panel_yields_empty_channel_arrays() {
+    lazy.layout(100, 0);
+    WaveformModel model = lazy.modelFor(block(0.5f, -0.5f, 0f));
+    assertEquals(2, model.getChannelCount());
+    assertEquals(0, model.getYPointsForChannel(0).length);
+    assertEquals(3, model.getNumberOfPoints());
+  }
+
+  @Test
+  void slices_of_contiguous_storage_are_rendered_without_copying_the_block() {
+    float[] data = {9f, 1f, 0f, -1f, 9f, 9f, -1f, 0f, 1f, 9f};
+    AudioBlock block = AudioBlock.wrapContiguous(STEREO, data, 5, 5, 0L, 0L).slice(1, 3);
+    lazy.layout(100, 200);
+    WaveformModel model = lazy.modelFor(block);
+    assertArrayEquals(new int[] {0, 100, 200}, model.getYPointsForChannel(0));
+    assertArrayEquals(new int[] {200, 100, 0}, model.getYPointsForChannel(1));
+  }
+
+  private static AudioBlock block(float a, float b, float c) {
+    return AudioBlock.wrap(STEREO, new float[][] {{a, b, c}, {-a, -b, -c}}, 0L, 0L);
+  }
+}
@@ -0,0 +1,179 @@
+package org.hammer.audio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.TargetDataLine;
+import org.hammer.audio.acquisition.Microphone;
+import org.hammer.audio.acquisition.MicrophoneArray;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.geometry.Vector2;
+import org.junit.jupiter.api.Test;
+
+class MultiDeviceAudioSourceTest {
+
+  private static final float SAMPLE_RATE = 8000f;
+
+  /** Host time of the read that just returned on this reader thread, set by the fake lines. */
+  private static final ThreadLocal<Long> HOST_NANOS = ThreadLocal.withInitial(() -> 0L);
+
+  @Test
+  void compensates_injected_drift_between_devices() throws Exception {
+    DoubleUnaryOperator signal = t -> 0.5 * Math.sin(2.0 * Math.PI * 50.0 * t);
+    List<AudioLineProvider> devices =
+        List.of(
+            new DriftingLineProvider(signal, 0.0, 0.0, 80_000, 1),
+            new DriftingLineProvider(signal, 300.0, 0.0037, 80_000, 2),
+            new DriftingLineProvider(signal, -200.0, 0.0011, 80_000, 3));
+    List<float[]> channels = new ArrayList<>();
+    try (MultiDeviceAudioSource source = source(devices, 80_000)) {
+      readAll(source, 400, channels);
+      assertEquals(0.0, source.driftPpm(0));
+      assertEquals(300.0, source.driftPpm(1), 5.0);
+      assertEquals(-200.0, source.driftPpm(2), 5.0);
+      assertEquals(0L, source.droppedFrames());
+    }
+
+    float[] reference = channels.get(0);
+    // Uncompensated, 300 ppm over 9 s would shift device 1 by 2.7 ms, a 0.85 rad phase error.
+    assertTrue(reference.length > 70_000, "frames: " + reference.length);
+    for (int device = 1; device < 3; device++) {
+      float[] resampled = channels.get(device);
+      double worst = 0.0;
+      for (int i = 2 * (int) SAMPLE_RATE; i < reference.length; i++) {
+        worst = Math.max(worst, Math.abs(resampled[i] - reference[i]));
+      }
+      assertTrue(worst < 0.01, "device " + device + " misaligned by up to " + worst);
+    }
+  }
+
+  @Test
+  void single_device_passes_samples_through_unchanged() throws Exception {
+    DoubleUnaryOperator ramp = t -> t * SAMPLE_RATE / 2000.0 - 0.25;
+    try (MultiDeviceAudioSource source =
+        source(List.of(new DriftingLineProvider(ramp, 0.0, 0.0, 1000, 0)), 4096)) {
+      float[] samples = new float[0];
+      Optional<AudioBlock> block;
+      while ((block = source.readBlock(300)).isPresent()) {
+        assertEquals(samples.length, block.get().frameIndex());
+        samples = concat(samples, block.get().channelView(0));
+      }
+      assertEquals(1000, samples.length);
+      for (int i = 0; i < samples.length; i++) {
+        assertEquals(i / 2000.0 - 0.25, samples[i], 1e-4);
+      }
+    }
+  }
+
+  @Test
+  void rejects_devices_that_do_not_match_the_array() {
+    List<AudioLineProvider> devices = List.of(format -> mock(TargetDataLine.class));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new MultiDeviceAudioSource(
+                devices, new int[] {2}, SAMPLE_RATE, 16, true, false, array(3), 4096, () -> 0L));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new MultiDeviceAudioSource(
+                devices, new int[] {1, 1}, SAMPLE_RATE, 16, true, false, array(2), 4096, () -> 0L));
+  }
+
+  private static MultiDeviceAudioSource source(List<AudioLineProvider> devices, int bufferFrames) {
+    int[] channelsPerDevice = new int[devices.size()];
+    Arrays.fill(channelsPerDevice, 1);
+    return new MultiDeviceAudioSource(
+        devices,
+        channelsPerDevice,
+        SAMPLE_RATE,
+        16,
+        true,
+        false,
+        array(devices.size()),
+        bufferFrames,
+        HOST_NANOS::get);
+  }
+
+  private static MicrophoneArray array(int channels) {
+    List<Microphone> microphones = new ArrayList<>();
+    for (int c = 0; c < channels; c++) {
+      microphones.add(new Microphone("mic-" + c, new Vector2(0.1 * c, 0.0), c));
+    }
+    return new MicrophoneArray(microphones);
+  }
+
+  private static void readAll(MultiDeviceAudioSource source, int frames, List<float[]> channels)
+      throws Exception {
+    Optional<AudioBlock> block;
+    while ((block = source.readBlock(frames)).isPresent()) {
+      for (int c = 0; c < block.get().channels(); c++) {
+        if (channels.size() <= c) {
+          channels.add(new float[0]);
+        }
+        channels.set(c, concat(channels.get(c), block.get().channelView(c)));
+      }
+    }
+  }
+
+  private static float[] concat(float[] a, float[] b) {
+    float[] out = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, out, a.length, b.length);
+    return out;
+  }
+
+  /**
+   * Mono 16-bit line sampling {@code signal(t)} at host time {@code t} with a clock that runs
+   * {@code driftPpm} fast, starting at {@code startSeconds}. Each read reports its completion time
+   * through {@link #HOST_NANOS}, with up to 20 µs of deterministic jitter.
+   */
+  private static final class DriftingLineProvider implements AudioLineProvider {
+
+    private final TargetDataLine line = mock(TargetDataLine.class);
+    private long delivered;
+
+    DriftingLineProvider(
+        DoubleUnaryOperator signal,
+        double driftPpm,
+        double startSeconds,
+        int totalFrames,
+        long jitterSeed) {
+      double rate = SAMPLE_RATE * (1.0 + driftPpm / 1_000_000.0);
+      Random jitter = new Random(jitterSeed);
+      when(line.isOpen()).thenReturn(true);
+      when(line.read(any(byte[].class), anyInt(), anyInt()))
+          .thenAnswer(
+              invocation -> {
+                byte[] buffer = invocation.getArgument(0);
+                int offset = invocation.getArgument(1);
+                int length = invocation.getArgument(2);
+                int frames = (int) Math.min(length / 2, totalFrames - delivered);
+                if (frames <= 0) {
+                  return -1;
+                }
+                for (int i = 0; i < frames; i++) {
+                  double t = startSeconds + (delivered + i) / rate;
+                  short sample = (short) Math.round(signal.applyAsDouble(t) * Short.MAX_VALUE);
+                  buffer[offset + 2 * i] = (byte) sample;
+                  buffer[offset + 2 * i + 1] = (byte) (sample >> 8);
+                }
+                delivered += frames;
+                double completed = startSeconds + delivered / rate;
+                HOST_NANOS.set(Math.round(completed * 1e9) + jitter.nextInt(20_001));
+                return frames * 2;
+              });
+    }
+
+    @Override
+    public TargetDataLine acquireLine(AudioFormat format) {
+      return line;
+    }
+  }
+}
@@ -4,8 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.core.Pcm16AudioBlock;
 import org.junit.jupiter.api.Test;
 
 class RecordedAudioCaptureServiceTest {
@@ -20,6 +23,18 @@ class RecordedAudioCaptureServiceTest {
     return out;
   }
 
+  /** Blocks whose samples are exact 16-bit values, as decoded from 16-bit PCM. */
+  private static List<AudioBlock> pcm16Blocks() {
+    List<AudioBlock> out = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      float[] samples = {
+        3277 * Pcm16AudioBlock.SCALE, 6553 * Pcm16AudioBlock.SCALE, -9830 * Pcm16AudioBlock.SCALE
+      };
+      out.add(new AudioBlock(MONO_44K, new float[][] {samples}, i * 3L, 0L));
+    }
+    return out;
+  }
+
   @Test
   void exposesFormatAndBlockCount() {
     RecordedAudioCaptureService svc = new RecordedAudioCaptureService(blocks(), false);
@@ -28,6 +43,31 @@ class RecordedAudioCaptureServiceTest {
     assertFalse(svc.isRunning());
   }
 
+  @Test
+  void holds16BitRecordingsCompactAndDecodesOnReplay() throws InterruptedException {
+    RecordedAudioCaptureService svc = new RecordedAudioCaptureService(pcm16Blocks(), false);
+    assertTrue(svc.isCompact());
+    assertFalse(
+        new RecordedAudioCaptureService(blocks(), false).isCompact(),
+        "0.1f is not a 16-bit value and must not be quantized");
+    AudioFormatDescriptor wide = new AudioFormatDescriptor(44100f, 1, 24);
+    assertFalse(
+        new RecordedAudioCaptureService(
+                List.of(new AudioBlock(wide, new float[][] {{0f}}, 0L, 0L)), false)
+            .isCompact());
+
+    svc.start();
+    long deadline = System.nanoTime() + java.util.concurrent.TimeUnit.SECONDS.toNanos(5);
+    while (svc.getLatestBlock() == null && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    svc.stop();
+    AudioBlock first = svc.getLatestBlock();
+    assertNotNull(first, "no block published within 5 s");
+    assertEquals(MONO_44K, first.format());
+    assertEquals(6553 * Pcm16AudioBlock.SCALE, first.channelView(0)[1], 0f);
+  }
+
   @Test
   void rejectsEmptyBlocks() {
     assertThrows(
@@ -58,4 +98,54 @@ class RecordedAudioCaptureServiceTest {
     svc.stop();
     assertFalse(svc.isRunning());
   }
+
+  @Test
+  void unpacedReplayDeliversEveryBlockToLosslessSubscriber() throws InterruptedException {
+    List<AudioBlock> many = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      many.add(new AudioBlock(MONO_44K, new float[][] {{0.1f, 0.2f}}, i * 2L, 0L));
+    }
+    RecordedAudioCaptureService svc = new RecordedAudioCaptureService(many, false);
+    svc.setSpeed(RecordedAudioCaptureService.UNPACED);
+    try (BroadcastRingBuffer.Subscriber<AudioBlock> sub = svc.getBroadcastBuffer().subscribe()) {
+      svc.start();
+      for (int i = 0; i < many.size(); i++) {
+        assertTrue(sub.awaitAvailable(5, TimeUnit.SECONDS), "block " + i + " not delivered");
+        assertEquals(i * 2L, sub.poll().frameIndex());
+      }
+    } finally {
+      svc.stop();
+    }
+  }
+
+  @Test
+  void stepModePublishesOneBlockPerStep() throws InterruptedException {
+    RecordedAudioCaptureService svc = new RecordedAudioCaptureService(blocks(), true);
+    svc.setStepMode(true);
+    try (BroadcastRingBuffer.Subscriber<AudioBlock> sub = svc.getBroadcastBuffer().subscribe()) {
+      svc.start();
+      Thread.sleep(50);
+      assertNull(sub.poll(), "published without a step");
+
+      svc.step(2);
+      assertTrue(sub.awaitAvailable(5, TimeUnit.SECONDS));
+      assertEquals(0L, sub.poll().frameIndex());
+      assertTrue(sub.awaitAvailable(5, TimeUnit.SECONDS));
+      assertEquals(3L, sub.poll().frameIndex());
+      Thread.sleep(50);
+      assertNull(sub.poll(), "published more blocks than steps");
+    } finally {
+      svc.stop();
+    }
+  }
+
+  @Test
+  void rejectsSpeedsBelowMinimum() {
+    RecordedAudioCaptureService svc = new RecordedAudioCaptureService(blocks(), false);
+    assertThrows(IllegalArgumentException.class, () -> svc.setSpeed(0.1));
+    assertThrows(IllegalArgumentException.class, () -> svc.setSpeed(Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> svc.step(0));
+    svc.setSpeed(RecordedAudioCaptureService.MIN_SPEED);
+    assertEquals(0.25, svc.getSpeed());
+  }
 }
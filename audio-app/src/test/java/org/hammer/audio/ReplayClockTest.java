@@ -0,0 +1,56 @@
+package org.hammer.audio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ReplayClockTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  @Test
+  void deadlinesFollowTheFrameCountWithoutDrift() {
+    ReplayClock clock = new ReplayClock(48_000f, 0L);
+    long deadline = 0L;
+    // 7-frame blocks are 145.83 us each; per-block rounding must not accumulate.
+    for (int i = 0; i < 10_000; i++) {
+      deadline = clock.advance(7, deadline);
+    }
+    assertEquals(Math.round(clock.frames() * (double) SECOND / 48_000), deadline);
+  }
+
+  @Test
+  void lateWakeUpsAreAbsorbedByLaterDeadlines() {
+    ReplayClock clock = new ReplayClock(1_000f, 0L);
+    assertEquals(100_000_000L, clock.advance(100, 0L));
+    // The thread woke up 30 ms late; the next deadline stays on the absolute schedule.
+    assertEquals(200_000_000L, clock.advance(100, 130_000_000L));
+  }
+
+  @Test
+  void speedScalesAndReanchorsAtTheCurrentPosition() {
+    ReplayClock clock = new ReplayClock(1_000f, 0L);
+    assertEquals(SECOND, clock.advance(1_000, 0L));
+    clock.setSpeed(4.0, SECOND);
+    assertEquals(SECOND + SECOND / 4, clock.advance(1_000, SECOND));
+    clock.setSpeed(0.25, 2 * SECOND);
+    assertEquals(6 * SECOND, clock.advance(1_000, 2 * SECOND));
+  }
+
+  @Test
+  void unpacedBlocksAreDueImmediately() {
+    ReplayClock clock = new ReplayClock(1_000f, 0L);
+    clock.setSpeed(Double.POSITIVE_INFINITY, 0L);
+    assertEquals(5L, clock.advance(1_000, 5L));
+    assertEquals(1_000, clock.frames());
+  }
+
+  @Test
+  void fallingFarBehindRestartsInsteadOfBursting() {
+    ReplayClock clock = new ReplayClock(1_000f, 0L);
+    clock.advance(100, 0L);
+    long now = 200_000_000L + ReplayClock.MAX_LAG_NANOS + 1;
+    assertEquals(now, clock.advance(100, now));
+    assertEquals(now + 100_000_000L, clock.advance(100, now));
+  }
+}
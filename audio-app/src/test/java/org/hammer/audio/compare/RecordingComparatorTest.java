@@ -52,6 +52,21 @@ class RecordingComparatorTest {
     assertTrue(md.contains("Dominant freq"));
   }
 
+  @Test
+  void analyzesRecordingsWithBlocksShorterThanTheFft() {
+    SineGenerator gen = new SineGenerator(MONO_44K, 440.0, 0.5f);
+    List<AudioBlock> shortBlocks = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      shortBlocks.add(gen.nextBlock(300));
+    }
+    ComparisonReport report =
+        new RecordingComparator().compareBlocks(shortBlocks, recordSine(440.0, 8), "300", "2048");
+
+    assertNotNull(report.a().spectrum(), "300-frame blocks must still yield a spectrum");
+    double freq = report.a().measurement().dominantFrequencyHz();
+    assertTrue(Math.abs(freq - 440.0) < 50.0, "dominant freq off: " + freq);
+  }
+
   @Test
   void rendersTimbreDifferenceInCentroid() {
     List<AudioBlock> sine = recordSine(440.0, 8);
@@ -1,27 +1,72 @@
 package org.hammer.audio.buffer;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 /**
  * Bounded, lock-free single-producer / single-consumer (SPSC) ring buffer.
  *
  * <p>This buffer is designed for realtime audio workloads where the audio capture thread is the
  * sole producer and a downstream DSP/analysis thread is the sole consumer. It avoids locks on the
- * hot path entirely: synchronization is performed via two {@link AtomicLong} sequences using
- * acquire/release semantics implicit in {@link AtomicLong#get()} / {@link AtomicLong#lazySet(long)}
- * /{@link AtomicLong#set(long)}.
+ * hot path entirely: synchronization is performed via two {@code long} sequences published with
+ * release stores and read with acquire loads.
+ *
+ * <p><strong>Layout</strong>: the producer sequence ({@code tail}) and consumer sequence ({@code
+ * head}) live on separate, padded cache lines (see {@link RingBufferSequences}) so the two threads
+ * never invalidate each other's line by writing their own counter. Each side additionally keeps a
+ * private cached copy of the other side's sequence and only re-reads the shared one when the cache
+ * says the buffer is full (producer) or empty (consumer), so in steady state {@link #offer(Object)}
+ * and {@link #poll()} touch no cache line written by the other thread except the element slot.
  *
  * <p><strong>Capacity</strong> is rounded up to the next power of two so that the index calculation
  * can use a bitmask instead of modulo.
  *
  * <p><strong>Allocation</strong>: zero allocations on the hot path. The internal storage array is
  * allocated once at construction; {@link #offer(Object)} and {@link #poll()} only update sequence
- * counters.
+ * counters. {@link #offerBatch(Object[], int)} and {@link #drain(Consumer, int)} move many elements
+ * per sequence update, amortizing the cross-core publication cost.
  *
  * <p><strong>Concurrency contract</strong>: at most one producer thread may call {@link
- * #offer(Object)}, and at most one consumer thread may call {@link #poll()}. Read-only inspection
- * methods ({@link #size()}, {@link #isEmpty()}, {@link #isFull()}, {@link #capacity()}) are safe to
- * call from any thread.
+ * #offer(Object)} / {@link #offerBatch(Object[], int)}, and at most one consumer thread may call
+ * {@link #poll()} / {@link #drain(Consumer, int)} / {@link #drainTo(Object[], int)}. Read-only
+ * inspection methods ({@link #size()}, {@link #isEmpty()}, {@link #isFull()}, {@link #capacity()})
+ * are safe to call from any thread.
+ *
+ * <p><strong>Waiting</strong>: {@link #poll()} never blocks. Consumers that want to sleep until
+ * data arrives use {@link #take()} or {@link #awaitAvailable(long, TimeUnit)}, which wait according
+ * to the buffer's {@link WaitStrategy} (parking with back-off by default; {@link
+ * WaitStrategy#blocking()} wakes the consumer directly from {@link #offer(Object)}).
+ *
+ * <p><strong>Overflow</strong>: by default ({@link OverflowPolicy#REJECT_NEWEST}) a full buffer
+ * rejects new elements, which keeps the consumer on increasingly stale data under overload. Built
+ * with {@link OverflowPolicy#DROP_OLDEST}, {@link #offer(Object)} instead evicts the oldest
+ * element, and the consumer validates every dequeue with a compare-and-set of {@code head} so an
+ * eviction racing with a read can never hand out a slot the producer has already reused.
+ * Independently, {@link #expireOlderThan(long, TimeUnit, ToLongFunction)} makes the consumer skip
+ * elements that have been waiting too long. Evicted and expired elements go to the {@link
+ * #onDiscard(Consumer) discard handler}.
+ *
+ * <p><strong>Instrumentation</strong>: overruns are always counted. {@link
+ * #enableInstrumentation(ToLongFunction)} additionally records the occupancy high-watermark and a
+ * histogram of the time between an element's timestamp and its dequeue; {@link #stats()} returns a
+ * snapshot of all counters. Without instrumentation the hot path only pays one null check. The
+ * high-watermark is sampled: the producer re-reads the consumer's sequence at most once every
+ * {@link #OCCUPANCY_SAMPLE_INTERVAL} elements, or when its cached copy says the buffer might be
+ * full, so a full buffer is always recorded but lower peaks between samples may be missed.
+ *
+ * <p><strong>Pooled elements</strong>: the buffer never touches reference counts. When it carries
+ * pooled {@link org.hammer.audio.core.AudioBlock}s (see {@link
+ * org.hammer.audio.core.AudioBlockPool}), the producer hands its reference to the buffer on a
+ * successful {@link #offer(Object)} (and releases the block itself on rejection), and the consumer
+ * opts into recycling by calling {@link org.hammer.audio.core.AudioBlock#release()} once it is done
+ * with a polled block. Install {@code AudioBlock::release} as the discard handler to recycle blocks
+ * that are evicted or expired inside the buffer.
  *
  * <p>This is intentionally specialized for SPSC: it is faster than a general-purpose queue and
  * matches the producer/consumer topology of an audio capture pipeline. For multi-producer or
@@ -30,26 +75,84 @@ import java.util.concurrent.atomic.AtomicLong;
  * @param <T> element type; typically {@link org.hammer.audio.core.AudioBlock}
  * @author refactoring
  */
-public final class AudioRingBuffer<T> {
+public final class AudioRingBuffer<T> extends RingBufferSequences.TrailingPad {
+
+  /** Elements published between two occupancy samples of an instrumented buffer. */
+  static final int OCCUPANCY_SAMPLE_INTERVAL = 16;
+
+  private static final VarHandle TAIL;
+  private static final VarHandle HEAD;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      TAIL = lookup.findVarHandle(RingBufferSequences.ProducerFields.class, "tail", long.class);
+      HEAD = lookup.findVarHandle(RingBufferSequences.ConsumerFields.class, "head", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
 
   private final Object[] elements;
   private final int mask;
   private final int capacity;
+  private final WaitStrategy waitStrategy;
+  private final boolean dropOldest;
+  private final BooleanSupplier notEmpty = () -> head < tail;
+
+  /** Occupancy / latency recorder; {@code null} unless instrumentation was enabled. */
+  private Instrumentation<T> instrumentation;
+
+  /** Timestamp source for age-based expiry; {@code null} unless expiry was enabled. */
+  private ToLongFunction<? super T> expiryTimestamp;
 
-  /** Next index a producer will write to (modulo capacity). Producer-write, consumer-read. */
-  private final AtomicLong tail = new AtomicLong(0);
+  private long maxAgeNanos;
 
-  /** Next index a consumer will read from (modulo capacity). Consumer-write, producer-read. */
-  private final AtomicLong head = new AtomicLong(0);
+  /** Receives evicted and expired elements; may be {@code null}. */
+  private Consumer<? super T> discardHandler;
 
   /**
-   * Create a new SPSC ring buffer with at least the requested capacity.
+   * Create a new SPSC ring buffer with at least the requested capacity and the default {@link
+   * WaitStrategy#parking() parking} wait strategy.
    *
    * @param requestedCapacity minimum capacity; will be rounded up to the next power of two. Must be
    *     {@code >= 1} and {@code <= 2^30}.
    * @throws IllegalArgumentException if {@code requestedCapacity} is out of range
    */
   public AudioRingBuffer(int requestedCapacity) {
+    this(requestedCapacity, WaitStrategy.parking());
+  }
+
+  /**
+   * Create a new SPSC ring buffer with at least the requested capacity.
+   *
+   * @param requestedCapacity minimum capacity; will be rounded up to the next power of two. Must be
+   *     {@code >= 1} and {@code <= 2^30}.
+   * @param waitStrategy how {@link #take()} and {@link #awaitAvailable(long, TimeUnit)} wait; must
+   *     not be {@code null}
+   * @throws IllegalArgumentException if {@code requestedCapacity} is out of range
+   */
+  public AudioRingBuffer(int requestedCapacity, WaitStrategy waitStrategy) {
+    this(requestedCapacity, waitStrategy, OverflowPolicy.REJECT_NEWEST);
+  }
+
+  /**
+   * Create a new SPSC ring buffer with at least the requested capacity and the given overflow
+   * policy.
+   *
+   * @param requestedCapacity minimum capacity; will be rounded up to the next power of two. Must be
+   *     {@code >= 1} and {@code <= 2^30}.
+   * @param waitStrategy how {@link #take()} and {@link #awaitAvailable(long, TimeUnit)} wait; must
+   *     not be {@code null}
+   * @param overflowPolicy what {@link #offer(Object)} does when the buffer is full; must not be
+   *     {@code null}
+   * @throws IllegalArgumentException if {@code requestedCapacity} is out of range
+   */
+  public AudioRingBuffer(
+      int requestedCapacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+    this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+    this.dropOldest =
+        Objects.requireNonNull(overflowPolicy, "overflowPolicy") == OverflowPolicy.DROP_OLDEST;
     if (requestedCapacity < 1) {
       throw new IllegalArgumentException("requestedCapacity must be >= 1");
     }
@@ -72,6 +175,13 @@ public final class AudioRingBuffer<T> {
     return capacity;
   }
 
+  /**
+   * @return the policy applied by {@link #offer(Object)} when the buffer is full
+   */
+  public OverflowPolicy overflowPolicy() {
+    return dropOldest ? OverflowPolicy.DROP_OLDEST : OverflowPolicy.REJECT_NEWEST;
+  }
+
   /**
    * Approximate current number of elements in the buffer. Safe to call from any thread; may be
    * slightly stale because head and tail are not read atomically together.
@@ -79,8 +189,8 @@ public final class AudioRingBuffer<T> {
    * @return number of elements currently buffered
    */
   public int size() {
-    long t = tail.get();
-    long h = head.get();
+    long t = tail;
+    long h = head;
     long s = t - h;
     if (s < 0) {
       return 0;
@@ -92,44 +202,148 @@ public final class AudioRingBuffer<T> {
    * @return {@code true} if empty (snapshot, may be stale)
    */
   public boolean isEmpty() {
-    return tail.get() == head.get();
+    return tail == head;
   }
 
   /**
    * @return {@code true} if full (snapshot, may be stale)
    */
   public boolean isFull() {
-    return (tail.get() - head.get()) >= capacity;
+    return (tail - head) >= capacity;
   }
 
   /**
    * Offer an element to the buffer. Producer-only operation.
    *
-   * <p>This method never blocks. If the buffer is full the element is rejected and {@code false} is
-   * returned: realtime audio capture should drop the oldest data only via an explicit overwrite
-   * strategy (see {@link #offerOverwrite(Object)}), never silently stall.
+   * <p>This method never blocks. If the buffer is full, the {@link OverflowPolicy} decides: with
+   * {@link OverflowPolicy#REJECT_NEWEST} the element is rejected and {@code false} is returned;
+   * with {@link OverflowPolicy#DROP_OLDEST} the oldest element is evicted to the discard handler
+   * and the new one is always accepted.
    *
    * @param element element to enqueue; must not be {@code null}
-   * @return {@code true} if accepted, {@code false} if the buffer is full
+   * @return {@code true} if accepted, {@code false} if the buffer is full and rejects new elements
    * @throws NullPointerException if {@code element} is {@code null}
    */
   public boolean offer(T element) {
     if (element == null) {
       throw new NullPointerException("element");
     }
-    long t = tail.get();
-    long h = head.get();
-    if (t - h >= capacity) {
-      return false;
+    long t = (long) TAIL.get(this);
+    if (t - cachedHead >= capacity) {
+      cachedHead = (long) HEAD.getAcquire(this);
+      if (t - cachedHead >= capacity) {
+        if (!dropOldest) {
+          dropped = dropped + 1;
+          return false;
+        }
+        discard(evictOldest(t, 1));
+      }
     }
     elements[(int) (t & mask)] = element;
-    tail.lazySet(t + 1);
+    TAIL.setRelease(this, t + 1);
+    waitStrategy.signal();
+    if (instrumentation != null) {
+      recordOccupancy(t + 1);
+    }
     return true;
   }
 
+  /**
+   * Offer up to {@code count} elements from {@code src[0..count)} in order, publishing all accepted
+   * elements with a single sequence update. Producer-only operation.
+   *
+   * <p>Like {@link #offer(Object)} this never blocks. If fewer than {@code count} slots are free,
+   * {@link OverflowPolicy#REJECT_NEWEST} accepts only the leading elements that fit, while {@link
+   * OverflowPolicy#DROP_OLDEST} evicts buffered elements to make room and, if {@code count} exceeds
+   * the capacity, also discards the leading elements of {@code src} so that the newest {@code
+   * capacity} ones are kept.
+   *
+   * @param src source array; the first {@code count} entries must not be {@code null}
+   * @param count number of elements to offer, in {@code [0, src.length]}
+   * @return number of elements accepted ({@code 0..count})
+   * @throws IllegalArgumentException if {@code count} is out of range
+   * @throws NullPointerException if one of the elements that would be accepted is {@code null}; no
+   *     element is published in that case
+   */
+  public int offerBatch(T[] src, int count) {
+    Objects.requireNonNull(src, "src");
+    if (count < 0 || count > src.length) {
+      throw new IllegalArgumentException("count must be in [0, " + src.length + "], was " + count);
+    }
+    if (dropOldest) {
+      return offerBatchDropOldest(src, count);
+    }
+    long t = (long) TAIL.get(this);
+    long free = capacity - (t - cachedHead);
+    if (free < count) {
+      cachedHead = (long) HEAD.getAcquire(this);
+      free = capacity - (t - cachedHead);
+    }
+    int n = (int) Math.min(count, free);
+    for (int i = 0; i < n; i++) {
+      if (src[i] == null) {
+        throw new NullPointerException("src[" + i + "]");
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      elements[(int) ((t + i) & mask)] = src[i];
+    }
+    if (n > 0) {
+      TAIL.setRelease(this, t + n);
+      waitStrategy.signal();
+      if (instrumentation != null) {
+        recordOccupancy(t + n);
+      }
+    }
+    if (n < count) {
+      dropped = dropped + (count - n);
+    }
+    return n;
+  }
+
+  private int offerBatchDropOldest(T[] src, int count) {
+    for (int i = 0; i < count; i++) {
+      if (src[i] == null) {
+        throw new NullPointerException("src[" + i + "]");
+      }
+    }
+    int skip = Math.max(0, count - capacity);
+    for (int i = 0; i < skip; i++) {
+      discard(src[i]);
+    }
+    if (skip > 0) {
+      dropped = dropped + skip;
+    }
+    int n = count - skip;
+    long t = (long) TAIL.get(this);
+    if (t + n - cachedHead > capacity) {
+      cachedHead = (long) HEAD.getAcquire(this);
+      T evicted;
+      while ((evicted = evictOldest(t, n)) != null) {
+        discard(evicted);
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      elements[(int) ((t + i) & mask)] = src[skip + i];
+    }
+    if (n > 0) {
+      TAIL.setRelease(this, t + n);
+      waitStrategy.signal();
+      if (instrumentation != null) {
+        recordOccupancy(t + n);
+      }
+    }
+    return count;
+  }
+
   /**
    * Offer an element to the buffer, dropping the oldest element if the buffer is full.
    *
+   * <p>On a buffer built with {@link OverflowPolicy#DROP_OLDEST} this is {@link #offer(Object)}
+   * except that the evicted element is returned to the caller instead of the discard handler, and
+   * it is safe with a concurrent consumer. The rest of this comment applies to {@link
+   * OverflowPolicy#REJECT_NEWEST} buffers only.
+   *
    * <p><strong>Concurrency restriction.</strong> This method writes to {@code head} from the
    * producer thread (it advances {@code head} past the dropped element). The strict SPSC contract
    * documented on this class — where {@code head} is consumer-write and {@code tail} is
@@ -145,10 +359,8 @@ public final class AudioRingBuffer<T> {
    *       caller handle the {@code false} return instead.
    * </ul>
    *
-   * <p>If you need "drop oldest" semantics with a concurrent consumer, prefer publishing the latest
-   * element through a separate {@code volatile} reference (see {@link
-   * org.hammer.audio.AudioCaptureServiceImpl#getLatestBlock()}) while calling {@link
-   * #offer(Object)} on this buffer.
+   * <p>If you need "drop oldest" semantics with a concurrent consumer, build the buffer with {@link
+   * OverflowPolicy#DROP_OLDEST}.
    *
    * @param element element to enqueue; must not be {@code null}
    * @return the element dropped because the buffer was full, or {@code null} if nothing was dropped
@@ -159,53 +371,216 @@ public final class AudioRingBuffer<T> {
     if (element == null) {
       throw new NullPointerException("element");
     }
-    long t = tail.get();
-    long h = head.get();
-    T dropped = null;
+    long t = (long) TAIL.get(this);
+    if (dropOldest) {
+      T evicted = null;
+      if (t - cachedHead >= capacity) {
+        cachedHead = (long) HEAD.getAcquire(this);
+        evicted = evictOldest(t, 1);
+      }
+      elements[(int) (t & mask)] = element;
+      TAIL.setRelease(this, t + 1);
+      waitStrategy.signal();
+      if (instrumentation != null) {
+        recordOccupancy(t + 1);
+      }
+      return evicted;
+    }
+    long h = head;
+    T evicted = null;
     if (t - h >= capacity) {
       long desiredHead = t - capacity + 1;
       // Best-effort advance: only move head forward.
       while (true) {
-        long curHead = head.get();
+        long curHead = head;
         if (curHead >= desiredHead) {
           break;
         }
-        if (head.compareAndSet(curHead, desiredHead)) {
-          dropped = (T) elements[(int) (curHead & mask)];
+        if (HEAD.compareAndSet(this, curHead, desiredHead)) {
+          evicted = (T) elements[(int) (curHead & mask)];
+          this.dropped = this.dropped + 1;
           break;
         }
       }
     }
+    cachedHead = head;
     elements[(int) (t & mask)] = element;
-    tail.lazySet(t + 1);
-    return dropped;
+    TAIL.setRelease(this, t + 1);
+    waitStrategy.signal();
+    if (instrumentation != null) {
+      recordOccupancy(t + 1);
+    }
+    return evicted;
   }
 
   /**
    * Remove and return the oldest element, or {@code null} if the buffer is empty.
    *
-   * <p>Consumer-only operation.
+   * <p>Consumer-only operation. When expiry is enabled, elements older than the maximum age are
+   * skipped (and handed to the discard handler) rather than returned.
    *
    * @return the dequeued element, or {@code null} if the buffer is empty
    */
-  @SuppressWarnings("unchecked")
   public T poll() {
-    long h = head.get();
-    long t = tail.get();
-    if (h >= t) {
-      return null;
+    ToLongFunction<? super T> expiry = expiryTimestamp;
+    long now = 0L;
+    while (true) {
+      T element = dropOldest ? pollValidated() : pollUnchecked();
+      if (element == null) {
+        return null;
+      }
+      Instrumentation<T> ins = instrumentation;
+      if (expiry != null || ins != null) {
+        if (now == 0L) {
+          now = System.nanoTime();
+        }
+        if (expiry != null && now - expiry.applyAsLong(element) > maxAgeNanos) {
+          expired = expired + 1;
+          discard(element);
+          continue;
+        }
+        if (ins != null) {
+          ins.recordLatency(element, now);
+        }
+      }
+      return element;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private T pollUnchecked() {
+    long h = (long) HEAD.get(this);
+    if (h >= cachedTail) {
+      cachedTail = (long) TAIL.getAcquire(this);
+      if (h >= cachedTail) {
+        return null;
+      }
     }
     int idx = (int) (h & mask);
     T element = (T) elements[idx];
     elements[idx] = null; // help GC
-    head.lazySet(h + 1);
+    HEAD.setRelease(this, h + 1);
     return element;
   }
 
   /**
-   * Drain up to {@code max} elements into the supplied destination array, starting at index 0.
+   * {@link OverflowPolicy#DROP_OLDEST} dequeue. The producer may advance {@code head} itself and
+   * reuse the slot, so the element is read first and only kept if {@code head} can still be moved
+   * past it: the producer writes slot {@code h + capacity} only after its own compare-and-set moved
+   * {@code head} beyond {@code h}, which makes ours fail. Slots are not nulled, since after the
+   * compare-and-set the slot may already hold the producer's next element.
+   */
+  @SuppressWarnings("unchecked")
+  private T pollValidated() {
+    while (true) {
+      long h = (long) HEAD.getVolatile(this);
+      if (h >= cachedTail) {
+        cachedTail = (long) TAIL.getAcquire(this);
+        if (h >= cachedTail) {
+          return null;
+        }
+      }
+      T element = (T) elements[(int) (h & mask)];
+      if (HEAD.compareAndSet(this, h, h + 1)) {
+        return element;
+      }
+    }
+  }
+
+  /**
+   * Remove and return the oldest element, waiting for one to arrive if the buffer is empty.
    * Consumer-only operation.
    *
+   * @return the dequeued element, never {@code null}
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  public T take() throws InterruptedException {
+    while (true) {
+      T element = poll();
+      if (element != null) {
+        return element;
+      }
+      waitStrategy.await(notEmpty, Long.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Wait until at least one element is available, without removing it. Consumer-only operation.
+   *
+   * @param timeout maximum time to wait; {@code <= 0} checks once without waiting
+   * @param unit unit of {@code timeout}; must not be {@code null}
+   * @return {@code true} if an element is available, {@code false} if the timeout elapsed
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  public boolean awaitAvailable(long timeout, TimeUnit unit) throws InterruptedException {
+    return waitStrategy.await(notEmpty, unit.toNanos(timeout));
+  }
+
+  /**
+   * @return the strategy used by {@link #take()} and {@link #awaitAvailable(long, TimeUnit)}
+   */
+  public WaitStrategy waitStrategy() {
+    return waitStrategy;
+  }
+
+  /**
+   * Remove up to {@code max} elements in FIFO order and hand each to {@code consumer}, releasing
+   * all consumed slots with a single sequence update. Consumer-only operation.
+   *
+   * <p>If {@code consumer} throws, the elements handed out so far (including the one that caused
+   * the exception) count as consumed and the exception is propagated.
+   *
+   * <p>With {@link OverflowPolicy#DROP_OLDEST} or expiry enabled, every element is validated
+   * individually as in {@link #poll()} and the single-update batching does not apply.
+   *
+   * @param consumer callback receiving each element; must not be {@code null}
+   * @param max maximum number of elements to drain; must be {@code >= 0}
+   * @return number of elements drained ({@code 0..max})
+   * @throws IllegalArgumentException if {@code max < 0}
+   */
+  @SuppressWarnings("unchecked")
+  public int drain(Consumer<? super T> consumer, int max) {
+    Objects.requireNonNull(consumer, "consumer");
+    if (max < 0) {
+      throw new IllegalArgumentException("max must be >= 0");
+    }
+    if (dropOldest || expiryTimestamp != null) {
+      int n = 0;
+      T element;
+      while (n < max && (element = poll()) != null) {
+        n++;
+        consumer.accept(element);
+      }
+      return n;
+    }
+    long h = (long) HEAD.get(this);
+    int n = available(h, max);
+    Instrumentation<T> ins = instrumentation;
+    long now = ins != null && n > 0 ? System.nanoTime() : 0L;
+    int consumed = 0;
+    try {
+      while (consumed < n) {
+        int idx = (int) ((h + consumed) & mask);
+        T element = (T) elements[idx];
+        elements[idx] = null;
+        consumed++;
+        if (ins != null) {
+          ins.recordLatency(element, now);
+        }
+        consumer.accept(element);
+      }
+    } finally {
+      if (consumed > 0) {
+        HEAD.setRelease(this, h + consumed);
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Drain up to {@code max} elements into the supplied destination array, starting at index 0.
+   * Consumer-only operation. Validation and expiry behave as for {@link #drain(Consumer, int)}.
+   *
    * @param dest destination array; must not be {@code null} and must have length {@code >= max}
    * @param max maximum number of elements to drain
    * @return number of elements actually drained ({@code 0..max})
@@ -219,29 +594,196 @@ public final class AudioRingBuffer<T> {
     if (dest.length < max) {
       throw new IllegalArgumentException("dest is too small");
     }
-    int drained = 0;
-    long h = head.get();
-    long t = tail.get();
-    while (drained < max && h < t) {
-      int idx = (int) (h & mask);
-      dest[drained++] = (T) elements[idx];
+    if (dropOldest || expiryTimestamp != null) {
+      int n = 0;
+      T element;
+      while (n < max && (element = poll()) != null) {
+        dest[n++] = element;
+      }
+      return n;
+    }
+    long h = (long) HEAD.get(this);
+    int n = available(h, max);
+    Instrumentation<T> ins = instrumentation;
+    long now = ins != null && n > 0 ? System.nanoTime() : 0L;
+    for (int i = 0; i < n; i++) {
+      int idx = (int) ((h + i) & mask);
+      dest[i] = (T) elements[idx];
       elements[idx] = null;
-      h++;
+      if (ins != null) {
+        ins.recordLatency(dest[i], now);
+      }
+    }
+    if (n > 0) {
+      HEAD.setRelease(this, h + n);
+    }
+    return n;
+  }
+
+  /**
+   * Start recording the occupancy high-watermark and, if {@code timestampNanos} is given, a
+   * histogram of {@code System.nanoTime() - timestampNanos(element)} at dequeue time. Must be
+   * called before the buffer is shared with the producer and consumer threads.
+   *
+   * @param timestampNanos extracts an element's enqueue or capture timestamp on the {@link
+   *     System#nanoTime()} time base (e.g. {@code AudioBlock::timestampNanos}), or {@code null} to
+   *     record only the high-watermark
+   */
+  public void enableInstrumentation(ToLongFunction<? super T> timestampNanos) {
+    if (instrumentation == null) {
+      highWatermark = size();
     }
-    head.lazySet(h);
-    return drained;
+    instrumentation = new Instrumentation<>(timestampNanos);
+  }
+
+  /**
+   * Make the consumer skip elements that are older than {@code maxAge} when they are dequeued, so
+   * that a consumer recovering from a stall does not first work through audio nobody wants any
+   * more. Skipped elements are counted in {@link RingBufferStats#expired()} and handed to the
+   * discard handler. Must be called before the buffer is shared with the producer and consumer
+   * threads.
+   *
+   * @param maxAge maximum age; must be {@code >= 1}
+   * @param unit unit of {@code maxAge}; must not be {@code null}
+   * @param timestampNanos extracts an element's enqueue or capture timestamp on the {@link
+   *     System#nanoTime()} time base (e.g. {@code AudioBlock::timestampNanos}); must not be {@code
+   *     null}
+   * @throws IllegalArgumentException if {@code maxAge < 1}
+   */
+  public void expireOlderThan(
+      long maxAge, TimeUnit unit, ToLongFunction<? super T> timestampNanos) {
+    if (maxAge < 1) {
+      throw new IllegalArgumentException("maxAge must be >= 1, was " + maxAge);
+    }
+    this.maxAgeNanos = unit.toNanos(maxAge);
+    this.expiryTimestamp = Objects.requireNonNull(timestampNanos, "timestampNanos");
+  }
+
+  /**
+   * Install a callback for elements that leave the buffer without being delivered: evicted by
+   * {@link #offer(Object)} / {@link #offerBatch(Object[], int)} under {@link
+   * OverflowPolicy#DROP_OLDEST}, or skipped by the consumer because they expired. Elements rejected
+   * by {@code offer} or returned by {@link #offerOverwrite(Object)} stay with the caller. The
+   * handler runs on the producer thread for evictions and on the consumer thread for expiries, so
+   * it must be thread-safe ({@code AudioBlock::release} is). Must be called before the buffer is
+   * shared with the producer and consumer threads.
+   *
+   * @param handler the callback, or {@code null} to let discarded elements be garbage collected
+   */
+  public void onDiscard(Consumer<? super T> handler) {
+    this.discardHandler = handler;
+  }
+
+  /**
+   * Snapshot of the buffer's counters. Safe to call from any thread; the individual values are read
+   * without a common lock and may be mutually slightly inconsistent.
+   *
+   * @return a new immutable snapshot
+   */
+  public RingBufferStats stats() {
+    long h = head;
+    long t = tail;
+    Instrumentation<T> ins = instrumentation;
+    long[] buckets = new long[RingBufferStats.LATENCY_BUCKETS];
+    if (ins != null) {
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = ins.latencyBuckets.get(i);
+      }
+    }
+    int occupancy = (int) Math.max(0, Math.min(capacity, t - h));
+    return new RingBufferStats(capacity, occupancy, t, h, dropped, expired, highWatermark, buckets);
+  }
+
+  /**
+   * Producer-side, {@link OverflowPolicy#DROP_OLDEST} only: if publishing {@code n} elements at
+   * {@code t} would overflow, claim the oldest element by moving {@code head} past it. Only
+   * published elements are ever claimed ({@code n <= capacity} keeps {@code head < t}). A failed
+   * compare-and-set means the consumer took the element first, which made room by itself.
+   *
+   * @return the evicted element, or {@code null} if there already is room for {@code n} elements
+   */
+  @SuppressWarnings("unchecked")
+  private T evictOldest(long t, int n) {
+    long h = cachedHead;
+    while (t + n - h > capacity) {
+      // The consumer never writes slots in this mode, so this is still element h if the CAS wins.
+      T oldest = (T) elements[(int) (h & mask)];
+      if (HEAD.compareAndSet(this, h, h + 1)) {
+        cachedHead = h + 1;
+        dropped = dropped + 1;
+        return oldest;
+      }
+      h = (long) HEAD.getAcquire(this);
+    }
+    cachedHead = h;
+    return null;
+  }
+
+  private void discard(T element) {
+    Consumer<? super T> handler = discardHandler;
+    if (element != null && handler != null) {
+      handler.accept(element);
+    }
+  }
+
+  /**
+   * Producer-side: raise the high-watermark if the occupancy after publishing is a new maximum.
+   * Between samples only the cached head is consulted, so the common case reads no shared state.
+   */
+  private void recordOccupancy(long newTail) {
+    if (newTail < nextOccupancySample && newTail - cachedHead < capacity) {
+      return;
+    }
+    nextOccupancySample = newTail + OCCUPANCY_SAMPLE_INTERVAL;
+    cachedHead = (long) HEAD.getAcquire(this);
+    int occupancy = (int) (newTail - cachedHead);
+    if (occupancy > highWatermark) {
+      highWatermark = occupancy;
+    }
+  }
+
+  /** Consumer-side: number of readable elements from {@code h}, capped at {@code max}. */
+  private int available(long h, int max) {
+    long ready = cachedTail - h;
+    if (ready < max) {
+      cachedTail = (long) TAIL.getAcquire(this);
+      ready = cachedTail - h;
+    }
+    return (int) Math.min(max, Math.max(0, ready));
   }
 
   /**
    * Reset the buffer to empty. Not safe to call concurrently with {@link #offer} or {@link #poll}.
    */
   public void clear() {
-    long h = head.get();
-    long t = tail.get();
+    long h = head;
+    long t = tail;
     while (h < t) {
       elements[(int) (h & mask)] = null;
       h++;
     }
-    head.set(t);
+    cachedTail = t;
+    head = t;
+  }
+
+  /** Latency histogram recorder; written by the consumer thread only. */
+  private static final class Instrumentation<T> {
+    private final ToLongFunction<? super T> timestampNanos;
+    private final AtomicLongArray latencyBuckets =
+        new AtomicLongArray(RingBufferStats.LATENCY_BUCKETS);
+
+    Instrumentation(ToLongFunction<? super T> timestampNanos) {
+      this.timestampNanos = timestampNanos;
+    }
+
+    void recordLatency(T element, long nowNanos) {
+      if (timestampNanos == null) {
+        return;
+      }
+      long latency = nowNanos - timestampNanos.applyAsLong(element);
+      int bucket = latency <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(latency);
+      // Single writer: a plain read-increment-publish is enough.
+      latencyBuckets.lazySet(bucket, latencyBuckets.get(bucket) + 1);
+    }
   }
 }
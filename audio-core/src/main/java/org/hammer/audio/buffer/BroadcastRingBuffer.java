@@ -0,0 +1,550 @@
+package org.hammer.audio.buffer;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free single-producer / multi-consumer broadcast ring buffer.
+ *
+ * <p>Unlike {@link AudioRingBuffer}, where each element is handed to exactly one consumer, every
+ * element published here is seen by <em>every</em> registered {@link Subscriber}. Each subscriber
+ * owns its own read sequence, so the recorder, spectrogram, diagnosis and tracking pipelines can
+ * all consume the same stream of blocks at their own pace without copying them.
+ *
+ * <p><strong>Back-pressure.</strong> Subscribers are either:
+ *
+ * <ul>
+ *   <li><em>lossless</em> ({@link #subscribe()}): {@link #offer(Object)} never overwrites an
+ *       element such a subscriber has not read yet. When the slowest lossless subscriber is a full
+ *       ring behind, {@code offer} rejects the new element instead of blocking the producer; a
+ *       producer that can wait retries it later.
+ *   <li><em>lossy</em> ({@link #subscribeLossy()}): the producer ignores the subscriber's position
+ *       and may lap it.
+ * </ul>
+ *
+ * <p>A producer that cannot wait, such as live capture, uses {@link #publish(Object)} instead: it
+ * never rejects, so a lagging lossless subscriber cannot withhold elements from the others. Any
+ * subscriber a full ring behind when an element is published, lossy or lossless, loses its oldest
+ * unread element and reports it via {@link Subscriber#missed()}.
+ *
+ * <p><strong>Capacity</strong> is rounded up to the next power of two so that the index calculation
+ * can use a bitmask instead of modulo.
+ *
+ * <p><strong>Allocation</strong>: zero allocations on the hot path. A subscriber claims each
+ * element by advancing its sequence with a compare-and-set, and the producer advances a subscriber
+ * it laps the same way, so an element is either read by the subscriber or skipped on its behalf,
+ * never both.
+ *
+ * <p><strong>Concurrency contract</strong>: at most one producer thread may call {@link
+ * #offer(Object)} and {@link #publish(Object)}. Each {@link Subscriber} must be polled by at most
+ * one thread at a time, but different subscribers may run on different threads. {@link
+ * #subscribe()}, {@link #subscribeLossy()} and {@link Subscriber#close()} may be called from any
+ * thread at any time; a new subscriber sees only elements published after it was registered.
+ *
+ * <p><strong>Element lifetime</strong>: elements stay referenced until their slot is overwritten.
+ * By default the buffer never touches reference counts. For pooled {@link
+ * org.hammer.audio.core.AudioBlock}s install {@link #trackReferences(Consumer, Consumer)
+ * AudioBlock::retain and AudioBlock::release}: the producer then takes one reference per subscriber
+ * that will see an element while publishing it, from the same subscriber set it publishes to, and
+ * releases it again for every subscriber that loses the element or closes without reading it. Each
+ * subscriber releases the elements it polls.
+ *
+ * @param <T> element type; typically {@link org.hammer.audio.core.AudioBlock}
+ * @author refactoring
+ */
+public final class BroadcastRingBuffer<T> {
+
+  private static final long EMPTY = -1L;
+
+  /**
+   * Subscriber state before the producer has published to it. Open subscribers hold their next
+   * sequence ({@code >= 0}); closed ones hold {@link #closedState(long)} ({@code < PENDING}).
+   */
+  private static final long PENDING = -1L;
+
+  @SuppressWarnings("rawtypes")
+  private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+  private final AtomicReferenceArray<T> elements;
+
+  /** Sequence currently stored in each slot, or {@link #EMPTY} while the slot is being written. */
+  private final AtomicLongArray slotSequences;
+
+  private final int mask;
+  private final int capacity;
+
+  /** Number of elements published so far. Producer-write, subscriber-read. */
+  private final AtomicLong cursor = new AtomicLong(0);
+
+  /** Registered subscribers (copy-on-write, guarded by {@code this} for writers). */
+  @SuppressWarnings("unchecked")
+  private volatile Subscriber<T>[] subscribers = NO_SUBSCRIBERS;
+
+  /** Producer-local cache of the slowest lossless sequence; refreshed only when it gates. */
+  private long gatingSequence;
+
+  private final WaitStrategy waitStrategy;
+
+  /**
+   * Per-subscriber reference callbacks; {@code null} unless {@link #trackReferences} was called.
+   */
+  private Consumer<? super T> retainHandler;
+
+  private Consumer<? super T> releaseHandler;
+
+  /**
+   * Create a new broadcast ring buffer with at least the requested capacity and the default {@link
+   * WaitStrategy#parking() parking} wait strategy.
+   *
+   * @param requestedCapacity minimum capacity; will be rounded up to the next power of two. Must be
+   *     {@code >= 1} and {@code <= 2^30}.
+   * @throws IllegalArgumentException if {@code requestedCapacity} is out of range
+   */
+  public BroadcastRingBuffer(int requestedCapacity) {
+    this(requestedCapacity, WaitStrategy.parking());
+  }
+
+  /**
+   * Create a new broadcast ring buffer with at least the requested capacity.
+   *
+   * @param requestedCapacity minimum capacity; will be rounded up to the next power of two. Must be
+   *     {@code >= 1} and {@code <= 2^30}.
+   * @param waitStrategy how subscribers wait in {@link Subscriber#take()} and {@link
+   *     Subscriber#awaitAvailable(long, TimeUnit)}; must not be {@code null}
+   * @throws IllegalArgumentException if {@code requestedCapacity} is out of range
+   */
+  public BroadcastRingBuffer(int requestedCapacity, WaitStrategy waitStrategy) {
+    this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+    if (requestedCapacity < 1) {
+      throw new IllegalArgumentException("requestedCapacity must be >= 1");
+    }
+    if (requestedCapacity > (1 << 30)) {
+      throw new IllegalArgumentException("requestedCapacity too large (max 2^30)");
+    }
+    int cap = 1;
+    while (cap < requestedCapacity) {
+      cap <<= 1;
+    }
+    this.capacity = cap;
+    this.mask = cap - 1;
+    this.elements = new AtomicReferenceArray<>(cap);
+    this.slotSequences = new AtomicLongArray(cap);
+    for (int i = 0; i < cap; i++) {
+      slotSequences.set(i, EMPTY);
+    }
+  }
+
+  /**
+   * @return the actual capacity (next power of two &ge; the requested value)
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * @return number of elements published so far (the sequence of the next element)
+   */
+  public long cursor() {
+    return cursor.get();
+  }
+
+  /**
+   * @return number of currently registered, open subscribers (snapshot)
+   */
+  public int subscriberCount() {
+    int open = 0;
+    for (Subscriber<T> s : subscribers) {
+      if (!s.closed) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  /**
+   * Count references per subscriber: {@code retain} runs once for every subscriber that will see a
+   * published element, before the element becomes visible to it, and {@code release} runs once for
+   * every such subscriber that loses the element (lapped, or still unread when it closed) instead
+   * of polling it. Both run on the producer thread. Must be called before the buffer is shared with
+   * the producer and subscriber threads.
+   *
+   * @param retain takes one reference, e.g. {@code AudioBlock::retain}; must not be {@code null}
+   * @param release gives one reference back, e.g. {@code AudioBlock::release}; must not be {@code
+   *     null}
+   */
+  public void trackReferences(Consumer<? super T> retain, Consumer<? super T> release) {
+    this.retainHandler = Objects.requireNonNull(retain, "retain");
+    this.releaseHandler = Objects.requireNonNull(release, "release");
+  }
+
+  /**
+   * Publish an element to every subscriber, unless a lossless subscriber is too far behind.
+   * Producer-only operation.
+   *
+   * <p>This method never blocks. If the slowest lossless subscriber is a full ring behind the
+   * element is rejected for every subscriber and {@code false} is returned, so the producer can
+   * retry it; lossy subscribers never cause a rejection. Producers that cannot retry should use
+   * {@link #publish(Object)}.
+   *
+   * @param element element to publish; must not be {@code null}
+   * @return {@code true} if published, {@code false} if a lossless subscriber is too far behind
+   * @throws NullPointerException if {@code element} is {@code null}
+   */
+  public boolean offer(T element) {
+    if (element == null) {
+      throw new NullPointerException("element");
+    }
+    long seq = cursor.get();
+    if (seq - gatingSequence >= capacity) {
+      gatingSequence = minimumLosslessSequence(seq);
+      if (seq - gatingSequence >= capacity) {
+        return false;
+      }
+    }
+    write(element, seq);
+    return true;
+  }
+
+  /**
+   * Publish an element to every subscriber without waiting for any of them. Producer-only
+   * operation.
+   *
+   * <p>This method never blocks and never rejects. A subscriber that is a full ring behind, lossy
+   * or lossless, loses its oldest unread element instead, counted by its {@link
+   * Subscriber#missed()}; every other subscriber is unaffected.
+   *
+   * @param element element to publish; must not be {@code null}
+   * @throws NullPointerException if {@code element} is {@code null}
+   */
+  public void publish(T element) {
+    if (element == null) {
+      throw new NullPointerException("element");
+    }
+    write(element, cursor.get());
+  }
+
+  private void write(T element, long seq) {
+    int idx = (int) (seq & mask);
+    prepareSubscribers(element, seq, idx);
+    // Invalidate the slot first so a reader cannot pair the new element with its old sequence
+    // number, then write the element and stamp it with its sequence.
+    slotSequences.set(idx, EMPTY);
+    elements.set(idx, element);
+    slotSequences.set(idx, seq);
+    cursor.set(seq + 1);
+    waitStrategy.signal();
+  }
+
+  /**
+   * Bring every subscriber up to date before {@code element} overwrites slot {@code idx}: activate
+   * new subscribers at {@code seq}, skip subscribers still positioned at the element being
+   * overwritten, hand back the references of closed ones, and take a reference for every subscriber
+   * that will see {@code element}. One pass over one snapshot, so references always match the set
+   * of subscribers the element is published to.
+   */
+  private void prepareSubscribers(T element, long seq, int idx) {
+    long overwritten = seq - capacity;
+    boolean released = false;
+    for (Subscriber<T> s : subscribers) {
+      long at = s.sequence.get();
+      if (at == PENDING && s.sequence.compareAndSet(PENDING, seq)) {
+        s.retainedUpTo = seq;
+      } else if (overwritten >= 0 && at == overwritten && s.sequence.compareAndSet(at, at + 1)) {
+        s.missed.incrementAndGet();
+        releaseReference(elements.get(idx));
+      }
+      if (s.sequence.get() < PENDING) {
+        releaseUnread(s);
+        released = true;
+        continue;
+      }
+      if (retainHandler != null) {
+        retainHandler.accept(element);
+      }
+      s.retainedUpTo = seq + 1;
+    }
+    if (released) {
+      removeReleased();
+    }
+  }
+
+  /**
+   * Release the references a closed subscriber still held. Its unread elements are all still in the
+   * ring: the producer never overwrites an element a subscriber is positioned at without first
+   * skipping it, which fails once the subscriber is closed.
+   */
+  private void releaseUnread(Subscriber<T> s) {
+    for (long seq = closedAt(s.sequence.get()); seq < s.retainedUpTo; seq++) {
+      releaseReference(elements.get((int) (seq & mask)));
+    }
+    s.released = true;
+  }
+
+  private synchronized void removeReleased() {
+    Subscriber<T>[] current = subscribers;
+    Subscriber<T>[] next = Arrays.copyOf(current, current.length);
+    int kept = 0;
+    for (Subscriber<T> s : current) {
+      if (!s.released) {
+        next[kept++] = s;
+      }
+    }
+    subscribers = Arrays.copyOf(next, kept);
+  }
+
+  private void releaseReference(T element) {
+    if (releaseHandler != null) {
+      releaseHandler.accept(element);
+    }
+  }
+
+  /**
+   * Register a lossless subscriber: {@link #offer(Object)} will not overwrite elements it has not
+   * read.
+   *
+   * @return a new subscriber positioned at the current {@link #cursor()}
+   */
+  public Subscriber<T> subscribe() {
+    return register(false);
+  }
+
+  /**
+   * Register a lossy subscriber: the producer may lap it, in which case it loses the oldest
+   * elements.
+   *
+   * @return a new subscriber positioned at the current {@link #cursor()}
+   */
+  public Subscriber<T> subscribeLossy() {
+    return register(true);
+  }
+
+  private synchronized Subscriber<T> register(boolean lossy) {
+    // The producer activates the subscriber at the next element it publishes, so the subscriber
+    // set it takes references for is exactly the set that can read the element.
+    Subscriber<T> subscriber = new Subscriber<>(this, lossy);
+    Subscriber<T>[] current = subscribers;
+    Subscriber<T>[] next = Arrays.copyOf(current, current.length + 1);
+    next[current.length] = subscriber;
+    subscribers = next;
+    return subscriber;
+  }
+
+  private synchronized void unregister(Subscriber<T> subscriber) {
+    Subscriber<T>[] current = subscribers;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == subscriber) {
+        Subscriber<T>[] next = Arrays.copyOf(current, current.length - 1);
+        System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+        subscribers = next;
+        return;
+      }
+    }
+  }
+
+  /** Slowest lossless read position, or {@code fallback} if there is no active lossless one. */
+  private long minimumLosslessSequence(long fallback) {
+    long min = fallback;
+    for (Subscriber<T> s : subscribers) {
+      long at = s.sequence.get();
+      if (!s.lossy && at >= 0) {
+        min = Math.min(min, at);
+      }
+    }
+    return min;
+  }
+
+  /** Subscriber state for a closed subscriber whose next unread sequence was {@code next}. */
+  private static long closedState(long next) {
+    return PENDING - 1 - Math.max(next, 0);
+  }
+
+  /** Inverse of {@link #closedState(long)}. */
+  private static long closedAt(long state) {
+    return PENDING - 1 - state;
+  }
+
+  /**
+   * One consumer's view of a {@link BroadcastRingBuffer}. Each subscriber keeps its own read
+   * sequence; it must be polled by at most one thread at a time.
+   *
+   * @param <T> element type
+   */
+  public static final class Subscriber<T> implements AutoCloseable {
+
+    private final BroadcastRingBuffer<T> ring;
+    private final boolean lossy;
+    private final AtomicLong sequence = new AtomicLong(PENDING);
+    private final AtomicLong missed = new AtomicLong();
+    private final BooleanSupplier readable;
+    private volatile boolean closed;
+
+    /** Producer-local: sequences below this one were published to this subscriber. */
+    private long retainedUpTo;
+
+    /** Producer-local: closed and its unread references handed back. */
+    private boolean released;
+
+    private Subscriber(BroadcastRingBuffer<T> ring, boolean lossy) {
+      this.ring = ring;
+      this.lossy = lossy;
+      this.readable =
+          () -> {
+            long at = sequence.get();
+            return closed || (at >= 0 && ring.cursor.get() > at);
+          };
+    }
+
+    /**
+     * Return the next element for this subscriber, or {@code null} if it has caught up with the
+     * producer (or was closed). With {@link BroadcastRingBuffer#trackReferences reference tracking}
+     * the caller owns one reference to the returned element.
+     *
+     * @return the next element, or {@code null} if none is available
+     */
+    public T poll() {
+      while (true) {
+        long seq = sequence.get();
+        if (seq < 0 || seq >= ring.cursor.get()) {
+          return null; // not activated yet, closed, or caught up
+        }
+        int idx = (int) (seq & ring.mask);
+        if (ring.slotSequences.get(idx) == seq) {
+          T element = ring.elements.get(idx);
+          // The producer skips a lapped subscriber before overwriting its slot, so winning this
+          // race means the element read above is still the one published at seq.
+          if (sequence.compareAndSet(seq, seq + 1)) {
+            return element;
+          }
+        }
+        // The producer lapped us or we were closed meanwhile; re-read our position.
+      }
+    }
+
+    /**
+     * Return the next element for this subscriber, waiting for the producer if it has caught up.
+     *
+     * @return the next element, or {@code null} if this subscriber is (or gets) closed
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public T take() throws InterruptedException {
+      while (!closed) {
+        T element = poll();
+        if (element != null) {
+          return element;
+        }
+        ring.waitStrategy.await(readable, Long.MAX_VALUE);
+      }
+      return null;
+    }
+
+    /**
+     * Wait until an unread element is available to this subscriber, without consuming it.
+     *
+     * @param timeout maximum time to wait; {@code <= 0} checks once without waiting
+     * @param unit unit of {@code timeout}; must not be {@code null}
+     * @return {@code true} if an element is available, {@code false} if the timeout elapsed or the
+     *     subscriber was closed
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean awaitAvailable(long timeout, TimeUnit unit) throws InterruptedException {
+      return ring.waitStrategy.await(readable, unit.toNanos(timeout)) && !closed;
+    }
+
+    /**
+     * Drain up to {@code max} elements into the supplied destination array, starting at index 0.
+     *
+     * @param dest destination array; must not be {@code null} and must have length {@code >= max}
+     * @param max maximum number of elements to drain
+     * @return number of elements actually drained ({@code 0..max})
+     * @throws IllegalArgumentException if {@code max < 0} or {@code dest.length < max}
+     */
+    public int drainTo(T[] dest, int max) {
+      Objects.requireNonNull(dest, "dest");
+      if (max < 0) {
+        throw new IllegalArgumentException("max must be >= 0");
+      }
+      if (dest.length < max) {
+        throw new IllegalArgumentException("dest is too small");
+      }
+      int drained = 0;
+      while (drained < max) {
+        T element = poll();
+        if (element == null) {
+          break;
+        }
+        dest[drained++] = element;
+      }
+      return drained;
+    }
+
+    /**
+     * @return approximate number of elements published but not yet read by this subscriber
+     *     (snapshot, capped at the ring capacity)
+     */
+    public int available() {
+      long at = sequence.get();
+      if (at < 0) {
+        return 0;
+      }
+      long backlog = ring.cursor.get() - at;
+      if (backlog <= 0) {
+        return 0;
+      }
+      return backlog > ring.capacity ? ring.capacity : (int) backlog;
+    }
+
+    /**
+     * @return sequence of the next element this subscriber will read
+     */
+    public long sequence() {
+      long at = sequence.get();
+      if (at == PENDING) {
+        return ring.cursor.get();
+      }
+      return at < PENDING ? closedAt(at) : at;
+    }
+
+    /**
+     * @return total number of elements this subscriber lost because the producer lapped it; a
+     *     lossless subscriber can only be lapped by {@link BroadcastRingBuffer#publish(Object)}
+     */
+    public long missed() {
+      return missed.get();
+    }
+
+    /**
+     * @return {@code true} if the producer may lap this subscriber
+     */
+    public boolean isLossy() {
+      return lossy;
+    }
+
+    /**
+     * Unregister this subscriber. A closed lossless subscriber no longer gates the producer, and
+     * {@link #poll()} returns {@code null} from then on. With {@link
+     * BroadcastRingBuffer#trackReferences reference tracking} the producer releases the elements it
+     * never polled when it next publishes. Safe to call multiple times.
+     */
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      long at;
+      do {
+        at = sequence.get();
+      } while (at >= PENDING && !sequence.compareAndSet(at, closedState(at)));
+      if (ring.releaseHandler == null) {
+        ring.unregister(this); // nothing to hand back, so the producer need not see it closed
+      }
+      ring.waitStrategy.signal(); // release a take() blocked on this subscriber
+    }
+  }
+}
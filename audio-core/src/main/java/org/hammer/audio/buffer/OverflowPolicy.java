@@ -0,0 +1,24 @@
+package org.hammer.audio.buffer;
+
+/**
+ * What an {@link AudioRingBuffer} does with a new element when it is full.
+ *
+ * @author refactoring
+ */
+public enum OverflowPolicy {
+
+  /**
+   * Keep the buffered elements and reject the new one: {@link AudioRingBuffer#offer(Object)}
+   * returns {@code false}. Lossless for what is already queued and the cheapest consumer path, but
+   * under sustained overload the consumer keeps working through increasingly stale data. Default.
+   */
+  REJECT_NEWEST,
+
+  /**
+   * Evict the oldest buffered element to make room for the new one, so that a consumer that falls
+   * behind always resumes at the freshest data. Safe with a concurrent consumer: the consumer
+   * claims each element with a compare-and-set on its sequence and discards any read the producer
+   * overwrote in the meantime, at the cost of one atomic instruction per dequeue.
+   */
+  DROP_OLDEST
+}
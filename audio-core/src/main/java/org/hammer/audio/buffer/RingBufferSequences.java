@@ -0,0 +1,75 @@
+package org.hammer.audio.buffer;
+
+/**
+ * Cache-line padded producer / consumer sequence fields for {@link AudioRingBuffer}.
+ *
+ * <p>The JVM is free to reorder fields within a class but lays out superclass fields before
+ * subclass fields, so the padding is expressed as a class hierarchy: 128 bytes of padding (two
+ * cache lines, to also defeat adjacent-line prefetching) surround the producer group and the
+ * consumer group. Each group holds the side's own sequence plus its private cached copy of the
+ * other side's sequence, so the producer and consumer only write to their own cache lines.
+ *
+ * @author refactoring
+ */
+final class RingBufferSequences {
+
+  private RingBufferSequences() {}
+
+  /** Padding separating the producer group from the object header and preceding heap data. */
+  @SuppressWarnings("unused")
+  abstract static class LeadingPad {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p08, p09, p10, p11, p12, p13, p14, p15;
+  }
+
+  /** Producer-owned fields. */
+  abstract static class ProducerFields extends LeadingPad {
+    /** Next sequence the producer will write. Producer-write, consumer-read. */
+    volatile long tail;
+
+    /**
+     * Producer-private, possibly stale copy of {@code head}; refreshed only when it looks full or
+     * when an instrumented buffer samples its occupancy.
+     */
+    long cachedHead;
+
+    /** Elements lost to overruns. Producer-write (overrun path only), any-thread read. */
+    volatile long dropped;
+
+    /**
+     * Highest observed occupancy, or -1 while not instrumented. Producer-write, any-thread read.
+     */
+    volatile int highWatermark = -1;
+
+    /** Producer-private: tail at which the occupancy is next sampled against a fresh head. */
+    long nextOccupancySample;
+  }
+
+  /** Padding separating the producer group from the consumer group. */
+  @SuppressWarnings("unused")
+  abstract static class MiddlePad extends ProducerFields {
+    long p16, p17, p18, p19, p20, p21, p22, p23;
+    long p24, p25, p26, p27, p28, p29, p30, p31;
+  }
+
+  /** Consumer-owned fields. */
+  abstract static class ConsumerFields extends MiddlePad {
+    /** Next sequence the consumer will read. Consumer-write, producer-read. */
+    volatile long head;
+
+    /**
+     * Consumer-private, possibly stale copy of {@code tail}; refreshed only when it looks empty.
+     */
+    long cachedTail;
+
+    /** Elements skipped by the consumer for exceeding the maximum age. Consumer-write. */
+    volatile long expired;
+  }
+
+  /** Padding separating the consumer group from the ring's own fields and following heap data. */
+  @SuppressWarnings("unused")
+  abstract static class TrailingPad extends ConsumerFields {
+    long p32, p33, p34, p35, p36, p37, p38, p39;
+    long p40, p41, p42, p43, p44, p45, p46, p47;
+  }
+}
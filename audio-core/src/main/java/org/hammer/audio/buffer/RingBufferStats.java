@@ -0,0 +1,180 @@
+package org.hammer.audio.buffer;
+
+/**
+ * Immutable snapshot of an {@link AudioRingBuffer}'s occupancy, drop and queue-latency counters,
+ * taken with {@link AudioRingBuffer#stats()}.
+ *
+ * <p>Drop and expiry counts are always tracked. The occupancy high-watermark and the latency
+ * histogram are only available when instrumentation was enabled with {@link
+ * AudioRingBuffer#enableInstrumentation}; otherwise {@link #isInstrumented()} is {@code false},
+ * {@link #highWatermark()} is {@code -1} and the histogram is empty.
+ *
+ * <p>Latencies are recorded into power-of-two buckets: bucket {@code i} counts dequeues whose
+ * latency was in {@code [2^i, 2^(i+1))} nanoseconds (bucket 0 also holds latencies below 1 ns).
+ * Percentiles are therefore upper-bound estimates accurate to within a factor of two, which is
+ * plenty to size a buffer or spot a consumer that falls behind.
+ *
+ * @author refactoring
+ */
+public final class RingBufferStats {
+
+  /** Number of latency histogram buckets (one per power of two of a {@code long}). */
+  public static final int LATENCY_BUCKETS = 64;
+
+  private final int capacity;
+  private final int size;
+  private final long published;
+  private final long consumed;
+  private final long dropped;
+  private final long expired;
+  private final int highWatermark;
+  private final long[] latencyBuckets;
+  private final long latencySamples;
+
+  RingBufferStats(
+      int capacity,
+      int size,
+      long published,
+      long consumed,
+      long dropped,
+      long expired,
+      int highWatermark,
+      long[] latencyBuckets) {
+    this.capacity = capacity;
+    this.size = size;
+    this.published = published;
+    this.consumed = consumed;
+    this.dropped = dropped;
+    this.expired = expired;
+    this.highWatermark = highWatermark;
+    this.latencyBuckets = latencyBuckets;
+    long samples = 0;
+    for (long count : latencyBuckets) {
+      samples += count;
+    }
+    this.latencySamples = samples;
+  }
+
+  /**
+   * @return the buffer capacity
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * @return occupancy at the time of the snapshot
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return total number of elements accepted by the buffer
+   */
+  public long published() {
+    return published;
+  }
+
+  /**
+   * @return total number of elements that left the buffer: removed or skipped as expired by the
+   *     consumer, or evicted by the producer
+   */
+  public long consumed() {
+    return consumed;
+  }
+
+  /**
+   * @return total number of elements lost to overruns: rejected by {@code offer} / {@code
+   *     offerBatch} because the buffer was full, or evicted to make room for newer ones
+   */
+  public long dropped() {
+    return dropped;
+  }
+
+  /**
+   * @return total number of elements the consumer skipped because they exceeded the maximum age set
+   *     with {@link AudioRingBuffer#expireOlderThan}
+   */
+  public long expired() {
+    return expired;
+  }
+
+  /**
+   * @return highest occupancy observed right after a publish, or {@code -1} if not instrumented
+   */
+  public int highWatermark() {
+    return highWatermark;
+  }
+
+  /**
+   * @return {@code true} if the high-watermark and latency histogram were being recorded
+   */
+  public boolean isInstrumented() {
+    return highWatermark >= 0;
+  }
+
+  /**
+   * @return number of dequeues recorded in the latency histogram
+   */
+  public long latencySamples() {
+    return latencySamples;
+  }
+
+  /**
+   * @return a copy of the latency histogram ({@link #LATENCY_BUCKETS} power-of-two buckets), all
+   *     zero if no latency clock is configured
+   */
+  public long[] latencyHistogram() {
+    return latencyBuckets.clone();
+  }
+
+  /**
+   * Upper-bound estimate of a latency percentile.
+   *
+   * @param percentile percentile in {@code [0, 100]}
+   * @return exclusive upper bound in nanoseconds of the bucket holding the percentile, or {@code
+   *     -1} if no latency was recorded
+   * @throws IllegalArgumentException if {@code percentile} is out of range
+   */
+  public long latencyPercentileNanos(double percentile) {
+    if (!(percentile >= 0.0 && percentile <= 100.0)) {
+      throw new IllegalArgumentException("percentile must be in [0, 100], was " + percentile);
+    }
+    if (latencySamples == 0) {
+      return -1L;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(latencySamples * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < latencyBuckets.length; i++) {
+      seen += latencyBuckets[i];
+      if (seen >= rank) {
+        return i >= 62 ? Long.MAX_VALUE : 1L << (i + 1);
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public String toString() {
+    return "RingBufferStats[size="
+        + size
+        + "/"
+        + capacity
+        + ", published="
+        + published
+        + ", consumed="
+        + consumed
+        + ", dropped="
+        + dropped
+        + ", expired="
+        + expired
+        + ", highWatermark="
+        + highWatermark
+        + ", p50Nanos<="
+        + latencyPercentileNanos(50)
+        + ", p99Nanos<="
+        + latencyPercentileNanos(99)
+        + "]";
+  }
+}
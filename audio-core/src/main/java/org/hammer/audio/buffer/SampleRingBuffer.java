@@ -0,0 +1,389 @@
+package org.hammer.audio.buffer;
+
+import java.util.Objects;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.core.SampleSlice;
+
+/**
+ * Continuous per-channel sample FIFO that decouples analysis windows from the capture block size.
+ *
+ * <p>{@link AudioBlock}s of any size are appended with {@link #write(AudioBlock)}; the buffer keeps
+ * the most recent {@link #capacity()} frames of every channel, addressed by absolute stream frame
+ * index. Windows of any length up to the capacity can then be read at any position — typically
+ * through a {@link WindowReader} that walks the stream with a fixed window length and hop size
+ * (overlapping STFT frames, trigger search, TDOA windows).
+ *
+ * <p><strong>Zero-copy windows.</strong> Each channel is stored twice, back to back ("mirrored"),
+ * so every window of at most {@code capacity} frames is contiguous in memory regardless of where
+ * the ring wraps. {@link #channelView(int, long, int)} and {@link #viewBlock(long, int)} therefore
+ * never copy. The price is a second write of every sample, which is cheap compared to the analysis
+ * it enables. Views alias the ring storage: they stay valid only until the window's frames are
+ * overwritten, i.e. until more than {@code capacity - length} further frames have been written
+ * after the window's end. Analyze them immediately, or use {@link #copyBlock(long, int)}.
+ *
+ * <p><strong>Frame-index bookkeeping.</strong> The buffer expects blocks with consecutive frame
+ * indices. If a block does not start where the previous one ended (dropped blocks, a source
+ * restart), the buffer is reset to start at the new block and {@link #discontinuities()} is
+ * incremented; readers then skip to the new data. Timestamps of windows are interpolated from the
+ * most recently written block.
+ *
+ * <p>Instances are <strong>not thread-safe</strong>: writes and reads must happen on the same
+ * thread (e.g. the analysis thread that drains an {@link AudioRingBuffer}).
+ *
+ * @author refactoring
+ */
+public final class SampleRingBuffer {
+
+  private final AudioFormatDescriptor format;
+  private final int capacity;
+  private final int channelStride; // 2 * capacity: each channel is stored twice
+  private final float[] data;
+
+  private long startFrame; // oldest retained frame index
+  private long endFrame; // one past the newest frame index
+  private boolean anchored;
+  private long anchorFrame; // frame index of the last written block
+  private long anchorNanos; // timestamp of the last written block
+  private long discontinuities;
+
+  /**
+   * Create an empty buffer.
+   *
+   * @param format format of every block written to this buffer; must not be {@code null}
+   * @param capacityFrames number of most recent frames retained per channel (the maximum window
+   *     length); must be {@code >= 1}
+   * @throws IllegalArgumentException if {@code capacityFrames < 1} or the storage would exceed
+   *     {@link Integer#MAX_VALUE} samples
+   */
+  public SampleRingBuffer(AudioFormatDescriptor format, int capacityFrames) {
+    this.format = Objects.requireNonNull(format, "format");
+    if (capacityFrames < 1) {
+      throw new IllegalArgumentException("capacityFrames must be >= 1, was " + capacityFrames);
+    }
+    long samples = 2L * capacityFrames * format.channels();
+    if (samples > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("capacityFrames too large: " + capacityFrames);
+    }
+    this.capacity = capacityFrames;
+    this.channelStride = 2 * capacityFrames;
+    this.data = new float[(int) samples];
+  }
+
+  /**
+   * @return the format of the buffered audio
+   */
+  public AudioFormatDescriptor format() {
+    return format;
+  }
+
+  /**
+   * @return the number of most recent frames retained per channel
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * @return frame index of the oldest retained frame
+   */
+  public long startFrame() {
+    return startFrame;
+  }
+
+  /**
+   * @return frame index one past the newest written frame
+   */
+  public long endFrame() {
+    return endFrame;
+  }
+
+  /**
+   * @return number of frames currently retained per channel
+   */
+  public int size() {
+    return (int) (endFrame - startFrame);
+  }
+
+  /**
+   * @return number of times the buffer was reset, either because a block's frame index did not
+   *     continue the stream or through {@link #clear()}
+   */
+  public long discontinuities() {
+    return discontinuities;
+  }
+
+  /**
+   * Append a block. Its samples are copied into the ring, so the block may be released (or
+   * recycled) as soon as this method returns.
+   *
+   * @param block block to append; must match {@link #format()}
+   * @throws IllegalArgumentException if the block's format differs from {@link #format()}
+   */
+  public void write(AudioBlock block) {
+    Objects.requireNonNull(block, "block");
+    if (!format.equals(block.format())) {
+      throw new IllegalArgumentException(
+          "block format " + block.format() + " does not match buffer format " + format);
+    }
+    long blockStart = block.frameIndex();
+    if (!anchored) {
+      startFrame = blockStart;
+      endFrame = blockStart;
+      anchored = true;
+    } else if (blockStart != endFrame) {
+      discontinuities++;
+      startFrame = blockStart;
+      endFrame = blockStart;
+    }
+    anchorFrame = blockStart;
+    anchorNanos = block.timestampNanos();
+
+    int frames = block.frames();
+    // Only the newest `capacity` frames of an oversized block can be retained.
+    int skip = Math.max(0, frames - capacity);
+    long firstFrame = blockStart + skip;
+    int count = frames - skip;
+    int pos = ringIndex(firstFrame);
+    int firstRun = Math.min(count, capacity - pos);
+    for (int c = 0; c < format.channels(); c++) {
+      SampleSlice src = block.channelView(c, skip, count);
+      float[] in = src.array();
+      int inOffset = src.offset();
+      int base = c * channelStride;
+      // Primary copy [pos, pos + count) wrapping at capacity, mirrored at + capacity.
+      System.arraycopy(in, inOffset, data, base + pos, firstRun);
+      System.arraycopy(in, inOffset, data, base + pos + capacity, firstRun);
+      int secondRun = count - firstRun;
+      if (secondRun > 0) {
+        System.arraycopy(in, inOffset + firstRun, data, base, secondRun);
+        System.arraycopy(in, inOffset + firstRun, data, base + capacity, secondRun);
+      }
+    }
+    endFrame = blockStart + frames;
+    startFrame = Math.max(startFrame, endFrame - capacity);
+  }
+
+  /**
+   * @param startFrame first frame index of the window
+   * @param length window length in frames
+   * @return {@code true} if every frame of the window is currently retained
+   */
+  public boolean contains(long startFrame, int length) {
+    return length >= 0
+        && length <= capacity
+        && startFrame >= this.startFrame
+        && startFrame + length <= endFrame;
+  }
+
+  /**
+   * Zero-copy view of one channel's samples in {@code [startFrame, startFrame + length)}.
+   *
+   * @param channel channel index, in {@code [0, channels)}
+   * @param startFrame first frame index of the window
+   * @param length window length in frames
+   * @return a view into the ring storage (do not mutate; see the class notes on validity)
+   * @throws IndexOutOfBoundsException if the channel is out of range or the window is not retained
+   */
+  public SampleSlice channelView(int channel, long startFrame, int length) {
+    Objects.checkIndex(channel, format.channels());
+    checkWindow(startFrame, length);
+    return new SampleSlice(data, channel * channelStride + ringIndex(startFrame), length);
+  }
+
+  /**
+   * Zero-copy {@link AudioBlock} view of all channels in {@code [startFrame, startFrame + length)},
+   * suitable for passing straight to analysis modules. Unlike ordinary blocks, the view aliases the
+   * ring storage and must not be retained beyond the validity described in the class notes.
+   *
+   * @param startFrame first frame index of the window
+   * @param length window length in frames
+   * @return a transient block view of the window
+   * @throws IndexOutOfBoundsException if the window is not retained
+   */
+  public AudioBlock viewBlock(long startFrame, int length) {
+    checkWindow(startFrame, length);
+    return AudioBlock.wrapContiguous(
+        format,
+        data,
+        ringIndex(startFrame),
+        channelStride,
+        length,
+        startFrame,
+        timestampOf(startFrame));
+  }
+
+  /**
+   * Immutable copy of all channels in {@code [startFrame, startFrame + length)}.
+   *
+   * @param startFrame first frame index of the window
+   * @param length window length in frames
+   * @return a new block that owns its samples
+   * @throws IndexOutOfBoundsException if the window is not retained
+   */
+  public AudioBlock copyBlock(long startFrame, int length) {
+    checkWindow(startFrame, length);
+    int channels = format.channels();
+    float[] copy = new float[channels * length];
+    int offset = ringIndex(startFrame);
+    for (int c = 0; c < channels; c++) {
+      System.arraycopy(data, c * channelStride + offset, copy, c * length, length);
+    }
+    return AudioBlock.wrapContiguous(
+        format, copy, length, length, startFrame, timestampOf(startFrame));
+  }
+
+  /**
+   * Create a reader that walks the stream in windows of {@code windowLength} frames, advancing by
+   * {@code hop} frames per window, starting at the oldest retained frame.
+   *
+   * @param windowLength window length in frames, in {@code [1, capacity()]}
+   * @param hop distance between consecutive window starts; must be {@code >= 1}. A hop smaller than
+   *     the window length produces overlapping windows.
+   * @return a new reader
+   * @throws IllegalArgumentException if a parameter is out of range
+   */
+  public WindowReader reader(int windowLength, int hop) {
+    if (windowLength < 1 || windowLength > capacity) {
+      throw new IllegalArgumentException(
+          "windowLength must be in [1, " + capacity + "], was " + windowLength);
+    }
+    if (hop < 1) {
+      throw new IllegalArgumentException("hop must be >= 1, was " + hop);
+    }
+    return new WindowReader(windowLength, hop, startFrame);
+  }
+
+  /** Discard all buffered frames; the next write re-anchors the stream (counted as a reset). */
+  public void clear() {
+    anchored = false;
+    discontinuities++;
+    startFrame = 0L;
+    endFrame = 0L;
+  }
+
+  private void checkWindow(long start, int length) {
+    if (!contains(start, length)) {
+      throw new IndexOutOfBoundsException(
+          "window ["
+              + start
+              + ", "
+              + (start + length)
+              + ") is not within retained frames ["
+              + startFrame
+              + ", "
+              + endFrame
+              + ")");
+    }
+  }
+
+  private int ringIndex(long frame) {
+    return (int) Math.floorMod(frame, (long) capacity);
+  }
+
+  private long timestampOf(long frame) {
+    return anchorNanos + Math.round((frame - anchorFrame) * 1_000_000_000.0d / format.sampleRate());
+  }
+
+  /**
+   * Cursor over fixed-length, fixed-hop windows of a {@link SampleRingBuffer}. Several readers
+   * (e.g. an STFT with 75 % overlap and a trigger search with no overlap) can walk the same buffer
+   * independently.
+   *
+   * <pre>{@code
+   * ring.write(block);
+   * while (stft.next()) {
+   *   spectrumAnalyzer.analyze(stft.block());
+   * }
+   * }</pre>
+   */
+  public final class WindowReader {
+
+    private final int windowLength;
+    private final int hop;
+    private long nextStart;
+    private long currentStart = Long.MIN_VALUE;
+    private long skippedFrames;
+    private long seenDiscontinuities;
+
+    private WindowReader(int windowLength, int hop, long start) {
+      this.windowLength = windowLength;
+      this.hop = hop;
+      this.nextStart = start;
+      this.seenDiscontinuities = discontinuities;
+    }
+
+    /**
+     * Advance to the next complete window, if one is buffered. If the reader fell behind the oldest
+     * retained frame it resumes there and the skipped frames are added to {@link #skippedFrames()};
+     * after a stream reset it restarts at the first frame of the new stream.
+     *
+     * @return {@code true} if a new window is available through the accessors
+     */
+    public boolean next() {
+      if (seenDiscontinuities != discontinuities) {
+        // Stream was reset: frame indices before and after are unrelated.
+        seenDiscontinuities = discontinuities;
+        nextStart = startFrame;
+      } else if (nextStart < startFrame) {
+        skippedFrames += startFrame - nextStart;
+        nextStart = startFrame;
+      }
+      if (nextStart + windowLength > endFrame) {
+        return false;
+      }
+      currentStart = nextStart;
+      nextStart += hop;
+      return true;
+    }
+
+    /**
+     * @return frame index of the first frame of the current window
+     * @throws IllegalStateException if {@link #next()} has not returned {@code true} yet
+     */
+    public long frameIndex() {
+      if (currentStart == Long.MIN_VALUE) {
+        throw new IllegalStateException("next() has not produced a window yet");
+      }
+      return currentStart;
+    }
+
+    /**
+     * @param channel channel index, in {@code [0, channels)}
+     * @return zero-copy view of the current window of {@code channel}
+     * @throws IndexOutOfBoundsException if the window has already been overwritten
+     */
+    public SampleSlice channel(int channel) {
+      return channelView(channel, frameIndex(), windowLength);
+    }
+
+    /**
+     * @return zero-copy block view of the current window (see {@link SampleRingBuffer#viewBlock})
+     * @throws IndexOutOfBoundsException if the window has already been overwritten
+     */
+    public AudioBlock block() {
+      return viewBlock(frameIndex(), windowLength);
+    }
+
+    /**
+     * @return window length in frames
+     */
+    public int windowLength() {
+      return windowLength;
+    }
+
+    /**
+     * @return distance between consecutive window starts in frames
+     */
+    public int hop() {
+      return hop;
+    }
+
+    /**
+     * @return total number of frames skipped because the reader fell behind the buffer
+     */
+    public long skippedFrames() {
+      return skippedFrames;
+    }
+  }
+}
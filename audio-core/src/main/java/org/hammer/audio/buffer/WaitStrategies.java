@@ -0,0 +1,176 @@
+package org.hammer.audio.buffer;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} implementations, exposed through the factory methods on the interface.
+ *
+ * @author refactoring
+ */
+final class WaitStrategies {
+
+  /** Busy iterations before a spinning strategy starts yielding. */
+  private static final int SPIN_TRIES = 100;
+
+  /** Yield iterations before the parking strategy starts parking. */
+  private static final int YIELD_TRIES = 100;
+
+  private WaitStrategies() {}
+
+  /** Deadline for {@code timeoutNanos} from now, saturating at {@link Long#MAX_VALUE}. */
+  private static long deadline(long timeoutNanos) {
+    if (timeoutNanos == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    return System.nanoTime() + timeoutNanos;
+  }
+
+  /** Remaining nanos until {@code deadline}; never negative overflow for unbounded waits. */
+  private static long remaining(long deadline) {
+    return deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+  }
+
+  private static void checkInterrupt() throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  static final class BusySpin implements WaitStrategy {
+    static final BusySpin INSTANCE = new BusySpin();
+
+    @Override
+    public boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+      long deadline = deadline(timeoutNanos);
+      while (!condition.getAsBoolean()) {
+        checkInterrupt();
+        if (remaining(deadline) <= 0) {
+          return false;
+        }
+        Thread.onSpinWait();
+      }
+      return true;
+    }
+  }
+
+  static final class Yielding implements WaitStrategy {
+    static final Yielding INSTANCE = new Yielding();
+
+    @Override
+    public boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+      long deadline = deadline(timeoutNanos);
+      int tries = 0;
+      while (!condition.getAsBoolean()) {
+        checkInterrupt();
+        if (remaining(deadline) <= 0) {
+          return false;
+        }
+        if (tries < SPIN_TRIES) {
+          tries++;
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+      }
+      return true;
+    }
+  }
+
+  static final class Parking implements WaitStrategy {
+    static final Parking DEFAULT = new Parking(TimeUnit.MILLISECONDS.toNanos(1));
+
+    private static final long MIN_PARK_NANOS = 1_000L;
+
+    private final long maxParkNanos;
+
+    Parking(long maxParkNanos) {
+      if (maxParkNanos < 1) {
+        throw new IllegalArgumentException("maxParkNanos must be >= 1, was " + maxParkNanos);
+      }
+      this.maxParkNanos = maxParkNanos;
+    }
+
+    @Override
+    public boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+      long deadline = deadline(timeoutNanos);
+      int tries = 0;
+      long parkNanos = Math.min(MIN_PARK_NANOS, maxParkNanos);
+      while (!condition.getAsBoolean()) {
+        checkInterrupt();
+        long left = remaining(deadline);
+        if (left <= 0) {
+          return false;
+        }
+        if (tries < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(this, Math.min(parkNanos, left));
+          parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+        }
+        tries++;
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return "Parking[maxParkNanos=" + maxParkNanos + "]";
+    }
+  }
+
+  static final class Blocking implements WaitStrategy {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dataAvailable = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    @Override
+    public boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+      if (condition.getAsBoolean()) {
+        return true;
+      }
+      long nanos = timeoutNanos;
+      lock.lockInterruptibly();
+      // Register before re-checking (Dekker-style with the fence in signal()): either the
+      // producer sees waiters > 0 and signals, or we see its element on the re-check below.
+      waiters.incrementAndGet();
+      try {
+        while (!condition.getAsBoolean()) {
+          if (nanos <= 0) {
+            return false;
+          }
+          if (nanos == Long.MAX_VALUE) {
+            dataAvailable.await();
+          } else {
+            nanos = dataAvailable.awaitNanos(nanos);
+          }
+        }
+        return true;
+      } finally {
+        waiters.decrementAndGet();
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void signal() {
+      // Order the producer's release-store of its sequence before the read of waiters.
+      VarHandle.fullFence();
+      if (waiters.get() > 0) {
+        lock.lock();
+        try {
+          dataAvailable.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package org.hammer.audio.buffer;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy used by ring-buffer consumers to wait for data, and by producers to wake them.
+ *
+ * <p>The strategies trade wake-up latency against CPU usage:
+ *
+ * <ul>
+ *   <li>{@link #busySpin()} — lowest latency, burns a whole core while waiting. Only for a consumer
+ *       pinned to a dedicated core.
+ *   <li>{@link #yielding()} — spins briefly, then {@link Thread#yield()}s. Low latency, still keeps
+ *       a core busy when nothing else is runnable.
+ *   <li>{@link #parking()} — spins, yields, then parks with exponential back-off up to a cap. Near
+ *       zero CPU when idle; the wake-up delay is bounded by the current park interval. Default.
+ *   <li>{@link #blocking()} — blocks on a condition variable that the producer signals. Zero CPU
+ *       when idle and microsecond wake-ups, at the cost of a fence (and, only while a consumer is
+ *       actually waiting, a lock) on every publish.
+ * </ul>
+ *
+ * <p>Implementations are thread-safe and may be shared, but a shared {@link #blocking()} instance
+ * wakes the waiters of every buffer using it on each publish; give each buffer its own.
+ *
+ * @author refactoring
+ */
+public interface WaitStrategy {
+
+  /**
+   * Wait until {@code condition} becomes {@code true} or the timeout elapses. Consumer-side.
+   *
+   * @param condition readiness check, re-evaluated after every wake-up; must be cheap and
+   *     side-effect free
+   * @param timeoutNanos maximum time to wait; {@code Long.MAX_VALUE} waits indefinitely, {@code <=
+   *     0} checks once
+   * @return {@code true} if the condition holds, {@code false} on timeout
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException;
+
+  /**
+   * Wake consumers waiting in {@link #await}. Producer-side; called after every publish and must
+   * therefore be cheap when nobody is waiting. The default does nothing, which is correct for
+   * strategies that re-check the condition on their own.
+   */
+  default void signal() {}
+
+  /**
+   * @return a strategy that spins with {@link Thread#onSpinWait()} until data arrives
+   */
+  static WaitStrategy busySpin() {
+    return WaitStrategies.BusySpin.INSTANCE;
+  }
+
+  /**
+   * @return a strategy that spins briefly, then yields the processor between checks
+   */
+  static WaitStrategy yielding() {
+    return WaitStrategies.Yielding.INSTANCE;
+  }
+
+  /**
+   * @return a spin / yield / park strategy with a 1 ms park cap
+   */
+  static WaitStrategy parking() {
+    return WaitStrategies.Parking.DEFAULT;
+  }
+
+  /**
+   * @param maxParkNanos upper bound of the exponential park back-off; must be {@code >= 1}
+   * @return a spin / yield / park strategy whose park interval doubles up to {@code maxParkNanos}
+   * @throws IllegalArgumentException if {@code maxParkNanos < 1}
+   */
+  static WaitStrategy parking(long maxParkNanos) {
+    return new WaitStrategies.Parking(maxParkNanos);
+  }
+
+  /**
+   * @return a new strategy that blocks waiting consumers until the producer signals
+   */
+  static WaitStrategy blocking() {
+    return new WaitStrategies.Blocking();
+  }
+}
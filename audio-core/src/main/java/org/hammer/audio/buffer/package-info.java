@@ -3,6 +3,8 @@
  *
  * <p>The current implementation, {@link AudioRingBuffer}, is a lock-free SPSC (single-producer /
  * single-consumer) buffer used to hand audio blocks from the capture thread to downstream DSP and
- * analysis modules without locking the realtime path.
+ * analysis modules without locking the realtime path. {@link BroadcastRingBuffer} fans every
+ * element out to several independent subscribers. Consumers that want to sleep until data arrives
+ * wait through a pluggable {@link WaitStrategy}.
  */
 package org.hammer.audio.buffer;
@@ -1,6 +1,8 @@
 package org.hammer.audio.core;
 
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Immutable block of normalized audio frames flowing through the platform.
@@ -23,6 +25,24 @@ import java.util.Objects;
  * #channelView(int)} which exposes the internal array read-only by contract (the array is still
  * shared, do not mutate).
  *
+ * <p><strong>Storage layouts.</strong> Besides one array per channel, a block can be backed by a
+ * single contiguous {@code float[]} holding every channel at a fixed channel stride ({@link
+ * #wrapContiguous}). Multichannel kernels then walk one array, and {@link #slice(int, int)}
+ * re-windows any block without copying. Layout-agnostic kernels read through {@link
+ * #channelView(int, int, int)}, which returns a {@link SampleSlice} into the backing storage and
+ * never copies; {@link #channelView(int)} keeps returning an exactly-sized array and materializes
+ * (once, cached) a compact copy for contiguous or sliced blocks.
+ *
+ * <p><strong>Pooled blocks.</strong> Blocks handed out by an {@link AudioBlockPool} additionally
+ * carry a reference count. Their sample storage is returned to the pool once the last holder calls
+ * {@link #release()}, after which the pool hands the same arrays to a new block. Producers
+ * therefore hand a pooled block only to consumers that hold a reference (they call {@link
+ * #retain()} or are handed one, and {@link #release()} when done) and give everyone else an
+ * unpooled copy. Consumers that never release simply keep the storage alive (it is then reclaimed
+ * by the garbage collector instead of being recycled), so the immutable contract holds for them
+ * unchanged. Blocks created through the constructor or {@link #wrap} are not pooled and treat
+ * {@link #retain()} / {@link #release()} as no-ops.
+ *
  * <p>Thread-safety: instances are immutable and safely publishable.
  *
  * @author refactoring
@@ -30,10 +50,24 @@ import java.util.Objects;
 public final class AudioBlock {
 
   private final AudioFormatDescriptor format;
-  private final float[][] samples; // [channel][frame]
+  private final float[][] samples; // [channel] backing array, possibly shared between channels
+  private final int sampleOffset; // index of frame 0 of channel 0 in its backing array
+  private final int channelStride; // distance between channels in a shared array; 0 if unshared
+  private final boolean dense; // samples[c] is exactly [frames] long and starts at index 0
   private final int frames;
   private final long frameIndex;
   private final long timestampNanos;
+  private final AudioBlockPool pool; // null for unpooled blocks
+
+  private static final AtomicIntegerFieldUpdater<AudioBlock> REF_COUNT =
+      AtomicIntegerFieldUpdater.newUpdater(AudioBlock.class, "refCount");
+
+  /** Outstanding references of a pooled block; unused for unpooled blocks. */
+  @SuppressWarnings("unused")
+  private volatile int refCount;
+
+  /** Lazily materialized exactly-sized copy for {@link #channelView(int)} on non-dense blocks. */
+  private volatile float[][] compact;
 
   /**
    * Create an audio block by defensively copying the supplied samples.
@@ -47,7 +81,7 @@ public final class AudioBlock {
    */
   public AudioBlock(
       AudioFormatDescriptor format, float[][] samples, long frameIndex, long timestampNanos) {
-    this(format, samples, frameIndex, timestampNanos, true);
+    this(format, samples, frameIndex, timestampNanos, true, null);
   }
 
   /**
@@ -59,7 +93,8 @@ public final class AudioBlock {
       float[][] samples,
       long frameIndex,
       long timestampNanos,
-      boolean copy) {
+      boolean copy,
+      AudioBlockPool pool) {
     this.format = Objects.requireNonNull(format, "format");
     Objects.requireNonNull(samples, "samples");
     if (samples.length != format.channels()) {
@@ -90,9 +125,37 @@ public final class AudioBlock {
     } else {
       this.samples = samples;
     }
+    this.sampleOffset = 0;
+    this.channelStride = 0;
+    this.dense = true;
     this.frames = len;
     this.frameIndex = frameIndex;
     this.timestampNanos = timestampNanos;
+    this.pool = pool;
+    this.refCount = pool == null ? 0 : 1;
+  }
+
+  /** Internal constructor for already-validated views into shared storage (never pooled). */
+  private AudioBlock(
+      AudioFormatDescriptor format,
+      float[][] samples,
+      int sampleOffset,
+      int channelStride,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    this.format = format;
+    this.samples = samples;
+    this.sampleOffset = sampleOffset;
+    this.channelStride = channelStride;
+    this.dense =
+        sampleOffset == 0
+            && samples[0].length == frames
+            && (channelStride == 0 || samples.length == 1);
+    this.frames = frames;
+    this.frameIndex = frameIndex;
+    this.timestampNanos = timestampNanos;
+    this.pool = null;
   }
 
   /**
@@ -113,7 +176,93 @@ public final class AudioBlock {
    */
   public static AudioBlock wrap(
       AudioFormatDescriptor format, float[][] samples, long frameIndex, long timestampNanos) {
-    return new AudioBlock(format, samples, frameIndex, timestampNanos, false);
+    return new AudioBlock(format, samples, frameIndex, timestampNanos, false, null);
+  }
+
+  /**
+   * Wrap a single contiguous sample array holding every channel as an {@code AudioBlock}, without
+   * copying. Channel {@code c} occupies {@code data[c * channelStride .. c * channelStride +
+   * frames)}. The caller transfers ownership of {@code data} and must not mutate it after the call.
+   *
+   * @param format audio format descriptor; must not be {@code null}
+   * @param data contiguous channel-major sample storage (ownership transferred); must not be {@code
+   *     null}
+   * @param channelStride distance in samples between the first frames of consecutive channels; must
+   *     be {@code >= frames}
+   * @param frames number of frames per channel; must be {@code >= 0}
+   * @param frameIndex monotonically increasing frame counter from stream start
+   * @param timestampNanos capture timestamp (nanoseconds)
+   * @return a new immutable {@code AudioBlock} referencing {@code data}
+   * @throws IllegalArgumentException if {@code data} is too short for the requested layout
+   */
+  public static AudioBlock wrapContiguous(
+      AudioFormatDescriptor format,
+      float[] data,
+      int channelStride,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    return wrapContiguous(format, data, 0, channelStride, frames, frameIndex, timestampNanos);
+  }
+
+  /**
+   * Wrap a window of a contiguous sample array as an {@code AudioBlock}, without copying. Channel
+   * {@code c} occupies {@code data[dataOffset + c * channelStride .. + frames)}. The caller must
+   * not mutate that range while the block is in use.
+   *
+   * @param format audio format descriptor; must not be {@code null}
+   * @param data contiguous channel-major sample storage; must not be {@code null}
+   * @param dataOffset index of frame 0 of channel 0 in {@code data}; must be {@code >= 0}
+   * @param channelStride distance in samples between the first frames of consecutive channels; must
+   *     be {@code >= frames}
+   * @param frames number of frames per channel; must be {@code >= 0}
+   * @param frameIndex monotonically increasing frame counter from stream start
+   * @param timestampNanos capture timestamp (nanoseconds)
+   * @return a new {@code AudioBlock} referencing {@code data}
+   * @throws IllegalArgumentException if {@code data} is too short for the requested layout
+   */
+  public static AudioBlock wrapContiguous(
+      AudioFormatDescriptor format,
+      float[] data,
+      int dataOffset,
+      int channelStride,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    Objects.requireNonNull(format, "format");
+    Objects.requireNonNull(data, "data");
+    if (frames < 0) {
+      throw new IllegalArgumentException("frames must be >= 0, was " + frames);
+    }
+    if (dataOffset < 0) {
+      throw new IllegalArgumentException("dataOffset must be >= 0, was " + dataOffset);
+    }
+    if (channelStride < frames) {
+      throw new IllegalArgumentException(
+          "channelStride (" + channelStride + ") must be >= frames (" + frames + ")");
+    }
+    long required = dataOffset + (long) (format.channels() - 1) * channelStride + frames;
+    if (data.length < required) {
+      throw new IllegalArgumentException(
+          "data.length (" + data.length + ") < required contiguous length (" + required + ")");
+    }
+    float[][] shared = new float[format.channels()][];
+    Arrays.fill(shared, data);
+    return new AudioBlock(
+        format, shared, dataOffset, channelStride, frames, frameIndex, timestampNanos);
+  }
+
+  /**
+   * Wrap pool-owned storage as a pooled block with a reference count of one. Used by {@link
+   * AudioBlockPool#wrap}.
+   */
+  static AudioBlock pooled(
+      AudioFormatDescriptor format,
+      float[][] samples,
+      long frameIndex,
+      long timestampNanos,
+      AudioBlockPool pool) {
+    return new AudioBlock(format, samples, frameIndex, timestampNanos, false, pool);
   }
 
   /**
@@ -130,22 +279,92 @@ public final class AudioBlock {
   public float[][] samples() {
     float[][] cp = new float[samples.length][];
     for (int c = 0; c < samples.length; c++) {
-      cp[c] = samples[c].clone();
+      cp[c] = new float[frames];
+      System.arraycopy(samples[c], channelOffset(c), cp[c], 0, frames);
     }
     return cp;
   }
 
   /**
-   * Read-only view of one channel's sample array. The returned array is the block's internal
-   * storage and <strong>must not be mutated</strong> by the caller. This exists for hot DSP loops
-   * that must avoid per-block allocations.
+   * Read-only view of one channel's sample array. The returned array is exactly {@link #frames()}
+   * long and <strong>must not be mutated</strong> by the caller. This exists for hot DSP loops that
+   * must avoid per-block allocations.
+   *
+   * <p>For blocks with one array per channel this is the block's internal storage. For contiguous
+   * or {@link #slice(int, int) sliced} blocks a compact copy of all channels is materialized on the
+   * first call and cached; prefer {@link #channelView(int, int, int)} there to stay zero-copy.
    *
    * @param channel channel index, in {@code [0, channels)}
-   * @return the internal per-channel sample array (do not mutate)
+   * @return the per-channel sample array (do not mutate)
    * @throws IndexOutOfBoundsException if {@code channel} is out of range
    */
   public float[] channelView(int channel) {
-    return samples[channel];
+    if (dense) {
+      return samples[channel];
+    }
+    float[][] materialized = compact;
+    if (materialized == null) {
+      materialized = samples();
+      compact = materialized;
+    }
+    return materialized[channel];
+  }
+
+  /**
+   * Zero-copy read-only view of {@code length} samples of one channel starting at frame {@code
+   * offset}, valid for every storage layout.
+   *
+   * @param channel channel index, in {@code [0, channels)}
+   * @param offset first frame of the view, in {@code [0, frames]}
+   * @param length number of frames, with {@code offset + length <= frames}
+   * @return a view into this block's storage (do not mutate)
+   * @throws IndexOutOfBoundsException if the channel or frame range is out of bounds
+   */
+  public SampleSlice channelView(int channel, int offset, int length) {
+    Objects.checkIndex(channel, samples.length);
+    Objects.checkFromIndexSize(offset, length, frames);
+    return new SampleSlice(samples[channel], channelOffset(channel) + offset, length);
+  }
+
+  /**
+   * Zero-copy sub-window of this block covering frames {@code [frameOffset, frameOffset + frames)}.
+   * The returned block shares this block's storage, reports {@code frameIndex() + frameOffset} as
+   * its frame index and shifts the timestamp by the corresponding duration.
+   *
+   * <p>Slices are never pooled: a slice of a pooled block is only valid while the parent block is
+   * retained.
+   *
+   * @param frameOffset first frame of the window, in {@code [0, frames()]}
+   * @param frames window length, with {@code frameOffset + frames <= frames()}
+   * @return the sliced block ({@code this} if the window covers the whole block)
+   * @throws IndexOutOfBoundsException if the window is out of bounds
+   */
+  public AudioBlock slice(int frameOffset, int frames) {
+    Objects.checkFromIndexSize(frameOffset, frames, this.frames);
+    if (frameOffset == 0 && frames == this.frames) {
+      return this;
+    }
+    long shiftNanos = Math.round(frameOffset * 1_000_000_000.0d / format.sampleRate());
+    return new AudioBlock(
+        format,
+        samples,
+        sampleOffset + frameOffset,
+        channelStride,
+        frames,
+        frameIndex + frameOffset,
+        timestampNanos + shiftNanos);
+  }
+
+  /**
+   * @return {@code true} if every channel lives in one shared array at a fixed stride
+   */
+  public boolean isContiguous() {
+    return channelStride > 0 || samples.length == 1;
+  }
+
+  /** Index of frame 0 of {@code channel} inside {@code samples[channel]}. */
+  private int channelOffset(int channel) {
+    return sampleOffset + channel * channelStride;
   }
 
   /**
@@ -176,6 +395,68 @@ public final class AudioBlock {
     return timestampNanos;
   }
 
+  /**
+   * @return {@code true} if this block's storage is owned by an {@link AudioBlockPool} and is
+   *     recycled once the reference count drops to zero
+   */
+  public boolean isPooled() {
+    return pool != null;
+  }
+
+  /**
+   * @return outstanding references of a pooled block ({@code 0} once released), or {@code 0} for
+   *     unpooled blocks
+   */
+  public int refCount() {
+    return refCount;
+  }
+
+  /**
+   * Register an additional holder of this block. Each call must be balanced by one {@link
+   * #release()}. No-op for unpooled blocks.
+   *
+   * @return this block, for call chaining
+   * @throws IllegalStateException if this pooled block was already fully released
+   */
+  public AudioBlock retain() {
+    if (pool == null) {
+      return this;
+    }
+    while (true) {
+      int current = refCount;
+      if (current <= 0) {
+        throw new IllegalStateException("retain() on a released pooled block: " + this);
+      }
+      if (REF_COUNT.compareAndSet(this, current, current + 1)) {
+        return this;
+      }
+    }
+  }
+
+  /**
+   * Drop one reference to this block. When the last reference of a pooled block is released its
+   * sample storage is handed back to the pool and must no longer be read through {@link
+   * #channelView(int)}. No-op for unpooled blocks.
+   *
+   * @return {@code true} if this call recycled the storage, {@code false} otherwise
+   * @throws IllegalStateException if this pooled block was already fully released
+   */
+  public boolean release() {
+    if (pool == null) {
+      return false;
+    }
+    int remaining = REF_COUNT.decrementAndGet(this);
+    if (remaining < 0) {
+      REF_COUNT.incrementAndGet(this);
+      throw new IllegalStateException("release() called more often than retain(): " + this);
+    }
+    if (remaining == 0) {
+      pool.recycle(samples);
+      return true;
+    }
+    return false;
+  }
+
   @Override
   public String toString() {
     return "AudioBlock[" + format + ", frames=" + frames + ", frameIndex=" + frameIndex + "]";
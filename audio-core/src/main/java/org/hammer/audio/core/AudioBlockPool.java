@@ -0,0 +1,151 @@
+package org.hammer.audio.core;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of recyclable {@code float[channels][frames]} sample buffers for reference-counted
+ * {@link AudioBlock}s.
+ *
+ * <p>Producers (capture loops, signal generators, simulators) borrow storage with {@link
+ * #acquireSamples(int)}, fill every sample and publish it with {@link #wrap(float[][], long,
+ * long)}. The resulting block starts with a reference count of one; every additional holder calls
+ * {@link AudioBlock#retain()}, and the storage comes back to this pool when the last holder calls
+ * {@link AudioBlock#release()}.
+ *
+ * <pre>{@code
+ * float[][] samples = pool.acquireSamples(frames);
+ * fill(samples);
+ * AudioBlock block = pool.wrap(samples, frameIndex, System.nanoTime());
+ * if (!ringBuffer.offer(block)) {
+ *   block.release(); // nobody will consume it
+ * }
+ * // consumer thread:
+ * AudioBlock b = ringBuffer.poll();
+ * analyze(b);
+ * b.release();
+ * }</pre>
+ *
+ * <p>The pool never blocks and never fails: if no recycled buffer of the requested length is
+ * available, a fresh one is allocated. Buffers released while the pool is full, or whose length no
+ * longer matches the requested frame count (e.g. after a divisor change), are left to the garbage
+ * collector. Consumers that never release therefore degrade the pool to plain allocation rather
+ * than corrupting data.
+ *
+ * <p>Thread-safety: {@link #acquireSamples(int)} and the internal recycle path are lock-free and
+ * allocation-free (apart from fresh buffers on a miss), so a producer thread may acquire while any
+ * number of consumer threads release.
+ *
+ * @author refactoring
+ */
+public final class AudioBlockPool {
+
+  private final AudioFormatDescriptor format;
+  private final AtomicReferenceArray<float[][]> free;
+  private final int slots;
+  private final AtomicLong allocations = new AtomicLong();
+  private final AtomicLong reuses = new AtomicLong();
+
+  /**
+   * Create a new pool.
+   *
+   * @param format format of every block produced by this pool; must not be {@code null}
+   * @param maxPooled maximum number of idle buffers retained for reuse; must be {@code >= 1}.
+   *     Should cover the number of blocks that can be in flight at once (typically the ring-buffer
+   *     capacity plus a few for "latest" holders).
+   * @throws IllegalArgumentException if {@code maxPooled < 1}
+   */
+  public AudioBlockPool(AudioFormatDescriptor format, int maxPooled) {
+    this.format = Objects.requireNonNull(format, "format");
+    if (maxPooled < 1) {
+      throw new IllegalArgumentException("maxPooled must be >= 1, was " + maxPooled);
+    }
+    this.slots = maxPooled;
+    this.free = new AtomicReferenceArray<>(maxPooled);
+  }
+
+  /**
+   * @return the format of the blocks produced by this pool
+   */
+  public AudioFormatDescriptor format() {
+    return format;
+  }
+
+  /**
+   * Borrow a {@code float[channels][frames]} buffer. The contents are unspecified (a recycled
+   * buffer still holds the samples of a previous block); the caller must overwrite every sample
+   * before publishing it via {@link #wrap}.
+   *
+   * @param frames number of frames per channel; must be {@code >= 0}
+   * @return a buffer owned by the caller until it is wrapped
+   * @throws IllegalArgumentException if {@code frames < 0}
+   */
+  public float[][] acquireSamples(int frames) {
+    if (frames < 0) {
+      throw new IllegalArgumentException("frames must be >= 0, was " + frames);
+    }
+    for (int i = 0; i < slots; i++) {
+      float[][] candidate = free.get(i);
+      if (candidate != null && free.compareAndSet(i, candidate, null)) {
+        if (candidate[0].length == frames) {
+          reuses.incrementAndGet();
+          return candidate;
+        }
+        // Stale shape (block size changed); let the GC reclaim it and keep looking.
+      }
+    }
+    allocations.incrementAndGet();
+    return new float[format.channels()][frames];
+  }
+
+  /**
+   * Publish a buffer obtained from {@link #acquireSamples(int)} as a pooled {@link AudioBlock} with
+   * a reference count of one. Ownership of {@code samples} moves to the block.
+   *
+   * @param samples buffer from {@link #acquireSamples(int)}; must match {@link #format()}
+   * @param frameIndex monotonically increasing frame counter from stream start
+   * @param timestampNanos capture timestamp (nanoseconds)
+   * @return a new pooled block
+   * @throws IllegalArgumentException if {@code samples} does not match {@link #format()}
+   */
+  public AudioBlock wrap(float[][] samples, long frameIndex, long timestampNanos) {
+    return AudioBlock.pooled(format, samples, frameIndex, timestampNanos, this);
+  }
+
+  /**
+   * @return number of buffers allocated because no recycled buffer was available
+   */
+  public long allocations() {
+    return allocations.get();
+  }
+
+  /**
+   * @return number of {@link #acquireSamples(int)} calls served from recycled storage
+   */
+  public long reuses() {
+    return reuses.get();
+  }
+
+  /**
+   * @return approximate number of idle buffers currently held for reuse
+   */
+  public int idleCount() {
+    int count = 0;
+    for (int i = 0; i < slots; i++) {
+      if (free.get(i) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Return storage of a fully released block; drops it if every slot is occupied. */
+  void recycle(float[][] samples) {
+    for (int i = 0; i < slots; i++) {
+      if (free.get(i) == null && free.compareAndSet(i, null, samples)) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package org.hammer.audio.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+/**
+ * Immutable block of normalized audio frames whose samples live outside the Java heap, in a direct
+ * {@link ByteBuffer}.
+ *
+ * <p>This is the off-heap counterpart of {@link AudioBlock} for long-lived data (spectrogram or
+ * trigger histories, hours of buffered audio) that would otherwise inflate GC pause times, and for
+ * transports that move samples between processes through shared memory (e.g. a {@link
+ * java.nio.MappedByteBuffer}). Samples are stored channel-major as 32-bit IEEE-754 floats: channel
+ * {@code c} occupies floats {@code [c * frames, (c + 1) * frames)} of the storage.
+ *
+ * <p>Samples are read through read-only {@link FloatBuffer} views ({@link #channelBuffer(int)}) or
+ * bulk-copied into caller-owned arrays ({@link #copyChannelTo(int, float[], int)}); neither
+ * allocates a heap copy of the block. Conversion to and from the heap form costs one bulk copy per
+ * channel ({@link #copyOf(AudioBlock)}, {@link #toHeap()}).
+ *
+ * <pre>{@code
+ * OffHeapAudioBlock history = OffHeapAudioBlock.copyOf(block);     // heap -> off-heap
+ * FloatBuffer left = history.channelBuffer(0);                     // zero-copy read access
+ * AudioBlock again = history.toHeap();                             // off-heap -> heap
+ * }</pre>
+ *
+ * <p>Thread-safety: instances are immutable and safely publishable. Storage handed to {@link #wrap}
+ * must not be modified after the call.
+ *
+ * @author refactoring
+ */
+public final class OffHeapAudioBlock {
+
+  private final AudioFormatDescriptor format;
+  private final ByteBuffer storage; // private duplicate, position 0, limit = byteSize
+  private final FloatBuffer floats; // float view over storage
+  private final int frames;
+  private final long frameIndex;
+  private final long timestampNanos;
+
+  private OffHeapAudioBlock(
+      AudioFormatDescriptor format,
+      ByteBuffer storage,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    this.format = format;
+    this.storage = storage;
+    this.floats = storage.asFloatBuffer();
+    this.frames = frames;
+    this.frameIndex = frameIndex;
+    this.timestampNanos = timestampNanos;
+  }
+
+  /**
+   * Copy a heap block into freshly allocated native-order direct storage.
+   *
+   * @param block block to copy; must not be {@code null}
+   * @return an off-heap block with the same format, samples, frame index and timestamp
+   */
+  public static OffHeapAudioBlock copyOf(AudioBlock block) {
+    Objects.requireNonNull(block, "block");
+    int frames = block.frames();
+    int channels = block.channels();
+    ByteBuffer storage =
+        ByteBuffer.allocateDirect(bytesRequired(channels, frames)).order(ByteOrder.nativeOrder());
+    FloatBuffer target = storage.asFloatBuffer();
+    for (int c = 0; c < channels; c++) {
+      SampleSlice view = block.channelView(c, 0, frames);
+      target.put(c * frames, view.array(), view.offset(), frames);
+    }
+    return new OffHeapAudioBlock(
+        block.format(), storage, frames, block.frameIndex(), block.timestampNanos());
+  }
+
+  /**
+   * Wrap existing direct storage (e.g. a shared-memory mapping filled by another process) without
+   * copying. The samples are read from {@code storage.position()} in the buffer's own byte order;
+   * the caller transfers ownership and must not modify the covered bytes after the call.
+   *
+   * @param format audio format descriptor; must not be {@code null}
+   * @param storage direct buffer holding at least {@link #bytesRequired(int, int)} remaining bytes
+   *     of channel-major floats; must not be {@code null}
+   * @param frames number of frames per channel; must be {@code >= 0}
+   * @param frameIndex monotonically increasing frame counter from stream start
+   * @param timestampNanos capture timestamp (nanoseconds)
+   * @return a new off-heap block referencing {@code storage}
+   * @throws IllegalArgumentException if {@code storage} is not direct or too small
+   */
+  public static OffHeapAudioBlock wrap(
+      AudioFormatDescriptor format,
+      ByteBuffer storage,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    Objects.requireNonNull(format, "format");
+    Objects.requireNonNull(storage, "storage");
+    if (!storage.isDirect()) {
+      throw new IllegalArgumentException("storage must be a direct buffer");
+    }
+    if (frames < 0) {
+      throw new IllegalArgumentException("frames must be >= 0, was " + frames);
+    }
+    int required = bytesRequired(format.channels(), frames);
+    if (storage.remaining() < required) {
+      throw new IllegalArgumentException(
+          "storage.remaining() (" + storage.remaining() + ") < required bytes (" + required + ")");
+    }
+    ByteBuffer own = storage.slice(storage.position(), required).order(storage.order());
+    return new OffHeapAudioBlock(format, own, frames, frameIndex, timestampNanos);
+  }
+
+  /**
+   * @param channels number of channels; must be {@code >= 0}
+   * @param frames number of frames per channel; must be {@code >= 0}
+   * @return number of storage bytes needed for a block of the given shape
+   * @throws IllegalArgumentException if the shape is negative or exceeds 2 GiB
+   */
+  public static int bytesRequired(int channels, int frames) {
+    if (channels < 0 || frames < 0) {
+      throw new IllegalArgumentException(
+          "channels and frames must be >= 0, were " + channels + ", " + frames);
+    }
+    long bytes = (long) channels * frames * Float.BYTES;
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("block too large for one buffer: " + bytes + " bytes");
+    }
+    return (int) bytes;
+  }
+
+  /**
+   * Copy the samples back into a heap {@link AudioBlock} backed by one contiguous array.
+   *
+   * @return a new heap block with the same format, samples, frame index and timestamp
+   */
+  public AudioBlock toHeap() {
+    int channels = format.channels();
+    float[] data = new float[channels * frames];
+    floats.get(0, data, 0, data.length);
+    return AudioBlock.wrapContiguous(format, data, frames, frames, frameIndex, timestampNanos);
+  }
+
+  /**
+   * Read-only view of one channel's samples, positioned at frame 0 with {@code limit() ==
+   * frames()}. Each call returns an independent buffer object over the shared off-heap storage.
+   *
+   * @param channel channel index, in {@code [0, channels)}
+   * @return a read-only float view of the channel
+   * @throws IndexOutOfBoundsException if {@code channel} is out of range
+   */
+  public FloatBuffer channelBuffer(int channel) {
+    Objects.checkIndex(channel, format.channels());
+    return floats.slice(channel * frames, frames).asReadOnlyBuffer();
+  }
+
+  /**
+   * Bulk-copy one channel's samples into a caller-owned array.
+   *
+   * @param channel channel index, in {@code [0, channels)}
+   * @param dest destination array
+   * @param destOffset first index written in {@code dest}
+   * @throws IndexOutOfBoundsException if {@code channel} is out of range or {@code dest} is too
+   *     small
+   */
+  public void copyChannelTo(int channel, float[] dest, int destOffset) {
+    Objects.checkIndex(channel, format.channels());
+    floats.get(channel * frames, dest, destOffset, frames);
+  }
+
+  /**
+   * Read-only view of the raw channel-major storage, for transports that move the bytes as-is (file
+   * or socket channels, shared memory). The buffer's {@link ByteBuffer#order() byte order} is the
+   * order of the samples.
+   *
+   * @return a read-only buffer positioned at 0 with {@code remaining() == byteSize()}
+   */
+  public ByteBuffer storage() {
+    return storage.asReadOnlyBuffer().order(storage.order());
+  }
+
+  /**
+   * @return number of storage bytes occupied by the samples
+   */
+  public int byteSize() {
+    return storage.capacity();
+  }
+
+  /**
+   * @return the audio format descriptor
+   */
+  public AudioFormatDescriptor format() {
+    return format;
+  }
+
+  /**
+   * @return number of audio frames in this block (samples per channel)
+   */
+  public int frames() {
+    return frames;
+  }
+
+  /**
+   * @return number of channels (convenience alias of {@code format().channels()})
+   */
+  public int channels() {
+    return format.channels();
+  }
+
+  /**
+   * @return monotonically increasing frame counter from stream start
+   */
+  public long frameIndex() {
+    return frameIndex;
+  }
+
+  /**
+   * @return capture timestamp in nanoseconds (cf. {@link System#nanoTime()})
+   */
+  public long timestampNanos() {
+    return timestampNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapAudioBlock["
+        + format
+        + ", frames="
+        + frames
+        + ", frameIndex="
+        + frameIndex
+        + "]";
+  }
+}
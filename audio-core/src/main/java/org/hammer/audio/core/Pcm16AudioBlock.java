@@ -0,0 +1,205 @@
+package org.hammer.audio.core;
+
+import java.util.Objects;
+
+/**
+ * Immutable block of audio frames stored as signed 16-bit integers, half the footprint of an {@link
+ * AudioBlock}.
+ *
+ * <p>Most sources deliver 16-bit PCM ({@link AudioFormatDescriptor#sourceSampleSizeInBits()} {@code
+ * == 16}), so widening them to 32-bit floats only doubles the memory of long-lived data: in-memory
+ * histories, replay buffers, recorded block lists. This class keeps such data compact. Samples are
+ * stored channel-major in one array: channel {@code c} occupies {@code [c * frames, (c + 1) *
+ * frames)}. A raw value {@code s} represents the normalized sample {@code s * }{@link #SCALE}, the
+ * same scale the capture decoder applies to signed 16-bit PCM, so blocks decoded from a 16-bit
+ * source survive {@link #copyOf(AudioBlock)} / {@link #toAudioBlock()} bit-exactly.
+ *
+ * <p>Float samples are produced lazily: {@link #channelView(int, int, int)} returns a {@link
+ * Pcm16Slice} that decodes only the samples actually read, kernels that work on integers read its
+ * raw array directly, and {@link #toAudioBlock()} decodes the whole block when a consumer needs an
+ * ordinary {@link AudioBlock}.
+ *
+ * <pre>{@code
+ * Pcm16AudioBlock compact = Pcm16AudioBlock.copyOf(block);       // float -> 16-bit
+ * float first = compact.channelView(0, 0, 1).get(0);             // lazy decode of one sample
+ * AudioBlock again = compact.toAudioBlock();                     // 16-bit -> float
+ * }</pre>
+ *
+ * <p>Thread-safety: instances are immutable and safely publishable. Storage handed to {@link #wrap}
+ * must not be modified after the call.
+ *
+ * @author refactoring
+ */
+public final class Pcm16AudioBlock {
+
+  /** Multiplier from a raw 16-bit value to a normalized sample ({@code 1 / 32767}). */
+  public static final float SCALE = 1f / Short.MAX_VALUE;
+
+  private final AudioFormatDescriptor format;
+  private final short[] data;
+  private final int frames;
+  private final long frameIndex;
+  private final long timestampNanos;
+
+  private Pcm16AudioBlock(
+      AudioFormatDescriptor format,
+      short[] data,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    this.format = format;
+    this.data = data;
+    this.frames = frames;
+    this.frameIndex = frameIndex;
+    this.timestampNanos = timestampNanos;
+  }
+
+  /**
+   * Quantize a float block to 16 bits. Samples are rounded to the nearest step and clipped to the
+   * 16-bit range, so values outside {@code [-1, 1]} saturate.
+   *
+   * @param block block to copy; must not be {@code null}
+   * @return a compact block with the same format, frame index and timestamp
+   */
+  public static Pcm16AudioBlock copyOf(AudioBlock block) {
+    Objects.requireNonNull(block, "block");
+    int frames = block.frames();
+    int channels = block.channels();
+    short[] data = new short[channels * frames];
+    for (int c = 0; c < channels; c++) {
+      SampleSlice view = block.channelView(c, 0, frames);
+      float[] src = view.array();
+      int srcOffset = view.offset();
+      int dstOffset = c * frames;
+      for (int i = 0; i < frames; i++) {
+        data[dstOffset + i] = quantize(src[srcOffset + i]);
+      }
+    }
+    return new Pcm16AudioBlock(
+        block.format(), data, frames, block.frameIndex(), block.timestampNanos());
+  }
+
+  /**
+   * Wrap existing channel-major 16-bit storage without copying. The caller transfers ownership and
+   * must not modify {@code data} after the call.
+   *
+   * @param format audio format descriptor; must not be {@code null}
+   * @param data channel-major samples, at least {@code channels * frames} long; must not be {@code
+   *     null}
+   * @param frames number of frames per channel; must be {@code >= 0}
+   * @param frameIndex monotonically increasing frame counter from stream start
+   * @param timestampNanos capture timestamp (nanoseconds)
+   * @return a new block referencing {@code data}
+   * @throws IllegalArgumentException if {@code frames < 0} or {@code data} is too small
+   */
+  public static Pcm16AudioBlock wrap(
+      AudioFormatDescriptor format,
+      short[] data,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    Objects.requireNonNull(format, "format");
+    Objects.requireNonNull(data, "data");
+    if (frames < 0) {
+      throw new IllegalArgumentException("frames must be >= 0, was " + frames);
+    }
+    long required = (long) format.channels() * frames;
+    if (data.length < required) {
+      throw new IllegalArgumentException(
+          "data.length (" + data.length + ") < channels * frames (" + required + ")");
+    }
+    return new Pcm16AudioBlock(format, data, frames, frameIndex, timestampNanos);
+  }
+
+  /**
+   * @param sample normalized sample
+   * @return the nearest 16-bit value, saturated to {@code [Short.MIN_VALUE, Short.MAX_VALUE]}
+   */
+  public static short quantize(float sample) {
+    int q = Math.round(sample * Short.MAX_VALUE);
+    if (q > Short.MAX_VALUE) {
+      return Short.MAX_VALUE;
+    }
+    if (q < Short.MIN_VALUE) {
+      return Short.MIN_VALUE;
+    }
+    return (short) q;
+  }
+
+  /**
+   * Decode the whole block into a heap {@link AudioBlock} backed by one contiguous array. Nothing
+   * is cached: every call allocates, so long-lived holders should keep the compact form and decode
+   * only what they are about to process.
+   *
+   * @return a new float block with the same format, frame index and timestamp
+   */
+  public AudioBlock toAudioBlock() {
+    float[] samples = new float[format.channels() * frames];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = data[i] * SCALE;
+    }
+    return AudioBlock.wrapContiguous(format, samples, frames, frames, frameIndex, timestampNanos);
+  }
+
+  /**
+   * Zero-copy view of {@code length} raw samples of one channel starting at frame {@code offset}.
+   *
+   * @param channel channel index, in {@code [0, channels)}
+   * @param offset first frame of the view, in {@code [0, frames]}
+   * @param length number of frames, with {@code offset + length <= frames}
+   * @return a view into this block's storage (do not mutate)
+   * @throws IndexOutOfBoundsException if the channel or frame range is out of bounds
+   */
+  public Pcm16Slice channelView(int channel, int offset, int length) {
+    Objects.checkIndex(channel, format.channels());
+    Objects.checkFromIndexSize(offset, length, frames);
+    return new Pcm16Slice(data, channel * frames + offset, length);
+  }
+
+  /**
+   * @return number of bytes occupied by the samples ({@code channels * frames * 2})
+   */
+  public int byteSize() {
+    return format.channels() * frames * Short.BYTES;
+  }
+
+  /**
+   * @return the audio format descriptor
+   */
+  public AudioFormatDescriptor format() {
+    return format;
+  }
+
+  /**
+   * @return number of audio frames in this block (samples per channel)
+   */
+  public int frames() {
+    return frames;
+  }
+
+  /**
+   * @return number of channels (convenience alias of {@code format().channels()})
+   */
+  public int channels() {
+    return format.channels();
+  }
+
+  /**
+   * @return monotonically increasing frame counter from stream start
+   */
+  public long frameIndex() {
+    return frameIndex;
+  }
+
+  /**
+   * @return capture timestamp in nanoseconds (cf. {@link System#nanoTime()})
+   */
+  public long timestampNanos() {
+    return timestampNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "Pcm16AudioBlock[" + format + ", frames=" + frames + ", frameIndex=" + frameIndex + "]";
+  }
+}
@@ -0,0 +1,59 @@
+package org.hammer.audio.core;
+
+import java.util.Objects;
+
+/**
+ * Zero-copy read-only window into the 16-bit sample storage of a {@link Pcm16AudioBlock} channel.
+ *
+ * <p>Raw sample {@code i} of the window lives at {@code array()[offset() + i]} for {@code i} in
+ * {@code [0, length())}. Kernels that can work on integers (peak, sum of squares, zero crossings)
+ * should hoist {@link #array()} and {@link #offset()} into locals and scale the result once by
+ * {@link Pcm16AudioBlock#SCALE}; {@link #get(int)} and {@link #copyTo(float[], int)} decode to
+ * normalized floats lazily, only for the samples actually read. The array is shared with the block
+ * and <strong>must not be mutated</strong>.
+ *
+ * @param array backing storage (shared, do not mutate)
+ * @param offset index of the first sample of the window in {@code array}
+ * @param length number of samples in the window
+ * @author refactoring
+ */
+public record Pcm16Slice(short[] array, int offset, int length) {
+
+  /** Validate that the window lies inside {@code array}. */
+  public Pcm16Slice {
+    Objects.requireNonNull(array, "array");
+    Objects.checkFromIndexSize(offset, length, array.length);
+  }
+
+  /**
+   * @param index sample index in {@code [0, length())}
+   * @return the sample at {@code index}, normalized to {@code [-1, 1]}
+   * @throws IndexOutOfBoundsException if {@code index} is out of range
+   */
+  public float get(int index) {
+    return array[offset + Objects.checkIndex(index, length)] * Pcm16AudioBlock.SCALE;
+  }
+
+  /**
+   * Decode the window into {@code dest} as normalized floats.
+   *
+   * @param dest destination array
+   * @param destOffset first index written in {@code dest}
+   * @throws IndexOutOfBoundsException if {@code dest} is too small
+   */
+  public void copyTo(float[] dest, int destOffset) {
+    Objects.checkFromIndexSize(destOffset, length, dest.length);
+    for (int i = 0; i < length; i++) {
+      dest[destOffset + i] = array[offset + i] * Pcm16AudioBlock.SCALE;
+    }
+  }
+
+  /**
+   * @return a freshly allocated, decoded copy of the window
+   */
+  public float[] toArray() {
+    float[] copy = new float[length];
+    copyTo(copy, 0);
+    return copy;
+  }
+}
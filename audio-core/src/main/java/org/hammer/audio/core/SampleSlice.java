@@ -0,0 +1,54 @@
+package org.hammer.audio.core;
+
+import java.util.Objects;
+
+/**
+ * Zero-copy read-only window into the sample storage of an {@link AudioBlock} channel.
+ *
+ * <p>Sample {@code i} of the window lives at {@code array()[offset() + i]} for {@code i} in {@code
+ * [0, length())}. Hot loops should hoist {@link #array()} and {@link #offset()} into locals and
+ * index the array directly; {@link #get(int)} is a bounds-checked convenience for non-critical
+ * code. The array is shared with the block and <strong>must not be mutated</strong>.
+ *
+ * @param array backing storage (shared, do not mutate)
+ * @param offset index of the first sample of the window in {@code array}
+ * @param length number of samples in the window
+ * @author refactoring
+ */
+public record SampleSlice(float[] array, int offset, int length) {
+
+  /** Validate that the window lies inside {@code array}. */
+  public SampleSlice {
+    Objects.requireNonNull(array, "array");
+    Objects.checkFromIndexSize(offset, length, array.length);
+  }
+
+  /**
+   * @param index sample index in {@code [0, length())}
+   * @return the sample at {@code index}
+   * @throws IndexOutOfBoundsException if {@code index} is out of range
+   */
+  public float get(int index) {
+    return array[offset + Objects.checkIndex(index, length)];
+  }
+
+  /**
+   * Copy the window into {@code dest}.
+   *
+   * @param dest destination array
+   * @param destOffset first index written in {@code dest}
+   * @throws IndexOutOfBoundsException if {@code dest} is too small
+   */
+  public void copyTo(float[] dest, int destOffset) {
+    System.arraycopy(array, offset, dest, destOffset, length);
+  }
+
+  /**
+   * @return a freshly allocated copy of the window
+   */
+  public float[] toArray() {
+    float[] copy = new float[length];
+    copyTo(copy, 0);
+    return copy;
+  }
+}
@@ -7,6 +7,9 @@
  * (Swing UI, JavaFX UI, REST API, file export, ...).
  *
  * @see AudioBlock
+ * @see AudioBlockPool
  * @see AudioFormatDescriptor
+ * @see OffHeapAudioBlock
+ * @see Pcm16AudioBlock
  */
 package org.hammer.audio.core;
@@ -2,6 +2,9 @@ package org.hammer.audio.buffer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.Test;
@@ -151,4 +154,301 @@ class AudioRingBufferTest {
     long expected = (long) totalItems * (totalItems + 1) / 2;
     assertEquals(expected, sumConsumed.get(), "no items should be lost or duplicated");
   }
+
+  @Test
+  void offerBatch_accepts_only_what_fits() {
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(4);
+    rb.offer(0);
+    assertEquals(3, rb.offerBatch(new Integer[] {1, 2, 3, 4, 5}, 5));
+    assertTrue(rb.isFull());
+    assertEquals(0, rb.offerBatch(new Integer[] {6}, 1));
+    for (int i = 0; i < 4; i++) {
+      assertEquals(i, rb.poll());
+    }
+  }
+
+  @Test
+  void offerBatch_rejects_nulls_without_publishing() {
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(4);
+    assertThrows(NullPointerException.class, () -> rb.offerBatch(new Integer[] {1, null}, 2));
+    assertTrue(rb.isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> rb.offerBatch(new Integer[1], 2));
+  }
+
+  @Test
+  void drain_hands_elements_to_consumer_up_to_max() {
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(8);
+    rb.offerBatch(new Integer[] {1, 2, 3, 4, 5}, 5);
+    List<Integer> seen = new ArrayList<>();
+    assertEquals(3, rb.drain(seen::add, 3));
+    assertEquals(List.of(1, 2, 3), seen);
+    assertEquals(2, rb.drain(seen::add, 10));
+    assertEquals(List.of(1, 2, 3, 4, 5), seen);
+    assertEquals(0, rb.drain(seen::add, 10));
+  }
+
+  @Test
+  void drain_counts_elements_up_to_a_failing_consumer() {
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(4);
+    rb.offerBatch(new Integer[] {1, 2, 3}, 3);
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            rb.drain(
+                v -> {
+                  if (v == 2) {
+                    throw new IllegalStateException("boom");
+                  }
+                },
+                3));
+    assertEquals(3, rb.poll());
+  }
+
+  @Test
+  void spsc_batch_stress_no_loss() throws Exception {
+    final int totalItems = 50_000;
+    final AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(64);
+    final AtomicBoolean failed = new AtomicBoolean(false);
+    final AtomicLong sumConsumed = new AtomicLong(0);
+
+    Thread producer =
+        new Thread(
+            () -> {
+              Integer[] batch = new Integer[16];
+              int next = 1;
+              while (next <= totalItems) {
+                int count = Math.min(batch.length, totalItems - next + 1);
+                for (int i = 0; i < count; i++) {
+                  batch[i] = next + i;
+                }
+                int accepted = rb.offerBatch(batch, count);
+                if (accepted == 0) {
+                  Thread.yield();
+                }
+                next += accepted;
+              }
+            },
+            "producer");
+
+    Thread consumer =
+        new Thread(
+            () -> {
+              int[] state = new int[2]; // received, lastValue
+              while (state[0] < totalItems) {
+                int drained =
+                    rb.drain(
+                        v -> {
+                          if (v != state[1] + 1) {
+                            failed.set(true);
+                          }
+                          state[1] = v;
+                          sumConsumed.addAndGet(v);
+                        },
+                        32);
+                if (drained == 0) {
+                  Thread.yield();
+                }
+                state[0] += drained;
+              }
+            },
+            "consumer");
+
+    consumer.start();
+    producer.start();
+    producer.join(10_000);
+    consumer.join(10_000);
+
+    assertFalse(failed.get(), "values must be received in FIFO order without gaps");
+    long expected = (long) totalItems * (totalItems + 1) / 2;
+    assertEquals(expected, sumConsumed.get(), "no items should be lost or duplicated");
+  }
+
+  @Test
+  void stats_count_drops_without_instrumentation() {
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(2);
+    rb.offer(1);
+    rb.offer(2);
+    assertFalse(rb.offer(3));
+    assertEquals(0, rb.offerBatch(new Integer[] {4, 5}, 2));
+    rb.offerOverwrite(6);
+
+    RingBufferStats stats = rb.stats();
+    assertEquals(2, stats.capacity());
+    assertEquals(2, stats.size());
+    assertEquals(1 + 2 + 1, stats.dropped());
+    assertFalse(stats.isInstrumented());
+    assertEquals(-1, stats.highWatermark());
+    assertEquals(-1L, stats.latencyPercentileNanos(50));
+  }
+
+  @Test
+  void instrumentation_tracks_latency() {
+    AudioRingBuffer<Long> rb = new AudioRingBuffer<>(8);
+    rb.enableInstrumentation(timestamp -> timestamp);
+    long now = System.nanoTime();
+    rb.offer(now - 1_000_000L); // enqueued ~1 ms ago
+    rb.offer(now - 1_000_000L);
+    rb.offer(now);
+    rb.poll();
+    rb.offerBatch(new Long[] {now, now}, 2);
+    rb.drain(v -> {}, 2);
+    rb.drainTo(new Long[8], 8);
+
+    RingBufferStats stats = rb.stats();
+    assertTrue(stats.isInstrumented());
+    assertEquals(5L, stats.published());
+    assertEquals(5L, stats.consumed());
+    assertEquals(5L, stats.latencySamples());
+    long p100 = stats.latencyPercentileNanos(100);
+    assertTrue(p100 > 1_000_000L, "slowest dequeue waited at least 1 ms, was " + p100);
+    assertTrue(stats.latencyPercentileNanos(0) <= p100);
+    assertThrows(IllegalArgumentException.class, () -> stats.latencyPercentileNanos(101));
+  }
+
+  @Test
+  void sampled_high_watermark_always_records_a_full_buffer() {
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(64);
+    rb.enableInstrumentation(null);
+    for (int i = 0; i < 100; i++) {
+      rb.offer(i);
+      rb.poll();
+    }
+    assertEquals(1, rb.stats().highWatermark());
+
+    for (int i = 0; i < 64; i++) {
+      rb.offer(i);
+    }
+    assertEquals(64, rb.stats().highWatermark());
+  }
+
+  @Test
+  void instrumentation_without_clock_records_only_watermark() {
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(4);
+    rb.offer(1);
+    rb.enableInstrumentation(null);
+    rb.offer(2);
+    rb.poll();
+    RingBufferStats stats = rb.stats();
+    assertEquals(2, stats.highWatermark());
+    assertEquals(0L, stats.latencySamples());
+  }
+
+  @Test
+  void drop_oldest_evicts_oldest_to_discard_handler() {
+    AudioRingBuffer<Integer> rb =
+        new AudioRingBuffer<>(2, WaitStrategy.parking(), OverflowPolicy.DROP_OLDEST);
+    List<Integer> discarded = new ArrayList<>();
+    rb.onDiscard(discarded::add);
+    assertEquals(OverflowPolicy.DROP_OLDEST, rb.overflowPolicy());
+    assertTrue(rb.offer(1));
+    assertTrue(rb.offer(2));
+    assertTrue(rb.offer(3));
+    assertEquals(2, rb.offerOverwrite(4), "offerOverwrite returns instead of discarding");
+
+    assertEquals(List.of(1), discarded);
+    assertEquals(2L, rb.stats().dropped());
+    assertEquals(3, rb.poll());
+    assertEquals(4, rb.poll());
+    assertNull(rb.poll());
+  }
+
+  @Test
+  void drop_oldest_offerBatch_keeps_newest_elements() {
+    AudioRingBuffer<Integer> rb =
+        new AudioRingBuffer<>(4, WaitStrategy.parking(), OverflowPolicy.DROP_OLDEST);
+    List<Integer> discarded = new ArrayList<>();
+    rb.onDiscard(discarded::add);
+    rb.offerBatch(new Integer[] {1, 2, 3}, 3);
+    assertEquals(6, rb.offerBatch(new Integer[] {4, 5, 6, 7, 8, 9}, 6));
+
+    assertEquals(List.of(4, 5, 1, 2, 3), discarded);
+    assertEquals(5L, rb.stats().dropped());
+    Integer[] out = new Integer[4];
+    assertEquals(4, rb.drainTo(out, 4));
+    assertArrayEquals(new Integer[] {6, 7, 8, 9}, out);
+  }
+
+  @Test
+  void expiry_skips_elements_older_than_max_age() {
+    AudioRingBuffer<Long> rb = new AudioRingBuffer<>(8);
+    List<Long> discarded = new ArrayList<>();
+    rb.onDiscard(discarded::add);
+    rb.expireOlderThan(50, TimeUnit.MILLISECONDS, timestamp -> timestamp);
+    long now = System.nanoTime();
+    long stale = now - TimeUnit.SECONDS.toNanos(1);
+    rb.offer(stale);
+    rb.offer(stale);
+    rb.offer(now);
+    rb.offer(stale);
+    rb.offer(now);
+
+    assertEquals(now, rb.poll());
+    List<Long> drained = new ArrayList<>();
+    assertEquals(1, rb.drain(drained::add, 8));
+    assertEquals(List.of(now), drained);
+    assertEquals(List.of(stale, stale, stale), discarded);
+    assertEquals(3L, rb.stats().expired());
+    assertEquals(5L, rb.stats().consumed());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> rb.expireOlderThan(0, TimeUnit.MILLISECONDS, timestamp -> timestamp));
+  }
+
+  @Test
+  void drop_oldest_concurrent_consumer_never_sees_overwritten_or_duplicate_elements()
+      throws Exception {
+    final int totalItems = 50_000;
+    final AudioRingBuffer<Integer> rb =
+        new AudioRingBuffer<>(8, WaitStrategy.parking(), OverflowPolicy.DROP_OLDEST);
+    final AtomicLong discarded = new AtomicLong();
+    rb.onDiscard(v -> discarded.incrementAndGet());
+    final AtomicBoolean failed = new AtomicBoolean(false);
+    final AtomicBoolean producerDone = new AtomicBoolean(false);
+    final AtomicLong received = new AtomicLong();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int i = 1; i <= totalItems; i++) {
+                rb.offer(i);
+                if ((i & 63) == 0) {
+                  Thread.yield();
+                }
+              }
+              producerDone.set(true);
+            },
+            "producer");
+
+    Thread consumer =
+        new Thread(
+            () -> {
+              int last = 0;
+              while (true) {
+                Integer v = rb.poll();
+                if (v == null) {
+                  if (producerDone.get() && rb.isEmpty()) {
+                    break;
+                  }
+                  Thread.yield();
+                  continue;
+                }
+                if (v <= last) {
+                  failed.set(true);
+                }
+                last = v;
+                received.incrementAndGet();
+              }
+            },
+            "consumer");
+
+    consumer.start();
+    producer.start();
+    producer.join(10_000);
+    consumer.join(10_000);
+
+    assertFalse(failed.get(), "values must be strictly increasing");
+    assertEquals(
+        totalItems, received.get() + discarded.get(), "every element delivered or evicted");
+    assertEquals(discarded.get(), rb.stats().dropped());
+  }
 }
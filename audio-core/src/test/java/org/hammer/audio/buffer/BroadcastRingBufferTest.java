@@ -0,0 +1,267 @@
+package org.hammer.audio.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BroadcastRingBufferTest {
+
+  @Test
+  void every_subscriber_sees_every_element() {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(4);
+    BroadcastRingBuffer.Subscriber<Integer> a = rb.subscribe();
+    BroadcastRingBuffer.Subscriber<Integer> b = rb.subscribe();
+    assertTrue(rb.offer(1));
+    assertTrue(rb.offer(2));
+
+    assertEquals(1, a.poll());
+    assertEquals(2, a.poll());
+    assertNull(a.poll());
+    assertEquals(2, b.available());
+    assertEquals(1, b.poll());
+    assertEquals(2, b.poll());
+    assertNull(b.poll());
+  }
+
+  @Test
+  void new_subscriber_starts_at_cursor() {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(4);
+    rb.offer(1);
+    BroadcastRingBuffer.Subscriber<Integer> late = rb.subscribe();
+    assertEquals(1L, late.sequence());
+    assertNull(late.poll());
+    rb.offer(2);
+    assertEquals(2, late.poll());
+  }
+
+  @Test
+  void slowest_lossless_subscriber_gates_the_producer() {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(2);
+    BroadcastRingBuffer.Subscriber<Integer> fast = rb.subscribe();
+    BroadcastRingBuffer.Subscriber<Integer> slow = rb.subscribe();
+    assertTrue(rb.offer(1));
+    assertTrue(rb.offer(2));
+    fast.poll();
+    fast.poll();
+    assertFalse(rb.offer(3), "slow subscriber has not read element 1 yet");
+
+    assertEquals(1, slow.poll());
+    assertTrue(rb.offer(3));
+    assertEquals(2, slow.poll());
+    assertEquals(3, slow.poll());
+    assertEquals(3, fast.poll());
+  }
+
+  @Test
+  void lossy_subscriber_is_lapped_and_counts_missed_elements() {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(4);
+    BroadcastRingBuffer.Subscriber<Integer> lossy = rb.subscribeLossy();
+    for (int i = 0; i < 10; i++) {
+      assertTrue(rb.offer(i), "lossy subscribers never gate the producer");
+    }
+    assertTrue(lossy.isLossy());
+    assertEquals(4, lossy.available());
+    assertEquals(6, lossy.poll(), "resumes at the oldest element still in the ring");
+    assertEquals(6L, lossy.missed());
+    assertEquals(7, lossy.poll());
+  }
+
+  @Test
+  void publish_drops_only_for_the_lagging_lossless_subscriber() {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(2);
+    BroadcastRingBuffer.Subscriber<Integer> slow = rb.subscribe();
+    BroadcastRingBuffer.Subscriber<Integer> fast = rb.subscribe();
+    BroadcastRingBuffer.Subscriber<Integer> lossy = rb.subscribeLossy();
+    for (int i = 0; i < 5; i++) {
+      rb.publish(i);
+      assertEquals(i, fast.poll());
+      assertEquals(i, lossy.poll(), "a lagging lossless subscriber must not starve the others");
+    }
+    assertEquals(0L, fast.missed());
+    assertEquals(0L, lossy.missed());
+    assertEquals(3L, slow.missed());
+    assertEquals(3, slow.poll(), "the lagging subscriber resumes at its oldest retained element");
+    assertEquals(4, slow.poll());
+  }
+
+  @Test
+  void closed_subscriber_no_longer_gates() {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(1);
+    BroadcastRingBuffer.Subscriber<Integer> sub = rb.subscribe();
+    assertTrue(rb.offer(1));
+    assertFalse(rb.offer(2));
+    sub.close();
+    sub.close();
+    assertEquals(0, rb.subscriberCount());
+    assertTrue(rb.offer(2));
+    assertNull(sub.poll());
+  }
+
+  @Test
+  void drainTo_respects_max() {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(8);
+    BroadcastRingBuffer.Subscriber<Integer> sub = rb.subscribe();
+    for (int i = 0; i < 5; i++) {
+      rb.offer(i);
+    }
+    Integer[] dest = new Integer[3];
+    assertEquals(3, sub.drainTo(dest, 3));
+    assertArrayEquals(new Integer[] {0, 1, 2}, dest);
+    assertEquals(2, sub.drainTo(dest, 3));
+    assertThrows(IllegalArgumentException.class, () -> sub.drainTo(dest, 4));
+  }
+
+  @Test
+  void concurrent_lossless_subscribers_receive_full_sequence() throws Exception {
+    final int count = 50_000;
+    BroadcastRingBuffer<Long> rb = new BroadcastRingBuffer<>(64);
+    AtomicBoolean failure = new AtomicBoolean();
+    Thread[] consumers = new Thread[3];
+    for (int t = 0; t < consumers.length; t++) {
+      BroadcastRingBuffer.Subscriber<Long> sub = rb.subscribe();
+      consumers[t] =
+          new Thread(
+              () -> {
+                long expected = 0;
+                while (expected < count) {
+                  Long v = sub.poll();
+                  if (v == null) {
+                    Thread.yield();
+                    continue;
+                  }
+                  if (v != expected) {
+                    failure.set(true);
+                    return;
+                  }
+                  expected++;
+                }
+              },
+              "subscriber-" + t);
+      consumers[t].start();
+    }
+    BroadcastRingBuffer.Subscriber<Long> lossy = rb.subscribeLossy();
+    Thread lossyReader =
+        new Thread(
+            () -> {
+              long last = -1;
+              while (last < count - 1) {
+                Long v = lossy.poll();
+                if (v == null) {
+                  Thread.yield();
+                  continue;
+                }
+                if (v <= last) {
+                  failure.set(true);
+                  return;
+                }
+                last = v;
+              }
+            },
+            "lossy");
+    lossyReader.start();
+
+    for (long i = 0; i < count; i++) {
+      while (!rb.offer(i)) {
+        Thread.yield();
+      }
+    }
+    for (Thread consumer : consumers) {
+      consumer.join(10_000);
+    }
+    lossyReader.join(10_000);
+    assertFalse(failure.get(), "subscribers must see strictly ordered elements");
+  }
+
+  @Test
+  void references_follow_the_subscribers_each_element_reaches() {
+    BroadcastRingBuffer<Ref> rb = new BroadcastRingBuffer<>(2);
+    rb.trackReferences(Ref::retain, Ref::release);
+    Ref beforeAnySubscriber = new Ref();
+    rb.publish(beforeAnySubscriber);
+    assertEquals(0, beforeAnySubscriber.count.get());
+
+    BroadcastRingBuffer.Subscriber<Ref> reader = rb.subscribe();
+    BroadcastRingBuffer.Subscriber<Ref> lagging = rb.subscribeLossy();
+    BroadcastRingBuffer.Subscriber<Ref> quitter = rb.subscribe();
+    Ref[] refs = {new Ref(), new Ref(), new Ref(), new Ref()};
+    rb.publish(refs[0]);
+    assertEquals(3, refs[0].count.get(), "one reference per subscriber");
+    quitter.close();
+    for (Ref ref : refs) {
+      if (ref != refs[0]) {
+        rb.publish(ref);
+      }
+      assertSame(ref, reader.poll());
+      ref.release();
+    }
+    assertEquals(2, rb.subscriberCount());
+    assertEquals(0, refs[0].count.get(), "lapped and closed subscribers hand theirs back");
+    assertEquals(0, refs[1].count.get());
+    assertEquals(1, refs[3].count.get(), "still held for the lagging subscriber");
+    assertEquals(2L, lagging.missed());
+    lagging.close();
+    rb.publish(new Ref());
+    for (Ref ref : refs) {
+      assertEquals(0, ref.count.get());
+    }
+  }
+
+  @Test
+  void references_stay_balanced_while_subscribers_come_and_go() throws Exception {
+    final int count = 20_000;
+    BroadcastRingBuffer<Ref> rb = new BroadcastRingBuffer<>(8);
+    rb.trackReferences(Ref::retain, Ref::release);
+    List<Ref> published = new ArrayList<>(count);
+    AtomicBoolean done = new AtomicBoolean();
+    Thread churn =
+        new Thread(
+            () -> {
+              int round = 0;
+              while (!done.get()) {
+                BroadcastRingBuffer.Subscriber<Ref> sub =
+                    round++ % 2 == 0 ? rb.subscribe() : rb.subscribeLossy();
+                for (int i = 0; i < round % 5; i++) {
+                  Ref ref = sub.poll();
+                  if (ref != null) {
+                    ref.release();
+                  }
+                }
+                sub.close();
+                Thread.yield();
+              }
+            },
+            "churn");
+    churn.start();
+    for (int i = 0; i < count; i++) {
+      Ref ref = new Ref();
+      published.add(ref);
+      rb.publish(ref);
+    }
+    done.set(true);
+    churn.join(10_000);
+    rb.publish(new Ref()); // hands back what the last closed subscribers still held
+
+    for (Ref ref : published) {
+      assertEquals(0, ref.count.get(), "every reference taken must be released exactly once");
+    }
+  }
+
+  /** Reference-counted element that fails on a release without a matching retain. */
+  private static final class Ref {
+    final AtomicInteger count = new AtomicInteger();
+
+    void retain() {
+      count.incrementAndGet();
+    }
+
+    void release() {
+      if (count.decrementAndGet() < 0) {
+        throw new AssertionError("released more often than retained");
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package org.hammer.audio.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.core.SampleSlice;
+import org.junit.jupiter.api.Test;
+
+class SampleRingBufferTest {
+
+  private static final AudioFormatDescriptor STEREO = new AudioFormatDescriptor(1000f, 2, 16);
+
+  /** Block whose left sample equals its frame index and right sample its negation. */
+  private static AudioBlock ramp(long frameIndex, int frames) {
+    float[][] samples = new float[2][frames];
+    for (int i = 0; i < frames; i++) {
+      samples[0][i] = frameIndex + i;
+      samples[1][i] = -(frameIndex + i);
+    }
+    return AudioBlock.wrap(STEREO, samples, frameIndex, frameIndex * 1_000_000L);
+  }
+
+  @Test
+  void windows_span_block_boundaries_and_ring_wrap_without_copying() {
+    SampleRingBuffer ring = new SampleRingBuffer(STEREO, 8);
+    for (long f = 0; f < 30; f += 3) {
+      ring.write(ramp(f, 3));
+    }
+    assertEquals(22L, ring.startFrame());
+    assertEquals(30L, ring.endFrame());
+    assertEquals(8, ring.size());
+
+    for (long start = 22; start <= 24; start++) {
+      SampleSlice left = ring.channelView(0, start, 6);
+      SampleSlice right = ring.channelView(1, start, 6);
+      for (int i = 0; i < 6; i++) {
+        assertEquals(start + i, left.get(i), 0f);
+        assertEquals(-(start + i), right.get(i), 0f);
+      }
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> ring.channelView(0, 21, 4));
+    assertThrows(IndexOutOfBoundsException.class, () -> ring.channelView(0, 27, 4));
+  }
+
+  @Test
+  void reader_produces_overlapping_windows_with_frame_index_and_timestamp() {
+    SampleRingBuffer ring = new SampleRingBuffer(STEREO, 64);
+    SampleRingBuffer.WindowReader reader = ring.reader(8, 4);
+    ring.write(ramp(100, 10));
+    assertTrue(reader.next());
+    assertEquals(100L, reader.frameIndex());
+    assertFalse(reader.next(), "second window [104, 112) is not complete yet");
+
+    ring.write(ramp(110, 10));
+    assertTrue(reader.next());
+    AudioBlock window = reader.block();
+    assertEquals(104L, window.frameIndex());
+    assertEquals(8, window.frames());
+    assertEquals(104_000_000L, window.timestampNanos());
+    assertArrayEquals(
+        new float[] {104, 105, 106, 107, 108, 109, 110, 111}, window.channelView(0), 0f);
+    assertTrue(reader.next());
+    assertEquals(108L, reader.frameIndex());
+    assertTrue(reader.next());
+    assertEquals(112L, reader.frameIndex());
+    assertFalse(reader.next());
+  }
+
+  @Test
+  void hop_larger_than_window_skips_frames_between_windows() {
+    SampleRingBuffer ring = new SampleRingBuffer(STEREO, 16);
+    SampleRingBuffer.WindowReader reader = ring.reader(2, 5);
+    ring.write(ramp(0, 6));
+    assertTrue(reader.next());
+    assertFalse(reader.next(), "next window starts at 5 and needs frames up to 7");
+    ring.write(ramp(6, 1));
+    assertTrue(reader.next());
+    assertEquals(5, reader.channel(0).get(0), 0f);
+    assertEquals(0L, reader.skippedFrames());
+  }
+
+  @Test
+  void lagging_reader_skips_overwritten_frames() {
+    SampleRingBuffer ring = new SampleRingBuffer(STEREO, 8);
+    SampleRingBuffer.WindowReader reader = ring.reader(4, 4);
+    ring.write(ramp(0, 20));
+    assertEquals(12L, ring.startFrame(), "oversized block keeps only its newest frames");
+    assertTrue(reader.next());
+    assertEquals(12L, reader.frameIndex());
+    assertEquals(12L, reader.skippedFrames());
+    assertEquals(12, reader.channel(0).get(0), 0f);
+  }
+
+  @Test
+  void discontinuity_resets_buffer_and_readers() {
+    SampleRingBuffer ring = new SampleRingBuffer(STEREO, 16);
+    SampleRingBuffer.WindowReader reader = ring.reader(4, 4);
+    ring.write(ramp(0, 8));
+    assertTrue(reader.next());
+
+    ring.write(ramp(1000, 4));
+    assertEquals(1L, ring.discontinuities());
+    assertEquals(1000L, ring.startFrame());
+    assertTrue(reader.next());
+    assertEquals(1000L, reader.frameIndex());
+
+    ring.write(ramp(0, 4)); // restart with lower frame index
+    assertEquals(2L, ring.discontinuities());
+    assertTrue(reader.next());
+    assertEquals(0L, reader.frameIndex());
+  }
+
+  @Test
+  void copyBlock_survives_overwrite() {
+    SampleRingBuffer ring = new SampleRingBuffer(STEREO, 4);
+    ring.write(ramp(0, 4));
+    AudioBlock copy = ring.copyBlock(1, 3);
+    ring.write(ramp(4, 4));
+    assertArrayEquals(new float[] {1, 2, 3}, copy.channelView(0), 0f);
+    assertArrayEquals(new float[] {-1, -2, -3}, copy.channelView(1), 0f);
+  }
+
+  @Test
+  void rejects_invalid_arguments() {
+    assertThrows(IllegalArgumentException.class, () -> new SampleRingBuffer(STEREO, 0));
+    SampleRingBuffer ring = new SampleRingBuffer(STEREO, 4);
+    assertThrows(IllegalArgumentException.class, () -> ring.reader(5, 1));
+    assertThrows(IllegalArgumentException.class, () -> ring.reader(2, 0));
+    AudioFormatDescriptor mono = new AudioFormatDescriptor(1000f, 1, 16);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ring.write(AudioBlock.wrap(mono, new float[][] {{0f}}, 0L, 0L)));
+    assertThrows(IllegalStateException.class, () -> ring.reader(2, 2).frameIndex());
+  }
+}
@@ -0,0 +1,145 @@
+package org.hammer.audio.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class WaitStrategyTest {
+
+  private static final List<WaitStrategy> STRATEGIES =
+      List.of(
+          WaitStrategy.busySpin(),
+          WaitStrategy.yielding(),
+          WaitStrategy.parking(),
+          WaitStrategy.blocking());
+
+  @Test
+  void take_returns_element_offered_by_another_thread() throws Exception {
+    for (WaitStrategy strategy : STRATEGIES) {
+      AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(4, strategy);
+      AtomicReference<Integer> received = new AtomicReference<>();
+      CountDownLatch waiting = new CountDownLatch(1);
+      Thread consumer =
+          new Thread(
+              () -> {
+                waiting.countDown();
+                try {
+                  received.set(rb.take());
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              },
+              "consumer");
+      consumer.start();
+      waiting.await();
+      Thread.sleep(20);
+      assertTrue(rb.offer(7));
+      consumer.join(5_000);
+      assertFalse(consumer.isAlive(), "take() must wake up for " + strategy);
+      assertEquals(7, received.get());
+    }
+  }
+
+  @Test
+  void awaitAvailable_times_out_on_empty_buffer() throws Exception {
+    for (WaitStrategy strategy : STRATEGIES) {
+      AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(4, strategy);
+      long start = System.nanoTime();
+      assertFalse(rb.awaitAvailable(20, TimeUnit.MILLISECONDS));
+      assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+      rb.offer(1);
+      assertTrue(rb.awaitAvailable(0, TimeUnit.MILLISECONDS));
+      assertEquals(1, rb.size(), "awaitAvailable must not consume");
+    }
+  }
+
+  @Test
+  void take_is_interruptible() throws Exception {
+    for (WaitStrategy strategy : STRATEGIES) {
+      AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(4, strategy);
+      AtomicReference<Throwable> thrown = new AtomicReference<>();
+      Thread consumer =
+          new Thread(
+              () -> {
+                try {
+                  rb.take();
+                } catch (Throwable t) {
+                  thrown.set(t);
+                }
+              },
+              "consumer");
+      consumer.start();
+      Thread.sleep(20);
+      consumer.interrupt();
+      consumer.join(5_000);
+      assertInstanceOf(InterruptedException.class, thrown.get(), strategy.toString());
+    }
+  }
+
+  @Test
+  void blocking_strategy_delivers_every_element_to_a_sleeping_consumer() throws Exception {
+    final int count = 10_000;
+    AudioRingBuffer<Integer> rb = new AudioRingBuffer<>(16, WaitStrategy.blocking());
+    long[] sum = new long[1];
+    Thread consumer =
+        new Thread(
+            () -> {
+              try {
+                for (int i = 0; i < count; i++) {
+                  sum[0] += rb.take();
+                }
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            },
+            "consumer");
+    consumer.start();
+    for (int i = 1; i <= count; i++) {
+      while (!rb.offer(i)) {
+        Thread.yield();
+      }
+    }
+    consumer.join(10_000);
+    assertFalse(consumer.isAlive(), "no wake-up may be lost");
+    assertEquals((long) count * (count + 1) / 2, sum[0]);
+  }
+
+  @Test
+  void broadcast_take_wakes_each_subscriber_and_returns_null_when_closed() throws Exception {
+    BroadcastRingBuffer<Integer> rb = new BroadcastRingBuffer<>(4, WaitStrategy.blocking());
+    BroadcastRingBuffer.Subscriber<Integer> a = rb.subscribe();
+    BroadcastRingBuffer.Subscriber<Integer> b = rb.subscribe();
+    rb.offer(3);
+    assertEquals(3, a.take());
+    assertTrue(b.awaitAvailable(0, TimeUnit.MILLISECONDS));
+    assertEquals(3, b.take());
+
+    AtomicReference<Integer> result = new AtomicReference<>(-1);
+    Thread waiter =
+        new Thread(
+            () -> {
+              try {
+                result.set(a.take());
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            },
+            "waiter");
+    waiter.start();
+    Thread.sleep(20);
+    a.close();
+    waiter.join(5_000);
+    assertFalse(waiter.isAlive());
+    assertNull(result.get());
+  }
+
+  @Test
+  void parking_rejects_invalid_cap() {
+    assertThrows(IllegalArgumentException.class, () -> WaitStrategy.parking(0));
+    assertThrows(NullPointerException.class, () -> new AudioRingBuffer<Integer>(4, null));
+  }
+}
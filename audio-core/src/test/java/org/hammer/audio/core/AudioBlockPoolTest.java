@@ -0,0 +1,140 @@
+package org.hammer.audio.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import org.hammer.audio.buffer.AudioRingBuffer;
+import org.junit.jupiter.api.Test;
+
+class AudioBlockPoolTest {
+
+  private static final AudioFormatDescriptor STEREO = new AudioFormatDescriptor(48000f, 2, 16);
+
+  @Test
+  void released_storage_is_reused() {
+    AudioBlockPool pool = new AudioBlockPool(STEREO, 4);
+    float[][] first = pool.acquireSamples(8);
+    AudioBlock block = pool.wrap(first, 0L, 1L);
+    assertTrue(block.isPooled());
+    assertEquals(1, block.refCount());
+
+    assertTrue(block.release(), "last release must recycle the storage");
+    assertEquals(0, block.refCount());
+    assertEquals(1, pool.idleCount());
+
+    assertSame(first, pool.acquireSamples(8));
+    assertEquals(1, pool.allocations());
+    assertEquals(1, pool.reuses());
+  }
+
+  @Test
+  void storage_is_recycled_only_after_last_release() {
+    AudioBlockPool pool = new AudioBlockPool(STEREO, 4);
+    AudioBlock block = pool.wrap(pool.acquireSamples(8), 0L, 1L);
+    block.retain();
+    assertEquals(2, block.refCount());
+
+    assertFalse(block.release());
+    assertEquals(0, pool.idleCount());
+    assertTrue(block.release());
+    assertEquals(1, pool.idleCount());
+  }
+
+  @Test
+  void over_release_and_retain_after_release_are_rejected() {
+    AudioBlockPool pool = new AudioBlockPool(STEREO, 4);
+    AudioBlock block = pool.wrap(pool.acquireSamples(8), 0L, 1L);
+    block.release();
+    assertThrows(IllegalStateException.class, block::release);
+    assertThrows(IllegalStateException.class, block::retain);
+    assertEquals(1, pool.idleCount(), "storage must not be recycled twice");
+  }
+
+  @Test
+  void mismatched_frame_count_allocates_fresh_storage() {
+    AudioBlockPool pool = new AudioBlockPool(STEREO, 4);
+    pool.wrap(pool.acquireSamples(8), 0L, 1L).release();
+
+    float[][] resized = pool.acquireSamples(16);
+    assertEquals(16, resized[0].length);
+    assertEquals(2, resized.length);
+    assertEquals(2, pool.allocations());
+    assertEquals(0, pool.idleCount(), "stale-shaped storage is dropped");
+  }
+
+  @Test
+  void full_pool_drops_excess_storage() {
+    AudioBlockPool pool = new AudioBlockPool(STEREO, 1);
+    AudioBlock a = pool.wrap(pool.acquireSamples(4), 0L, 0L);
+    AudioBlock b = pool.wrap(pool.acquireSamples(4), 4L, 0L);
+    a.release();
+    b.release();
+    assertEquals(1, pool.idleCount());
+  }
+
+  @Test
+  void unpooled_blocks_ignore_reference_counting() {
+    AudioBlock block = AudioBlock.wrap(STEREO, new float[][] {{0f}, {0f}}, 0L, 0L);
+    assertFalse(block.isPooled());
+    assertSame(block, block.retain());
+    assertFalse(block.release());
+    assertFalse(block.release());
+  }
+
+  @Test
+  void rejects_invalid_arguments() {
+    assertThrows(IllegalArgumentException.class, () -> new AudioBlockPool(STEREO, 0));
+    assertThrows(NullPointerException.class, () -> new AudioBlockPool(null, 4));
+    AudioBlockPool pool = new AudioBlockPool(STEREO, 4);
+    assertThrows(IllegalArgumentException.class, () -> pool.acquireSamples(-1));
+    assertThrows(IllegalArgumentException.class, () -> pool.wrap(new float[1][4], 0L, 0L));
+  }
+
+  @Test
+  void producer_consumer_recycling_through_ring_buffer() throws Exception {
+    final int blocks = 20_000;
+    AudioBlockPool pool = new AudioBlockPool(STEREO, 32);
+    AudioRingBuffer<AudioBlock> rb = new AudioRingBuffer<>(16);
+    final boolean[] corrupted = new boolean[1];
+
+    Thread consumer =
+        new Thread(
+            () -> {
+              long expected = 0;
+              while (expected < blocks) {
+                AudioBlock b = rb.poll();
+                if (b == null) {
+                  Thread.onSpinWait();
+                  continue;
+                }
+                float marker = b.frameIndex();
+                for (int c = 0; c < b.channels(); c++) {
+                  for (float v : b.channelView(c)) {
+                    if (v != marker) {
+                      corrupted[0] = true;
+                    }
+                  }
+                }
+                expected++;
+                b.release();
+              }
+            },
+            "consumer");
+    consumer.start();
+    for (int i = 0; i < blocks; i++) {
+      float[][] samples = pool.acquireSamples(64);
+      for (float[] channel : samples) {
+        Arrays.fill(channel, i);
+      }
+      AudioBlock block = pool.wrap(samples, i, 0L);
+      while (!rb.offer(block)) {
+        Thread.onSpinWait();
+      }
+    }
+    consumer.join(10_000);
+
+    assertFalse(corrupted[0], "recycled storage must never be visible to a live holder");
+    assertTrue(pool.reuses() > 0, "steady state should recycle storage");
+    assertTrue(pool.allocations() <= 32 + 16, "allocations bounded by in-flight blocks");
+  }
+}
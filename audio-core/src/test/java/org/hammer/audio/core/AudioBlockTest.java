@@ -55,4 +55,73 @@ class AudioBlockTest {
     assertEquals(2, block.channels());
     assertEquals(STEREO, block.format());
   }
+
+  @Test
+  void contiguous_layout_exposes_channels_at_stride() {
+    float[] data = {0.1f, 0.2f, 0.3f, 9f, 0.4f, 0.5f, 0.6f};
+    AudioBlock block = AudioBlock.wrapContiguous(STEREO, data, 4, 3, 10L, 20L);
+    assertTrue(block.isContiguous());
+    assertEquals(3, block.frames());
+
+    SampleSlice right = block.channelView(1, 0, 3);
+    assertSame(data, right.array(), "views must share the contiguous storage");
+    assertEquals(4, right.offset());
+    assertEquals(0.5f, right.get(1));
+    assertArrayEquals(new float[] {0.4f, 0.5f, 0.6f}, block.channelView(1));
+    assertArrayEquals(new float[][] {{0.1f, 0.2f, 0.3f}, {0.4f, 0.5f, 0.6f}}, block.samples());
+  }
+
+  @Test
+  void contiguous_channelView_materializes_once() {
+    AudioBlock block =
+        AudioBlock.wrapContiguous(STEREO, new float[] {1f, 2f, 3f, 4f}, 2, 2, 0L, 0L);
+    float[] first = block.channelView(0);
+    assertSame(first, block.channelView(0), "materialized copy must be cached");
+    assertArrayEquals(new float[] {1f, 2f}, first);
+  }
+
+  @Test
+  void rejects_short_contiguous_storage() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AudioBlock.wrapContiguous(STEREO, new float[5], 3, 3, 0L, 0L));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AudioBlock.wrapContiguous(STEREO, new float[8], 2, 3, 0L, 0L));
+  }
+
+  @Test
+  void slice_shares_storage_and_shifts_metadata() {
+    float[][] s = {{0f, 1f, 2f, 3f, 4f}, {5f, 6f, 7f, 8f, 9f}};
+    AudioBlock block = AudioBlock.wrap(STEREO, s, 1000L, 5_000L);
+    AudioBlock window = block.slice(2, 3);
+
+    assertEquals(3, window.frames());
+    assertEquals(1002L, window.frameIndex());
+    assertEquals(5_000L + Math.round(2 * 1e9 / 48000.0), window.timestampNanos());
+    SampleSlice view = window.channelView(1, 1, 2);
+    assertSame(s[1], view.array());
+    assertEquals(8f, view.get(0));
+    assertArrayEquals(new float[] {2f, 3f, 4f}, window.channelView(0));
+    assertSame(block, block.slice(0, 5));
+  }
+
+  @Test
+  void slice_of_contiguous_block_stays_zero_copy() {
+    float[] data = {0f, 1f, 2f, 3f, 10f, 11f, 12f, 13f};
+    AudioBlock window = AudioBlock.wrapContiguous(STEREO, data, 4, 4, 0L, 0L).slice(1, 2);
+    SampleSlice right = window.channelView(1, 0, 2);
+    assertSame(data, right.array());
+    assertEquals(11f, right.get(0));
+    assertEquals(12f, right.get(1));
+  }
+
+  @Test
+  void views_reject_out_of_range_windows() {
+    AudioBlock block = AudioBlock.wrap(STEREO, new float[][] {{0f, 1f}, {2f, 3f}}, 0L, 0L);
+    assertThrows(IndexOutOfBoundsException.class, () -> block.slice(1, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> block.channelView(2, 0, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> block.channelView(0, 1, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> block.channelView(0, 0, 2).get(2));
+  }
 }
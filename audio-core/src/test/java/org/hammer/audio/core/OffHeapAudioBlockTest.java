@@ -0,0 +1,96 @@
+package org.hammer.audio.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ReadOnlyBufferException;
+import org.junit.jupiter.api.Test;
+
+class OffHeapAudioBlockTest {
+
+  private static final AudioFormatDescriptor STEREO = new AudioFormatDescriptor(48000f, 2, 16);
+
+  @Test
+  void heap_round_trip_preserves_samples_and_metadata() {
+    AudioBlock heap =
+        AudioBlock.wrap(STEREO, new float[][] {{0.1f, 0.2f, 0.3f}, {-0.1f, -0.2f, -0.3f}}, 7L, 99L);
+
+    OffHeapAudioBlock offHeap = OffHeapAudioBlock.copyOf(heap);
+    assertEquals(3, offHeap.frames());
+    assertEquals(2, offHeap.channels());
+    assertEquals(7L, offHeap.frameIndex());
+    assertEquals(99L, offHeap.timestampNanos());
+    assertEquals(2 * 3 * Float.BYTES, offHeap.byteSize());
+    assertTrue(offHeap.storage().isDirect());
+
+    AudioBlock back = offHeap.toHeap();
+    assertEquals(STEREO, back.format());
+    assertEquals(7L, back.frameIndex());
+    assertEquals(99L, back.timestampNanos());
+    assertArrayEquals(heap.channelView(0), back.channelView(0));
+    assertArrayEquals(heap.channelView(1), back.channelView(1));
+  }
+
+  @Test
+  void copies_sliced_heap_blocks() {
+    float[] data = {0f, 1f, 2f, 3f, 10f, 11f, 12f, 13f};
+    AudioBlock window = AudioBlock.wrapContiguous(STEREO, data, 4, 4, 0L, 0L).slice(1, 2);
+
+    OffHeapAudioBlock offHeap = OffHeapAudioBlock.copyOf(window);
+    float[] right = new float[2];
+    offHeap.copyChannelTo(1, right, 0);
+    assertArrayEquals(new float[] {11f, 12f}, right);
+    assertEquals(1L, offHeap.frameIndex());
+  }
+
+  @Test
+  void channel_buffers_are_read_only_views() {
+    OffHeapAudioBlock offHeap =
+        OffHeapAudioBlock.copyOf(
+            AudioBlock.wrap(STEREO, new float[][] {{1f, 2f}, {3f, 4f}}, 0L, 0L));
+
+    FloatBuffer right = offHeap.channelBuffer(1);
+    assertTrue(right.isReadOnly());
+    assertEquals(0, right.position());
+    assertEquals(2, right.limit());
+    assertEquals(3f, right.get(0));
+    assertEquals(4f, right.get(1));
+    assertThrows(ReadOnlyBufferException.class, () -> right.put(0, 0f));
+    assertThrows(ReadOnlyBufferException.class, () -> offHeap.storage().put(0, (byte) 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> offHeap.channelBuffer(2));
+  }
+
+  @Test
+  void wraps_shared_storage_without_copying() {
+    ByteBuffer shared = ByteBuffer.allocateDirect(64).order(ByteOrder.BIG_ENDIAN);
+    shared.position(8);
+    FloatBuffer fill = shared.slice().order(ByteOrder.BIG_ENDIAN).asFloatBuffer();
+    fill.put(new float[] {0.5f, -0.5f, 0.25f, -0.25f});
+
+    OffHeapAudioBlock block = OffHeapAudioBlock.wrap(STEREO, shared, 2, 4L, 5L);
+    assertEquals(8, shared.position(), "caller's buffer position is untouched");
+    assertEquals(ByteOrder.BIG_ENDIAN, block.storage().order());
+    assertEquals(-0.25f, block.channelBuffer(1).get(1));
+
+    fill.put(0, 0.75f);
+    assertEquals(0.75f, block.channelBuffer(0).get(0), "view shares the wrapped storage");
+  }
+
+  @Test
+  void wrap_rejects_heap_or_short_storage() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OffHeapAudioBlock.wrap(STEREO, ByteBuffer.allocate(64), 2, 0L, 0L));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OffHeapAudioBlock.wrap(STEREO, ByteBuffer.allocateDirect(15), 2, 0L, 0L));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OffHeapAudioBlock.wrap(STEREO, ByteBuffer.allocateDirect(16), -1, 0L, 0L));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OffHeapAudioBlock.bytesRequired(64, Integer.MAX_VALUE / 64));
+  }
+}
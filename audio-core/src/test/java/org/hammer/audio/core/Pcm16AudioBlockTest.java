@@ -0,0 +1,85 @@
+package org.hammer.audio.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class Pcm16AudioBlockTest {
+
+  private static final AudioFormatDescriptor STEREO = new AudioFormatDescriptor(48000f, 2, 16);
+
+  @Test
+  void round_trip_preserves_metadata_and_halves_storage() {
+    AudioBlock block =
+        AudioBlock.wrap(STEREO, new float[][] {{0.1f, 0.2f, 0.3f}, {-0.1f, -0.2f, -0.3f}}, 7L, 99L);
+
+    Pcm16AudioBlock compact = Pcm16AudioBlock.copyOf(block);
+    assertEquals(3, compact.frames());
+    assertEquals(2, compact.channels());
+    assertEquals(7L, compact.frameIndex());
+    assertEquals(99L, compact.timestampNanos());
+    assertEquals(2 * 3 * Short.BYTES, compact.byteSize());
+
+    AudioBlock back = compact.toAudioBlock();
+    assertEquals(STEREO, back.format());
+    assertEquals(7L, back.frameIndex());
+    assertEquals(99L, back.timestampNanos());
+    for (int c = 0; c < 2; c++) {
+      float[] expected = block.channelView(c);
+      float[] actual = back.channelView(c);
+      for (int i = 0; i < 3; i++) {
+        assertEquals(expected[i], actual[i], 0.5f / Short.MAX_VALUE);
+      }
+    }
+  }
+
+  @Test
+  void every_16_bit_value_survives_a_round_trip_exactly() {
+    AudioFormatDescriptor mono = new AudioFormatDescriptor(48000f, 1, 16);
+    short[] raw = new short[65536];
+    for (int i = 0; i < raw.length; i++) {
+      raw[i] = (short) (i + Short.MIN_VALUE);
+    }
+    Pcm16AudioBlock compact = Pcm16AudioBlock.wrap(mono, raw, raw.length, 0L, 0L);
+
+    Pcm16AudioBlock again = Pcm16AudioBlock.copyOf(compact.toAudioBlock());
+    Pcm16Slice view = again.channelView(0, 0, raw.length);
+    assertArrayEquals(raw, Arrays.copyOfRange(view.array(), view.offset(), view.length()));
+  }
+
+  @Test
+  void quantize_rounds_and_saturates() {
+    assertEquals(0, Pcm16AudioBlock.quantize(0f));
+    assertEquals(Short.MAX_VALUE, Pcm16AudioBlock.quantize(1f));
+    assertEquals(Short.MAX_VALUE, Pcm16AudioBlock.quantize(3f));
+    assertEquals(Short.MIN_VALUE, Pcm16AudioBlock.quantize(-3f));
+    assertEquals(1, Pcm16AudioBlock.quantize(0.6f / Short.MAX_VALUE));
+  }
+
+  @Test
+  void channel_view_decodes_lazily_per_channel() {
+    short[] raw = {0, 100, 200, -1, -2, -3};
+    Pcm16AudioBlock compact = Pcm16AudioBlock.wrap(STEREO, raw, 3, 0L, 0L);
+
+    Pcm16Slice right = compact.channelView(1, 1, 2);
+    assertSame(raw, right.array());
+    assertEquals(4, right.offset());
+    assertEquals(-2 * Pcm16AudioBlock.SCALE, right.get(0));
+    assertArrayEquals(
+        new float[] {-2 * Pcm16AudioBlock.SCALE, -3 * Pcm16AudioBlock.SCALE}, right.toArray());
+    assertThrows(IndexOutOfBoundsException.class, () -> right.get(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> compact.channelView(2, 0, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> compact.channelView(0, 2, 2));
+  }
+
+  @Test
+  void wrap_rejects_short_storage() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Pcm16AudioBlock.wrap(STEREO, new short[5], 3, 0L, 0L));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Pcm16AudioBlock.wrap(STEREO, new short[6], -1, 0L, 0L));
+  }
+}
@@ -6,11 +6,14 @@ import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
 /**
- * JMH benchmark for the lock-free SPSC ring buffer.
+ * JMH benchmarks for the lock-free SPSC ring buffer.
  *
- * <p>Measures single-threaded round-trip throughput (offer + poll) at multiple capacities. The
- * SPSC contract means a multi-threaded benchmark would require a JMH async setup; this single-
- * thread benchmark is enough to track regressions in the hot-path math.
+ * <p>The single-threaded benchmarks ({@link #offerPoll}, {@link #offerOverwrite}) track regressions
+ * in the hot-path math. The {@link Concurrent} benchmarks run a real producer thread against a real
+ * consumer thread (JMH thread groups), which is where false sharing between the sequences and
+ * cross-core cache traffic show up; compare the per-element ({@code spsc}) and batched ({@code
+ * spscBatch}) groups to see the effect of {@link AudioRingBuffer#offerBatch} / {@link
+ * AudioRingBuffer#drain}.
  *
  * <p>To run: {@code mvn clean verify -Pjmh} then execute the JMH jar.
  */
@@ -44,4 +47,99 @@ public class RingBufferBenchmark {
   public void offerOverwrite(Blackhole bh) {
     bh.consume(rb.offerOverwrite(payload));
   }
+
+  /**
+   * Two-thread producer/consumer throughput. Each group shares one ring buffer; the reported score
+   * of a group is the sum of its producer and consumer operation rates, and the per-thread
+   * secondary results show the rate of elements actually transferred.
+   */
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @State(Scope.Group)
+  @Fork(1)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public static class Concurrent {
+
+    private static final int BATCH = 16;
+
+    @Param({"64", "1024"})
+    private int capacity;
+
+    private AudioRingBuffer<Integer> rb;
+    private Integer[] batch;
+
+    @Setup
+    public void setup() {
+      rb = new AudioRingBuffer<>(capacity);
+      batch = new Integer[BATCH];
+      for (int i = 0; i < BATCH; i++) {
+        batch[i] = i;
+      }
+    }
+
+    /** Per-thread element counters, reported as secondary results. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Transferred {
+      public long elements;
+
+      @Setup(Level.Iteration)
+      public void reset() {
+        elements = 0;
+      }
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void produce(Transferred counter) {
+      if (rb.offer(batch[0])) {
+        counter.elements++;
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void consume(Transferred counter, Blackhole bh) {
+      Integer v = rb.poll();
+      if (v != null) {
+        bh.consume(v);
+        counter.elements++;
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+
+    @Benchmark
+    @Group("spscBatch")
+    @GroupThreads(1)
+    public void produceBatch(Transferred counter) {
+      int accepted = rb.offerBatch(batch, BATCH);
+      if (accepted == 0) {
+        Thread.onSpinWait();
+      }
+      counter.elements += accepted;
+    }
+
+    @Benchmark
+    @Group("spscBatch")
+    @GroupThreads(1)
+    public void consumeBatch(Transferred counter, Blackhole bh) {
+      int drained = rb.drain(bh::consume, BATCH);
+      if (drained == 0) {
+        Thread.onSpinWait();
+      }
+      counter.elements += drained;
+    }
+
+    /** Drain leftovers so a stalled producer never blocks the next iteration's setup. */
+    @TearDown(Level.Iteration)
+    public void drainLeftovers() {
+      rb.clear();
+    }
+  }
 }
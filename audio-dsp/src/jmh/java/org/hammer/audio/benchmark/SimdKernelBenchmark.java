@@ -0,0 +1,92 @@
+package org.hammer.audio.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.hammer.audio.dsp.simd.SampleKernels;
+import org.hammer.audio.dsp.simd.SimdKernels;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark comparing the scalar and Vector API paths of every {@link SampleKernels} kernel.
+ *
+ * <p>The {@code impl} parameter selects {@link SimdKernels#scalar()} or {@link
+ * SimdKernels#vector()}; the vector rows fail in setup when this JVM cannot run them, so a result
+ * table never mixes in the fallback unnoticed. Block sizes cover a capture block (512), a typical
+ * FFT window (4096) and an odd length that exercises the scalar tail (4099).
+ *
+ * <p>To run: mvn clean verify -Pjmh exec:java
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SimdKernelBenchmark {
+
+  @Param({"scalar", "vector"})
+  private String impl;
+
+  @Param({"512", "4096", "4099"})
+  private int length;
+
+  private SampleKernels kernels;
+  private float[] a;
+  private float[] b;
+  private float[] dst;
+  private short[] pcm;
+
+  @Setup
+  public void setup() {
+    kernels =
+        "vector".equals(impl)
+            ? SimdKernels.vector()
+                .orElseThrow(() -> new IllegalStateException("Vector API kernels unavailable"))
+            : SimdKernels.scalar();
+    Random random = new Random(42);
+    a = new float[length];
+    b = new float[length];
+    dst = new float[length];
+    pcm = new short[length];
+    for (int i = 0; i < length; i++) {
+      a[i] = random.nextFloat() * 2f - 1f;
+      b[i] = random.nextFloat() * 2f - 1f;
+      pcm[i] = (short) random.nextInt();
+    }
+  }
+
+  @Benchmark
+  public double sumOfSquares() {
+    return kernels.sumOfSquares(a, 0, length);
+  }
+
+  @Benchmark
+  public float absMax() {
+    return kernels.absMax(a, 0, length);
+  }
+
+  @Benchmark
+  public void multiply(Blackhole bh) {
+    kernels.multiply(a, 0, b, 0, dst, 0, length);
+    bh.consume(dst);
+  }
+
+  @Benchmark
+  public void multiplyAccumulate(Blackhole bh) {
+    kernels.multiplyAccumulate(a, 0, b, 0, dst, 0, length);
+    bh.consume(dst);
+  }
+
+  @Benchmark
+  public void magnitude(Blackhole bh) {
+    kernels.magnitude(a, b, dst, length);
+    bh.consume(dst);
+  }
+
+  @Benchmark
+  public void int16ToFloat(Blackhole bh) {
+    kernels.int16ToFloat(pcm, 0, dst, 0, length, 1f / Short.MAX_VALUE);
+    bh.consume(dst);
+  }
+}
@@ -1,5 +1,7 @@
 package org.hammer.audio.analysis;
 
+import org.hammer.audio.dsp.simd.SimdKernels;
+
 /**
  * Pure-Java in-place radix-2 Cooley-Tukey FFT.
  *
@@ -122,6 +124,26 @@ public final class Fft {
     }
   }
 
+  /**
+   * Inverse in-place FFT of a complex spectrum, scaled by {@code 1 / size} so that {@code
+   * inverse(forward(x)) == x}.
+   *
+   * @param re real part array of length {@link #size()}; on return contains the real part of the
+   *     time-domain signal
+   * @param im imaginary part array of length {@link #size()}; on return contains the imaginary part
+   *     (zero up to rounding for the spectrum of a real signal)
+   * @throws IllegalArgumentException if array lengths do not match {@link #size()}
+   */
+  public void inverse(float[] re, float[] im) {
+    // Swapping real and imaginary parts before and after a forward transform conjugates twice.
+    forward(im, re);
+    float scale = 1f / size;
+    for (int i = 0; i < size; i++) {
+      re[i] *= scale;
+      im[i] *= scale;
+    }
+  }
+
   /**
    * Compute the one-sided magnitude spectrum (DC, ..., Nyquist).
    *
@@ -183,10 +205,6 @@ public final class Fft {
   }
 
   private static void fillMagnitudes(float[] re, float[] im, float[] magnitudes, int n) {
-    for (int i = 0; i < n; i++) {
-      float r = re[i];
-      float ii = im[i];
-      magnitudes[i] = (float) Math.sqrt(r * r + ii * ii);
-    }
+    SimdKernels.get().magnitude(re, im, magnitudes, n);
   }
 }
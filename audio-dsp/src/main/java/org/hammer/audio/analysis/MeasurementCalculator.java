@@ -1,6 +1,9 @@
 package org.hammer.audio.analysis;
 
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
+import org.hammer.audio.dsp.simd.SampleKernels;
+import org.hammer.audio.dsp.simd.SimdKernels;
 
 /** Computes robust aggregate UI measurements for the latest block/spectrum. */
 public final class MeasurementCalculator {
@@ -24,19 +27,19 @@ public final class MeasurementCalculator {
     double sumSquares = 0.0;
     double peak = 0.0;
     long sampleCount = 0L;
-    boolean clipping = false;
+    SampleKernels kernels = SimdKernels.get();
 
+    int frames = block.frames();
     for (int channel = 0; channel < block.channels(); channel++) {
-      float[] samples = block.channelView(channel);
-      for (int i = 0; i < block.frames(); i++) {
-        double sample = samples[i];
-        double absSample = Math.abs(sample);
-        sumSquares += sample * sample;
-        peak = Math.max(peak, absSample);
-        clipping |= absSample >= CLIPPING_THRESHOLD;
-        sampleCount++;
-      }
+      SampleSlice view = block.channelView(channel, 0, frames);
+      float[] samples = view.array();
+      int offset = view.offset();
+      sumSquares += kernels.sumOfSquares(samples, offset, frames);
+      peak = Math.max(peak, kernels.absMax(samples, offset, frames));
+      sampleCount += frames;
     }
+    // Some sample reached the threshold exactly when the overall peak did.
+    boolean clipping = peak >= CLIPPING_THRESHOLD;
 
     double rms = sampleCount == 0 ? 0.0 : Math.sqrt(sumSquares / sampleCount);
     double stereoCorrelation = stereoCorrelation(block);
@@ -65,15 +68,19 @@ public final class MeasurementCalculator {
     if (block.channels() < 2 || block.frames() <= 0) {
       return Double.NaN;
     }
-    float[] left = block.channelView(0);
-    float[] right = block.channelView(1);
     int frames = block.frames();
+    SampleSlice leftView = block.channelView(0, 0, frames);
+    SampleSlice rightView = block.channelView(1, 0, frames);
+    float[] left = leftView.array();
+    float[] right = rightView.array();
+    int leftOffset = leftView.offset();
+    int rightOffset = rightView.offset();
 
     double meanLeft = 0.0;
     double meanRight = 0.0;
     for (int i = 0; i < frames; i++) {
-      meanLeft += left[i];
-      meanRight += right[i];
+      meanLeft += left[leftOffset + i];
+      meanRight += right[rightOffset + i];
     }
     meanLeft /= frames;
     meanRight /= frames;
@@ -82,8 +89,8 @@ public final class MeasurementCalculator {
     double varianceLeft = 0.0;
     double varianceRight = 0.0;
     for (int i = 0; i < frames; i++) {
-      double leftCentered = left[i] - meanLeft;
-      double rightCentered = right[i] - meanRight;
+      double leftCentered = left[leftOffset + i] - meanLeft;
+      double rightCentered = right[rightOffset + i] - meanRight;
       covariance += leftCentered * rightCentered;
       varianceLeft += leftCentered * leftCentered;
       varianceRight += rightCentered * rightCentered;
@@ -1,6 +1,11 @@
 package org.hammer.audio.analysis;
 
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.Pcm16AudioBlock;
+import org.hammer.audio.core.Pcm16Slice;
+import org.hammer.audio.core.SampleSlice;
+import org.hammer.audio.dsp.simd.SampleKernels;
+import org.hammer.audio.dsp.simd.SimdKernels;
 
 /**
  * Computes per-channel RMS (root-mean-square) and peak (max absolute) values for an audio block.
@@ -12,6 +17,11 @@ import org.hammer.audio.core.AudioBlock;
  * and the peak is {@code max(|x[i]|)}. Both are reported in the same normalized linear units as the
  * input samples ({@code [0, 1]} for a unit-amplitude signal).
  *
+ * <p>Float blocks are reduced through {@link SimdKernels}, so the per-sample work runs on vector
+ * lanes where the platform supports it. {@link #analyze(Pcm16AudioBlock)} computes the same values
+ * directly on compact 16-bit storage, accumulating in integer arithmetic and scaling once per
+ * channel instead of decoding every sample.
+ *
  * <p>This analyzer is stateless and thread-safe: a single instance can be safely shared between
  * threads.
  *
@@ -25,21 +35,50 @@ public final class RmsPeakAnalyzer implements AnalysisModule<RmsPeakSnapshot> {
     int frames = block.frames();
     float[] rms = new float[channels];
     float[] peak = new float[channels];
+    SampleKernels kernels = SimdKernels.get();
+
+    for (int c = 0; c < channels; c++) {
+      SampleSlice view = block.channelView(c, 0, frames);
+      float[] samples = view.array();
+      int offset = view.offset();
+      double sumSq = kernels.sumOfSquares(samples, offset, frames);
+      rms[c] = frames == 0 ? 0f : (float) Math.sqrt(sumSq / frames);
+      peak[c] = kernels.absMax(samples, offset, frames);
+    }
+
+    return new RmsPeakSnapshot(block.frameIndex(), block.timestampNanos(), rms, peak);
+  }
+
+  /**
+   * Analyze a compact 16-bit block without decoding it to floats.
+   *
+   * @param block block to analyze
+   * @return RMS and peak per channel, in normalized units
+   */
+  public RmsPeakSnapshot analyze(Pcm16AudioBlock block) {
+    int channels = block.channels();
+    int frames = block.frames();
+    float[] rms = new float[channels];
+    float[] peak = new float[channels];
 
     for (int c = 0; c < channels; c++) {
-      float[] samples = block.channelView(c);
-      double sumSq = 0.0;
-      float p = 0f;
+      Pcm16Slice view = block.channelView(c, 0, frames);
+      short[] samples = view.array();
+      int offset = view.offset();
+      // 2^30 per square: a long holds the sum of over 2^32 frames without overflow.
+      long sumSq = 0L;
+      int p = 0;
       for (int i = 0; i < frames; i++) {
-        float s = samples[i];
-        float a = s < 0 ? -s : s;
+        int s = samples[offset + i];
+        int a = s < 0 ? -s : s;
         if (a > p) {
           p = a;
         }
-        sumSq += (double) s * (double) s;
+        sumSq += s * s;
       }
-      rms[c] = frames == 0 ? 0f : (float) Math.sqrt(sumSq / frames);
-      peak[c] = p;
+      rms[c] =
+          frames == 0 ? 0f : (float) (Math.sqrt((double) sumSq / frames) * Pcm16AudioBlock.SCALE);
+      peak[c] = p * Pcm16AudioBlock.SCALE;
     }
 
     return new RmsPeakSnapshot(block.frameIndex(), block.timestampNanos(), rms, peak);
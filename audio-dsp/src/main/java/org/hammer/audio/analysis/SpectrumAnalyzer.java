@@ -1,6 +1,9 @@
 package org.hammer.audio.analysis;
 
+import java.util.Arrays;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
+import org.hammer.audio.dsp.simd.SimdKernels;
 
 /**
  * FFT-based spectrum analyzer.
@@ -10,7 +13,9 @@ import org.hammer.audio.core.AudioBlock;
  * magnitude spectrum.
  *
  * <p>If the input block contains fewer frames than the FFT size, the remaining samples are
- * zero-padded. If it contains more, only the first {@code fftSize} frames are analyzed.
+ * zero-padded. If it contains more, only the first {@code fftSize} frames are analyzed. To analyze
+ * exactly {@code fftSize}-frame windows with arbitrary overlap, independent of the capture block
+ * size, feed it the windows of a {@link org.hammer.audio.buffer.SampleRingBuffer.WindowReader}.
  *
  * <p>Internally this analyzer caches per-instance scratch buffers; instances are <strong>not
  * thread-safe</strong>. Create one per analysis thread or guard externally.
@@ -55,18 +60,16 @@ public final class SpectrumAnalyzer implements AnalysisModule<SpectrumSnapshot>
 
   @Override
   public SpectrumSnapshot analyze(AudioBlock block) {
-    float[] samples = block.channelView(channel);
-    int n = Math.min(samples.length, fftSize);
+    // Zero-copy view of the analyzed window, whatever the block's storage layout.
+    int n = Math.min(block.frames(), fftSize);
+    SampleSlice view = block.channelView(channel, 0, n);
+    float[] samples = view.array();
+    int offset = view.offset();
 
     // Apply Hann window and zero-pad remainder.
-    for (int i = 0; i < n; i++) {
-      re[i] = samples[i] * window[i];
-      im[i] = 0f;
-    }
-    for (int i = n; i < fftSize; i++) {
-      re[i] = 0f;
-      im[i] = 0f;
-    }
+    SimdKernels.get().multiply(samples, offset, window, 0, re, 0, n);
+    Arrays.fill(re, n, fftSize, 0f);
+    Arrays.fill(im, 0f);
 
     fft.forward(re, im);
     fft.magnitudes(re, im, magnitudes);
@@ -3,6 +3,7 @@ package org.hammer.audio.analysis;
 import java.util.Objects;
 import java.util.Optional;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
 
 /**
  * Oscilloscope-style trigger that aligns repeated displays of a periodic or transient signal so
@@ -233,29 +234,32 @@ public final class WaveformTrigger {
       throw new IllegalArgumentException(
           "channel " + channel + " out of range [0, " + block.channels() + ")");
     }
-    float[] in = block.channelView(channel);
     int frames = block.frames();
     if (frames <= 0) {
       return Optional.empty();
     }
+    SampleSlice in = block.channelView(channel, 0, frames);
     sampleRate = block.format().sampleRate();
-    int firstNewIndex = appendToHistory(in, frames, block.frameIndex(), block.timestampNanos());
+    int firstNewIndex =
+        appendToHistory(
+            in.array(), in.offset(), frames, block.frameIndex(), block.timestampNanos());
     return findAndPublish(firstNewIndex, block);
   }
 
   /** Append samples into the rolling history; returns the history index of the first new sample. */
-  private int appendToHistory(float[] in, int frames, long blockFrameIndex, long blockTimestamp) {
+  private int appendToHistory(
+      float[] in, int inOffset, int frames, long blockFrameIndex, long blockTimestamp) {
     if (frames >= historyCapacity) {
       // Block bigger than capacity: keep only the tail.
       int tail = historyCapacity;
-      System.arraycopy(in, frames - tail, history, 0, tail);
+      System.arraycopy(in, inOffset + frames - tail, history, 0, tail);
       historySize = tail;
       long droppedFrames = (long) frames - tail;
       firstSampleFrameIndex = blockFrameIndex + droppedFrames;
       firstSampleTimestampNanos =
           blockTimestamp + (long) (droppedFrames * 1_000_000_000.0d / Math.max(1.0d, sampleRate));
       // The previous sample crossing the boundary is the sample right before the kept tail.
-      prevSample = in[frames - tail - 1 < 0 ? 0 : frames - tail - 1];
+      prevSample = in[inOffset + (frames - tail - 1 < 0 ? 0 : frames - tail - 1)];
       prevSampleValid = tail > 0;
       return 0;
     }
@@ -273,7 +277,7 @@ public final class WaveformTrigger {
       firstSampleFrameIndex = blockFrameIndex;
       firstSampleTimestampNanos = blockTimestamp;
     }
-    System.arraycopy(in, 0, history, historySize, frames);
+    System.arraycopy(in, inOffset, history, historySize, frames);
     historySize += frames;
     return firstNewIndex;
   }
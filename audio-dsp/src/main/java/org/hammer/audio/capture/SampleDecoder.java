@@ -1,5 +1,9 @@
 package org.hammer.audio.capture;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import org.hammer.audio.core.AudioFormatDescriptor;
 
 /**
@@ -10,12 +14,25 @@ import org.hammer.audio.core.AudioFormatDescriptor;
  *
  * <ul>
  *   <li>signed/unsigned 8-bit PCM
- *   <li>signed/unsigned 16-bit PCM, little- or big-endian
- *   <li>generic 1..4-byte big-endian fallback for any other sample size
+ *   <li>signed/unsigned 16-, 24- and 32-bit PCM, little- or big-endian
+ *   <li>IEEE-754 32-bit float, little- or big-endian ({@link #float32})
+ *   <li>generic 1..4-byte fallback for any other sample size, honouring the byte order
  * </ul>
  *
  * <p>Output samples are normalized to {@code [-1.0f, 1.0f]} for signed formats and to {@code [-1,
- * 1]} for unsigned formats (mapped from {@code [0, max]} to {@code [-1, 1]}).
+ * 1]} for unsigned formats (mapped from {@code [0, max]} to {@code [-1, 1]}). Float samples are
+ * passed through unchanged.
+ *
+ * <p>The format is resolved once at construction to a bulk kernel that walks the buffer
+ * channel-major with a fixed stride and no per-sample branching. 16-bit, 32-bit and float samples
+ * are read with {@link MethodHandles#byteArrayViewVarHandle byte-array view VarHandles}; unsigned
+ * samples are mapped onto the signed kernels by flipping the sign bit, so each width has exactly
+ * one loop per byte order.
+ *
+ * <p><strong>Channel maps</strong>: {@link #withChannelMap(int...)} derives a decoder that keeps
+ * only selected source channels, in the given order. Unselected channels are skipped while walking
+ * the interleaved bytes, so decoding cost and output size scale with the kept channels rather than
+ * the interface's channel count.
  *
  * <p>This class is stateless and thread-safe.
  *
@@ -23,40 +40,187 @@ import org.hammer.audio.core.AudioFormatDescriptor;
  */
 public final class SampleDecoder {
 
+  private static final VarHandle I16_LE = view(short[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle I16_BE = view(short[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle I32_LE = view(int[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle I32_BE = view(int[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle F32_LE = view(float[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle F32_BE = view(float[].class, ByteOrder.BIG_ENDIAN);
+
+  /** Bulk decoding loop selected for the format. */
+  private enum Kernel {
+    PCM8,
+    PCM16_LE,
+    PCM16_BE,
+    PCM24_LE,
+    PCM24_BE,
+    PCM32_LE,
+    PCM32_BE,
+    FLOAT32_LE,
+    FLOAT32_BE,
+    GENERIC
+  }
+
   private final AudioFormatDescriptor descriptor;
+  private final int sourceChannels;
+
+  /** Source channel decoded into each output channel. */
+  private final int[] channelMap;
+
+  private final boolean signed;
+  private final boolean ieeeFloat;
   private final int bytesPerSample;
   private final int frameSize;
-  private final boolean signed;
   private final boolean bigEndian;
-  private final float signedScale;
-  private final float unsignedScale;
-  private final int unsignedOffset;
+  private final Kernel kernel;
+
+  /** Sign-bit mask turning an unsigned sample into its signed counterpart; 0 for signed formats. */
+  private final int signFlip;
+
+  /** Added to the signed value before scaling: 0 for signed formats, 1 for unsigned ones. */
+  private final int bias;
+
+  private final float scale;
 
   /**
-   * @param descriptor audio format descriptor
+   * @param descriptor audio format descriptor; integer PCM of 1..32 bits
    * @param signed true if source samples are signed
    * @param bigEndian true if source samples are big-endian (16-bit and wider)
+   * @throws IllegalArgumentException if the sample size exceeds 32 bits
    */
   public SampleDecoder(AudioFormatDescriptor descriptor, boolean signed, boolean bigEndian) {
+    this(descriptor, signed, bigEndian, false);
+  }
+
+  private SampleDecoder(
+      AudioFormatDescriptor descriptor, boolean signed, boolean bigEndian, boolean ieeeFloat) {
+    int bits = descriptor.sourceSampleSizeInBits();
+    if (bits > 32) {
+      throw new IllegalArgumentException("sourceSampleSizeInBits must be <= 32, was " + bits);
+    }
     this.descriptor = descriptor;
+    this.sourceChannels = descriptor.channels();
+    this.channelMap = identity(sourceChannels);
     this.signed = signed;
+    this.ieeeFloat = ieeeFloat;
     this.bigEndian = bigEndian;
-    this.bytesPerSample = Math.max(1, descriptor.sourceSampleSizeInBits() / 8);
-    this.frameSize = bytesPerSample * descriptor.channels();
-    int bits = descriptor.sourceSampleSizeInBits();
-    this.signedScale = 1f / ((1 << (bits - 1)) - 1);
-    int unsignedMax = (1 << bits) - 1;
-    this.unsignedScale = 2f / unsignedMax;
-    this.unsignedOffset = unsignedMax / 2;
+    this.bytesPerSample = (bits + 7) / 8;
+    this.frameSize = bytesPerSample * sourceChannels;
+    this.kernel = ieeeFloat ? (bigEndian ? Kernel.FLOAT32_BE : Kernel.FLOAT32_LE) : pcmKernel(bits);
+    if (signed) {
+      this.signFlip = 0;
+      this.bias = 0;
+      this.scale = (float) (1.0 / ((1L << (bits - 1)) - 1));
+    } else {
+      this.signFlip = 1 << (bits - 1);
+      this.bias = 1;
+      this.scale = (float) (2.0 / ((1L << bits) - 1));
+    }
   }
 
   /**
-   * @return descriptor of the produced audio
+   * Decoder for IEEE-754 32-bit float samples, which are copied without scaling.
+   *
+   * @param descriptor audio format descriptor; its sample size must be 32 bits
+   * @param bigEndian true if source samples are big-endian
+   * @return a float decoder
+   * @throws IllegalArgumentException if the descriptor's sample size is not 32 bits
+   */
+  public static SampleDecoder float32(AudioFormatDescriptor descriptor, boolean bigEndian) {
+    if (descriptor.sourceSampleSizeInBits() != 32) {
+      throw new IllegalArgumentException(
+          "float samples must be 32 bits, was " + descriptor.sourceSampleSizeInBits());
+    }
+    return new SampleDecoder(descriptor, true, bigEndian, true);
+  }
+
+  /** Copy of {@code base} that decodes the source channels listed in {@code channelMap}. */
+  private SampleDecoder(SampleDecoder base, int[] channelMap) {
+    AudioFormatDescriptor source = base.descriptor;
+    this.descriptor =
+        new AudioFormatDescriptor(
+            source.sampleRate(), channelMap.length, source.sourceSampleSizeInBits());
+    this.sourceChannels = base.sourceChannels;
+    this.channelMap = channelMap;
+    this.signed = base.signed;
+    this.ieeeFloat = base.ieeeFloat;
+    this.bigEndian = base.bigEndian;
+    this.bytesPerSample = base.bytesPerSample;
+    this.frameSize = base.frameSize;
+    this.kernel = base.kernel;
+    this.signFlip = base.signFlip;
+    this.bias = base.bias;
+    this.scale = base.scale;
+  }
+
+  /**
+   * Decoder for the same source format that keeps only some channels. Output channel {@code k}
+   * holds source channel {@code sourceChannels[k]}; a source channel may appear more than once.
+   *
+   * @param sourceChannels source channel indices to keep, in output order; at least one, each in
+   *     {@code [0, sourceChannelCount())}
+   * @return a decoder whose {@link #descriptor()} has {@code sourceChannels.length} channels and
+   *     whose {@link #frameSize()} is still the source frame size
+   * @throws IllegalArgumentException if the map is empty or an index is out of range
+   */
+  public SampleDecoder withChannelMap(int... sourceChannels) {
+    if (sourceChannels.length == 0) {
+      throw new IllegalArgumentException("channel map must select at least one channel");
+    }
+    for (int channel : sourceChannels) {
+      if (channel < 0 || channel >= this.sourceChannels) {
+        throw new IllegalArgumentException(
+            "source channel "
+                + channel
+                + " out of range [0, "
+                + this.sourceChannels
+                + ") in "
+                + Arrays.toString(sourceChannels));
+      }
+    }
+    return new SampleDecoder(this, sourceChannels.clone());
+  }
+
+  private static int[] identity(int channels) {
+    int[] map = new int[channels];
+    for (int c = 0; c < channels; c++) {
+      map[c] = c;
+    }
+    return map;
+  }
+
+  private Kernel pcmKernel(int bits) {
+    return switch (bits) {
+      case 8 -> Kernel.PCM8;
+      case 16 -> bigEndian ? Kernel.PCM16_BE : Kernel.PCM16_LE;
+      case 24 -> bigEndian ? Kernel.PCM24_BE : Kernel.PCM24_LE;
+      case 32 -> bigEndian ? Kernel.PCM32_BE : Kernel.PCM32_LE;
+      default -> Kernel.GENERIC;
+    };
+  }
+
+  /**
+   * @return descriptor of the produced audio; its channel count is the number of mapped channels
    */
   public AudioFormatDescriptor descriptor() {
     return descriptor;
   }
 
+  /**
+   * @return number of interleaved channels in the source bytes
+   */
+  public int sourceChannelCount() {
+    return sourceChannels;
+  }
+
+  /**
+   * @return source channel decoded into each output channel (a copy); the identity unless this
+   *     decoder came from {@link #withChannelMap(int...)}
+   */
+  public int[] channelMap() {
+    return channelMap.clone();
+  }
+
   /**
    * @return number of bytes per single-channel sample
    */
@@ -65,12 +229,19 @@ public final class SampleDecoder {
   }
 
   /**
-   * @return number of bytes per frame ({@code bytesPerSample * channels})
+   * @return number of bytes per source frame ({@code bytesPerSample * sourceChannelCount()})
    */
   public int frameSize() {
     return frameSize;
   }
 
+  /**
+   * @return true if this decoder reads IEEE-754 float samples
+   */
+  public boolean isFloat() {
+    return kernel == Kernel.FLOAT32_LE || kernel == Kernel.FLOAT32_BE;
+  }
+
   /**
    * @param byteCount number of bytes
    * @return number of complete frames in that byte count
@@ -85,50 +256,120 @@ public final class SampleDecoder {
    *
    * @param data raw interleaved PCM bytes
    * @param byteCount number of valid bytes in {@code data}
-   * @param dest destination buffer of shape {@code [channels][>=framesIn(byteCount)]}
+   * @param dest destination buffer of shape {@code [outputChannels][>=framesIn(byteCount)]}, where
+   *     {@code outputChannels} is {@code descriptor().channels()}
    * @return number of decoded frames
    */
   public int decode(byte[] data, int byteCount, float[][] dest) {
     int frames = framesIn(byteCount);
-    int channels = descriptor.channels();
-    for (int frame = 0; frame < frames; frame++) {
-      int frameOffset = frame * frameSize;
-      for (int ch = 0; ch < channels; ch++) {
-        int sampleOffset = frameOffset + ch * bytesPerSample;
-        dest[ch][frame] = decodeOne(data, sampleOffset);
-      }
+    int[] map = channelMap;
+    for (int ch = 0; ch < map.length; ch++) {
+      decodeChannel(data, map[ch] * bytesPerSample, frames, dest[ch]);
     }
     return frames;
   }
 
-  private float decodeOne(byte[] data, int offset) {
-    if (bytesPerSample == 1) {
-      int b = data[offset] & 0xFF;
-      if (signed) {
-        return (byte) b * signedScale;
-      }
-      return (b - unsignedOffset) * unsignedScale;
+  /**
+   * Decode raw bytes straight into the storage of a block of exactly {@code frames} frames. At most
+   * {@code frames} frames are decoded; each channel's remaining tail is zero-filled right after its
+   * samples, so {@code dest} needs no prior clearing and no second pass.
+   *
+   * @param data raw interleaved PCM bytes
+   * @param byteCount number of valid bytes in {@code data}
+   * @param dest destination buffer of shape {@code [descriptor().channels()][>=frames]}, e.g. a
+   *     recycled pool buffer with stale contents
+   * @param frames number of frames to fill per channel
+   * @return number of decoded (non-padding) frames, {@code min(framesIn(byteCount), frames)}
+   */
+  public int decodePadded(byte[] data, int byteCount, float[][] dest, int frames) {
+    int decoded = Math.min(framesIn(byteCount), frames);
+    int[] map = channelMap;
+    for (int ch = 0; ch < map.length; ch++) {
+      float[] out = dest[ch];
+      decodeChannel(data, map[ch] * bytesPerSample, decoded, out);
+      Arrays.fill(out, decoded, frames, 0f);
     }
-    if (bytesPerSample == 2) {
-      int hi = data[offset + (bigEndian ? 0 : 1)] & 0xFF;
-      int lo = data[offset + (bigEndian ? 1 : 0)] & 0xFF;
-      int raw = (hi << 8) | lo;
-      if (signed) {
-        return ((short) raw) * signedScale;
+    return decoded;
+  }
+
+  /** Decode {@code frames} samples of one channel, starting at byte {@code offset}. */
+  private void decodeChannel(byte[] data, int offset, int frames, float[] out) {
+    final int stride = frameSize;
+    final int flip = signFlip;
+    final int bias = this.bias;
+    final float scale = this.scale;
+    switch (kernel) {
+      case PCM8 -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          out[i] = ((byte) (data[offset] ^ flip) + bias) * scale;
+        }
       }
-      return ((raw & 0xFFFF) - unsignedOffset) * unsignedScale;
-    }
-    // Generic big-endian fallback for non-standard sizes.
-    int sample = 0;
-    for (int b = 0; b < bytesPerSample; b++) {
-      sample = (sample << 8) | (data[offset + b] & 0xFF);
+      case PCM16_LE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          out[i] = ((short) ((short) I16_LE.get(data, offset) ^ flip) + bias) * scale;
+        }
+      }
+      case PCM16_BE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          out[i] = ((short) ((short) I16_BE.get(data, offset) ^ flip) + bias) * scale;
+        }
+      }
+      case PCM24_LE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          int raw =
+              (data[offset] & 0xFF)
+                  | (data[offset + 1] & 0xFF) << 8
+                  | (data[offset + 2] & 0xFF) << 16;
+          out[i] = ((((raw ^ flip) << 8) >> 8) + bias) * scale;
+        }
+      }
+      case PCM24_BE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          int raw =
+              (data[offset] & 0xFF) << 16
+                  | (data[offset + 1] & 0xFF) << 8
+                  | (data[offset + 2] & 0xFF);
+          out[i] = ((((raw ^ flip) << 8) >> 8) + bias) * scale;
+        }
+      }
+      case PCM32_LE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          out[i] = ((long) ((int) I32_LE.get(data, offset) ^ flip) + bias) * scale;
+        }
+      }
+      case PCM32_BE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          out[i] = ((long) ((int) I32_BE.get(data, offset) ^ flip) + bias) * scale;
+        }
+      }
+      case FLOAT32_LE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          out[i] = (float) F32_LE.get(data, offset);
+        }
+      }
+      case FLOAT32_BE -> {
+        for (int i = 0; i < frames; i++, offset += stride) {
+          out[i] = (float) F32_BE.get(data, offset);
+        }
+      }
+      case GENERIC -> decodeGeneric(data, offset, frames, out);
     }
-    int bits = descriptor.sourceSampleSizeInBits();
-    if (signed) {
-      int shift = 32 - bits;
-      sample = (sample << shift) >> shift;
-      return sample * signedScale;
+  }
+
+  /** Right-justified samples of a non-standard size (e.g. 12 or 20 bits) in 1..4 bytes. */
+  private void decodeGeneric(byte[] data, int offset, int frames, float[] out) {
+    int shift = 32 - descriptor.sourceSampleSizeInBits();
+    for (int i = 0; i < frames; i++, offset += frameSize) {
+      int raw = 0;
+      for (int b = 0; b < bytesPerSample; b++) {
+        int index = bigEndian ? offset + b : offset + bytesPerSample - 1 - b;
+        raw = (raw << 8) | (data[index] & 0xFF);
+      }
+      out[i] = ((long) (((raw ^ signFlip) << shift) >> shift) + bias) * scale;
     }
-    return (sample - unsignedOffset) * unsignedScale;
+  }
+
+  private static VarHandle view(Class<?> arrayClass, ByteOrder order) {
+    return MethodHandles.byteArrayViewVarHandle(arrayClass, order);
   }
 }
@@ -6,6 +6,9 @@ import java.util.List;
 import java.util.Locale;
 import org.hammer.audio.analysis.SpectrumSnapshot;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
+import org.hammer.audio.dsp.simd.SampleKernels;
+import org.hammer.audio.dsp.simd.SimdKernels;
 import org.hammer.audio.localization.StereoDelaySnapshot;
 import org.hammer.audio.spectrogram.SpectrogramFrame;
 import org.hammer.audio.spectrogram.SpectrogramHistory;
@@ -310,17 +313,15 @@ public final class DiagnosisAnalyzer {
     double sumSquares = 0.0;
     double maxAbs = 0.0;
     long count = 0L;
+    SampleKernels kernels = SimdKernels.get();
+    int frames = block.frames();
     for (int c = 0; c < block.channels(); c++) {
-      float[] samples = block.channelView(c);
-      for (int i = 0; i < block.frames(); i++) {
-        float s = samples[i];
-        double abs = Math.abs(s);
-        sumSquares += (double) s * s;
-        if (abs > maxAbs) {
-          maxAbs = abs;
-        }
-        count++;
-      }
+      SampleSlice view = block.channelView(c, 0, frames);
+      float[] samples = view.array();
+      int offset = view.offset();
+      sumSquares += kernels.sumOfSquares(samples, offset, frames);
+      maxAbs = Math.max(maxAbs, kernels.absMax(samples, offset, frames));
+      count += frames;
     }
     double rms = count == 0L ? 0.0 : Math.sqrt(sumSquares / count);
     return new LevelStats(rms, maxAbs, block.frames());
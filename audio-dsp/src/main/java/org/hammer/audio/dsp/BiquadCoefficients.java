@@ -0,0 +1,115 @@
+package org.hammer.audio.dsp;
+
+/**
+ * Normalized coefficients of one second-order IIR section ({@code a0 == 1}):
+ *
+ * <pre>
+ * y[n] = b0 x[n] + b1 x[n-1] + b2 x[n-2] - a1 y[n-1] - a2 y[n-2]
+ * </pre>
+ *
+ * <p>The factories follow the RBJ audio EQ cookbook. {@code q} of {@code 1/sqrt(2)} gives a
+ * Butterworth response for the low- and high-pass; for band-pass, notch and peaking sections it
+ * sets the bandwidth as {@code centerHz / q}.
+ *
+ * @param b0 feed-forward coefficient of {@code x[n]}
+ * @param b1 feed-forward coefficient of {@code x[n-1]}
+ * @param b2 feed-forward coefficient of {@code x[n-2]}
+ * @param a1 feedback coefficient of {@code y[n-1]}
+ * @param a2 feedback coefficient of {@code y[n-2]}
+ * @author refactoring
+ */
+public record BiquadCoefficients(double b0, double b1, double b2, double a1, double a2) {
+
+  /** Quality factor of a maximally flat (Butterworth) second-order low- or high-pass. */
+  public static final double BUTTERWORTH_Q = 1.0 / Math.sqrt(2.0);
+
+  /** Pass-through section. */
+  public static final BiquadCoefficients IDENTITY = new BiquadCoefficients(1, 0, 0, 0, 0);
+
+  /**
+   * @param sampleRate sample rate in Hz
+   * @param cutoffHz -3 dB frequency (for {@link #BUTTERWORTH_Q}), in {@code (0, sampleRate / 2)}
+   * @param q quality factor; {@code > 0}
+   * @return a second-order low-pass section
+   */
+  public static BiquadCoefficients lowPass(double sampleRate, double cutoffHz, double q) {
+    double cos = Math.cos(omega(sampleRate, cutoffHz));
+    double alpha = alpha(sampleRate, cutoffHz, q);
+    return normalized((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+  }
+
+  /**
+   * @param sampleRate sample rate in Hz
+   * @param cutoffHz -3 dB frequency (for {@link #BUTTERWORTH_Q}), in {@code (0, sampleRate / 2)}
+   * @param q quality factor; {@code > 0}
+   * @return a second-order high-pass section, e.g. to remove DC offset and rumble
+   */
+  public static BiquadCoefficients highPass(double sampleRate, double cutoffHz, double q) {
+    double cos = Math.cos(omega(sampleRate, cutoffHz));
+    double alpha = alpha(sampleRate, cutoffHz, q);
+    return normalized((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+  }
+
+  /**
+   * @param sampleRate sample rate in Hz
+   * @param centerHz center frequency, in {@code (0, sampleRate / 2)}
+   * @param q quality factor; {@code > 0}
+   * @return a band-pass section with 0 dB gain at {@code centerHz}
+   */
+  public static BiquadCoefficients bandPass(double sampleRate, double centerHz, double q) {
+    double cos = Math.cos(omega(sampleRate, centerHz));
+    double alpha = alpha(sampleRate, centerHz, q);
+    return normalized(alpha, 0, -alpha, 1 + alpha, -2 * cos, 1 - alpha);
+  }
+
+  /**
+   * @param sampleRate sample rate in Hz
+   * @param centerHz rejected frequency, e.g. 50 or 60 Hz mains hum, in {@code (0, sampleRate / 2)}
+   * @param q quality factor; {@code > 0}, higher is narrower
+   * @return a notch section
+   */
+  public static BiquadCoefficients notch(double sampleRate, double centerHz, double q) {
+    double cos = Math.cos(omega(sampleRate, centerHz));
+    double alpha = alpha(sampleRate, centerHz, q);
+    return normalized(1, -2 * cos, 1, 1 + alpha, -2 * cos, 1 - alpha);
+  }
+
+  /**
+   * @param sampleRate sample rate in Hz
+   * @param centerHz center frequency, in {@code (0, sampleRate / 2)}
+   * @param q quality factor; {@code > 0}
+   * @param gainDb boost (positive) or cut (negative) at {@code centerHz}
+   * @return a peaking equalizer section
+   */
+  public static BiquadCoefficients peaking(
+      double sampleRate, double centerHz, double q, double gainDb) {
+    double cos = Math.cos(omega(sampleRate, centerHz));
+    double alpha = alpha(sampleRate, centerHz, q);
+    double a = Math.pow(10.0, gainDb / 40.0);
+    return normalized(
+        1 + alpha * a, -2 * cos, 1 - alpha * a, 1 + alpha / a, -2 * cos, 1 - alpha / a);
+  }
+
+  private static double omega(double sampleRate, double frequencyHz) {
+    if (!(sampleRate > 0)) {
+      throw new IllegalArgumentException("sampleRate must be > 0: " + sampleRate);
+    }
+    if (!(frequencyHz > 0 && frequencyHz < sampleRate / 2)) {
+      throw new IllegalArgumentException(
+          "frequency must be in (0, " + sampleRate / 2 + "): " + frequencyHz);
+    }
+    return 2 * Math.PI * frequencyHz / sampleRate;
+  }
+
+  private static double alpha(double sampleRate, double frequencyHz, double q) {
+    if (!(q > 0)) {
+      throw new IllegalArgumentException("q must be > 0: " + q);
+    }
+    return Math.sin(omega(sampleRate, frequencyHz)) / (2 * q);
+  }
+
+  private static BiquadCoefficients normalized(
+      double b0, double b1, double b2, double a0, double a1, double a2) {
+    return new BiquadCoefficients(b0 / a0, b1 / a0, b2 / a0, a1 / a0, a2 / a0);
+  }
+}
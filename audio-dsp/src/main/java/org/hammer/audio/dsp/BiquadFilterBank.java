@@ -0,0 +1,193 @@
+package org.hammer.audio.dsp;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Cascade of {@link BiquadCoefficients biquad} sections applied to every channel, e.g. a high-pass
+ * against DC offset, notches at the mains frequency and a low-pass limiting the band before an FFT.
+ *
+ * <p>Sections run in transposed direct form II in double precision. Filter state lives in one
+ * primitive array per bank, so processing allocates nothing. Channels are independent, so a {@link
+ * DSPPipeline#withChannelParallelism channel-parallel} pipeline may filter them concurrently.
+ *
+ * <p>{@link #setCoefficients} swaps the sections at runtime. Each channel picks the new sections up
+ * at its next block and crossfades from the old to the new filter over {@code crossfadeFrames}
+ * frames. Both filters start from the same state, so the output has no step at the swap. A swap
+ * that arrives during a crossfade waits until the crossfade ends.
+ *
+ * <p>Thread-safety: {@link #setCoefficients} may be called from any thread; a given channel must
+ * not be processed by two threads at once.
+ *
+ * @author refactoring
+ */
+public final class BiquadFilterBank implements ChannelProcessor {
+
+  /** Default length of the crossfade after a coefficient swap. */
+  public static final int DEFAULT_CROSSFADE_FRAMES = 256;
+
+  private static final int COEFFS = 5;
+
+  private final int channels;
+  private final int sections;
+  private final int crossfadeFrames;
+
+  /** Latest sections, flattened as {@code [b0, b1, b2, a1, a2] * sections}. */
+  private volatile double[] published;
+
+  /** Sections each channel currently runs. */
+  private final double[][] active;
+
+  /** Sections each channel fades out from, while {@code fadeLeft[channel] > 0}. */
+  private final double[][] fading;
+
+  private final int[] fadeLeft;
+
+  /** {@code [z1, z2]} per channel and section for the active sections. */
+  private final double[] state;
+
+  /** Same layout as {@link #state}, for the fading sections. */
+  private final double[] fadingState;
+
+  /**
+   * Create a bank with a {@link #DEFAULT_CROSSFADE_FRAMES} crossfade.
+   *
+   * @param channels number of channels to filter; {@code >= 1}
+   * @param sections cascaded sections in order; at least one
+   */
+  public BiquadFilterBank(int channels, BiquadCoefficients... sections) {
+    this(channels, DEFAULT_CROSSFADE_FRAMES, sections);
+  }
+
+  /**
+   * @param channels number of channels to filter; {@code >= 1}
+   * @param crossfadeFrames crossfade length after a coefficient swap; {@code 0} switches at once
+   * @param sections cascaded sections in order; at least one
+   * @throws IllegalArgumentException if an argument is out of range
+   */
+  public BiquadFilterBank(int channels, int crossfadeFrames, BiquadCoefficients... sections) {
+    if (channels < 1) {
+      throw new IllegalArgumentException("channels must be >= 1: " + channels);
+    }
+    if (crossfadeFrames < 0) {
+      throw new IllegalArgumentException("crossfadeFrames must be >= 0: " + crossfadeFrames);
+    }
+    double[] flat = flatten(sections);
+    this.channels = channels;
+    this.sections = sections.length;
+    this.crossfadeFrames = crossfadeFrames;
+    this.published = flat;
+    this.active = new double[channels][];
+    Arrays.fill(active, flat);
+    this.fading = new double[channels][];
+    this.fadeLeft = new int[channels];
+    this.state = new double[channels * this.sections * 2];
+    this.fadingState = new double[state.length];
+  }
+
+  /**
+   * Replace the sections; channels switch over at their next block with a crossfade.
+   *
+   * @param sections new sections; as many as the bank was created with
+   * @throws IllegalArgumentException if the number of sections differs
+   */
+  public void setCoefficients(BiquadCoefficients... sections) {
+    double[] flat = flatten(sections);
+    if (sections.length != this.sections) {
+      throw new IllegalArgumentException(
+          "expected " + this.sections + " sections, got " + sections.length);
+    }
+    published = flat;
+  }
+
+  /**
+   * @return number of channels this bank filters
+   */
+  public int channels() {
+    return channels;
+  }
+
+  /**
+   * @return number of cascaded sections
+   */
+  public int sections() {
+    return sections;
+  }
+
+  /** Clear the filter state of every channel. Must not run concurrently with processing. */
+  public void reset() {
+    Arrays.fill(state, 0.0);
+    Arrays.fill(fadingState, 0.0);
+    Arrays.fill(fadeLeft, 0);
+    for (int c = 0; c < channels; c++) {
+      active[c] = published;
+      fading[c] = null;
+    }
+  }
+
+  @Override
+  public void processChannel(MutableAudioBuffer buffer, int channel) {
+    Objects.checkIndex(channel, channels);
+    double[] target = published;
+    int base = channel * sections * 2;
+    if (active[channel] != target && fadeLeft[channel] == 0) {
+      if (crossfadeFrames > 0) {
+        fading[channel] = active[channel];
+        System.arraycopy(state, base, fadingState, base, sections * 2);
+        fadeLeft[channel] = crossfadeFrames;
+      }
+      active[channel] = target;
+    }
+    float[] samples = buffer.channel(channel);
+    int frames = buffer.frames();
+    double[] coeffs = active[channel];
+    int i = 0;
+    int left = fadeLeft[channel];
+    if (left > 0) {
+      double[] old = fading[channel];
+      for (; i < frames && left > 0; i++, left--) {
+        double x = samples[i];
+        double yNew = cascade(coeffs, state, base, x);
+        double yOld = cascade(old, fadingState, base, x);
+        double t = (double) (crossfadeFrames - left + 1) / crossfadeFrames;
+        samples[i] = (float) (yOld + (yNew - yOld) * t);
+      }
+      fadeLeft[channel] = left;
+      if (left == 0) {
+        fading[channel] = null;
+      }
+    }
+    for (; i < frames; i++) {
+      samples[i] = (float) cascade(coeffs, state, base, samples[i]);
+    }
+  }
+
+  /** Run one sample through every section, updating {@code z[base..]}. */
+  private double cascade(double[] coeffs, double[] z, int base, double x) {
+    double y = x;
+    for (int s = 0, k = 0, zi = base; s < sections; s++, k += COEFFS, zi += 2) {
+      double in = y;
+      y = coeffs[k] * in + z[zi];
+      z[zi] = coeffs[k + 1] * in - coeffs[k + 3] * y + z[zi + 1];
+      z[zi + 1] = coeffs[k + 2] * in - coeffs[k + 4] * y;
+    }
+    return y;
+  }
+
+  private static double[] flatten(BiquadCoefficients[] sections) {
+    Objects.requireNonNull(sections, "sections");
+    if (sections.length == 0) {
+      throw new IllegalArgumentException("at least one section is required");
+    }
+    double[] flat = new double[sections.length * COEFFS];
+    for (int s = 0; s < sections.length; s++) {
+      BiquadCoefficients c = Objects.requireNonNull(sections[s], "sections[" + s + "]");
+      flat[s * COEFFS] = c.b0();
+      flat[s * COEFFS + 1] = c.b1();
+      flat[s * COEFFS + 2] = c.b2();
+      flat[s * COEFFS + 3] = c.a1();
+      flat[s * COEFFS + 4] = c.a2();
+    }
+    return flat;
+  }
+}
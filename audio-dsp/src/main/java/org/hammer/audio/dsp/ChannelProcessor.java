@@ -0,0 +1,34 @@
+package org.hammer.audio.dsp;
+
+/**
+ * {@link InPlaceProcessor} whose channels are independent: the output of a channel depends only on
+ * that channel's input and per-channel state.
+ *
+ * <p>A {@link DSPPipeline} with {@link DSPPipeline#withChannelParallelism channel parallelism} fans
+ * consecutive channel processors out across a fork/join pool, running every stage of such a run
+ * over one channel within one task, and joins before the next channel-coupled stage.
+ * Implementations must therefore tolerate concurrent {@link #processChannel} calls for
+ * <em>different</em> channels; calls for the same channel are never concurrent and arrive in block
+ * order.
+ *
+ * @author refactoring
+ */
+@FunctionalInterface
+public interface ChannelProcessor extends InPlaceProcessor {
+
+  /**
+   * Transform one channel of the working samples in place.
+   *
+   * @param buffer working copy; only {@code buffer.channel(channel)} may be read or written
+   * @param channel channel index, in {@code [0, buffer.channels())}
+   */
+  void processChannel(MutableAudioBuffer buffer, int channel);
+
+  /** Process every channel in turn on the calling thread. */
+  @Override
+  default void processInPlace(MutableAudioBuffer buffer) {
+    for (int c = 0; c < buffer.channels(); c++) {
+      processChannel(buffer, c);
+    }
+  }
+}
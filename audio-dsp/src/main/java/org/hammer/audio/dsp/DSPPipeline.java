@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.hammer.audio.core.AudioBlock;
 
 /**
@@ -21,6 +23,17 @@ import org.hammer.audio.core.AudioBlock;
  * AudioBlock processed = pipeline.process(rawBlock);
  * }</pre>
  *
+ * <p>Consecutive {@link InPlaceProcessor} stages share one {@link MutableAudioBuffer}: the block
+ * entering the run is copied once, every stage of the run transforms that copy in place, and a
+ * single immutable block is materialized when the run ends (at a plain {@link DSPProcessor} or at
+ * the end of the pipeline). A chain of N in-place filters thus allocates one block instead of N.
+ *
+ * <p>Pipelines run on the calling thread. {@link #withChannelParallelism} returns a variant that
+ * splits runs of consecutive {@link ChannelProcessor} stages across a {@link ForkJoinPool}, one
+ * task per channel, for blocks of at least a configurable size; smaller blocks, where fork and join
+ * cost more than they save, stay on the calling thread. {@link #staged(int)} instead runs each
+ * stage on its own thread.
+ *
  * <p>The pipeline itself is immutable: stages are captured at construction time. To change the
  * topology at runtime, build a new pipeline.
  *
@@ -28,10 +41,37 @@ import org.hammer.audio.core.AudioBlock;
  */
 public final class DSPPipeline implements DSPProcessor {
 
+  /**
+   * Default {@code channels * frames} from which {@link #withChannelParallelism(ForkJoinPool)}
+   * forks: 16 channels of 1024 frames.
+   */
+  public static final int DEFAULT_MIN_PARALLEL_SAMPLES = 16 * 1024;
+
   private final DSPProcessor[] stages;
 
+  /** For each stage, the end (exclusive) of the run of channel processors it starts, or 0. */
+  private final int[] channelRunEnd;
+
+  /** Pool for channel-parallel runs, or {@code null} for sequential execution. */
+  private final ForkJoinPool pool;
+
+  private final int minParallelSamples;
+
   private DSPPipeline(DSPProcessor[] stages) {
+    this(stages, null, Integer.MAX_VALUE);
+  }
+
+  private DSPPipeline(DSPProcessor[] stages, ForkJoinPool pool, int minParallelSamples) {
     this.stages = stages;
+    this.pool = pool;
+    this.minParallelSamples = minParallelSamples;
+    this.channelRunEnd = new int[stages.length];
+    for (int i = stages.length - 1; i >= 0; i--) {
+      if (stages[i] instanceof ChannelProcessor) {
+        boolean continues = i + 1 < stages.length && channelRunEnd[i + 1] > 0;
+        channelRunEnd[i] = continues ? channelRunEnd[i + 1] : i + 1;
+      }
+    }
   }
 
   /**
@@ -69,13 +109,90 @@ public final class DSPPipeline implements DSPProcessor {
     return new DSPPipeline(new DSPProcessor[0]);
   }
 
+  /**
+   * Same stages, with channel processors fanned out across {@code pool} for blocks of at least
+   * {@link #DEFAULT_MIN_PARALLEL_SAMPLES} samples.
+   *
+   * @param pool pool running the per-channel tasks; must not be {@code null}
+   * @return a new pipeline
+   */
+  public DSPPipeline withChannelParallelism(ForkJoinPool pool) {
+    return withChannelParallelism(pool, DEFAULT_MIN_PARALLEL_SAMPLES);
+  }
+
+  /**
+   * Same stages, with channel processors fanned out across {@code pool} for blocks of at least
+   * {@code minParallelSamples} samples ({@code channels * frames}) and at least two channels.
+   *
+   * @param pool pool running the per-channel tasks; must not be {@code null}
+   * @param minParallelSamples smallest block, in samples over all channels, that is split
+   * @return a new pipeline
+   * @throws IllegalArgumentException if {@code minParallelSamples < 1}
+   */
+  public DSPPipeline withChannelParallelism(ForkJoinPool pool, int minParallelSamples) {
+    Objects.requireNonNull(pool, "pool");
+    if (minParallelSamples < 1) {
+      throw new IllegalArgumentException("minParallelSamples must be >= 1: " + minParallelSamples);
+    }
+    return new DSPPipeline(stages, pool, minParallelSamples);
+  }
+
+  /**
+   * @return a pipeline with the same stages that runs entirely on the calling thread
+   */
+  public DSPPipeline sequential() {
+    return pool == null ? this : new DSPPipeline(stages);
+  }
+
+  /**
+   * Run every stage of this pipeline on its own thread; see {@link StagedDSPPipeline}.
+   *
+   * @param queueCapacity minimum capacity of the queue in front of every stage
+   * @return a new, not yet started staged pipeline
+   * @throws IllegalArgumentException if this pipeline is empty
+   */
+  public StagedDSPPipeline staged(int queueCapacity) {
+    return StagedDSPPipeline.of(queueCapacity, stages);
+  }
+
+  /**
+   * @return true if runs of channel processors may be split across a pool
+   */
+  public boolean isChannelParallel() {
+    return pool != null;
+  }
+
   @Override
   public AudioBlock process(AudioBlock block) {
     AudioBlock current = Objects.requireNonNull(block, "block");
-    for (DSPProcessor stage : stages) {
+    MutableAudioBuffer work = null;
+    for (int i = 0; i < stages.length; i++) {
+      DSPProcessor stage = stages[i];
+      if (stage instanceof InPlaceProcessor inPlace) {
+        if (work == null) {
+          work = MutableAudioBuffer.copyOf(current);
+        }
+        if (channelRunEnd[i] > 0 && forks(work)) {
+          pool.invoke(new ChannelTask(stages, i, channelRunEnd[i], work, 0, work.channels()));
+          i = channelRunEnd[i] - 1;
+        } else {
+          inPlace.processInPlace(work);
+        }
+        continue;
+      }
+      if (work != null) {
+        current = work.toBlock();
+        work = null;
+      }
       current = Objects.requireNonNull(stage.process(current), "stage produced null block");
     }
-    return current;
+    return work != null ? work.toBlock() : current;
+  }
+
+  private boolean forks(MutableAudioBuffer work) {
+    return pool != null
+        && work.channels() > 1
+        && (long) work.channels() * work.frames() >= minParallelSamples;
   }
 
   /**
@@ -91,4 +208,39 @@ public final class DSPPipeline implements DSPProcessor {
   public List<DSPProcessor> stages() {
     return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(stages)));
   }
+
+  /** Runs stages {@code [from, to)} over channels {@code [lo, hi)}, one fork per channel. */
+  private static final class ChannelTask extends RecursiveAction {
+
+    private final DSPProcessor[] stages;
+    private final int from;
+    private final int to;
+    private final MutableAudioBuffer buffer;
+    private final int lo;
+    private final int hi;
+
+    ChannelTask(
+        DSPProcessor[] stages, int from, int to, MutableAudioBuffer buffer, int lo, int hi) {
+      this.stages = stages;
+      this.from = from;
+      this.to = to;
+      this.buffer = buffer;
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo > 1) {
+        int mid = (lo + hi) >>> 1;
+        invokeAll(
+            new ChannelTask(stages, from, to, buffer, lo, mid),
+            new ChannelTask(stages, from, to, buffer, mid, hi));
+        return;
+      }
+      for (int s = from; s < to; s++) {
+        ((ChannelProcessor) stages[s]).processChannel(buffer, lo);
+      }
+    }
+  }
 }
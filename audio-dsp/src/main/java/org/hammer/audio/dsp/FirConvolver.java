@@ -0,0 +1,296 @@
+package org.hammer.audio.dsp;
+
+import java.util.Arrays;
+import java.util.Objects;
+import org.hammer.audio.analysis.Fft;
+
+/**
+ * FIR filter applying one kernel to every channel, e.g. a matched filter or a room-equalization
+ * response thousands of taps long.
+ *
+ * <p>Kernels longer than {@link #DIRECT_FORM_MAX_TAPS} use uniformly partitioned overlap-save
+ * convolution. The kernel is cut into partitions of {@code partitionSize} taps whose spectra are
+ * computed once. Each channel keeps a frequency-domain delay line of the spectra of its recent
+ * input windows. Every {@code partitionSize} input frames cost one forward FFT, one complex
+ * multiply-accumulate per partition and one inverse FFT of size {@code 2 * partitionSize}. That is
+ * {@code O(log P + M / P)} work per sample instead of the {@code O(M)} of the direct form. The
+ * output lags the input by exactly {@link #latencyFrames()} = {@code partitionSize} frames,
+ * whatever the kernel length and however the input is split into blocks; with blocks of {@code
+ * partitionSize} frames that is one block.
+ *
+ * <p>Shorter kernels run in direct form, which is cheaper at that length and adds no latency.
+ *
+ * <p>Channels are independent, so a {@link DSPPipeline#withChannelParallelism channel-parallel}
+ * pipeline may convolve them concurrently. Processing allocates nothing.
+ *
+ * @author refactoring
+ */
+public final class FirConvolver implements ChannelProcessor {
+
+  /** Longest kernel convolved in direct form. */
+  public static final int DIRECT_FORM_MAX_TAPS = 64;
+
+  /** Default partition size, and thus latency, of the FFT form. */
+  public static final int DEFAULT_PARTITION_SIZE = 256;
+
+  private final int taps;
+  private final int partitionSize;
+  private final int partitions;
+  private final int bins;
+
+  /** Direct-form kernel, or {@code null} in FFT form. */
+  private final float[] kernel;
+
+  /** Per-partition kernel spectra (bins {@code 0..partitionSize}), or {@code null}. */
+  private final float[][] kernelRe;
+
+  private final float[][] kernelIm;
+
+  private final DirectState[] direct;
+  private final FftState[] fft;
+
+  /**
+   * Create a convolver with a {@link #DEFAULT_PARTITION_SIZE} partition size.
+   *
+   * @param channels number of channels to filter; {@code >= 1}
+   * @param kernel impulse response; at least one tap. Copied.
+   */
+  public FirConvolver(int channels, float[] kernel) {
+    this(channels, kernel, DEFAULT_PARTITION_SIZE);
+  }
+
+  /**
+   * @param channels number of channels to filter; {@code >= 1}
+   * @param kernel impulse response; at least one tap. Copied.
+   * @param partitionSize partition size and latency of the FFT form; a power of two {@code >= 2}.
+   *     Ignored for kernels of at most {@link #DIRECT_FORM_MAX_TAPS} taps.
+   * @throws IllegalArgumentException if an argument is out of range
+   */
+  public FirConvolver(int channels, float[] kernel, int partitionSize) {
+    Objects.requireNonNull(kernel, "kernel");
+    if (channels < 1) {
+      throw new IllegalArgumentException("channels must be >= 1: " + channels);
+    }
+    if (kernel.length == 0) {
+      throw new IllegalArgumentException("kernel must have at least one tap");
+    }
+    if (partitionSize < 2 || (partitionSize & (partitionSize - 1)) != 0) {
+      throw new IllegalArgumentException(
+          "partitionSize must be a power of two >= 2: " + partitionSize);
+    }
+    this.taps = kernel.length;
+    if (taps <= DIRECT_FORM_MAX_TAPS) {
+      this.kernel = kernel.clone();
+      this.partitionSize = 0;
+      this.partitions = 0;
+      this.bins = 0;
+      this.kernelRe = null;
+      this.kernelIm = null;
+      this.direct = new DirectState[channels];
+      for (int c = 0; c < channels; c++) {
+        direct[c] = new DirectState(taps);
+      }
+      this.fft = null;
+      return;
+    }
+    this.kernel = null;
+    this.partitionSize = partitionSize;
+    this.partitions = (taps + partitionSize - 1) / partitionSize;
+    this.bins = partitionSize + 1;
+    this.kernelRe = new float[partitions][bins];
+    this.kernelIm = new float[partitions][bins];
+    int fftSize = 2 * partitionSize;
+    Fft transform = new Fft(fftSize);
+    float[] re = new float[fftSize];
+    float[] im = new float[fftSize];
+    for (int k = 0; k < partitions; k++) {
+      Arrays.fill(re, 0f);
+      Arrays.fill(im, 0f);
+      int from = k * partitionSize;
+      System.arraycopy(kernel, from, re, 0, Math.min(partitionSize, taps - from));
+      transform.forward(re, im);
+      System.arraycopy(re, 0, kernelRe[k], 0, bins);
+      System.arraycopy(im, 0, kernelIm[k], 0, bins);
+    }
+    this.direct = null;
+    this.fft = new FftState[channels];
+    for (int c = 0; c < channels; c++) {
+      fft[c] = new FftState();
+    }
+  }
+
+  /**
+   * @return number of channels this convolver filters
+   */
+  public int channels() {
+    return direct != null ? direct.length : fft.length;
+  }
+
+  /**
+   * @return kernel length in taps
+   */
+  public int taps() {
+    return taps;
+  }
+
+  /**
+   * @return true if the kernel is short enough for direct-form convolution
+   */
+  public boolean isDirectForm() {
+    return direct != null;
+  }
+
+  /**
+   * @return frames by which the output lags the input: {@code 0} in direct form, the partition size
+   *     in FFT form
+   */
+  public int latencyFrames() {
+    return partitionSize;
+  }
+
+  /** Clear the input history of every channel. Must not run concurrently with processing. */
+  public void reset() {
+    if (direct != null) {
+      for (DirectState state : direct) {
+        Arrays.fill(state.history, 0f);
+        state.pos = 0;
+      }
+      return;
+    }
+    for (FftState state : fft) {
+      state.reset();
+    }
+  }
+
+  @Override
+  public void processChannel(MutableAudioBuffer buffer, int channel) {
+    Objects.checkIndex(channel, channels());
+    float[] samples = buffer.channel(channel);
+    int frames = buffer.frames();
+    if (direct != null) {
+      convolveDirect(direct[channel], samples, frames);
+    } else {
+      convolvePartitioned(fft[channel], samples, frames);
+    }
+  }
+
+  private void convolveDirect(DirectState state, float[] samples, int frames) {
+    float[] history = state.history;
+    int pos = state.pos;
+    for (int i = 0; i < frames; i++) {
+      // history holds every input twice, so taps read a contiguous window without wrapping.
+      pos = pos == 0 ? taps - 1 : pos - 1;
+      history[pos] = samples[i];
+      history[pos + taps] = samples[i];
+      float acc = 0f;
+      for (int j = 0; j < taps; j++) {
+        acc += kernel[j] * history[pos + j];
+      }
+      samples[i] = acc;
+    }
+    state.pos = pos;
+  }
+
+  private void convolvePartitioned(FftState state, float[] samples, int frames) {
+    int i = 0;
+    while (i < frames) {
+      int n = Math.min(frames - i, partitionSize - state.fill);
+      for (int j = 0; j < n; j++) {
+        float x = samples[i + j];
+        samples[i + j] = state.output[state.fill + j];
+        state.window[partitionSize + state.fill + j] = x;
+      }
+      state.fill += n;
+      i += n;
+      if (state.fill == partitionSize) {
+        convolvePartition(state);
+        state.fill = 0;
+      }
+    }
+  }
+
+  /** Convolve the window ending with the latest full partition into {@code state.output}. */
+  private void convolvePartition(FftState state) {
+    float[] re = state.re;
+    float[] im = state.im;
+    System.arraycopy(state.window, 0, re, 0, re.length);
+    Arrays.fill(im, 0f);
+    state.transform.forward(re, im);
+
+    int head = state.head == partitions - 1 ? 0 : state.head + 1;
+    state.head = head;
+    System.arraycopy(re, 0, state.spectraRe[head], 0, bins);
+    System.arraycopy(im, 0, state.spectraIm[head], 0, bins);
+
+    Arrays.fill(re, 0, bins, 0f);
+    Arrays.fill(im, 0, bins, 0f);
+    int slot = head;
+    for (int k = 0; k < partitions; k++) {
+      float[] xRe = state.spectraRe[slot];
+      float[] xIm = state.spectraIm[slot];
+      float[] hRe = kernelRe[k];
+      float[] hIm = kernelIm[k];
+      for (int b = 0; b < bins; b++) {
+        re[b] += xRe[b] * hRe[b] - xIm[b] * hIm[b];
+        im[b] += xRe[b] * hIm[b] + xIm[b] * hRe[b];
+      }
+      slot = slot == 0 ? partitions - 1 : slot - 1;
+    }
+    // Real signals have conjugate-symmetric spectra; mirror the accumulated half.
+    int fftSize = re.length;
+    for (int b = 1; b < partitionSize; b++) {
+      re[fftSize - b] = re[b];
+      im[fftSize - b] = -im[b];
+    }
+    state.transform.inverse(re, im);
+
+    // Overlap-save: the first half is circularly aliased, the second half is the linear result.
+    System.arraycopy(re, partitionSize, state.output, 0, partitionSize);
+    System.arraycopy(state.window, partitionSize, state.window, 0, partitionSize);
+  }
+
+  /** Input history of one channel in direct form. */
+  private static final class DirectState {
+
+    /** Last {@code taps} inputs, newest at {@code pos}, stored twice back to back. */
+    final float[] history;
+
+    int pos;
+
+    DirectState(int taps) {
+      this.history = new float[2 * taps];
+    }
+  }
+
+  /** Overlap-save state of one channel in FFT form. */
+  private final class FftState {
+
+    final Fft transform = new Fft(2 * partitionSize);
+
+    /** Previous partition followed by the partition being filled. */
+    final float[] window = new float[2 * partitionSize];
+
+    /** Output of the previous partition, emitted while the current one fills. */
+    final float[] output = new float[partitionSize];
+
+    /** Frequency-domain delay line: spectra of the latest input windows, newest at head. */
+    final float[][] spectraRe = new float[partitions][bins];
+
+    final float[][] spectraIm = new float[partitions][bins];
+    final float[] re = new float[2 * partitionSize];
+    final float[] im = new float[2 * partitionSize];
+    int head;
+    int fill;
+
+    void reset() {
+      Arrays.fill(window, 0f);
+      Arrays.fill(output, 0f);
+      for (int k = 0; k < partitions; k++) {
+        Arrays.fill(spectraRe[k], 0f);
+        Arrays.fill(spectraIm[k], 0f);
+      }
+      head = 0;
+      fill = 0;
+    }
+  }
+}
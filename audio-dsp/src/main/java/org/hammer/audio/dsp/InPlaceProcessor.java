@@ -0,0 +1,37 @@
+package org.hammer.audio.dsp;
+
+import org.hammer.audio.core.AudioBlock;
+
+/**
+ * Opt-in {@link DSPProcessor} contract for stages that transform samples in place instead of
+ * returning a new block.
+ *
+ * <p>{@link DSPPipeline} copies the input once into a {@link MutableAudioBuffer}, runs every
+ * consecutive in-place stage on it and materializes a single immutable {@link AudioBlock} when the
+ * run ends, rather than allocating one block per stage. In-place stages keep the format and frame
+ * count; format-changing stages (resampling, mixdown) implement plain {@link DSPProcessor}.
+ *
+ * <p>Used on its own, {@link #process(AudioBlock)} copies the block, applies {@link
+ * #processInPlace} and returns the result, so an in-place stage works anywhere a {@link
+ * DSPProcessor} does.
+ *
+ * @author refactoring
+ */
+@FunctionalInterface
+public interface InPlaceProcessor extends DSPProcessor {
+
+  /**
+   * Transform the working samples in place.
+   *
+   * @param buffer working copy owned by the caller for the duration of the call; never {@code
+   *     null}. Do not retain it or its channel arrays.
+   */
+  void processInPlace(MutableAudioBuffer buffer);
+
+  @Override
+  default AudioBlock process(AudioBlock block) {
+    MutableAudioBuffer buffer = MutableAudioBuffer.copyOf(block);
+    processInPlace(buffer);
+    return buffer.toBlock();
+  }
+}
@@ -0,0 +1,120 @@
+package org.hammer.audio.dsp;
+
+import java.util.Objects;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+
+/**
+ * Mutable working copy of an {@link AudioBlock} that {@link InPlaceProcessor}s transform in place.
+ *
+ * <p>The buffer holds one exactly-sized {@code float[frames]} array per channel. {@link #toBlock()}
+ * hands those arrays over to an immutable {@link AudioBlock} without copying, after which the
+ * buffer is sealed and {@link #channel(int)} fails. A chain of in-place stages therefore costs one
+ * copy of the input block, however long it is.
+ *
+ * <p>Thread-safety: not thread-safe; a buffer belongs to the thread running the pipeline.
+ *
+ * @author refactoring
+ */
+public final class MutableAudioBuffer {
+
+  private final AudioFormatDescriptor format;
+  private final float[][] samples;
+  private final int frames;
+  private final long frameIndex;
+  private final long timestampNanos;
+  private boolean sealed;
+
+  private MutableAudioBuffer(
+      AudioFormatDescriptor format,
+      float[][] samples,
+      int frames,
+      long frameIndex,
+      long timestampNanos) {
+    this.format = format;
+    this.samples = samples;
+    this.frames = frames;
+    this.frameIndex = frameIndex;
+    this.timestampNanos = timestampNanos;
+  }
+
+  /**
+   * Copy a block into a new working buffer. Works for every storage layout of {@code block}.
+   *
+   * @param block source block; must not be {@code null}
+   * @return a buffer with the same format, samples, frame index and timestamp
+   */
+  public static MutableAudioBuffer copyOf(AudioBlock block) {
+    Objects.requireNonNull(block, "block");
+    int frames = block.frames();
+    float[][] samples = new float[block.channels()][frames];
+    for (int c = 0; c < samples.length; c++) {
+      block.channelView(c, 0, frames).copyTo(samples[c], 0);
+    }
+    return new MutableAudioBuffer(
+        block.format(), samples, frames, block.frameIndex(), block.timestampNanos());
+  }
+
+  /**
+   * @return the format of the samples
+   */
+  public AudioFormatDescriptor format() {
+    return format;
+  }
+
+  /**
+   * @return number of channels
+   */
+  public int channels() {
+    return samples.length;
+  }
+
+  /**
+   * @return number of frames per channel
+   */
+  public int frames() {
+    return frames;
+  }
+
+  /**
+   * @return frame index of the source block
+   */
+  public long frameIndex() {
+    return frameIndex;
+  }
+
+  /**
+   * @return timestamp of the source block
+   */
+  public long timestampNanos() {
+    return timestampNanos;
+  }
+
+  /**
+   * Mutable samples of one channel.
+   *
+   * @param channel channel index, in {@code [0, channels)}
+   * @return the channel's {@code float[frames]} working array; writes are visible to later stages
+   * @throws IllegalStateException if the buffer was already turned into a block
+   */
+  public float[] channel(int channel) {
+    if (sealed) {
+      throw new IllegalStateException("buffer already materialized as an AudioBlock");
+    }
+    return samples[Objects.checkIndex(channel, samples.length)];
+  }
+
+  /**
+   * Materialize the current samples as an immutable block and seal this buffer.
+   *
+   * @return a block that takes over the working arrays without copying
+   * @throws IllegalStateException if called twice
+   */
+  public AudioBlock toBlock() {
+    if (sealed) {
+      throw new IllegalStateException("buffer already materialized as an AudioBlock");
+    }
+    sealed = true;
+    return AudioBlock.wrap(format, samples, frameIndex, timestampNanos);
+  }
+}
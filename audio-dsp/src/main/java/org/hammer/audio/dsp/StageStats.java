@@ -0,0 +1,34 @@
+package org.hammer.audio.dsp;
+
+/**
+ * Snapshot of one stage of a {@link StagedDSPPipeline}, taken with {@link
+ * StagedDSPPipeline#stats()}.
+ *
+ * <p>The stage with the highest mean service time bounds the throughput of the whole chain; a queue
+ * that stays near capacity sits in front of such a bottleneck.
+ *
+ * @param stage stage index in declaration order
+ * @param queueDepth blocks waiting in the stage's input queue
+ * @param queueCapacity capacity of the stage's input queue
+ * @param blocks blocks processed so far
+ * @param lastServiceNanos processing time of the latest block
+ * @param maxServiceNanos longest processing time
+ * @param totalServiceNanos sum of all processing times
+ * @author refactoring
+ */
+public record StageStats(
+    int stage,
+    int queueDepth,
+    int queueCapacity,
+    long blocks,
+    long lastServiceNanos,
+    long maxServiceNanos,
+    long totalServiceNanos) {
+
+  /**
+   * @return mean processing time in nanoseconds, or {@code 0} before the first block
+   */
+  public long meanServiceNanos() {
+    return blocks == 0 ? 0L : totalServiceNanos / blocks;
+  }
+}
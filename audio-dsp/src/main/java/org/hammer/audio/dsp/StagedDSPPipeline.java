@@ -0,0 +1,273 @@
+package org.hammer.audio.dsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.hammer.audio.buffer.AudioRingBuffer;
+import org.hammer.audio.core.AudioBlock;
+
+/**
+ * Runs a chain of {@link DSPProcessor} stages as a pipeline of threads, one per stage, connected by
+ * SPSC {@link AudioRingBuffer}s.
+ *
+ * <p>Sequential execution costs the sum of all stages per block; here each stage works on a
+ * different block at the same time, so throughput is bounded by the slowest stage instead. A stage
+ * may be a whole {@link DSPPipeline} to group cheap processors on one thread. Latency grows by the
+ * queueing between stages.
+ *
+ * <pre>{@code
+ * try (StagedDSPPipeline staged = StagedDSPPipeline.of(16, highPass, DSPPipeline.of(gain, dc))) {
+ *   staged.start();
+ *   staged.offer(block);            // producer thread
+ *   AudioBlock out = staged.take(); // consumer thread
+ * }
+ * }</pre>
+ *
+ * <p>Every queue is lossless: a stage whose downstream queue is full waits for it, so back-pressure
+ * propagates to {@link #offer(AudioBlock)}, which rejects blocks once the first queue is full. Each
+ * stage is a single thread reading a FIFO queue, so blocks leave in the order they were offered and
+ * the output {@link AudioBlock#frameIndex() frame indices} stay as continuous as the input.
+ *
+ * <p>Concurrency contract: one producer thread calls {@link #offer(AudioBlock)} and one consumer
+ * thread calls {@link #poll()} / {@link #take()}; {@link #stats()} and {@link #failure()} may be
+ * called from any thread. Stage processors run on their own thread and need not be thread-safe.
+ *
+ * @author refactoring
+ */
+public final class StagedDSPPipeline implements AutoCloseable {
+
+  /** Park between attempts while a stage waits for room downstream. */
+  private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /** Longest wait for input before a stage re-checks whether it should stop. */
+  private static final long POLL_TIMEOUT_MILLIS = 10;
+
+  private final DSPProcessor[] stages;
+
+  /** {@code queues[i]} feeds stage {@code i}; the last queue holds the output. */
+  private final AudioRingBuffer<AudioBlock>[] queues;
+
+  private final StageMonitor[] monitors;
+  private final List<Thread> threads = new ArrayList<>();
+  private volatile boolean running;
+
+  /** Set by {@link #close()} or a failing stage; ends waits in {@link #take()}. */
+  private volatile boolean stopped;
+
+  private volatile Throwable failure;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private StagedDSPPipeline(int queueCapacity, DSPProcessor[] stages) {
+    this.stages = stages;
+    this.queues = new AudioRingBuffer[stages.length + 1];
+    for (int i = 0; i < queues.length; i++) {
+      queues[i] = new AudioRingBuffer<>(queueCapacity);
+    }
+    this.monitors = new StageMonitor[stages.length];
+    for (int i = 0; i < monitors.length; i++) {
+      monitors[i] = new StageMonitor();
+    }
+  }
+
+  /**
+   * Create a staged pipeline that runs each processor on its own thread.
+   *
+   * @param queueCapacity minimum capacity of every queue, rounded up to a power of two
+   * @param stages ordered processors; must not be {@code null}, empty or contain {@code null}
+   * @return a new, not yet started pipeline
+   * @throws IllegalArgumentException if {@code stages} is empty or {@code queueCapacity} is out of
+   *     range
+   */
+  public static StagedDSPPipeline of(int queueCapacity, DSPProcessor... stages) {
+    Objects.requireNonNull(stages, "stages");
+    if (stages.length == 0) {
+      throw new IllegalArgumentException("stages must be non-empty");
+    }
+    DSPProcessor[] copy = new DSPProcessor[stages.length];
+    for (int i = 0; i < stages.length; i++) {
+      copy[i] = Objects.requireNonNull(stages[i], "stages[" + i + "]");
+    }
+    return new StagedDSPPipeline(queueCapacity, copy);
+  }
+
+  /**
+   * Create a staged pipeline from a list of processors, each on its own thread.
+   *
+   * @see #of(int, DSPProcessor...)
+   */
+  public static StagedDSPPipeline of(int queueCapacity, List<? extends DSPProcessor> stages) {
+    Objects.requireNonNull(stages, "stages");
+    return of(queueCapacity, stages.toArray(new DSPProcessor[0]));
+  }
+
+  /** Start one daemon thread per stage. No effect if already started or closed. */
+  public synchronized void start() {
+    if (running || stopped || !threads.isEmpty()) {
+      return;
+    }
+    running = true;
+    for (int i = 0; i < stages.length; i++) {
+      int stage = i;
+      Thread thread = new Thread(() -> runStage(stage), "dsp-stage-" + i);
+      thread.setDaemon(true);
+      threads.add(thread);
+    }
+    threads.forEach(Thread::start);
+  }
+
+  /**
+   * Hand a block to the first stage. Producer-only; never blocks.
+   *
+   * @param block block to process; must not be {@code null}
+   * @return {@code false} if the first queue is full (the pipeline is not keeping up)
+   */
+  public boolean offer(AudioBlock block) {
+    return queues[0].offer(Objects.requireNonNull(block, "block"));
+  }
+
+  /**
+   * Next processed block. Consumer-only; never blocks.
+   *
+   * @return the oldest processed block, or {@code null} if none is ready
+   */
+  public AudioBlock poll() {
+    return queues[stages.length].poll();
+  }
+
+  /**
+   * Next processed block, waiting for one if necessary. Consumer-only.
+   *
+   * <p>Blocks already processed are still returned after the pipeline stopped; once none are left,
+   * the wait ends with an exception instead of hanging.
+   *
+   * @return the oldest processed block, never {@code null}
+   * @throws IllegalStateException if a stage failed (with the failure as cause) or the pipeline was
+   *     closed, and no processed block is left
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public AudioBlock take() throws InterruptedException {
+    AudioRingBuffer<AudioBlock> output = queues[stages.length];
+    while (true) {
+      AudioBlock block = output.poll();
+      if (block != null) {
+        return block;
+      }
+      if (stopped) {
+        block = output.poll();
+        if (block != null) {
+          return block;
+        }
+        throw new IllegalStateException(
+            failure != null ? "DSP stage failed" : "staged pipeline closed", failure);
+      }
+      output.awaitAvailable(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * @return number of stages (and threads)
+   */
+  public int size() {
+    return stages.length;
+  }
+
+  /**
+   * @return one snapshot per stage, in declaration order
+   */
+  public List<StageStats> stats() {
+    List<StageStats> out = new ArrayList<>(stages.length);
+    for (int i = 0; i < stages.length; i++) {
+      out.add(monitors[i].snapshot(i, queues[i]));
+    }
+    return List.copyOf(out);
+  }
+
+  /**
+   * @return the first exception thrown by a stage; a failed stage stops the pipeline
+   */
+  public Optional<Throwable> failure() {
+    return Optional.ofNullable(failure);
+  }
+
+  /** Stop and join every stage thread. Blocks still queued are dropped. Idempotent. */
+  @Override
+  public synchronized void close() {
+    running = false;
+    stopped = true;
+    threads.forEach(Thread::interrupt);
+    for (Thread thread : threads) {
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void runStage(int stage) {
+    DSPProcessor processor = stages[stage];
+    AudioRingBuffer<AudioBlock> in = queues[stage];
+    AudioRingBuffer<AudioBlock> out = queues[stage + 1];
+    StageMonitor monitor = monitors[stage];
+    try {
+      while (running) {
+        AudioBlock block = in.poll();
+        if (block == null) {
+          in.awaitAvailable(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+          continue;
+        }
+        long start = System.nanoTime();
+        AudioBlock processed =
+            Objects.requireNonNull(processor.process(block), "stage produced null block");
+        monitor.record(System.nanoTime() - start);
+        while (!out.offer(processed)) {
+          if (!running) {
+            return;
+          }
+          LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException | Error e) {
+      if (failure == null) {
+        failure = e;
+      }
+      running = false;
+      stopped = true;
+    }
+  }
+
+  /** Service-time counters of one stage; written only by that stage's thread. */
+  private static final class StageMonitor {
+
+    private volatile long blocks;
+    private volatile long lastServiceNanos;
+    private volatile long maxServiceNanos;
+    private volatile long totalServiceNanos;
+
+    void record(long serviceNanos) {
+      lastServiceNanos = serviceNanos;
+      if (serviceNanos > maxServiceNanos) {
+        maxServiceNanos = serviceNanos;
+      }
+      totalServiceNanos = totalServiceNanos + serviceNanos;
+      blocks = blocks + 1;
+    }
+
+    StageStats snapshot(int stage, AudioRingBuffer<AudioBlock> queue) {
+      return new StageStats(
+          stage,
+          queue.size(),
+          queue.capacity(),
+          blocks,
+          lastServiceNanos,
+          maxServiceNanos,
+          totalServiceNanos);
+    }
+  }
+}
@@ -3,10 +3,13 @@
  *
  * <p>This package defines the {@link DSPProcessor} extension point and the {@link DSPPipeline}
  * helper for chaining processors. Processors transform {@link org.hammer.audio.core.AudioBlock}s in
- * a stateless or self-synchronized manner; pipelines are immutable and cheap to share.
+ * a stateless or self-synchronized manner; pipelines are immutable and cheap to share. Stages that
+ * implement {@link InPlaceProcessor} transform a shared {@link MutableAudioBuffer} instead of
+ * allocating a block each.
  *
- * <p>Concrete processors (gain, DC blocker, filters, ...) are intentionally <em>not</em> bundled
- * here yet — the architecture is the deliverable and the extension surface is stable enough to add
- * them as needed.
+ * <p>{@link BiquadFilterBank} provides high-pass, low-pass, band-pass, notch and peaking filters
+ * built from {@link BiquadCoefficients}, and {@link FirConvolver} convolves with long FIR kernels.
+ * Other concrete processors (gain, resampling, ...) are added as needed on the same extension
+ * surface.
  */
 package org.hammer.audio.dsp;
@@ -0,0 +1,92 @@
+package org.hammer.audio.dsp.simd;
+
+/**
+ * The hot inner loops of the analyzers, as bulk operations over array ranges.
+ *
+ * <p>Every kernel reads and writes {@code length} consecutive elements starting at the given
+ * offsets and never allocates. Implementations differ only in how they execute: {@link
+ * SimdKernels#scalar()} runs plain Java loops, {@link SimdKernels#vector()} runs the same loops on
+ * {@code jdk.incubator.vector} lanes. Results agree to within float rounding; reductions may sum in
+ * a different order.
+ *
+ * <p>Implementations are stateless and thread-safe.
+ *
+ * @author refactoring
+ */
+public interface SampleKernels {
+
+  /**
+   * @param src samples
+   * @param offset first sample
+   * @param length number of samples
+   * @return {@code sum(src[i]^2)}; partial sums over short runs may be kept in float, the total is
+   *     kept in double
+   */
+  double sumOfSquares(float[] src, int offset, int length);
+
+  /**
+   * @param src samples
+   * @param offset first sample
+   * @param length number of samples
+   * @return {@code max(|src[i]|)} over the samples that are not NaN, or {@code 0} for an empty
+   *     range
+   */
+  float absMax(float[] src, int offset, int length);
+
+  /**
+   * Element-wise product {@code dst[i] = a[i] * b[i]}, e.g. applying a window. {@code dst} may
+   * alias {@code a} or {@code b} when the ranges coincide exactly.
+   *
+   * @param a first factor
+   * @param aOffset first element of {@code a}
+   * @param b second factor
+   * @param bOffset first element of {@code b}
+   * @param dst product
+   * @param dstOffset first element of {@code dst}
+   * @param length number of elements
+   */
+  void multiply(
+      float[] a, int aOffset, float[] b, int bOffset, float[] dst, int dstOffset, int length);
+
+  /**
+   * Multiply-accumulate {@code dst[i] += a[i] * b[i]}.
+   *
+   * @param a first factor
+   * @param aOffset first element of {@code a}
+   * @param b second factor
+   * @param bOffset first element of {@code b}
+   * @param dst accumulator
+   * @param dstOffset first element of {@code dst}
+   * @param length number of elements
+   */
+  void multiplyAccumulate(
+      float[] a, int aOffset, float[] b, int bOffset, float[] dst, int dstOffset, int length);
+
+  /**
+   * Complex magnitude {@code dst[i] = sqrt(re[i]^2 + im[i]^2)} of the first {@code length} bins.
+   *
+   * @param re real parts
+   * @param im imaginary parts
+   * @param dst magnitudes
+   * @param length number of bins
+   */
+  void magnitude(float[] re, float[] im, float[] dst, int length);
+
+  /**
+   * Widen signed 16-bit samples to floats, {@code dst[i] = src[i] * scale}.
+   *
+   * @param src raw samples
+   * @param srcOffset first element of {@code src}
+   * @param dst normalized samples
+   * @param dstOffset first element of {@code dst}
+   * @param length number of samples
+   * @param scale multiplier, e.g. {@link org.hammer.audio.core.Pcm16AudioBlock#SCALE}
+   */
+  void int16ToFloat(
+      short[] src, int srcOffset, float[] dst, int dstOffset, int length, float scale);
+
+  /**
+   * @return short implementation name for logs and benchmarks, e.g. {@code "scalar"}
+   */
+  String name();
+}
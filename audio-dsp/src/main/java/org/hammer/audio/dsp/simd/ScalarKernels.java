@@ -0,0 +1,74 @@
+package org.hammer.audio.dsp.simd;
+
+/**
+ * Plain-loop {@link SampleKernels}: the reference implementation and the fallback when the Vector
+ * API is unavailable.
+ *
+ * @author refactoring
+ */
+final class ScalarKernels implements SampleKernels {
+
+  static final ScalarKernels INSTANCE = new ScalarKernels();
+
+  private ScalarKernels() {}
+
+  @Override
+  public double sumOfSquares(float[] src, int offset, int length) {
+    double sum = 0.0;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      double s = src[i];
+      sum += s * s;
+    }
+    return sum;
+  }
+
+  @Override
+  public float absMax(float[] src, int offset, int length) {
+    float max = 0f;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      float a = Math.abs(src[i]);
+      if (a > max) {
+        max = a;
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public void multiply(
+      float[] a, int aOffset, float[] b, int bOffset, float[] dst, int dstOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+  }
+
+  @Override
+  public void multiplyAccumulate(
+      float[] a, int aOffset, float[] b, int bOffset, float[] dst, int dstOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      dst[dstOffset + i] += a[aOffset + i] * b[bOffset + i];
+    }
+  }
+
+  @Override
+  public void magnitude(float[] re, float[] im, float[] dst, int length) {
+    for (int i = 0; i < length; i++) {
+      float r = re[i];
+      float m = im[i];
+      dst[i] = (float) Math.sqrt(r * r + m * m);
+    }
+  }
+
+  @Override
+  public void int16ToFloat(
+      short[] src, int srcOffset, float[] dst, int dstOffset, int length, float scale) {
+    for (int i = 0; i < length; i++) {
+      dst[dstOffset + i] = src[srcOffset + i] * scale;
+    }
+  }
+
+  @Override
+  public String name() {
+    return "scalar";
+  }
+}
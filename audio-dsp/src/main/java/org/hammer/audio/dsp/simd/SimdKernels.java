@@ -0,0 +1,82 @@
+package org.hammer.audio.dsp.simd;
+
+import java.util.Optional;
+
+/**
+ * Entry point to the {@link SampleKernels} implementations, with the fastest usable one chosen once
+ * at class initialization.
+ *
+ * <p>{@link #get()} returns the vector kernels when all of these hold, otherwise the scalar ones:
+ *
+ * <ul>
+ *   <li>the module was built with the {@code simd} Maven profile, which compiles {@code
+ *       VectorKernels}; the default build leaves the incubator module out and compiles cleanly
+ *   <li>the JVM was started with {@code --add-modules jdk.incubator.vector}
+ *   <li>the preferred float species has at least {@value #MIN_LANES} lanes, i.e. the CPU has real
+ *       SIMD registers rather than a narrow emulation
+ *   <li>the system property {@value #DISABLE_PROPERTY} is not {@code true}
+ * </ul>
+ *
+ * <pre>{@code
+ * SampleKernels kernels = SimdKernels.get();
+ * double energy = kernels.sumOfSquares(samples, 0, samples.length);
+ * }</pre>
+ *
+ * @author refactoring
+ */
+public final class SimdKernels {
+
+  /** System property that forces the scalar kernels when set to {@code true}. */
+  public static final String DISABLE_PROPERTY = "org.hammer.audio.simd.disable";
+
+  /** Minimum float lanes for the vector kernels to be preferred over scalar loops. */
+  static final int MIN_LANES = 4;
+
+  private static final SampleKernels VECTOR = loadVector();
+  private static final SampleKernels SELECTED =
+      VECTOR != null && !Boolean.getBoolean(DISABLE_PROPERTY) ? VECTOR : ScalarKernels.INSTANCE;
+
+  private SimdKernels() {}
+
+  /**
+   * @return the kernels selected for this JVM
+   */
+  public static SampleKernels get() {
+    return SELECTED;
+  }
+
+  /**
+   * @return the plain-loop kernels, always available
+   */
+  public static SampleKernels scalar() {
+    return ScalarKernels.INSTANCE;
+  }
+
+  /**
+   * @return the Vector API kernels, or empty if this JVM cannot run them usefully; ignores {@value
+   *     #DISABLE_PROPERTY} so benchmarks can compare both paths
+   */
+  public static Optional<SampleKernels> vector() {
+    return Optional.ofNullable(VECTOR);
+  }
+
+  private static SampleKernels loadVector() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      return null;
+    }
+    try {
+      // Looked up by name: the class only exists in builds with the simd profile.
+      Class<?> kernels = Class.forName(SimdKernels.class.getPackageName() + ".VectorKernels");
+      int lanes = (Integer) kernels.getDeclaredMethod("lanes").invoke(null);
+      return lanes >= MIN_LANES
+          ? (SampleKernels) kernels.getDeclaredField("INSTANCE").get(null)
+          : null;
+    } catch (ReflectiveOperationException e) {
+      // Built without the simd profile, or the species is unsupported on this platform.
+      return null;
+    } catch (LinkageError e) {
+      // Module resolved but the species is unsupported on this platform.
+      return null;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package org.hammer.audio.dsp.simd;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link SampleKernels} on {@code jdk.incubator.vector} lanes of the platform's preferred width.
+ *
+ * <p>Each kernel runs a full-width main loop followed by a scalar tail. Only the {@code simd} Maven
+ * profile compiles this class, since javac warns about every build that uses an incubator module.
+ * Loading it fails with a {@link LinkageError} unless the JVM was started with {@code --add-modules
+ * jdk.incubator.vector}. {@link SimdKernels} looks it up by name and falls back to {@link
+ * ScalarKernels} when it is missing or cannot load.
+ *
+ * @author refactoring
+ */
+final class VectorKernels implements SampleKernels {
+
+  private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+  /** Shorts with the same lane count as {@link #FLOATS}, so one load widens into one vector. */
+  private static final VectorSpecies<Short> SHORTS =
+      VectorSpecies.of(short.class, VectorShape.forBitSize(FLOATS.vectorBitSize() / 2));
+
+  /**
+   * Elements summed in float lanes before the partial sum is folded into the double total. Keeps
+   * the relative error of {@link #sumOfSquares} near that of a double loop for any block length.
+   */
+  private static final int SUM_CHUNK = 1024;
+
+  static final VectorKernels INSTANCE = new VectorKernels();
+
+  private VectorKernels() {}
+
+  /**
+   * @return number of float lanes per vector
+   */
+  static int lanes() {
+    return FLOATS.length();
+  }
+
+  @Override
+  public double sumOfSquares(float[] src, int offset, int length) {
+    double sum = 0.0;
+    int end = offset + length;
+    int i = offset;
+    while (i + FLOATS.length() <= end) {
+      int chunkEnd = Math.min(end, i + SUM_CHUNK);
+      int bound = i + FLOATS.loopBound(chunkEnd - i);
+      FloatVector acc = FloatVector.zero(FLOATS);
+      for (; i < bound; i += FLOATS.length()) {
+        FloatVector v = FloatVector.fromArray(FLOATS, src, i);
+        acc = v.fma(v, acc);
+      }
+      sum += acc.reduceLanes(VectorOperators.ADD);
+    }
+    for (; i < end; i++) {
+      double s = src[i];
+      sum += s * s;
+    }
+    return sum;
+  }
+
+  @Override
+  public float absMax(float[] src, int offset, int length) {
+    int end = offset + length;
+    int bound = offset + FLOATS.loopBound(length);
+    int i = offset;
+    FloatVector max = FloatVector.zero(FLOATS);
+    for (; i < bound; i += FLOATS.length()) {
+      // Blend on a comparison rather than max(), which would propagate NaN: NaN never compares
+      // greater, so it is skipped like in the scalar loop.
+      FloatVector a = FloatVector.fromArray(FLOATS, src, i).abs();
+      max = max.blend(a, a.compare(VectorOperators.GT, max));
+    }
+    float result = max.reduceLanes(VectorOperators.MAX);
+    for (; i < end; i++) {
+      float a = Math.abs(src[i]);
+      if (a > result) {
+        result = a;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void multiply(
+      float[] a, int aOffset, float[] b, int bOffset, float[] dst, int dstOffset, int length) {
+    int bound = FLOATS.loopBound(length);
+    int i = 0;
+    for (; i < bound; i += FLOATS.length()) {
+      FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+      FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+      va.mul(vb).intoArray(dst, dstOffset + i);
+    }
+    for (; i < length; i++) {
+      dst[dstOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+  }
+
+  @Override
+  public void multiplyAccumulate(
+      float[] a, int aOffset, float[] b, int bOffset, float[] dst, int dstOffset, int length) {
+    int bound = FLOATS.loopBound(length);
+    int i = 0;
+    for (; i < bound; i += FLOATS.length()) {
+      FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+      FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+      FloatVector acc = FloatVector.fromArray(FLOATS, dst, dstOffset + i);
+      va.fma(vb, acc).intoArray(dst, dstOffset + i);
+    }
+    for (; i < length; i++) {
+      dst[dstOffset + i] += a[aOffset + i] * b[bOffset + i];
+    }
+  }
+
+  @Override
+  public void magnitude(float[] re, float[] im, float[] dst, int length) {
+    int bound = FLOATS.loopBound(length);
+    int i = 0;
+    for (; i < bound; i += FLOATS.length()) {
+      FloatVector r = FloatVector.fromArray(FLOATS, re, i);
+      FloatVector m = FloatVector.fromArray(FLOATS, im, i);
+      r.mul(r).add(m.mul(m)).sqrt().intoArray(dst, i);
+    }
+    for (; i < length; i++) {
+      float r = re[i];
+      float m = im[i];
+      dst[i] = (float) Math.sqrt(r * r + m * m);
+    }
+  }
+
+  @Override
+  public void int16ToFloat(
+      short[] src, int srcOffset, float[] dst, int dstOffset, int length, float scale) {
+    int bound = FLOATS.loopBound(length);
+    int i = 0;
+    for (; i < bound; i += FLOATS.length()) {
+      ShortVector s = ShortVector.fromArray(SHORTS, src, srcOffset + i);
+      FloatVector f = (FloatVector) s.convertShape(VectorOperators.S2F, FLOATS, 0);
+      f.mul(scale).intoArray(dst, dstOffset + i);
+    }
+    for (; i < length; i++) {
+      dst[dstOffset + i] = src[srcOffset + i] * scale;
+    }
+  }
+
+  @Override
+  public String name() {
+    return "vector-" + FLOATS.vectorBitSize();
+  }
+}
@@ -0,0 +1,11 @@
+/**
+ * Vectorized kernels for the hottest sample loops.
+ *
+ * <p>{@link org.hammer.audio.dsp.simd.SampleKernels} covers sum of squares, absolute maximum,
+ * element-wise multiply and multiply-accumulate, complex magnitude and 16-bit to float conversion.
+ * {@link org.hammer.audio.dsp.simd.SimdKernels#get()} picks the {@code jdk.incubator.vector}
+ * implementation when the module is present and the CPU is wide enough, and plain loops otherwise,
+ * so callers never need to know which one runs. The RMS/peak, measurement, diagnosis and spectrum
+ * analyzers all route through it.
+ */
+package org.hammer.audio.dsp.simd;
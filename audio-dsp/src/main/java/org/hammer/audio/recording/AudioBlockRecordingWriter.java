@@ -4,18 +4,22 @@ import java.io.Closeable;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.FloatBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.core.OffHeapAudioBlock;
+import org.hammer.audio.core.SampleSlice;
 
 /**
  * Writes {@link AudioBlock}s to a binary recording file as documented in {@link
  * AudioBlockRecordingFormat}.
  *
- * <p>The writer derives its format header from the first {@link #write(AudioBlock)} call. All
- * subsequent blocks must use the same {@link AudioFormatDescriptor}.
+ * <p>The writer derives its format header from the first {@code write} call. All subsequent blocks
+ * must use the same {@link AudioFormatDescriptor}. Heap {@link AudioBlock}s and {@link
+ * OffHeapAudioBlock}s may be mixed freely and produce identical records.
  *
  * <p>Instances are <strong>not thread-safe</strong>.
  */
@@ -60,30 +64,60 @@ public final class AudioBlockRecordingWriter implements Closeable {
    */
   public void write(AudioBlock block) throws IOException {
     Objects.requireNonNull(block, "block");
-    if (closed) {
-      throw new IllegalStateException("writer is closed");
-    }
-    if (format == null) {
-      writeHeader(block.format());
-      format = block.format();
-    } else if (!format.equals(block.format())) {
-      throw new IllegalStateException(
-          "format mismatch: expected " + format + " but block was " + block.format());
+    int frames = block.frames();
+    int channels = block.channels();
+    writeRecordHeader(block.format(), frames, block.frameIndex(), block.timestampNanos());
+    for (int ch = 0; ch < channels; ch++) {
+      SampleSlice view = block.channelView(ch, 0, frames);
+      float[] samples = view.array();
+      int offset = view.offset();
+      for (int i = 0; i < frames; i++) {
+        out.writeFloat(samples[offset + i]);
+      }
     }
+    blocksWritten++;
+  }
+
+  /**
+   * Append one off-heap block to the recording, streaming the samples straight from its direct
+   * storage without materializing a heap copy. The first call writes the file header.
+   *
+   * @param block block to write; must not be {@code null}
+   * @throws IOException if the underlying stream fails
+   * @throws IllegalStateException if the block's format differs from a previously written block
+   */
+  public void write(OffHeapAudioBlock block) throws IOException {
+    Objects.requireNonNull(block, "block");
     int frames = block.frames();
     int channels = block.channels();
-    out.writeInt(frames);
-    out.writeLong(block.frameIndex());
-    out.writeLong(block.timestampNanos());
+    writeRecordHeader(block.format(), frames, block.frameIndex(), block.timestampNanos());
     for (int ch = 0; ch < channels; ch++) {
-      float[] samples = block.channelView(ch);
+      FloatBuffer samples = block.channelBuffer(ch);
       for (int i = 0; i < frames; i++) {
-        out.writeFloat(samples[i]);
+        out.writeFloat(samples.get(i));
       }
     }
     blocksWritten++;
   }
 
+  private void writeRecordHeader(
+      AudioFormatDescriptor blockFormat, int frames, long frameIndex, long timestampNanos)
+      throws IOException {
+    if (closed) {
+      throw new IllegalStateException("writer is closed");
+    }
+    if (format == null) {
+      writeHeader(blockFormat);
+      format = blockFormat;
+    } else if (!format.equals(blockFormat)) {
+      throw new IllegalStateException(
+          "format mismatch: expected " + format + " but block was " + blockFormat);
+    }
+    out.writeInt(frames);
+    out.writeLong(frameIndex);
+    out.writeLong(timestampNanos);
+  }
+
   private void writeHeader(AudioFormatDescriptor fmt) throws IOException {
     out.writeInt(AudioBlockRecordingFormat.MAGIC);
     out.writeShort(AudioBlockRecordingFormat.VERSION);
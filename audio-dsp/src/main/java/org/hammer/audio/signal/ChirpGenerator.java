@@ -1,6 +1,7 @@
 package org.hammer.audio.signal;
 
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
 import org.hammer.audio.core.AudioFormatDescriptor;
 
 /**
@@ -24,6 +25,7 @@ public final class ChirpGenerator implements SignalGenerator {
   private double timeSeconds;
   private double phase;
   private long frameIndex;
+  private AudioBlockPool blockPool;
 
   /**
    * @param format output format descriptor
@@ -64,6 +66,22 @@ public final class ChirpGenerator implements SignalGenerator {
     this.looping = looping;
   }
 
+  /**
+   * Draw block storage from {@code pool} instead of allocating it per call. Blocks returned by
+   * {@link #nextBlock(int)} are then pooled and should be {@link AudioBlock#release() released} by
+   * their last consumer.
+   *
+   * @param pool pool whose format equals {@link #format()}, or {@code null} to allocate per block
+   * @throws IllegalArgumentException if the pool format differs from the generator format
+   */
+  public void setBlockPool(AudioBlockPool pool) {
+    if (pool != null && !format.equals(pool.format())) {
+      throw new IllegalArgumentException(
+          "pool format " + pool.format() + " does not match generator format " + format);
+    }
+    this.blockPool = pool;
+  }
+
   @Override
   public AudioFormatDescriptor format() {
     return format;
@@ -75,7 +93,8 @@ public final class ChirpGenerator implements SignalGenerator {
       throw new IllegalArgumentException("frames must be >= 1");
     }
     int channels = format.channels();
-    float[][] samples = new float[channels][frames];
+    AudioBlockPool pool = blockPool;
+    float[][] samples = pool != null ? pool.acquireSamples(frames) : new float[channels][frames];
     double dt = 1.0 / sampleRate;
     double t = timeSeconds;
     double p = phase;
@@ -94,7 +113,10 @@ public final class ChirpGenerator implements SignalGenerator {
     timeSeconds = t;
     phase = p % (2.0 * Math.PI);
     frameIndex += frames;
-    return AudioBlock.wrap(format, samples, index, System.nanoTime());
+    long timestamp = System.nanoTime();
+    return pool != null
+        ? pool.wrap(samples, index, timestamp)
+        : AudioBlock.wrap(format, samples, index, timestamp);
   }
 
   @Override
@@ -1,6 +1,7 @@
 package org.hammer.audio.signal;
 
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
 import org.hammer.audio.core.AudioFormatDescriptor;
 
 /**
@@ -23,6 +24,7 @@ public final class SineGenerator implements SignalGenerator {
   private final double phaseStep;
   private double phase;
   private long frameIndex;
+  private AudioBlockPool blockPool;
 
   /**
    * Create a new sine generator.
@@ -43,6 +45,22 @@ public final class SineGenerator implements SignalGenerator {
     this.frameIndex = 0L;
   }
 
+  /**
+   * Draw block storage from {@code pool} instead of allocating it per call. Blocks returned by
+   * {@link #nextBlock(int)} are then pooled and should be {@link AudioBlock#release() released} by
+   * their last consumer.
+   *
+   * @param pool pool whose format equals {@link #format()}, or {@code null} to allocate per block
+   * @throws IllegalArgumentException if the pool format differs from the generator format
+   */
+  public void setBlockPool(AudioBlockPool pool) {
+    if (pool != null && !format.equals(pool.format())) {
+      throw new IllegalArgumentException(
+          "pool format " + pool.format() + " does not match generator format " + format);
+    }
+    this.blockPool = pool;
+  }
+
   @Override
   public AudioFormatDescriptor format() {
     return format;
@@ -54,7 +72,8 @@ public final class SineGenerator implements SignalGenerator {
       throw new IllegalArgumentException("frames must be >= 1");
     }
     int channels = format.channels();
-    float[][] samples = new float[channels][frames];
+    AudioBlockPool pool = blockPool;
+    float[][] samples = pool != null ? pool.acquireSamples(frames) : new float[channels][frames];
     double p = phase;
     for (int i = 0; i < frames; i++) {
       float v = (float) (Math.sin(p) * amplitude);
@@ -68,7 +87,10 @@ public final class SineGenerator implements SignalGenerator {
     long index = frameIndex;
     phase = p;
     frameIndex += frames;
-    return AudioBlock.wrap(format, samples, index, System.nanoTime());
+    long timestamp = System.nanoTime();
+    return pool != null
+        ? pool.wrap(samples, index, timestamp)
+        : AudioBlock.wrap(format, samples, index, timestamp);
   }
 
   @Override
@@ -113,4 +113,24 @@ class FftTest {
     Fft fft = new Fft(8);
     assertThrows(IllegalArgumentException.class, () -> fft.forward(new float[7], new float[8]));
   }
+
+  @Test
+  void inverse_restores_the_forward_input() {
+    int n = 64;
+    Fft fft = new Fft(n);
+    float[] signal = new float[n];
+    for (int i = 0; i < n; i++) {
+      signal[i] = (float) (Math.sin(0.3 * i) + 0.25 * Math.cos(1.7 * i));
+    }
+    float[] re = signal.clone();
+    float[] im = new float[n];
+
+    fft.forward(re, im);
+    fft.inverse(re, im);
+
+    for (int i = 0; i < n; i++) {
+      assertEquals(signal[i], re[i], TOLERANCE, "re " + i);
+      assertEquals(0f, im[i], TOLERANCE, "im " + i);
+    }
+  }
 }
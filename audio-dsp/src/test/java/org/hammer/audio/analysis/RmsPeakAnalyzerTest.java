@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.core.Pcm16AudioBlock;
 import org.hammer.audio.signal.SineGenerator;
 import org.junit.jupiter.api.Test;
 
@@ -57,4 +58,39 @@ class RmsPeakAnalyzerTest {
     rms1[0] = 99f;
     assertNotEquals(99f, snap.rms()[0]);
   }
+
+  @Test
+  void contiguous_and_sliced_blocks_match_per_channel_layout() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 2, 16);
+    float[] data = {0f, 0.5f, -1f, 0.25f, 0f, 0f, 0.2f, -0.2f, 0.1f, 0f};
+    AudioBlock contiguous = AudioBlock.wrapContiguous(fmt, data, 5, 4, 0L, 0L);
+    AudioBlock perChannel = AudioBlock.wrap(fmt, contiguous.samples(), 0L, 0L);
+
+    RmsPeakAnalyzer analyzer = new RmsPeakAnalyzer();
+    RmsPeakSnapshot a = analyzer.analyze(contiguous);
+    RmsPeakSnapshot b = analyzer.analyze(perChannel);
+    for (int c = 0; c < 2; c++) {
+      assertEquals(b.rms(c), a.rms(c), 1e-7f);
+      assertEquals(b.peak(c), a.peak(c), 1e-7f);
+    }
+
+    RmsPeakSnapshot window = analyzer.analyze(contiguous.slice(1, 2));
+    assertEquals(1f, window.peak(0), 1e-7f);
+    assertEquals(0.2f, window.peak(1), 1e-7f);
+  }
+
+  @Test
+  void pcm16_blocks_match_decoded_float_analysis() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 2, 16);
+    SineGenerator gen = new SineGenerator(fmt, 440.0, 0.5f);
+    Pcm16AudioBlock compact = Pcm16AudioBlock.copyOf(gen.nextBlock(4096));
+    RmsPeakAnalyzer analyzer = new RmsPeakAnalyzer();
+
+    RmsPeakSnapshot direct = analyzer.analyze(compact);
+    RmsPeakSnapshot decoded = analyzer.analyze(compact.toAudioBlock());
+    for (int c = 0; c < 2; c++) {
+      assertEquals(decoded.rms(c), direct.rms(c), 1e-6f);
+      assertEquals(decoded.peak(c), direct.peak(c), 0f);
+    }
+  }
 }
@@ -2,6 +2,8 @@ package org.hammer.audio.capture;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.hammer.audio.core.AudioFormatDescriptor;
 import org.junit.jupiter.api.Test;
 
@@ -21,6 +23,24 @@ class SampleDecoderTest {
     assertEquals(0f, out[0][2], 1e-6);
   }
 
+  @Test
+  void decode_padded_overwrites_stale_storage_and_zero_fills_the_tail() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 2, 8);
+    SampleDecoder dec = new SampleDecoder(fmt, true, false);
+    byte[] data = new byte[] {10, 20, -10, -20, 30, 40};
+    float[][] out = {{9f, 9f, 9f, 9f, 9f}, {9f, 9f, 9f, 9f, 9f}};
+
+    // Two of the three available frames fit; the rest of the four-frame block is padding.
+    assertEquals(2, dec.decodePadded(data, 4, out, 4));
+    assertArrayEquals(new float[] {10f / 127f, -10f / 127f, 0f, 0f, 9f}, out[0], 1e-6f);
+    assertArrayEquals(new float[] {20f / 127f, -20f / 127f, 0f, 0f, 9f}, out[1], 1e-6f);
+
+    // More bytes than frames: decoding stops at the block size.
+    assertEquals(2, dec.decodePadded(data, data.length, out, 2));
+    assertEquals(-10f / 127f, out[0][1], 1e-6f);
+    assertEquals(0f, out[0][2]);
+  }
+
   @Test
   void decodes_unsigned_8bit() {
     AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 1, 8);
@@ -58,4 +78,160 @@ class SampleDecoderTest {
     assertEquals(10, dec.framesIn(40));
     assertEquals(10, dec.framesIn(43)); // floor
   }
+
+  @Test
+  void decodes_signed_24bit_both_byte_orders() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 1, 24);
+    // 8388607 (0x7FFFFF) -> 1.0, -8388608 (0x800000) -> just below -1.0, -2 (0xFFFFFE)
+    byte[] le = {
+      (byte) 0xFF, (byte) 0xFF, 0x7F, 0, 0, (byte) 0x80, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF
+    };
+    byte[] be = {
+      0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0x80, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFE
+    };
+    for (boolean bigEndian : new boolean[] {false, true}) {
+      SampleDecoder dec = new SampleDecoder(fmt, true, bigEndian);
+      float[][] out = new float[1][3];
+      assertEquals(3, dec.decode(bigEndian ? be : le, 9, out));
+      assertEquals(1f, out[0][0], 1e-7);
+      assertEquals(-8388608f / 8388607f, out[0][1], 1e-7);
+      assertEquals(-2f / 8388607f, out[0][2], 1e-9);
+    }
+  }
+
+  @Test
+  void decodes_24bit_multichannel_interleaving() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 3, 24);
+    SampleDecoder dec = new SampleDecoder(fmt, true, false);
+    assertEquals(9, dec.frameSize());
+    // frame 0: 1, 2, 3; frame 1: -1, -2, -3
+    byte[] data = {
+      1,
+      0,
+      0,
+      2,
+      0,
+      0,
+      3,
+      0,
+      0,
+      (byte) 0xFF,
+      (byte) 0xFF,
+      (byte) 0xFF,
+      (byte) 0xFE,
+      (byte) 0xFF,
+      (byte) 0xFF,
+      (byte) 0xFD,
+      (byte) 0xFF,
+      (byte) 0xFF
+    };
+    float[][] out = new float[3][2];
+    assertEquals(2, dec.decode(data, data.length, out));
+    float step = 1f / 8388607f;
+    for (int ch = 0; ch < 3; ch++) {
+      assertEquals((ch + 1) * step, out[ch][0], 1e-12);
+      assertEquals(-(ch + 1) * step, out[ch][1], 1e-12);
+    }
+  }
+
+  @Test
+  void decodes_unsigned_16bit_big_endian() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 1, 16);
+    SampleDecoder dec = new SampleDecoder(fmt, false, true);
+    byte[] data = {0, 0, (byte) 0xFF, (byte) 0xFF, 0x7F, (byte) 0xFF};
+    float[][] out = new float[1][3];
+    dec.decode(data, 6, out);
+    assertEquals(-1f, out[0][0], 1e-4);
+    assertEquals(1f, out[0][1], 1e-4);
+    assertEquals(0f, out[0][2], 1e-4);
+  }
+
+  @Test
+  void decodes_signed_and_unsigned_32bit() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 1, 32);
+    byte[] le = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0, 0, 0, (byte) 0xC0};
+    float[][] out = new float[1][2];
+    new SampleDecoder(fmt, true, false).decode(le, 8, out);
+    assertEquals(1f, out[0][0], 1e-6);
+    assertEquals(-0.5f, out[0][1], 1e-6);
+
+    byte[] unsignedBe = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0, 0};
+    new SampleDecoder(fmt, false, true).decode(unsignedBe, 8, out);
+    assertEquals(1f, out[0][0], 1e-6);
+    assertEquals(-1f, out[0][1], 1e-6);
+  }
+
+  @Test
+  void decodes_float32_both_byte_orders() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 2, 32);
+    float[] samples = {0.25f, -0.5f, 1.5f, -0.125f};
+    for (ByteOrder order : new ByteOrder[] {ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+      ByteBuffer buf = ByteBuffer.allocate(16).order(order);
+      for (float s : samples) {
+        buf.putFloat(s);
+      }
+      SampleDecoder dec = SampleDecoder.float32(fmt, order == ByteOrder.BIG_ENDIAN);
+      assertTrue(dec.isFloat());
+      float[][] out = new float[2][2];
+      assertEquals(2, dec.decode(buf.array(), 16, out));
+      assertArrayEquals(new float[] {0.25f, 1.5f}, out[0]);
+      assertArrayEquals(new float[] {-0.5f, -0.125f}, out[1]);
+    }
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SampleDecoder.float32(new AudioFormatDescriptor(48000f, 1, 16), false));
+  }
+
+  @Test
+  void generic_sizes_honour_byte_order() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 1, 12);
+    // -2048 (0x800) and 2047 (0x7FF), right-justified in two bytes
+    byte[] le = {0x00, 0x08, (byte) 0xFF, 0x07};
+    byte[] be = {0x08, 0x00, 0x07, (byte) 0xFF};
+    float[][] out = new float[1][2];
+    new SampleDecoder(fmt, true, false).decode(le, 4, out);
+    assertEquals(-2048f / 2047f, out[0][0], 1e-6);
+    assertEquals(1f, out[0][1], 1e-6);
+    new SampleDecoder(fmt, true, true).decode(be, 4, out);
+    assertEquals(-2048f / 2047f, out[0][0], 1e-6);
+    assertEquals(1f, out[0][1], 1e-6);
+  }
+
+  @Test
+  void channel_map_keeps_selected_channels_in_map_order() {
+    AudioFormatDescriptor fmt = new AudioFormatDescriptor(48000f, 4, 16);
+    ByteBuffer bytes = ByteBuffer.allocate(2 * 4 * 2).order(ByteOrder.LITTLE_ENDIAN);
+    for (int frame = 0; frame < 2; frame++) {
+      for (int ch = 0; ch < 4; ch++) {
+        bytes.putShort((short) (1000 * (ch + 1) + frame));
+      }
+    }
+    SampleDecoder dec = new SampleDecoder(fmt, true, false).withChannelMap(3, 1);
+
+    assertEquals(2, dec.descriptor().channels());
+    assertEquals(4, dec.sourceChannelCount());
+    assertEquals(8, dec.frameSize());
+    assertArrayEquals(new int[] {3, 1}, dec.channelMap());
+    float[][] out = new float[2][3];
+    assertEquals(2, dec.decodePadded(bytes.array(), 16, out, 3));
+    float scale = 1f / 32767f;
+    assertArrayEquals(new float[] {4000 * scale, 4001 * scale, 0f}, out[0], 1e-7f);
+    assertArrayEquals(new float[] {2000 * scale, 2001 * scale, 0f}, out[1], 1e-7f);
+  }
+
+  @Test
+  void channel_map_rejects_empty_and_out_of_range_selections() {
+    SampleDecoder dec = new SampleDecoder(new AudioFormatDescriptor(48000f, 2, 16), true, false);
+    assertArrayEquals(new int[] {0, 1}, dec.channelMap());
+    assertThrows(IllegalArgumentException.class, () -> dec.withChannelMap());
+    assertThrows(IllegalArgumentException.class, () -> dec.withChannelMap(0, 2));
+    assertThrows(IllegalArgumentException.class, () -> dec.withChannelMap(-1));
+  }
+
+  @Test
+  void rejects_samples_wider_than_32_bits() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new SampleDecoder(new AudioFormatDescriptor(48000f, 1, 64), true, false));
+  }
 }
@@ -0,0 +1,121 @@
+package org.hammer.audio.dsp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.junit.jupiter.api.Test;
+
+class BiquadFilterBankTest {
+
+  private static final float RATE = 48000f;
+  private static final AudioFormatDescriptor MONO = new AudioFormatDescriptor(RATE, 1, 16);
+
+  private static float[] sine(double hz, int frames) {
+    float[] s = new float[frames];
+    for (int i = 0; i < frames; i++) {
+      s[i] = (float) Math.sin(2 * Math.PI * hz * i / RATE);
+    }
+    return s;
+  }
+
+  private static float[] filter(BiquadFilterBank bank, float[] samples) {
+    AudioBlock block = AudioBlock.wrap(MONO, new float[][] {samples.clone()}, 0L, 0L);
+    return bank.process(block).channelView(0);
+  }
+
+  /** Peak amplitude over the second half, after the filter has settled. */
+  private static double settledPeak(float[] samples) {
+    double peak = 0;
+    for (int i = samples.length / 2; i < samples.length; i++) {
+      peak = Math.max(peak, Math.abs(samples[i]));
+    }
+    return peak;
+  }
+
+  @Test
+  void notch_removes_mains_hum_and_passes_other_frequencies() {
+    BiquadCoefficients notch = BiquadCoefficients.notch(RATE, 50, 10);
+    assertTrue(settledPeak(filter(new BiquadFilterBank(1, notch), sine(50, 96000))) < 0.01);
+    assertEquals(1.0, settledPeak(filter(new BiquadFilterBank(1, notch), sine(1000, 9600))), 0.01);
+  }
+
+  @Test
+  void high_pass_removes_dc_and_low_pass_attenuates_above_cutoff() {
+    float[] dc = new float[48000];
+    Arrays.fill(dc, 0.5f);
+    BiquadCoefficients highPass =
+        BiquadCoefficients.highPass(RATE, 20, BiquadCoefficients.BUTTERWORTH_Q);
+    assertTrue(settledPeak(filter(new BiquadFilterBank(1, highPass), dc)) < 1e-4);
+
+    BiquadCoefficients lowPass =
+        BiquadCoefficients.lowPass(RATE, 1000, BiquadCoefficients.BUTTERWORTH_Q);
+    double atCutoff = settledPeak(filter(new BiquadFilterBank(1, lowPass), sine(1000, 9600)));
+    assertEquals(Math.sqrt(0.5), atCutoff, 0.01);
+    assertTrue(settledPeak(filter(new BiquadFilterBank(1, lowPass), sine(8000, 9600))) < 0.02);
+  }
+
+  @Test
+  void cascaded_sections_and_peaking_gain() {
+    BiquadCoefficients boost = BiquadCoefficients.peaking(RATE, 1000, 1, 6);
+    BiquadFilterBank bank = new BiquadFilterBank(1, boost, boost);
+    assertEquals(Math.pow(10, 12 / 20.0), settledPeak(filter(bank, sine(1000, 9600))), 0.05);
+    BiquadFilterBank bandPass = new BiquadFilterBank(1, BiquadCoefficients.bandPass(RATE, 1000, 2));
+    assertEquals(1.0, settledPeak(filter(bandPass, sine(1000, 9600))), 0.01);
+  }
+
+  @Test
+  void state_carries_across_blocks() {
+    float[] input = sine(440, 1024);
+    BiquadCoefficients lowPass = BiquadCoefficients.lowPass(RATE, 500, 0.9);
+    float[] whole = filter(new BiquadFilterBank(1, lowPass), input);
+
+    BiquadFilterBank split = new BiquadFilterBank(1, lowPass);
+    float[] first = filter(split, Arrays.copyOfRange(input, 0, 300));
+    float[] second = filter(split, Arrays.copyOfRange(input, 300, 1024));
+    for (int i = 0; i < 1024; i++) {
+      assertEquals(whole[i], i < 300 ? first[i] : second[i - 300], 1e-6f, "frame " + i);
+    }
+  }
+
+  @Test
+  void coefficient_swap_crossfades_from_old_to_new_filter() {
+    BiquadCoefficients mute = new BiquadCoefficients(0, 0, 0, 0, 0);
+    float[] ones = {1f, 1f, 1f, 1f, 1f, 1f};
+
+    BiquadFilterBank faded = new BiquadFilterBank(1, 4, BiquadCoefficients.IDENTITY);
+    assertArrayEquals(ones, filter(faded, ones));
+    faded.setCoefficients(mute);
+    assertArrayEquals(new float[] {0.75f, 0.5f, 0.25f, 0f, 0f, 0f}, filter(faded, ones), 1e-6f);
+
+    BiquadFilterBank hard = new BiquadFilterBank(1, 0, BiquadCoefficients.IDENTITY);
+    hard.setCoefficients(mute);
+    assertArrayEquals(new float[6], filter(hard, ones));
+  }
+
+  @Test
+  void channels_are_filtered_independently() {
+    AudioFormatDescriptor stereo = new AudioFormatDescriptor(RATE, 2, 16);
+    BiquadFilterBank bank = new BiquadFilterBank(2, BiquadCoefficients.notch(RATE, 50, 10));
+    AudioBlock out =
+        bank.process(
+            AudioBlock.wrap(stereo, new float[][] {sine(50, 96000), sine(1000, 96000)}, 0L, 0L));
+    assertTrue(settledPeak(out.channelView(0)) < 0.01);
+    assertEquals(1.0, settledPeak(out.channelView(1)), 0.01);
+  }
+
+  @Test
+  void rejects_invalid_configuration() {
+    assertThrows(IllegalArgumentException.class, () -> BiquadCoefficients.lowPass(RATE, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> BiquadCoefficients.lowPass(RATE, 24000, 1));
+    assertThrows(IllegalArgumentException.class, () -> BiquadCoefficients.notch(RATE, 50, 0));
+    assertThrows(
+        IllegalArgumentException.class, () -> new BiquadFilterBank(0, BiquadCoefficients.IDENTITY));
+    assertThrows(IllegalArgumentException.class, () -> new BiquadFilterBank(1));
+    BiquadFilterBank bank = new BiquadFilterBank(1, BiquadCoefficients.IDENTITY);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> bank.setCoefficients(BiquadCoefficients.IDENTITY, BiquadCoefficients.IDENTITY));
+  }
+}
@@ -2,6 +2,12 @@ package org.hammer.audio.dsp;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
 import org.junit.jupiter.api.Test;
@@ -77,4 +83,168 @@ class DSPPipelineTest {
     assertEquals(2, pipeline.size());
     assertEquals(2, pipeline.stages().size());
   }
+
+  private static InPlaceProcessor scaleBy(float factor, List<MutableAudioBuffer> seen) {
+    return buffer -> {
+      seen.add(buffer);
+      for (int c = 0; c < buffer.channels(); c++) {
+        float[] s = buffer.channel(c);
+        for (int i = 0; i < buffer.frames(); i++) {
+          s[i] *= factor;
+        }
+      }
+    };
+  }
+
+  @Test
+  void consecutive_in_place_stages_share_one_working_buffer() {
+    List<MutableAudioBuffer> seen = new ArrayList<>();
+    DSPPipeline pipeline =
+        DSPPipeline.of(scaleBy(2f, seen), scaleBy(3f, seen), scaleBy(0.5f, seen));
+    AudioBlock input = AudioBlock.wrap(MONO, new float[][] {{1f, 2f, 3f}}, 42L, 7L);
+
+    AudioBlock result = pipeline.process(input);
+
+    assertArrayEquals(new float[] {3f, 6f, 9f}, result.channelView(0));
+    assertArrayEquals(new float[] {1f, 2f, 3f}, input.channelView(0), "input must not change");
+    assertEquals(42L, result.frameIndex());
+    assertEquals(7L, result.timestampNanos());
+    assertEquals(3, seen.size());
+    assertSame(seen.get(0), seen.get(1));
+    assertSame(seen.get(0), seen.get(2));
+  }
+
+  @Test
+  void plain_stage_ends_an_in_place_run() {
+    List<MutableAudioBuffer> seen = new ArrayList<>();
+    DSPProcessor addOne =
+        block -> {
+          float[] s = block.channelView(0);
+          float[] out = new float[s.length];
+          for (int i = 0; i < s.length; i++) {
+            out[i] = s[i] + 1f;
+          }
+          return AudioBlock.wrap(
+              block.format(), new float[][] {out}, block.frameIndex(), block.timestampNanos());
+        };
+    DSPPipeline pipeline = DSPPipeline.of(scaleBy(2f, seen), addOne, scaleBy(2f, seen));
+
+    AudioBlock result = pipeline.process(blockOf(1f, 2f));
+
+    assertArrayEquals(new float[] {6f, 10f}, result.channelView(0));
+    assertEquals(2, seen.size());
+    assertNotSame(seen.get(0), seen.get(1));
+  }
+
+  @Test
+  void in_place_processor_works_standalone() {
+    InPlaceProcessor negate =
+        buffer -> {
+          float[] s = buffer.channel(0);
+          for (int i = 0; i < buffer.frames(); i++) {
+            s[i] = -s[i];
+          }
+        };
+    AudioBlock input = blockOf(1f, -2f);
+    AudioBlock result = negate.process(input);
+    assertArrayEquals(new float[] {-1f, 2f}, result.channelView(0));
+    assertArrayEquals(new float[] {1f, -2f}, input.channelView(0));
+  }
+
+  @Test
+  void mutable_buffer_copies_contiguous_blocks_and_seals() {
+    AudioFormatDescriptor stereo = new AudioFormatDescriptor(48000f, 2, 16);
+    AudioBlock contiguous =
+        AudioBlock.wrapContiguous(stereo, new float[] {1f, 2f, 9f, 3f, 4f, 9f}, 3, 2, 0L, 0L);
+    MutableAudioBuffer buffer = MutableAudioBuffer.copyOf(contiguous);
+    assertEquals(2, buffer.frames());
+    assertArrayEquals(new float[] {3f, 4f}, buffer.channel(1));
+
+    AudioBlock block = buffer.toBlock();
+    assertArrayEquals(new float[] {1f, 2f}, block.channelView(0));
+    assertThrows(IllegalStateException.class, () -> buffer.channel(0));
+    assertThrows(IllegalStateException.class, buffer::toBlock);
+  }
+
+  private static AudioBlock multichannel(int channels, int frames) {
+    float[][] samples = new float[channels][frames];
+    for (int c = 0; c < channels; c++) {
+      for (int i = 0; i < frames; i++) {
+        samples[c][i] = c + i * 0.001f;
+      }
+    }
+    return AudioBlock.wrap(new AudioFormatDescriptor(48000f, channels, 16), samples, 1024L, 0L);
+  }
+
+  @Test
+  void channel_parallel_pipeline_matches_sequential_result() {
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    ChannelProcessor square =
+        (buffer, channel) -> {
+          threads.add(Thread.currentThread());
+          float[] s = buffer.channel(channel);
+          for (int i = 0; i < buffer.frames(); i++) {
+            s[i] *= s[i];
+          }
+        };
+    ChannelProcessor offset =
+        (buffer, channel) -> {
+          float[] s = buffer.channel(channel);
+          for (int i = 0; i < buffer.frames(); i++) {
+            s[i] += channel;
+          }
+        };
+    InPlaceProcessor swapFirstTwo =
+        buffer -> {
+          float[] a = buffer.channel(0);
+          float[] b = buffer.channel(1);
+          for (int i = 0; i < buffer.frames(); i++) {
+            float t = a[i];
+            a[i] = b[i];
+            b[i] = t;
+          }
+        };
+    DSPPipeline sequential = DSPPipeline.of(square, offset, swapFirstTwo, offset);
+    AudioBlock input = multichannel(32, 512);
+    AudioBlock expected = sequential.process(input);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      DSPPipeline parallel = sequential.withChannelParallelism(pool, 1);
+      assertTrue(parallel.isChannelParallel());
+      threads.clear();
+      AudioBlock actual = parallel.process(input);
+      for (int c = 0; c < 32; c++) {
+        assertArrayEquals(expected.channelView(c), actual.channelView(c), "channel " + c);
+      }
+      assertEquals(1024L, actual.frameIndex());
+      assertTrue(threads.stream().anyMatch(t -> t instanceof ForkJoinWorkerThread));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void channel_parallel_pipeline_keeps_small_blocks_on_calling_thread() {
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    ChannelProcessor record = (buffer, channel) -> threads.add(Thread.currentThread());
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      DSPPipeline pipeline = DSPPipeline.of(record).withChannelParallelism(pool);
+      pipeline.process(multichannel(4, 256));
+      assertEquals(Set.of(Thread.currentThread()), threads);
+      assertFalse(pipeline.sequential().isChannelParallel());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void channel_parallel_pipeline_rejects_invalid_threshold() {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    assertThrows(
+        IllegalArgumentException.class, () -> DSPPipeline.empty().withChannelParallelism(pool, 0));
+    assertThrows(
+        NullPointerException.class, () -> DSPPipeline.empty().withChannelParallelism(null));
+  }
 }
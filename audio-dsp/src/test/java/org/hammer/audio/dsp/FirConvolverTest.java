@@ -0,0 +1,118 @@
+package org.hammer.audio.dsp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.junit.jupiter.api.Test;
+
+class FirConvolverTest {
+
+  private static final AudioFormatDescriptor MONO = new AudioFormatDescriptor(48000f, 1, 16);
+
+  private static float[] noise(int length, long seed) {
+    Random random = new Random(seed);
+    float[] out = new float[length];
+    for (int i = 0; i < length; i++) {
+      out[i] = random.nextFloat() * 2f - 1f;
+    }
+    return out;
+  }
+
+  /** Reference linear convolution, truncated to the input length. */
+  private static float[] convolve(float[] input, float[] kernel) {
+    float[] out = new float[input.length];
+    for (int n = 0; n < input.length; n++) {
+      double acc = 0;
+      for (int k = 0; k < kernel.length && k <= n; k++) {
+        acc += kernel[k] * input[n - k];
+      }
+      out[n] = (float) acc;
+    }
+    return out;
+  }
+
+  /** Feed {@code input} through {@code convolver} in blocks of the given sizes, cycling. */
+  private static float[] stream(FirConvolver convolver, float[] input, int... blockSizes) {
+    float[] out = new float[input.length];
+    for (int pos = 0, b = 0; pos < input.length; b++) {
+      int frames = Math.min(blockSizes[b % blockSizes.length], input.length - pos);
+      float[] chunk = Arrays.copyOfRange(input, pos, pos + frames);
+      AudioBlock block = AudioBlock.wrap(MONO, new float[][] {chunk}, pos, 0L);
+      convolver.process(block).channelView(0, 0, frames).copyTo(out, pos);
+      pos += frames;
+    }
+    return out;
+  }
+
+  private static void assertDelayedConvolution(
+      float[] expected, float[] actual, int latency, float tolerance) {
+    for (int n = 0; n < actual.length; n++) {
+      float want = n < latency ? 0f : expected[n - latency];
+      assertEquals(want, actual[n], tolerance, "frame " + n);
+    }
+  }
+
+  @Test
+  void short_kernels_use_direct_form_without_latency() {
+    float[] kernel = noise(33, 1);
+    float[] input = noise(1000, 2);
+    FirConvolver convolver = new FirConvolver(1, kernel);
+    assertTrue(convolver.isDirectForm());
+    assertEquals(0, convolver.latencyFrames());
+    assertDelayedConvolution(convolve(input, kernel), stream(convolver, input, 100, 7), 0, 1e-5f);
+  }
+
+  @Test
+  void long_kernels_match_direct_convolution_delayed_by_one_partition() {
+    float[] kernel = noise(1500, 3);
+    float[] input = noise(6000, 4);
+    FirConvolver convolver = new FirConvolver(1, kernel, 128);
+    assertFalse(convolver.isDirectForm());
+    assertEquals(128, convolver.latencyFrames());
+    assertDelayedConvolution(convolve(input, kernel), stream(convolver, input, 128), 128, 2e-3f);
+  }
+
+  @Test
+  void partitioned_output_does_not_depend_on_block_sizes() {
+    float[] kernel = noise(700, 5);
+    float[] input = noise(3000, 6);
+    float[] aligned = stream(new FirConvolver(1, kernel, 64), input, 64);
+    float[] ragged = stream(new FirConvolver(1, kernel, 64), input, 13, 200, 1, 64);
+    assertArrayEquals(aligned, ragged, 1e-6f);
+  }
+
+  @Test
+  void channels_keep_independent_state() {
+    AudioFormatDescriptor stereo = new AudioFormatDescriptor(48000f, 2, 16);
+    float[] kernel = noise(300, 7);
+    float[] left = noise(1024, 8);
+    float[] right = noise(1024, 9);
+    FirConvolver convolver = new FirConvolver(2, kernel, 256);
+    AudioBlock out =
+        convolver.process(AudioBlock.wrap(stereo, new float[][] {left, right}, 0L, 0L));
+    assertDelayedConvolution(convolve(left, kernel), out.channelView(0), 256, 2e-3f);
+    assertDelayedConvolution(convolve(right, kernel), out.channelView(1), 256, 2e-3f);
+  }
+
+  @Test
+  void reset_clears_history() {
+    float[] kernel = noise(200, 10);
+    FirConvolver convolver = new FirConvolver(1, kernel, 32);
+    float[] input = noise(512, 11);
+    float[] first = stream(convolver, input, 512);
+    convolver.reset();
+    assertArrayEquals(first, stream(convolver, input, 512), 0f);
+  }
+
+  @Test
+  void rejects_invalid_configuration() {
+    float[] kernel = new float[128];
+    assertThrows(IllegalArgumentException.class, () -> new FirConvolver(1, new float[0]));
+    assertThrows(IllegalArgumentException.class, () -> new FirConvolver(0, kernel));
+    assertThrows(IllegalArgumentException.class, () -> new FirConvolver(1, kernel, 100));
+    assertThrows(NullPointerException.class, () -> new FirConvolver(1, null));
+  }
+}
@@ -0,0 +1,179 @@
+package org.hammer.audio.dsp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.junit.jupiter.api.Test;
+
+class StagedDSPPipelineTest {
+
+  private static final AudioFormatDescriptor MONO = new AudioFormatDescriptor(48000f, 1, 16);
+  private static final int FRAMES = 4;
+
+  private static AudioBlock block(long index) {
+    return AudioBlock.wrap(MONO, new float[][] {{index, index, index, index}}, index * FRAMES, 0L);
+  }
+
+  private static InPlaceProcessor add(float value) {
+    return buffer -> {
+      float[] s = buffer.channel(0);
+      for (int i = 0; i < buffer.frames(); i++) {
+        s[i] += value;
+      }
+    };
+  }
+
+  private static AudioBlock takeWithin(StagedDSPPipeline staged, long millis)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    AudioBlock out;
+    while ((out = staged.poll()) == null && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    return out;
+  }
+
+  @Test
+  void stages_preserve_order_and_frame_index() throws InterruptedException {
+    DSPPipeline pipeline = DSPPipeline.of(add(1f), add(10f), add(100f));
+    try (StagedDSPPipeline staged = pipeline.staged(8)) {
+      staged.start();
+      int produced = 0;
+      for (int consumed = 0; consumed < 500; ) {
+        if (produced < 500 && staged.offer(block(produced))) {
+          produced++;
+        }
+        AudioBlock out = staged.poll();
+        if (out != null) {
+          assertEquals(consumed * (long) FRAMES, out.frameIndex());
+          assertEquals(consumed + 111f, out.channelView(0)[0]);
+          consumed++;
+        }
+      }
+      assertFalse(staged.failure().isPresent());
+      List<StageStats> stats = staged.stats();
+      assertEquals(3, stats.size());
+      for (StageStats s : stats) {
+        assertEquals(500, s.blocks());
+        assertEquals(8, s.queueCapacity());
+        assertTrue(s.maxServiceNanos() >= s.meanServiceNanos());
+      }
+    }
+  }
+
+  @Test
+  void back_pressure_reaches_the_producer() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    DSPProcessor gate =
+        block -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return block;
+        };
+    try (StagedDSPPipeline staged = StagedDSPPipeline.of(2, gate, DSPProcessor.identity())) {
+      staged.start();
+      int accepted = 0;
+      while (accepted < 100 && staged.offer(block(accepted))) {
+        accepted++;
+      }
+      // One block is held by the gate, two wait in front of it.
+      assertTrue(accepted <= 3, "accepted " + accepted);
+      release.countDown();
+      for (int i = 0; i < accepted; i++) {
+        AudioBlock out = takeWithin(staged, 5_000);
+        assertNotNull(out, "block " + i + " not delivered");
+        assertEquals(i * (long) FRAMES, out.frameIndex());
+      }
+    }
+  }
+
+  @Test
+  void failing_stage_stops_the_pipeline() throws InterruptedException {
+    RuntimeException boom = new IllegalStateException("boom");
+    try (StagedDSPPipeline staged =
+        StagedDSPPipeline.of(
+            4,
+            block -> {
+              throw boom;
+            })) {
+      staged.start();
+      assertTrue(staged.offer(block(0)));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (staged.failure().isEmpty() && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      assertSame(boom, staged.failure().orElse(null));
+      assertNull(staged.poll());
+    }
+  }
+
+  private static Thread takeInBackground(StagedDSPPipeline staged, AtomicReference<Throwable> out) {
+    Thread consumer =
+        new Thread(
+            () -> {
+              try {
+                staged.take();
+              } catch (Throwable t) {
+                out.set(t);
+              }
+            });
+    consumer.start();
+    return consumer;
+  }
+
+  @Test
+  void failing_stage_wakes_a_consumer_blocked_in_take() throws InterruptedException {
+    RuntimeException boom = new IllegalStateException("boom");
+    CountDownLatch fail = new CountDownLatch(1);
+    DSPProcessor failing =
+        block -> {
+          try {
+            fail.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          throw boom;
+        };
+    try (StagedDSPPipeline staged = StagedDSPPipeline.of(4, failing)) {
+      staged.start();
+      AtomicReference<Throwable> thrown = new AtomicReference<>();
+      Thread consumer = takeInBackground(staged, thrown);
+      assertTrue(staged.offer(block(0)));
+      Thread.sleep(50);
+      assertTrue(consumer.isAlive(), "take() returned before the stage failed");
+
+      fail.countDown();
+      consumer.join(5_000);
+      assertFalse(consumer.isAlive(), "take() still blocked after the stage failed");
+      assertInstanceOf(IllegalStateException.class, thrown.get());
+      assertSame(boom, thrown.get().getCause());
+    }
+  }
+
+  @Test
+  void close_wakes_a_consumer_blocked_in_take() throws InterruptedException {
+    StagedDSPPipeline staged = StagedDSPPipeline.of(4, DSPProcessor.identity());
+    staged.start();
+    AtomicReference<Throwable> thrown = new AtomicReference<>();
+    Thread consumer = takeInBackground(staged, thrown);
+    Thread.sleep(50);
+    staged.close();
+    consumer.join(5_000);
+    assertFalse(consumer.isAlive(), "take() still blocked after close()");
+    assertInstanceOf(IllegalStateException.class, thrown.get());
+  }
+
+  @Test
+  void rejects_empty_stage_list() {
+    assertThrows(IllegalArgumentException.class, () -> DSPPipeline.empty().staged(4));
+    assertThrows(NullPointerException.class, () -> StagedDSPPipeline.of(4, (DSPProcessor) null));
+  }
+}
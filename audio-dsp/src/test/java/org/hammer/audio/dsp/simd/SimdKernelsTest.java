@@ -0,0 +1,132 @@
+package org.hammer.audio.dsp.simd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SimdKernelsTest {
+
+  /** Lengths around common lane counts, so both the vector body and the scalar tail run. */
+  private static final int[] LENGTHS = {0, 1, 3, 4, 7, 8, 15, 16, 17, 63, 1023, 1024, 1025, 4099};
+
+  private static final int OFFSET = 5;
+
+  private final SampleKernels scalar = SimdKernels.scalar();
+  private final SampleKernels selected = SimdKernels.get();
+
+  @Test
+  void selected_kernels_are_the_vector_ones_when_available() {
+    if (!Boolean.getBoolean(SimdKernels.DISABLE_PROPERTY)) {
+      assertEquals(SimdKernels.vector().orElse(scalar), selected);
+    }
+    assertEquals("scalar", scalar.name());
+  }
+
+  @Test
+  void sum_of_squares_matches_scalar() {
+    for (int length : LENGTHS) {
+      float[] src = random(OFFSET + length, length);
+      double expected = scalar.sumOfSquares(src, OFFSET, length);
+      assertEquals(
+          expected, selected.sumOfSquares(src, OFFSET, length), 1e-5 * expected, "n=" + length);
+    }
+  }
+
+  @Test
+  void abs_max_matches_scalar_exactly() {
+    for (int length : LENGTHS) {
+      float[] src = random(OFFSET + length, length);
+      assertEquals(
+          scalar.absMax(src, OFFSET, length), selected.absMax(src, OFFSET, length), "n=" + length);
+    }
+    assertEquals(0f, selected.absMax(new float[4], 0, 0));
+    assertEquals(0.75f, selected.absMax(new float[] {0.5f, -0.75f, 0.25f}, 0, 3));
+  }
+
+  @Test
+  void abs_max_skips_nan_like_scalar() {
+    float[] src = new float[1025];
+    src[3] = Float.NaN; // vector body
+    src[17] = -0.5f;
+    src[600] = 0.25f;
+    src[1024] = Float.NaN; // scalar tail
+    assertEquals(0.5f, scalar.absMax(src, 0, src.length));
+    assertEquals(0.5f, selected.absMax(src, 0, src.length));
+    assertEquals(0f, selected.absMax(new float[] {Float.NaN, Float.NaN}, 0, 2));
+  }
+
+  @Test
+  void multiply_matches_scalar_exactly_and_may_work_in_place() {
+    for (int length : LENGTHS) {
+      float[] a = random(OFFSET + length, length);
+      float[] b = random(length, length + 1);
+      float[] expected = new float[length + 2];
+      float[] actual = new float[length + 2];
+      scalar.multiply(a, OFFSET, b, 0, expected, 2, length);
+      selected.multiply(a, OFFSET, b, 0, actual, 2, length);
+      assertArrayEquals(expected, actual, "n=" + length);
+
+      selected.multiply(b, 0, b, 0, b, 0, length);
+      for (int i = 0; i < length; i++) {
+        assertTrue(b[i] >= 0f);
+      }
+    }
+  }
+
+  @Test
+  void multiply_accumulate_adds_to_destination() {
+    for (int length : LENGTHS) {
+      float[] a = random(length, length);
+      float[] b = random(length, length + 1);
+      float[] expected = random(length, length + 2);
+      float[] actual = expected.clone();
+      scalar.multiplyAccumulate(a, 0, b, 0, expected, 0, length);
+      selected.multiplyAccumulate(a, 0, b, 0, actual, 0, length);
+      assertArrayEquals(expected, actual, 1e-6f, "n=" + length);
+    }
+  }
+
+  @Test
+  void magnitude_matches_scalar() {
+    for (int length : LENGTHS) {
+      float[] re = random(length, length);
+      float[] im = random(length, length + 1);
+      float[] expected = new float[length];
+      float[] actual = new float[length];
+      scalar.magnitude(re, im, expected, length);
+      selected.magnitude(re, im, actual, length);
+      assertArrayEquals(expected, actual, 1e-6f, "n=" + length);
+    }
+    float[] out = new float[1];
+    selected.magnitude(new float[] {3f}, new float[] {4f}, out, 1);
+    assertEquals(5f, out[0]);
+  }
+
+  @Test
+  void int16_to_float_matches_scalar_exactly() {
+    float scale = 1f / Short.MAX_VALUE;
+    for (int length : LENGTHS) {
+      Random random = new Random(length);
+      short[] src = new short[OFFSET + length];
+      for (int i = 0; i < src.length; i++) {
+        src[i] = (short) random.nextInt();
+      }
+      src[src.length - 1] = Short.MIN_VALUE;
+      float[] expected = new float[length + 3];
+      float[] actual = new float[length + 3];
+      scalar.int16ToFloat(src, OFFSET, expected, 3, length, scale);
+      selected.int16ToFloat(src, OFFSET, actual, 3, length, scale);
+      assertArrayEquals(expected, actual, "n=" + length);
+    }
+  }
+
+  private static float[] random(int size, long seed) {
+    Random random = new Random(seed);
+    float[] data = new float[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = random.nextFloat() * 2f - 1f;
+    }
+    return data;
+  }
+}
@@ -8,6 +8,7 @@ import java.nio.file.Path;
 import java.util.List;
 import org.hammer.audio.core.AudioBlock;
 import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.core.OffHeapAudioBlock;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -45,6 +46,24 @@ class AudioBlockRecordingRoundTripTest {
     assertArrayEquals(new float[] {0.4f, 0.5f}, read.get(1).channelView(0), 1e-6f);
   }
 
+  @Test
+  void offHeapBlocksWriteTheSameRecordsAsHeapBlocks(@TempDir Path dir) throws IOException {
+    AudioBlock heap =
+        new AudioBlock(STEREO_44K, new float[][] {{0.1f, 0.2f}, {-0.1f, -0.2f}}, 4L, 5_000_000L);
+    Path heapFile = dir.resolve("heap.aar");
+    Path offHeapFile = dir.resolve("offheap.aar");
+
+    try (AudioBlockRecordingWriter w = AudioBlockRecordingWriter.open(heapFile)) {
+      w.write(heap);
+    }
+    try (AudioBlockRecordingWriter w = AudioBlockRecordingWriter.open(offHeapFile)) {
+      w.write(OffHeapAudioBlock.copyOf(heap));
+      assertEquals(STEREO_44K, w.format());
+    }
+
+    assertArrayEquals(Files.readAllBytes(heapFile), Files.readAllBytes(offHeapFile));
+  }
+
   @Test
   void readerRejectsBadMagic(@TempDir Path dir) throws IOException {
     Path file = dir.resolve("garbage.aar");
@@ -3,6 +3,7 @@ package org.hammer.audio.signal;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
 import org.hammer.audio.core.AudioFormatDescriptor;
 import org.junit.jupiter.api.Test;
 
@@ -73,6 +74,36 @@ class SignalGeneratorTest {
         "chirp should accelerate (early=" + earlyCrossings + ", late=" + lateCrossings + ")");
   }
 
+  @Test
+  void pooled_sine_matches_unpooled_output_and_recycles_storage() {
+    SineGenerator reference = new SineGenerator(MONO, 440.0, 1f);
+    SineGenerator pooled = new SineGenerator(MONO, 440.0, 1f);
+    AudioBlockPool pool = new AudioBlockPool(MONO, 2);
+    pooled.setBlockPool(pool);
+
+    AudioBlock first = pooled.nextBlock(64);
+    float[] firstStorage = first.channelView(0);
+    assertTrue(first.isPooled());
+    assertArrayEquals(reference.nextBlock(64).channelView(0), firstStorage);
+    first.release();
+
+    AudioBlock second = pooled.nextBlock(64);
+    assertSame(firstStorage, second.channelView(0), "released storage should be reused");
+    assertArrayEquals(reference.nextBlock(64).channelView(0), second.channelView(0));
+    assertEquals(64L, second.frameIndex());
+  }
+
+  @Test
+  void generators_reject_pool_with_other_format() {
+    AudioBlockPool stereoPool = new AudioBlockPool(new AudioFormatDescriptor(48000f, 2, 16), 2);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new SineGenerator(MONO, 440.0, 1f).setBlockPool(stereoPool));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ChirpGenerator(MONO, 100.0, 1000.0, 1.0, 1f).setBlockPool(stereoPool));
+  }
+
   @Test
   void rejects_invalid_frequency() {
     assertThrows(IllegalArgumentException.class, () -> new SineGenerator(MONO, 0.0, 1f));
@@ -3,6 +3,7 @@ package org.hammer.audio.experimental.acoustic;
 import org.hammer.audio.acquisition.Microphone;
 import org.hammer.audio.acquisition.MicrophoneArray;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
 
 /** Normalized cross-correlation TDOA estimator for offline replay and deterministic experiments. */
 public final class CrossCorrelationTdoaEstimator implements TdoaEstimator {
@@ -22,9 +23,9 @@ public final class CrossCorrelationTdoaEstimator implements TdoaEstimator {
       AudioBlock block, MicrophoneArray array, int firstChannel, int secondChannel) {
     Microphone first = array.microphone(firstChannel);
     Microphone second = array.microphone(secondChannel);
-    float[] a = block.channelView(firstChannel);
-    float[] b = block.channelView(secondChannel);
-    int frames = Math.min(a.length, b.length);
+    int frames = block.frames();
+    SampleSlice a = block.channelView(firstChannel, 0, frames);
+    SampleSlice b = block.channelView(secondChannel, 0, frames);
     int maxLag = Math.min(frames - 1, maxPhysicalLag(block, first, second));
     int bestLag = 0;
     double bestCorrelation = 0.0;
@@ -50,16 +51,18 @@ public final class CrossCorrelationTdoaEstimator implements TdoaEstimator {
     return (int) Math.ceil(spacing * block.format().sampleRate() / speedOfSoundMetersPerSecond);
   }
 
-  private static double normalizedCorrelation(float[] a, float[] b, int frames, int lag) {
-    int aStart = Math.max(0, -lag);
-    int bStart = Math.max(0, lag);
+  private static double normalizedCorrelation(SampleSlice a, SampleSlice b, int frames, int lag) {
+    float[] aSamples = a.array();
+    float[] bSamples = b.array();
+    int aStart = a.offset() + Math.max(0, -lag);
+    int bStart = b.offset() + Math.max(0, lag);
     int overlap = frames - Math.abs(lag);
     double sum = 0.0;
     double aEnergy = 0.0;
     double bEnergy = 0.0;
     for (int i = 0; i < overlap; i++) {
-      double av = a[aStart + i];
-      double bv = b[bStart + i];
+      double av = aSamples[aStart + i];
+      double bv = bSamples[bStart + i];
       sum += av * bv;
       aEnergy += av * av;
       bEnergy += bv * bv;
@@ -5,6 +5,7 @@ import java.util.List;
 import org.hammer.audio.acquisition.Microphone;
 import org.hammer.audio.acquisition.MicrophoneArray;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
 import org.hammer.audio.geometry.Vector2;
 
 /** Basic delay-and-sum beamformer over a caller-supplied 2D candidate grid. */
@@ -39,14 +40,27 @@ public final class DelayAndSumBeamformer {
 
   private double scoreCandidate(AudioBlock block, MicrophoneArray array, Vector2 candidate) {
     int frames = block.frames();
+    List<Microphone> microphones = array.microphones();
+    int mics = microphones.size();
+    // Resolve per-microphone storage and steering delay once per candidate, not once per frame.
+    float[][] storage = new float[mics][];
+    int[] offsets = new int[mics];
+    int[] delays = new int[mics];
+    for (int m = 0; m < mics; m++) {
+      Microphone mic = microphones.get(m);
+      SampleSlice view = block.channelView(mic.channel(), 0, frames);
+      storage[m] = view.array();
+      offsets[m] = view.offset();
+      delays[m] = delaySamples(block, mic, candidate);
+    }
     double energy = 0.0;
     for (int frame = 0; frame < frames; frame++) {
       double sum = 0.0;
       int contributors = 0;
-      for (Microphone mic : array.microphones()) {
-        int delayedIndex = frame - delaySamples(block, mic, candidate);
+      for (int m = 0; m < mics; m++) {
+        int delayedIndex = frame - delays[m];
         if (delayedIndex >= 0 && delayedIndex < frames) {
-          sum += block.channelView(mic.channel())[delayedIndex];
+          sum += storage[m][offsets[m] + delayedIndex];
           contributors++;
         }
       }
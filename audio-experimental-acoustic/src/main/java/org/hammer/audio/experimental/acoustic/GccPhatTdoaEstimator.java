@@ -4,6 +4,7 @@ import org.hammer.audio.acquisition.Microphone;
 import org.hammer.audio.acquisition.MicrophoneArray;
 import org.hammer.audio.analysis.Fft;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
 
 /**
  * Experimental frequency-domain GCC-PHAT TDOA estimator.
@@ -30,9 +31,9 @@ public final class GccPhatTdoaEstimator implements TdoaEstimator {
       AudioBlock block, MicrophoneArray array, int firstChannel, int secondChannel) {
     Microphone first = array.microphone(firstChannel);
     Microphone second = array.microphone(secondChannel);
-    float[] a = block.channelView(firstChannel);
-    float[] b = block.channelView(secondChannel);
-    int frames = Math.min(a.length, b.length);
+    int frames = block.frames();
+    SampleSlice a = block.channelView(firstChannel, 0, frames);
+    SampleSlice b = block.channelView(secondChannel, 0, frames);
     int maxLag = Math.min(frames - 1, maxPhysicalLag(block, first, second));
     double[] correlation = gccPhatCorrelation(a, b, frames);
     LagScore lagScore = strongestLag(correlation, maxLag);
@@ -52,14 +53,14 @@ public final class GccPhatTdoaEstimator implements TdoaEstimator {
     return (int) Math.ceil(spacing * block.format().sampleRate() / speedOfSoundMetersPerSecond);
   }
 
-  private static double[] gccPhatCorrelation(float[] a, float[] b, int frames) {
+  private static double[] gccPhatCorrelation(SampleSlice a, SampleSlice b, int frames) {
     int fftSize = nextPowerOfTwo(frames * 2);
     float[] aRe = new float[fftSize];
     float[] aIm = new float[fftSize];
     float[] bRe = new float[fftSize];
     float[] bIm = new float[fftSize];
-    System.arraycopy(a, 0, aRe, 0, frames);
-    System.arraycopy(b, 0, bRe, 0, frames);
+    a.copyTo(aRe, 0);
+    b.copyTo(bRe, 0);
 
     Fft fft = new Fft(fftSize);
     fft.forward(aRe, aIm);
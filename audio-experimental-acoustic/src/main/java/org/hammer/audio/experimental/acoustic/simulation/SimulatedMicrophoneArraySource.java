@@ -8,6 +8,7 @@ import org.hammer.audio.acquisition.MicrophoneArray;
 import org.hammer.audio.acquisition.MultiChannelAudioSource;
 import org.hammer.audio.acquisition.SampleClock;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
 import org.hammer.audio.core.AudioFormatDescriptor;
 import org.hammer.audio.geometry.Vector2;
 
@@ -25,6 +26,7 @@ public final class SimulatedMicrophoneArraySource implements MultiChannelAudioSo
   private final Random random;
   private final long totalFrames;
   private long nextFrameIndex;
+  private AudioBlockPool blockPool;
 
   /** Create a deterministic simulation source. */
   public SimulatedMicrophoneArraySource(
@@ -55,6 +57,14 @@ public final class SimulatedMicrophoneArraySource implements MultiChannelAudioSo
     this.totalFrames = Math.round(durationSeconds * sampleRate);
   }
 
+  /** Draw block storage from {@code pool} (or allocate per block when {@code null}). */
+  public void setBlockPool(AudioBlockPool pool) {
+    if (pool != null && !format.equals(pool.format())) {
+      throw new IllegalArgumentException("pool format must match source format " + format);
+    }
+    this.blockPool = pool;
+  }
+
   @Override
   public AudioFormatDescriptor format() {
     return format;
@@ -74,7 +84,9 @@ public final class SimulatedMicrophoneArraySource implements MultiChannelAudioSo
       return Optional.empty();
     }
     int blockFrames = (int) Math.min(frames, totalFrames - nextFrameIndex);
-    float[][] samples = new float[array.channels()][blockFrames];
+    AudioBlockPool pool = blockPool;
+    float[][] samples =
+        pool != null ? pool.acquireSamples(blockFrames) : new float[array.channels()][blockFrames];
     for (int frame = 0; frame < blockFrames; frame++) {
       long absoluteFrame = nextFrameIndex + frame;
       double receiverTime = absoluteFrame / format.sampleRate();
@@ -82,8 +94,11 @@ public final class SimulatedMicrophoneArraySource implements MultiChannelAudioSo
         samples[mic.channel()][frame] = (float) sampleAt(mic.positionMeters(), receiverTime);
       }
     }
+    long timestamp = clock.timestampForFrame(nextFrameIndex);
     AudioBlock block =
-        AudioBlock.wrap(format, samples, nextFrameIndex, clock.timestampForFrame(nextFrameIndex));
+        pool != null
+            ? pool.wrap(samples, nextFrameIndex, timestamp)
+            : AudioBlock.wrap(format, samples, nextFrameIndex, timestamp);
     nextFrameIndex += blockFrames;
     return Optional.of(block);
   }
@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.Objects;
 import org.hammer.audio.analysis.Fft;
 import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.SampleSlice;
+import org.hammer.audio.dsp.simd.SimdKernels;
 import org.hammer.audio.experimental.acoustic.FrequencyBand;
 
 /**
@@ -19,9 +21,10 @@ import org.hammer.audio.experimental.acoustic.FrequencyBand;
  * its three adjacent bins, and rejects peaks whose magnitude is below a configurable signal-to-
  * noise multiple of the band median.
  *
- * <p>The detector is allocation-aware: it reuses internal scratch arrays for the FFT and magnitudes
- * between calls, which makes it safe to use inside a bounded per-frame budget. Each detector
- * instance is single-threaded; create one per processing thread.
+ * <p>The detector is allocation-aware: it reuses internal scratch arrays for the FFT, the
+ * magnitudes and the Hann window of the current block length between calls, which makes it safe to
+ * use inside a bounded per-frame budget. Each detector instance is single-threaded; create one per
+ * processing thread.
  */
 public final class MultiPeakDetector {
 
@@ -34,6 +37,7 @@ public final class MultiPeakDetector {
   private final float[] re;
   private final float[] im;
   private final float[] magnitudes;
+  private float[] window = new float[0];
 
   /**
    * Create a detector with explicit limits.
@@ -70,12 +74,11 @@ public final class MultiPeakDetector {
     if (channel < 0 || channel >= block.channels()) {
       throw new IllegalArgumentException("channel out of range: " + channel);
     }
-    float[] samples = block.channelView(channel);
-    int copied = Math.min(samples.length, fftSize);
-    Arrays.fill(re, 0.0f);
+    int copied = Math.min(block.frames(), fftSize);
+    SampleSlice view = block.channelView(channel, 0, copied);
+    SimdKernels.get().multiply(view.array(), view.offset(), hannWindow(copied), 0, re, 0, copied);
+    Arrays.fill(re, copied, fftSize, 0.0f);
     Arrays.fill(im, 0.0f);
-    System.arraycopy(samples, 0, re, 0, copied);
-    applyHannWindow(re, copied);
     fft.forward(re, im);
     fft.magnitudesOneSided(re, im, magnitudes);
 
@@ -142,14 +145,21 @@ public final class MultiPeakDetector {
     return bin + offset;
   }
 
-  private static void applyHannWindow(float[] samples, int frames) {
-    if (frames <= 1) {
-      return;
-    }
-    double denom = frames - 1.0;
-    for (int i = 0; i < frames; i++) {
-      samples[i] *= (float) (0.5 - 0.5 * Math.cos(2.0 * Math.PI * i / denom));
+  /** Hann window of {@code frames} taps, rebuilt only when the block length changes. */
+  private float[] hannWindow(int frames) {
+    if (window.length != frames) {
+      float[] w = new float[frames];
+      if (frames == 1) {
+        w[0] = 1f;
+      } else {
+        double denom = frames - 1.0;
+        for (int i = 0; i < frames; i++) {
+          w[i] = (float) (0.5 - 0.5 * Math.cos(2.0 * Math.PI * i / denom));
+        }
+      }
+      window = w;
     }
+    return window;
   }
 
   /** Read-only access to the search band for callers wiring downstream stages. */
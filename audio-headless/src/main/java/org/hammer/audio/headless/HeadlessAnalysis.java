@@ -0,0 +1,234 @@
+package org.hammer.audio.headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import org.hammer.audio.analysis.AnalysisModule;
+import org.hammer.audio.analysis.AnalysisSnapshot;
+import org.hammer.audio.analysis.MeasurementCalculator;
+import org.hammer.audio.analysis.MeasurementSnapshot;
+import org.hammer.audio.analysis.RmsPeakAnalyzer;
+import org.hammer.audio.analysis.RmsPeakSnapshot;
+import org.hammer.audio.analysis.SpectrumAnalyzer;
+import org.hammer.audio.analysis.SpectrumSnapshot;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.diagnosis.DiagnosisAnalyzer;
+import org.hammer.audio.diagnosis.DiagnosisFinding;
+import org.hammer.audio.diagnosis.DiagnosisSnapshot;
+import org.hammer.audio.localization.StereoDelayAnalyzer;
+import org.hammer.audio.localization.StereoDelaySnapshot;
+import org.hammer.audio.spectrogram.SpectrogramAnalyzer;
+import org.hammer.audio.spectrogram.SpectrogramHistory;
+
+/**
+ * Analysis stage of the {@link HeadlessRuntime}: runs the configured modules on every block and
+ * writes one JSON object per report interval.
+ *
+ * <p>Each result line holds the stream position of the block that closed the interval, the {@link
+ * MeasurementSnapshot} values, the latest per-channel RMS / peak and stereo delay when those
+ * analyzers run, and the {@link DiagnosisSnapshot} findings. Non-finite numbers are written as
+ * {@code null}.
+ *
+ * <p>Not thread-safe: owned by the analysis thread.
+ *
+ * @author refactoring
+ */
+final class HeadlessAnalysis {
+
+  private static final Logger LOGGER = Logger.getLogger(HeadlessAnalysis.class.getName());
+
+  /** Spectrogram frames kept for the diagnosis rules that look at history. */
+  static final int SPECTROGRAM_HISTORY_FRAMES = 128;
+
+  private final List<AnalysisModule<?>> modules = new ArrayList<>();
+  private final SpectrogramAnalyzer spectrogram;
+  private final MeasurementCalculator measurements = new MeasurementCalculator();
+  private final DiagnosisAnalyzer diagnosis = new DiagnosisAnalyzer();
+  private final Writer out;
+  private final long reportFrames;
+  private final StringBuilder line = new StringBuilder(512);
+
+  private SpectrumSnapshot spectrum;
+  private RmsPeakSnapshot rmsPeak;
+  private StereoDelaySnapshot delay;
+  private AudioBlock pending;
+  private long framesSinceReport;
+  private long linesWritten;
+
+  HeadlessAnalysis(HeadlessConfig config, int channels, float sampleRate, Writer out) {
+    this.out = out;
+    this.reportFrames =
+        Math.max(1L, Math.round(config.reportIntervalMillis() * (double) sampleRate / 1000.0));
+    SpectrogramAnalyzer spectrogramAnalyzer = null;
+    for (HeadlessConfig.Analyzer analyzer : config.analyzers()) {
+      switch (analyzer) {
+        case SPECTRUM -> modules.add(new SpectrumAnalyzer(config.fftSize(), 0, sampleRate));
+        case SPECTROGRAM -> {
+          spectrogramAnalyzer =
+              new SpectrogramAnalyzer(config.fftSize(), 0, sampleRate, SPECTROGRAM_HISTORY_FRAMES);
+          modules.add(spectrogramAnalyzer);
+        }
+        case RMS_PEAK -> modules.add(new RmsPeakAnalyzer());
+        case STEREO_DELAY -> {
+          if (channels >= 2) {
+            modules.add(new StereoDelayAnalyzer());
+          } else {
+            LOGGER.warning("stereo-delay needs two channels; skipped for a mono source");
+          }
+        }
+      }
+    }
+    this.spectrogram = spectrogramAnalyzer;
+  }
+
+  /** Result lines written so far. */
+  long linesWritten() {
+    return linesWritten;
+  }
+
+  /**
+   * Analyze one block and write a result line when it completes a report interval. A block that
+   * leaves the interval open is {@link AudioBlock#retain() retained} until the next call, so {@link
+   * #finish()} can still report it.
+   */
+  void accept(AudioBlock block) throws IOException {
+    for (AnalysisModule<?> module : modules) {
+      remember(module.analyze(block));
+    }
+    if (spectrum == null && spectrogram != null) {
+      spectrum = spectrogram.lastSpectrum();
+    }
+    releasePending();
+    framesSinceReport += block.frames();
+    if (framesSinceReport >= reportFrames) {
+      framesSinceReport -= reportFrames;
+      report(block);
+    } else {
+      pending = block.retain();
+    }
+  }
+
+  /** Write a final line for a partly filled interval, then flush. */
+  void finish() throws IOException {
+    if (pending != null) {
+      report(pending);
+      releasePending();
+    }
+    out.flush();
+  }
+
+  private void releasePending() {
+    if (pending != null) {
+      pending.release();
+      pending = null;
+    }
+  }
+
+  private void remember(AnalysisSnapshot snapshot) {
+    if (snapshot instanceof SpectrumSnapshot s) {
+      spectrum = s;
+    } else if (snapshot instanceof RmsPeakSnapshot s) {
+      rmsPeak = s;
+    } else if (snapshot instanceof StereoDelaySnapshot s) {
+      delay = s;
+    }
+  }
+
+  private void report(AudioBlock block) throws IOException {
+    MeasurementSnapshot m = measurements.calculate(block, spectrum);
+    SpectrogramHistory history = spectrogram == null ? null : spectrogram.history();
+    DiagnosisSnapshot d = diagnosis.analyze(block, spectrum, history, delay);
+    StringBuilder sb = line;
+    sb.setLength(0);
+    sb.append("{\"frameIndex\":").append(block.frameIndex());
+    sb.append(",\"timestampNanos\":").append(block.timestampNanos());
+    sb.append(",\"rms\":");
+    number(sb, m.rms());
+    sb.append(",\"peak\":");
+    number(sb, m.peakLevel());
+    sb.append(",\"clipping\":").append(m.clipping());
+    sb.append(",\"dominantHz\":");
+    number(sb, spectrum == null ? Double.NaN : m.dominantFrequencyHz());
+    if (rmsPeak != null) {
+      sb.append(",\"channelRms\":");
+      numbers(sb, rmsPeak.rms());
+      sb.append(",\"channelPeak\":");
+      numbers(sb, rmsPeak.peak());
+    }
+    if (delay != null && delay.valid()) {
+      sb.append(",\"delayMillis\":");
+      number(sb, delay.delayMillis());
+      sb.append(",\"angleDegrees\":");
+      number(sb, delay.angleDegrees());
+      sb.append(",\"delayConfidence\":");
+      number(sb, delay.confidence());
+    }
+    sb.append(",\"findings\":[");
+    List<DiagnosisFinding> findings = d.findings();
+    for (int i = 0; i < findings.size(); i++) {
+      DiagnosisFinding f = findings.get(i);
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"type\":\"").append(f.type().name());
+      sb.append("\",\"severity\":\"").append(f.severity().name());
+      sb.append("\",\"confidence\":");
+      number(sb, f.confidence());
+      sb.append(",\"frequencyHz\":");
+      number(sb, f.frequencyHz());
+      sb.append(",\"message\":\"");
+      escape(sb, f.message());
+      sb.append("\"}");
+    }
+    sb.append("]}").append('\n');
+    out.append(sb);
+    linesWritten++;
+  }
+
+  private static void number(StringBuilder sb, double value) {
+    if (Double.isFinite(value)) {
+      sb.append(value);
+    } else {
+      sb.append("null");
+    }
+  }
+
+  private static void numbers(StringBuilder sb, float[] values) {
+    sb.append('[');
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      if (Float.isFinite(values[i])) {
+        sb.append(values[i]);
+      } else {
+        sb.append("null");
+      }
+    }
+    sb.append(']');
+  }
+
+  private static void escape(StringBuilder sb, String s) {
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '\\' -> sb.append("\\\\");
+        case '"' -> sb.append("\\\"");
+        case '\n' -> sb.append("\\n");
+        case '\r' -> sb.append("\\r");
+        case '\t' -> sb.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            sb.append("\\u00")
+                .append(Character.forDigit(c >> 4, 16))
+                .append(Character.forDigit(c & 0xF, 16));
+          } else {
+            sb.append(c);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package org.hammer.audio.headless;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Configuration of a {@link HeadlessRuntime}, usually parsed from the command line by {@link
+ * #parse(String...)}.
+ *
+ * @param replay {@code .aar} recording to analyze, or {@code null} to capture from a sound card
+ * @param mixer substring of the capture mixer name, or {@code null} for the system default
+ * @param sampleRate capture sample rate in Hz
+ * @param sampleSizeInBits capture sample size in bits
+ * @param channels capture channel count
+ * @param blockFrames frames per capture block
+ * @param analyzers analysis modules to run in addition to the diagnosis
+ * @param fftSize FFT size of the spectrum and spectrogram analyzers; a power of two
+ * @param reportIntervalMillis stream time between two result lines
+ * @param durationMillis stream time after which the runtime stops, or {@code 0} to run until
+ *     stopped
+ * @param recording {@code .aar} file receiving every analyzed block, or {@code null}
+ * @param results JSON-lines result file, or {@code null} for standard output
+ * @author refactoring
+ */
+public record HeadlessConfig(
+    Path replay,
+    String mixer,
+    float sampleRate,
+    int sampleSizeInBits,
+    int channels,
+    int blockFrames,
+    Set<Analyzer> analyzers,
+    int fftSize,
+    long reportIntervalMillis,
+    long durationMillis,
+    Path recording,
+    Path results) {
+
+  /** Analysis modules the headless runtime can run on every block. */
+  public enum Analyzer {
+    /** {@link org.hammer.audio.analysis.SpectrumAnalyzer} on channel 0. */
+    SPECTRUM,
+    /** {@link org.hammer.audio.spectrogram.SpectrogramAnalyzer} on channel 0. */
+    SPECTROGRAM,
+    /** {@link org.hammer.audio.analysis.RmsPeakAnalyzer} on every channel. */
+    RMS_PEAK,
+    /** {@link org.hammer.audio.localization.StereoDelayAnalyzer} on channels 0 and 1. */
+    STEREO_DELAY;
+
+    /** Command-line name, e.g. {@code stereo-delay}. */
+    public String optionName() {
+      return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    static Analyzer ofOptionName(String name) {
+      for (Analyzer analyzer : values()) {
+        if (analyzer.optionName().equals(name)) {
+          return analyzer;
+        }
+      }
+      throw new IllegalArgumentException("unknown analyzer: " + name);
+    }
+  }
+
+  /** Command-line synopsis printed on invalid arguments. */
+  public static final String USAGE =
+      String.join(
+          System.lineSeparator(),
+          "usage: HeadlessMain [--replay FILE.aar | --capture [--mixer NAME]] [options]",
+          "  --rate HZ            capture sample rate (default 48000)",
+          "  --bits N             capture sample size (default 16)",
+          "  --channels N         capture channels (default 1)",
+          "  --block FRAMES       capture block size (default 1024)",
+          "  --analyzers LIST     comma-separated: spectrum,spectrogram,rms-peak,stereo-delay",
+          "                       (default spectrum,spectrogram,rms-peak)",
+          "  --fft N              FFT size, a power of two (default 1024)",
+          "  --report-ms MS       stream time between result lines (default 1000)",
+          "  --duration-ms MS     stop after this much stream time (default: until signalled)",
+          "  --record FILE.aar    record every analyzed block",
+          "  --results FILE       JSON-lines results (default: standard output)");
+
+  /** Validate the configuration. */
+  public HeadlessConfig {
+    if (!(sampleRate > 0f) || Float.isInfinite(sampleRate)) {
+      throw new IllegalArgumentException("sampleRate must be finite and > 0");
+    }
+    if (sampleSizeInBits < 8 || sampleSizeInBits > 32 || sampleSizeInBits % 8 != 0) {
+      throw new IllegalArgumentException("sampleSizeInBits must be 8, 16, 24 or 32");
+    }
+    if (channels < 1) {
+      throw new IllegalArgumentException("channels must be >= 1");
+    }
+    if (blockFrames < 1) {
+      throw new IllegalArgumentException("blockFrames must be >= 1");
+    }
+    if (fftSize < 2 || Integer.bitCount(fftSize) != 1) {
+      throw new IllegalArgumentException("fftSize must be a power of two >= 2, was " + fftSize);
+    }
+    if (reportIntervalMillis < 1) {
+      throw new IllegalArgumentException("reportIntervalMillis must be >= 1");
+    }
+    if (durationMillis < 0) {
+      throw new IllegalArgumentException("durationMillis must be >= 0");
+    }
+    analyzers =
+        analyzers.isEmpty() ? Set.of() : Collections.unmodifiableSet(EnumSet.copyOf(analyzers));
+  }
+
+  /**
+   * Parse command-line arguments.
+   *
+   * @param args arguments as documented in {@link #USAGE}
+   * @return the configuration
+   * @throws IllegalArgumentException on unknown options or invalid values
+   */
+  public static HeadlessConfig parse(String... args) {
+    Path replay = null;
+    String mixer = null;
+    float sampleRate = 48000f;
+    int bits = 16;
+    int channels = 1;
+    int block = 1024;
+    Set<Analyzer> analyzers =
+        EnumSet.of(Analyzer.SPECTRUM, Analyzer.SPECTROGRAM, Analyzer.RMS_PEAK);
+    int fft = 1024;
+    long reportMillis = 1000;
+    long durationMillis = 0;
+    Path recording = null;
+    Path results = null;
+    for (int i = 0; i < args.length; i++) {
+      String option = args[i];
+      switch (option) {
+        case "--capture" -> replay = null;
+        case "--replay" -> replay = Path.of(value(args, ++i, option));
+        case "--mixer" -> mixer = value(args, ++i, option);
+        case "--rate" -> sampleRate = Float.parseFloat(value(args, ++i, option));
+        case "--bits" -> bits = Integer.parseInt(value(args, ++i, option));
+        case "--channels" -> channels = Integer.parseInt(value(args, ++i, option));
+        case "--block" -> block = Integer.parseInt(value(args, ++i, option));
+        case "--analyzers" -> {
+          analyzers = EnumSet.noneOf(Analyzer.class);
+          for (String name : value(args, ++i, option).split(",")) {
+            if (!name.isBlank()) {
+              analyzers.add(Analyzer.ofOptionName(name.trim()));
+            }
+          }
+        }
+        case "--fft" -> fft = Integer.parseInt(value(args, ++i, option));
+        case "--report-ms" -> reportMillis = Long.parseLong(value(args, ++i, option));
+        case "--duration-ms" -> durationMillis = Long.parseLong(value(args, ++i, option));
+        case "--record" -> recording = Path.of(value(args, ++i, option));
+        case "--results" -> results = Path.of(value(args, ++i, option));
+        default -> throw new IllegalArgumentException("unknown option: " + option);
+      }
+    }
+    return new HeadlessConfig(
+        replay,
+        mixer,
+        sampleRate,
+        bits,
+        channels,
+        block,
+        analyzers,
+        fft,
+        reportMillis,
+        durationMillis,
+        recording,
+        results);
+  }
+
+  private static String value(String[] args, int index, String option) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException(option + " requires a value");
+    }
+    return args[index];
+  }
+}
@@ -0,0 +1,84 @@
+package org.hammer.audio.headless;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.hammer.audio.acquisition.MultiChannelAudioSource;
+import org.hammer.audio.recording.AudioBlockRecordingWriter;
+
+/**
+ * Command-line entry point of the headless runtime. Captures from a sound card (or replays an
+ * {@code .aar} recording), analyzes every block and writes JSON-lines results until the source
+ * ends, the configured duration elapses, or the process receives SIGINT / SIGTERM.
+ *
+ * <p>Exit status: {@code 0} on success or graceful shutdown, {@code 1} if a runtime stage failed,
+ * {@code 2} on invalid arguments.
+ *
+ * @author refactoring
+ */
+public final class HeadlessMain {
+
+  private HeadlessMain() {}
+
+  /**
+   * @param args options as documented in {@link HeadlessConfig#USAGE}
+   * @throws IOException if the source, recording or result file cannot be opened
+   * @throws InterruptedException if interrupted while waiting for the runtime
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    System.setProperty("java.awt.headless", "true");
+    HeadlessConfig config;
+    try {
+      config = HeadlessConfig.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(HeadlessConfig.USAGE);
+      System.exit(2);
+      return;
+    }
+    int status = run(config);
+    if (status != 0) {
+      System.exit(status);
+    }
+  }
+
+  /**
+   * Run one session to completion.
+   *
+   * @return process exit status
+   */
+  static int run(HeadlessConfig config) throws IOException, InterruptedException {
+    MultiChannelAudioSource source =
+        config.replay() != null
+            ? new RecordingReplaySource(config.replay())
+            : new JavaSoundCaptureSource(
+                config.mixer(), config.sampleRate(), config.sampleSizeInBits(), config.channels());
+    AudioBlockRecordingWriter recorder =
+        config.recording() == null ? null : AudioBlockRecordingWriter.open(config.recording());
+    Writer results =
+        config.results() == null
+            ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+            : Files.newBufferedWriter(config.results(), StandardCharsets.UTF_8);
+
+    HeadlessRuntime runtime =
+        new HeadlessRuntime(source, config, recorder, results, config.replay() != null);
+    Thread hook = new Thread(runtime::close, "headless-shutdown");
+    Runtime.getRuntime().addShutdownHook(hook);
+    runtime.start();
+    while (!runtime.awaitTermination(1, TimeUnit.SECONDS)) {
+      // Runs until the source ends or the duration elapses.
+    }
+    try {
+      Runtime.getRuntime().removeShutdownHook(hook);
+    } catch (IllegalStateException e) {
+      // Signalled: the hook is draining the runtime and System.exit would block behind it.
+      return 0;
+    }
+    runtime.close();
+    return runtime.failure().isPresent() ? 1 : 0;
+  }
+}
@@ -0,0 +1,326 @@
+package org.hammer.audio.headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.hammer.audio.acquisition.MultiChannelAudioSource;
+import org.hammer.audio.buffer.BroadcastRingBuffer;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.recording.AudioBlockRecordingWriter;
+
+/**
+ * Capture-and-analysis runtime without any UI: one source thread broadcasts blocks to an analysis
+ * thread and, optionally, a recorder thread.
+ *
+ * <p>Blocks travel through a {@link BroadcastRingBuffer} with a lossless subscriber per consumer,
+ * so the recorder and the analysis see the same blocks without copying them. The ring {@link
+ * AudioBlock#retain() retains} a pooled block once per subscriber it publishes the block to, and
+ * each consumer releases its reference when it is done. When a consumer falls a full ring behind, a
+ * live source keeps publishing rather than stall the sound card and only that consumer loses its
+ * oldest blocks (counted by {@link #blocksDropped()}), while a lossless source such as a replay
+ * waits.
+ *
+ * <p>{@link #close()} stops the source, lets both consumers drain what was already published,
+ * flushes the results and closes the recording, so an interrupted run still leaves valid files.
+ *
+ * <p>Thread-safety: {@link #start()} once; every other method may be called from any thread.
+ *
+ * @author refactoring
+ */
+public final class HeadlessRuntime implements AutoCloseable {
+
+  private static final Logger LOGGER = Logger.getLogger(HeadlessRuntime.class.getName());
+
+  /** Broadcast ring capacity in blocks. */
+  static final int RING_CAPACITY = 64;
+
+  private static final long POLL_MILLIS = 10;
+  private static final long RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+  private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+  private final MultiChannelAudioSource source;
+  private final HeadlessConfig config;
+  private final AudioBlockRecordingWriter recorder;
+  private final Writer results;
+  private final boolean lossless;
+  private final BroadcastRingBuffer<AudioBlock> ring = new BroadcastRingBuffer<>(RING_CAPACITY);
+  private final BroadcastRingBuffer.Subscriber<AudioBlock> analysisSubscriber;
+  private final BroadcastRingBuffer.Subscriber<AudioBlock> recorderSubscriber;
+  private final HeadlessAnalysis analysis;
+  private final List<Thread> threads = new ArrayList<>(3);
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final AtomicBoolean stopRequested = new AtomicBoolean();
+  private final AtomicLong blocksPublished = new AtomicLong();
+  private final AtomicLong blocksDropped = new AtomicLong();
+  private final AtomicLong blocksAnalyzed = new AtomicLong();
+  private volatile boolean sourceDone;
+  private volatile Throwable failure;
+
+  /**
+   * Create a runtime. Nothing runs until {@link #start()}; from then on the runtime owns and closes
+   * {@code source}, {@code recorder} and {@code results}.
+   *
+   * @param source block source
+   * @param config block size, analyzers, report interval and duration
+   * @param recorder recording of every published block, or {@code null}
+   * @param results destination of the JSON result lines
+   * @param lossless {@code true} to wait for slow consumers instead of dropping blocks
+   */
+  public HeadlessRuntime(
+      MultiChannelAudioSource source,
+      HeadlessConfig config,
+      AudioBlockRecordingWriter recorder,
+      Writer results,
+      boolean lossless) {
+    this.source = Objects.requireNonNull(source, "source");
+    this.config = Objects.requireNonNull(config, "config");
+    this.results = Objects.requireNonNull(results, "results");
+    this.recorder = recorder;
+    this.lossless = lossless;
+    AudioFormatDescriptor format = source.format();
+    this.analysis = new HeadlessAnalysis(config, format.channels(), format.sampleRate(), results);
+    ring.trackReferences(AudioBlock::retain, AudioBlock::release);
+    this.analysisSubscriber = ring.subscribe();
+    this.recorderSubscriber = recorder == null ? null : ring.subscribe();
+  }
+
+  /**
+   * Start the source, analysis and recorder threads.
+   *
+   * @throws IllegalStateException if already started
+   */
+  public void start() {
+    if (!started.compareAndSet(false, true)) {
+      throw new IllegalStateException("already started");
+    }
+    threads.add(new Thread(this::runAnalysis, "headless-analysis"));
+    if (recorderSubscriber != null) {
+      threads.add(new Thread(this::runRecorder, "headless-recorder"));
+    }
+    threads.add(new Thread(this::runSource, "headless-source"));
+    for (Thread thread : threads) {
+      thread.setDaemon(true);
+      thread.start();
+    }
+    LOGGER.info(
+        () -> "Headless runtime started: " + source.format() + ", analyzers " + config.analyzers());
+  }
+
+  /**
+   * Wait until the source has ended and both consumers have drained.
+   *
+   * @param timeout maximum time to wait
+   * @param unit unit of {@code timeout}
+   * @return {@code true} if every thread finished, {@code false} on timeout
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (Thread thread : threads) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return !anyAlive();
+      }
+      TimeUnit.NANOSECONDS.timedJoin(thread, remaining);
+    }
+    return !anyAlive();
+  }
+
+  private boolean anyAlive() {
+    for (Thread thread : threads) {
+      if (thread.isAlive()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stop reading and wait (up to five seconds) for the consumers to drain. Idempotent; safe to call
+   * from a shutdown hook.
+   */
+  @Override
+  public void close() {
+    stopRequested.set(true);
+    if (!started.get()) {
+      closeQuietly(source);
+      closeQuietly(recorder);
+      closeQuietly(results);
+      return;
+    }
+    try {
+      if (!awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.warning("Headless runtime did not drain within " + CLOSE_TIMEOUT_SECONDS + " s");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Blocks published to the consumers so far. */
+  public long blocksPublished() {
+    return blocksPublished.get();
+  }
+
+  /**
+   * Blocks lost by a consumer that was a full ring behind a live source, summed over consumers,
+   * plus blocks a lossless source gave up publishing after a failure.
+   */
+  public long blocksDropped() {
+    long lost = analysisSubscriber.missed();
+    if (recorderSubscriber != null) {
+      lost += recorderSubscriber.missed();
+    }
+    return blocksDropped.get() + lost;
+  }
+
+  /** Blocks the analysis thread has processed. */
+  public long blocksAnalyzed() {
+    return blocksAnalyzed.get();
+  }
+
+  /** Result lines written so far; read after {@link #awaitTermination} for an exact count. */
+  public long resultLines() {
+    return analysis.linesWritten();
+  }
+
+  /** First error raised by any runtime thread, or empty. */
+  public Optional<Throwable> failure() {
+    return Optional.ofNullable(failure);
+  }
+
+  private void runSource() {
+    long maxFrames =
+        config.durationMillis() == 0
+            ? Long.MAX_VALUE
+            : Math.round(config.durationMillis() * (double) source.format().sampleRate() / 1000.0);
+    long frames = 0;
+    try {
+      while (!stopRequested.get() && frames < maxFrames) {
+        Optional<AudioBlock> next = source.readBlock(config.blockFrames());
+        if (next.isEmpty()) {
+          break;
+        }
+        AudioBlock block = next.get();
+        frames += block.frames();
+        publish(block);
+      }
+    } catch (IOException | RuntimeException e) {
+      fail("source", e);
+    } finally {
+      sourceDone = true;
+      closeQuietly(source);
+    }
+  }
+
+  private void publish(AudioBlock block) {
+    try {
+      if (!lossless) {
+        ring.publish(block);
+        blocksPublished.incrementAndGet();
+        return;
+      }
+      while (!ring.offer(block)) {
+        if (failure != null) {
+          blocksDropped.incrementAndGet();
+          return;
+        }
+        LockSupport.parkNanos(RETRY_NANOS);
+      }
+      blocksPublished.incrementAndGet();
+    } finally {
+      block.release(); // the ring took a reference of its own for every subscriber
+    }
+  }
+
+  private void runAnalysis() {
+    try {
+      drain(
+          analysisSubscriber,
+          block -> {
+            analysis.accept(block);
+            blocksAnalyzed.incrementAndGet();
+          });
+      analysis.finish();
+    } catch (IOException | RuntimeException e) {
+      fail("analysis", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      analysisSubscriber.close();
+      closeQuietly(results);
+    }
+  }
+
+  private void runRecorder() {
+    try {
+      drain(recorderSubscriber, recorder::write);
+    } catch (IOException | RuntimeException e) {
+      fail("recorder", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      recorderSubscriber.close();
+      closeQuietly(recorder);
+    }
+  }
+
+  /** Hand every published block to {@code handler} until the source is done and drained. */
+  private void drain(BroadcastRingBuffer.Subscriber<AudioBlock> subscriber, BlockHandler handler)
+      throws IOException, InterruptedException {
+    while (true) {
+      AudioBlock block = subscriber.poll();
+      if (block == null) {
+        // Read the flag before polling again: the source publishes its last block first.
+        boolean done = sourceDone;
+        block = subscriber.poll();
+        if (block == null) {
+          if (done) {
+            return;
+          }
+          subscriber.awaitAvailable(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          continue;
+        }
+      }
+      try {
+        handler.accept(block);
+      } finally {
+        block.release();
+      }
+    }
+  }
+
+  private void fail(String stage, Throwable error) {
+    LOGGER.log(Level.SEVERE, "Headless " + stage + " failed", error);
+    if (failure == null) {
+      failure = error;
+    }
+    stopRequested.set(true);
+  }
+
+  private static void closeQuietly(AutoCloseable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Error while closing " + closeable, e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface BlockHandler {
+    void accept(AudioBlock block) throws IOException;
+  }
+}
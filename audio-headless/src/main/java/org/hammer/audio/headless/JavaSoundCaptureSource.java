@@ -0,0 +1,146 @@
+package org.hammer.audio.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.TargetDataLine;
+import org.hammer.audio.acquisition.Microphone;
+import org.hammer.audio.acquisition.MicrophoneArray;
+import org.hammer.audio.acquisition.MultiChannelAudioSource;
+import org.hammer.audio.capture.SampleDecoder;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.geometry.Vector2;
+
+/**
+ * Capture source reading one JavaSound {@link TargetDataLine}. Uses {@code javax.sound.sampled}
+ * only, so no AWT toolkit is ever initialized.
+ *
+ * <p>Blocks are drawn from an {@link AudioBlockPool}: each one must be {@link AudioBlock#release()
+ * released} by its last holder, after which its storage is reused for a later read. The channel
+ * geometry is unknown, so every microphone sits at the origin.
+ *
+ * <p>Thread-safety: {@link #readBlock(int)} belongs to one thread; {@link #close()} may be called
+ * from any thread and unblocks a pending read.
+ *
+ * @author refactoring
+ */
+public final class JavaSoundCaptureSource implements MultiChannelAudioSource {
+
+  /** Idle pooled buffers; covers the broadcast ring plus the blocks being processed. */
+  private static final int POOLED_BLOCKS = 96;
+
+  private final TargetDataLine line;
+  private final AudioFormatDescriptor format;
+  private final MicrophoneArray array;
+  private final SampleDecoder decoder;
+  private final AudioBlockPool pool;
+  private byte[] bytes = new byte[0];
+  private long frameIndex;
+  private volatile boolean closed;
+
+  /**
+   * Open and start a capture line.
+   *
+   * @param mixer substring of the mixer name (case-insensitive), or {@code null} for the default
+   * @param sampleRate sample rate in Hz
+   * @param sampleSizeInBits signed little-endian PCM sample size
+   * @param channels channel count
+   * @throws IllegalStateException if no matching mixer or line is available
+   */
+  public JavaSoundCaptureSource(
+      String mixer, float sampleRate, int sampleSizeInBits, int channels) {
+    AudioFormat lineFormat = new AudioFormat(sampleRate, sampleSizeInBits, channels, true, false);
+    DataLine.Info info = new DataLine.Info(TargetDataLine.class, lineFormat);
+    try {
+      line =
+          mixer == null
+              ? (TargetDataLine) AudioSystem.getLine(info)
+              : (TargetDataLine) findMixer(mixer).getLine(info);
+      line.open(lineFormat);
+    } catch (LineUnavailableException | IllegalArgumentException e) {
+      throw new IllegalStateException("Unable to open capture line for " + lineFormat, e);
+    }
+    line.start();
+    this.format = new AudioFormatDescriptor(sampleRate, channels, sampleSizeInBits);
+    this.decoder = new SampleDecoder(format, true, false);
+    this.pool = new AudioBlockPool(format, POOLED_BLOCKS);
+    this.array = channelArray(channels);
+  }
+
+  private static Mixer findMixer(String name) {
+    String needle = name.toLowerCase(Locale.ROOT);
+    for (Mixer.Info info : AudioSystem.getMixerInfo()) {
+      if (info.getName().toLowerCase(Locale.ROOT).contains(needle)) {
+        Mixer mixer = AudioSystem.getMixer(info);
+        if (mixer.getTargetLineInfo().length > 0) {
+          return mixer;
+        }
+      }
+    }
+    throw new IllegalStateException("No capture mixer matches \"" + name + "\"");
+  }
+
+  /** Microphone metadata for {@code channels} channels of unknown geometry. */
+  static MicrophoneArray channelArray(int channels) {
+    List<Microphone> microphones = new ArrayList<>(channels);
+    for (int c = 0; c < channels; c++) {
+      microphones.add(new Microphone("ch" + c, Vector2.ZERO, c));
+    }
+    return new MicrophoneArray(microphones);
+  }
+
+  @Override
+  public AudioFormatDescriptor format() {
+    return format;
+  }
+
+  @Override
+  public MicrophoneArray microphoneArray() {
+    return array;
+  }
+
+  @Override
+  public Optional<AudioBlock> readBlock(int frames) {
+    if (frames <= 0) {
+      throw new IllegalArgumentException("frames must be > 0");
+    }
+    int byteCount = frames * decoder.frameSize();
+    if (bytes.length != byteCount) {
+      bytes = new byte[byteCount];
+    }
+    int read = 0;
+    while (read < byteCount && !closed) {
+      int n = line.read(bytes, read, byteCount - read);
+      if (n <= 0 && !line.isOpen()) {
+        break;
+      }
+      read += Math.max(0, n);
+    }
+    if (read < byteCount) {
+      return Optional.empty();
+    }
+    // The last frame was captured just now; stamp the block with its first frame's time.
+    long timestamp = System.nanoTime() - Math.round(frames * 1_000_000_000.0 / format.sampleRate());
+    float[][] samples = pool.acquireSamples(frames);
+    decoder.decode(bytes, byteCount, samples);
+    AudioBlock block = pool.wrap(samples, frameIndex, timestamp);
+    frameIndex += frames;
+    return Optional.of(block);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    line.stop();
+    line.flush();
+    line.close();
+  }
+}
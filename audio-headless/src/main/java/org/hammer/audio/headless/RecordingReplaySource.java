@@ -0,0 +1,56 @@
+package org.hammer.audio.headless;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.hammer.audio.acquisition.MicrophoneArray;
+import org.hammer.audio.acquisition.MultiChannelAudioSource;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.recording.AudioBlockRecordingReader;
+
+/**
+ * Source streaming the blocks of an {@code .aar} recording as fast as they are consumed.
+ *
+ * <p>Recorded block boundaries are kept, so {@link #readBlock(int)} ignores the requested frame
+ * count and returns the next recorded block, frame index and timestamp included. The channel
+ * geometry is not recorded, so every microphone sits at the origin.
+ *
+ * @author refactoring
+ */
+public final class RecordingReplaySource implements MultiChannelAudioSource {
+
+  private final AudioBlockRecordingReader reader;
+  private final MicrophoneArray array;
+
+  /**
+   * Open a recording.
+   *
+   * @param file {@code .aar} recording
+   * @throws IOException if the file cannot be opened or has an invalid header
+   */
+  public RecordingReplaySource(Path file) throws IOException {
+    this.reader = AudioBlockRecordingReader.open(file);
+    this.array = JavaSoundCaptureSource.channelArray(reader.format().channels());
+  }
+
+  @Override
+  public AudioFormatDescriptor format() {
+    return reader.format();
+  }
+
+  @Override
+  public MicrophoneArray microphoneArray() {
+    return array;
+  }
+
+  @Override
+  public Optional<AudioBlock> readBlock(int frames) throws IOException {
+    return reader.next();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
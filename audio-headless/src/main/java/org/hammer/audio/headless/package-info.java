@@ -0,0 +1,2 @@
+/** Capture-and-analysis runtime for servers and embedded hosts without a display. */
+package org.hammer.audio.headless;
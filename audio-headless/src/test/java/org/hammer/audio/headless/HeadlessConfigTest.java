@@ -0,0 +1,61 @@
+package org.hammer.audio.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Set;
+import org.hammer.audio.headless.HeadlessConfig.Analyzer;
+import org.junit.jupiter.api.Test;
+
+class HeadlessConfigTest {
+
+  @Test
+  void defaults_capture_mono_with_the_spectral_analyzers() {
+    HeadlessConfig config = HeadlessConfig.parse();
+
+    assertNull(config.replay());
+    assertNull(config.mixer());
+    assertEquals(48000f, config.sampleRate());
+    assertEquals(16, config.sampleSizeInBits());
+    assertEquals(1, config.channels());
+    assertEquals(1024, config.blockFrames());
+    assertEquals(
+        Set.of(Analyzer.SPECTRUM, Analyzer.SPECTROGRAM, Analyzer.RMS_PEAK), config.analyzers());
+    assertEquals(1000, config.reportIntervalMillis());
+    assertEquals(0, config.durationMillis());
+  }
+
+  @Test
+  void parses_every_option() {
+    String args =
+        "--replay in.aar --rate 16000 --bits 24 --channels 2 --block 512"
+            + " --analyzers rms-peak,,stereo-delay --fft 2048 --report-ms 250"
+            + " --duration-ms 60000 --record out.aar --results out.jsonl --mixer USB";
+    HeadlessConfig config = HeadlessConfig.parse(args.split(" "));
+
+    assertEquals(Path.of("in.aar"), config.replay());
+    assertEquals("USB", config.mixer());
+    assertEquals(16000f, config.sampleRate());
+    assertEquals(24, config.sampleSizeInBits());
+    assertEquals(2, config.channels());
+    assertEquals(512, config.blockFrames());
+    assertEquals(Set.of(Analyzer.RMS_PEAK, Analyzer.STEREO_DELAY), config.analyzers());
+    assertEquals(2048, config.fftSize());
+    assertEquals(250, config.reportIntervalMillis());
+    assertEquals(60000, config.durationMillis());
+    assertEquals(Path.of("out.aar"), config.recording());
+    assertEquals(Path.of("out.jsonl"), config.results());
+    assertThrows(UnsupportedOperationException.class, () -> config.analyzers().clear());
+  }
+
+  @Test
+  void rejects_invalid_arguments() {
+    assertThrows(IllegalArgumentException.class, () -> HeadlessConfig.parse("--bogus"));
+    assertThrows(IllegalArgumentException.class, () -> HeadlessConfig.parse("--rate"));
+    assertThrows(IllegalArgumentException.class, () -> HeadlessConfig.parse("--fft", "1000"));
+    assertThrows(IllegalArgumentException.class, () -> HeadlessConfig.parse("--bits", "12"));
+    assertThrows(IllegalArgumentException.class, () -> HeadlessConfig.parse("--channels", "0"));
+    assertThrows(IllegalArgumentException.class, () -> HeadlessConfig.parse("--analyzers", "fft"));
+    assertThrows(NumberFormatException.class, () -> HeadlessConfig.parse("--block", "many"));
+  }
+}
@@ -0,0 +1,143 @@
+package org.hammer.audio.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.hammer.audio.acquisition.MicrophoneArray;
+import org.hammer.audio.acquisition.MultiChannelAudioSource;
+import org.hammer.audio.core.AudioBlock;
+import org.hammer.audio.core.AudioBlockPool;
+import org.hammer.audio.core.AudioFormatDescriptor;
+import org.hammer.audio.recording.AudioBlockRecordingReader;
+import org.hammer.audio.recording.AudioBlockRecordingWriter;
+import org.hammer.audio.signal.SineGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HeadlessRuntimeTest {
+
+  private static final AudioFormatDescriptor STEREO = new AudioFormatDescriptor(48000f, 2, 16);
+
+  @TempDir Path dir;
+
+  @Test
+  void analyzes_and_records_every_block_of_a_finite_source() throws Exception {
+    SineSource source = new SineSource(50);
+    Path recording = dir.resolve("run.aar");
+    StringWriter results = new StringWriter();
+    HeadlessConfig config =
+        HeadlessConfig.parse("--analyzers", "spectrum,rms-peak,stereo-delay", "--report-ms", "100");
+    HeadlessRuntime runtime =
+        new HeadlessRuntime(
+            source, config, AudioBlockRecordingWriter.open(recording), results, true);
+
+    runtime.start();
+    assertTrue(runtime.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(50, runtime.blocksPublished());
+    assertEquals(50, runtime.blocksAnalyzed());
+    assertEquals(0, runtime.blocksDropped());
+    assertTrue(runtime.failure().isEmpty());
+    assertTrue(source.closed);
+    // 50 * 1024 frames = ten full 4800-frame intervals plus a partial one reported at the end.
+    String[] lines = results.toString().split("\n");
+    assertEquals(11, lines.length);
+    assertEquals(11, runtime.resultLines());
+    for (String line : lines) {
+      assertTrue(line.startsWith("{\"frameIndex\":"), line);
+      assertTrue(line.endsWith("]}"), line);
+      assertTrue(line.contains("\"dominantHz\":1031.25"), line);
+      assertTrue(line.contains("\"delayMillis\":0.0"), line);
+    }
+    assertTrue(lines[10].startsWith("{\"frameIndex\":" + 49 * 1024 + ","));
+
+    List<AudioBlock> recorded = AudioBlockRecordingReader.readAll(recording);
+    SineGenerator expected = new SineGenerator(STEREO, SineSource.FREQUENCY_HZ, 0.5f);
+    assertEquals(50, recorded.size());
+    for (AudioBlock block : recorded) {
+      AudioBlock reference = expected.nextBlock(1024);
+      assertEquals(reference.frameIndex(), block.frameIndex());
+      assertArrayEquals(reference.channelView(1), block.channelView(1), 1e-4f);
+    }
+    assertEquals(source.pool.allocations(), source.pool.idleCount(), "every block released");
+  }
+
+  @Test
+  void stops_after_the_configured_duration() throws Exception {
+    SineSource source = new SineSource(Integer.MAX_VALUE);
+    HeadlessConfig config = HeadlessConfig.parse("--duration-ms", "500");
+    HeadlessRuntime runtime = new HeadlessRuntime(source, config, null, new StringWriter(), true);
+
+    runtime.start();
+    assertTrue(runtime.awaitTermination(10, TimeUnit.SECONDS));
+
+    // 24000 frames are reached inside the 24th block.
+    assertEquals(24, runtime.blocksPublished());
+    assertTrue(source.closed);
+  }
+
+  @Test
+  void close_stops_a_live_source_and_flushes_the_results() throws Exception {
+    SineSource source = new SineSource(Integer.MAX_VALUE);
+    StringWriter results = new StringWriter();
+    HeadlessRuntime runtime =
+        new HeadlessRuntime(
+            source, HeadlessConfig.parse("--report-ms", "50"), null, results, false);
+
+    runtime.start();
+    while (runtime.blocksAnalyzed() < 20) {
+      Thread.sleep(1);
+    }
+    runtime.close();
+    runtime.close();
+
+    assertTrue(runtime.awaitTermination(0, TimeUnit.SECONDS));
+    assertTrue(source.closed);
+    assertEquals(runtime.blocksPublished(), runtime.blocksAnalyzed() + runtime.blocksDropped());
+    assertTrue(runtime.resultLines() > 0);
+    assertEquals(runtime.resultLines(), results.toString().lines().count());
+    assertThrows(IllegalStateException.class, runtime::start);
+  }
+
+  /** Pooled 1031.25 Hz sine (bin 22 of a 1024-point FFT at 48 kHz) on both channels. */
+  private static final class SineSource implements MultiChannelAudioSource {
+    static final double FREQUENCY_HZ = 48000.0 * 22 / 1024;
+
+    final AudioBlockPool pool = new AudioBlockPool(STEREO, 256);
+    private final SineGenerator generator = new SineGenerator(STEREO, FREQUENCY_HZ, 0.5f);
+    private int remaining;
+    volatile boolean closed;
+
+    SineSource(int blocks) {
+      this.remaining = blocks;
+      generator.setBlockPool(pool);
+    }
+
+    @Override
+    public AudioFormatDescriptor format() {
+      return STEREO;
+    }
+
+    @Override
+    public MicrophoneArray microphoneArray() {
+      return JavaSoundCaptureSource.channelArray(2);
+    }
+
+    @Override
+    public Optional<AudioBlock> readBlock(int frames) {
+      if (remaining-- <= 0) {
+        return Optional.empty();
+      }
+      return Optional.of(generator.nextBlock(frames));
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}